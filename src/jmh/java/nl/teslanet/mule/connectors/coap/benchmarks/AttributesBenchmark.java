@@ -0,0 +1,95 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.benchmarks;
+
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.californium.core.coap.Option;
+import org.eclipse.californium.core.coap.OptionSet;
+import org.eclipse.californium.core.coap.option.IntegerOptionDefinition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import nl.teslanet.mule.connectors.coap.internal.attributes.CoapRequestOptionsAttributesImpl;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidOptionValueException;
+
+
+/**
+ * Benchmarks of attribute creation and parsing done for inbound messages.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Fork( 1 )
+@Warmup( iterations= 3, time= 2 )
+@Measurement( iterations= 5, time= 2 )
+public class AttributesBenchmark
+{
+    /**
+     * Options of a typical inbound request.
+     */
+    private OptionSet optionSet;
+
+    @Setup
+    public void setup()
+    {
+        optionSet= new OptionSet();
+        optionSet.setContentFormat( 50 );
+        optionSet.setAccept( 50 );
+        optionSet.addETag( new byte[] { 1, 2, 3, 4 } );
+        optionSet.addIfMatch( new byte[] { 5, 6 } );
+        optionSet.setUriHost( "sensors.example.com" );
+        optionSet.setUriPort( 5683 );
+        optionSet.setUriPath( "/building/floor1/room12/temperature" );
+        optionSet.setUriQuery( "unit=celsius&precision=1" );
+        optionSet.setObserve( 7 );
+        optionSet.addOtherOption( new Option( new IntegerOptionDefinition( 65001, "X", false ), 401 ) );
+    }
+
+    @Benchmark
+    public CoapRequestOptionsAttributesImpl createRequestOptions() throws InternalInvalidOptionValueException
+    {
+        return new CoapRequestOptionsAttributesImpl( optionSet );
+    }
+
+    @Benchmark
+    public void createAndReadRequestOptions( Blackhole blackhole ) throws InternalInvalidOptionValueException
+    {
+        CoapRequestOptionsAttributesImpl attributes= new CoapRequestOptionsAttributesImpl( optionSet );
+        blackhole.consume( attributes.getEtags() );
+        blackhole.consume( attributes.getIfMatch() );
+        blackhole.consume( attributes.getUriPath() );
+        blackhole.consume( attributes.getUriQuery() );
+        blackhole.consume( attributes.getOther() );
+    }
+}
@@ -0,0 +1,160 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.benchmarks;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.californium.core.CoapResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.teslanet.mule.connectors.coap.api.ResourceParams;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalResourceRegistryException;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalResourceUriException;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalUriPatternException;
+import nl.teslanet.mule.connectors.coap.internal.server.OperationalListener;
+import nl.teslanet.mule.connectors.coap.internal.server.RequestCodeFlags;
+import nl.teslanet.mule.connectors.coap.internal.server.ResourceRegistry;
+import nl.teslanet.mule.connectors.coap.internal.server.ServedResource;
+import nl.teslanet.mule.connectors.coap.test.server.modules.TestSourceCallBack;
+
+
+/**
+ * Benchmarks of resource lookup and listener binding in a registry with many resources.
+ * The resources are organized in groups of hundred: /group{n}/resource{m}.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Fork( 1 )
+@Warmup( iterations= 3, time= 2 )
+@Measurement( iterations= 5, time= 2 )
+public class RegistryBenchmark
+{
+    /**
+     * Number of resources in the registry.
+     */
+    @Param( { "100", "1000", "10000" } )
+    public int resourceCount;
+
+    /**
+     * The registry to benchmark.
+     */
+    private ResourceRegistry registry;
+
+    /**
+     * Listener bound to a single resource.
+     */
+    private OperationalListener exactListener;
+
+    /**
+     * Listener bound to a group of resources.
+     */
+    private OperationalListener groupListener;
+
+    /**
+     * Uri of a resource in the middle of the registry.
+     */
+    private String resourceUri;
+
+    /**
+     * Pattern matching a group in the middle of the registry.
+     */
+    private String groupPattern;
+
+    @Setup
+    public void setup() throws InternalResourceRegistryException, InternalResourceUriException, InternalUriPatternException
+    {
+        registry= new ResourceRegistry( new CoapResource( "" ) );
+        List< ResourceParams > resources= new ArrayList<>();
+        int groups= ( resourceCount + 99 ) / 100;
+        for ( int group= 0; group < groups; group++ )
+        {
+            ResourceParams params= new ResourceParams();
+            params.setResourcePath( "/group" + group );
+            resources.add( params );
+        }
+        for ( int i= 0; i < resourceCount; i++ )
+        {
+            ResourceParams params= new ResourceParams();
+            params.setResourcePath( "/group" + ( i / 100 ) + "/resource" + i );
+            resources.add( params );
+        }
+        registry.add( resources );
+        RequestCodeFlags flags= new RequestCodeFlags( true, true, true, true, false, false, false );
+        TestSourceCallBack callback= new TestSourceCallBack();
+        registry.add( new OperationalListener( "/*", flags, callback ) );
+
+        int middle= resourceCount / 2;
+        resourceUri= "/group" + ( middle / 100 ) + "/resource" + middle;
+        groupPattern= "/group" + ( middle / 100 ) + "/*";
+        exactListener= new OperationalListener( resourceUri, flags, callback );
+        groupListener= new OperationalListener( groupPattern, flags, callback );
+    }
+
+    @Benchmark
+    public ServedResource getResource() throws InternalResourceUriException
+    {
+        return registry.getResource( resourceUri );
+    }
+
+    @Benchmark
+    public List< ServedResource > findResourcesExact()
+    {
+        return registry.findResources( resourceUri );
+    }
+
+    @Benchmark
+    public List< ServedResource > findResourcesGroup()
+    {
+        return registry.findResources( groupPattern );
+    }
+
+    @Benchmark
+    public ResourceRegistry bindExactListener() throws InternalUriPatternException
+    {
+        registry.add( exactListener );
+        registry.remove( exactListener );
+        return registry;
+    }
+
+    @Benchmark
+    public ResourceRegistry bindGroupListener() throws InternalUriPatternException
+    {
+        registry.add( groupListener );
+        registry.remove( groupListener );
+        return registry;
+    }
+}
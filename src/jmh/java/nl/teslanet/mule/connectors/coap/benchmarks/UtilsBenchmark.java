@@ -0,0 +1,139 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.benchmarks;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.californium.core.coap.OptionSet;
+import org.mule.runtime.api.metadata.TypedValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.teslanet.mule.connectors.coap.api.options.EntityTag;
+import nl.teslanet.mule.connectors.coap.api.options.RequestOptionsParams;
+import nl.teslanet.mule.connectors.coap.api.options.RequireResponse;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidDurationException;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidOptionValueException;
+import nl.teslanet.mule.connectors.coap.internal.utils.MessageUtils;
+import nl.teslanet.mule.connectors.coap.internal.utils.TimeUtils;
+
+
+/**
+ * Benchmarks of message and time utilities that are used on every request.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Fork( 1 )
+@Warmup( iterations= 3, time= 2 )
+@Measurement( iterations= 5, time= 2 )
+public class UtilsBenchmark
+{
+    /**
+     * Request options to copy.
+     */
+    private RequestOptionsParams requestOptions;
+
+    /**
+     * String payload to convert.
+     */
+    private TypedValue< Object > stringPayload;
+
+    /**
+     * Byte array payload to convert.
+     */
+    private TypedValue< Object > bytesPayload;
+
+    /**
+     * Integer value to convert.
+     */
+    private Object intValue;
+
+    @Setup
+    public void setup()
+    {
+        requestOptions= new RequestOptionsParams();
+        requestOptions.setContentFormat( 50 );
+        requestOptions.setAccept( 50 );
+        requestOptions.setIfNoneMatch( true );
+        requestOptions.setRequestSize( 1024 );
+        List< EntityTag > etags= new ArrayList<>();
+        for ( int i= 1; i <= 3; i++ )
+        {
+            EntityTag etag= new EntityTag();
+            etag.setValue( TypedValue.of( new byte[] { (byte) i, (byte) ( i + 1 ) } ) );
+            etags.add( etag );
+        }
+        requestOptions.setEntityTagOptions( etags );
+        RequireResponse requireResponse= new RequireResponse();
+        requireResponse.setSuccess( true );
+        requestOptions.setRequireResponse( requireResponse );
+
+        stringPayload= TypedValue.of( "{ \"temperature\": 21.5, \"humidity\": 48 }" );
+        bytesPayload= TypedValue.of( new byte[ 64 ] );
+        intValue= Integer.valueOf( 123456 );
+    }
+
+    @Benchmark
+    public OptionSet copyOptions() throws InternalInvalidOptionValueException
+    {
+        OptionSet optionSet= new OptionSet();
+        MessageUtils.copyOptions( requestOptions, optionSet, null );
+        return optionSet;
+    }
+
+    @Benchmark
+    public byte[] stringToBytes()
+    {
+        return MessageUtils.toBytes( stringPayload, null );
+    }
+
+    @Benchmark
+    public byte[] bytesToBytes()
+    {
+        return MessageUtils.toBytes( bytesPayload, null );
+    }
+
+    @Benchmark
+    public byte[] integerToBytes()
+    {
+        return MessageUtils.toBytes( intValue, null );
+    }
+
+    @Benchmark
+    public long toNanos() throws InternalInvalidDurationException
+    {
+        return TimeUtils.toNanos( "1h30s250ms" );
+    }
+}
@@ -0,0 +1,121 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.internal.client;
+
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.californium.core.coap.Request;
+import org.mule.runtime.api.metadata.TypedValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.teslanet.mule.connectors.coap.api.CoapRequestCode;
+import nl.teslanet.mule.connectors.coap.api.RequestParams;
+import nl.teslanet.mule.connectors.coap.api.config.endpoint.UDPEndpoint;
+import nl.teslanet.mule.connectors.coap.api.options.RequestOptionsParams;
+import nl.teslanet.mule.connectors.coap.internal.endpoint.OperationalEndpoint;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.EndpointConstructionException;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidOptionValueException;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidRequestCodeException;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalRequestException;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalUnkownOptionException;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalUriException;
+
+
+/**
+ * Benchmark of building requests from operation parameters and client defaults.
+ * The benchmark resides in the client package to reach the package private request builder.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Fork( 1 )
+@Warmup( iterations= 3, time= 2 )
+@Measurement( iterations= 5, time= 2 )
+public class RequestBuilderBenchmark
+{
+    /**
+     * The client the requests are built for, which is not started.
+     */
+    private Client client;
+
+    /**
+     * Request parameters.
+     */
+    private RequestParams requestParams;
+
+    /**
+     * Request options.
+     */
+    private RequestOptionsParams requestOptions;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException, EndpointConstructionException
+    {
+        ClientConfig clientConfig= new ClientConfig();
+        clientConfig.setHost( "127.0.0.1" );
+        clientConfig.setPort( 5683 );
+        client= new Client();
+        Field field= Client.class.getDeclaredField( "clientConfig" );
+        field.setAccessible( true );
+        field.set( client, clientConfig );
+        //the scheme is normally taken from the endpoint on start
+        field= Client.class.getDeclaredField( "scheme" );
+        field.setAccessible( true );
+        field.set( client, "coap" );
+        //the endpoint is created but not started
+        field= Client.class.getDeclaredField( "operationalEndpoint" );
+        field.setAccessible( true );
+        field.set( client, OperationalEndpoint.getOrCreate( client, new UDPEndpoint( "benchmark-endpoint" ) ) );
+
+        requestParams= new RequestParams();
+        requestParams.setRequestCode( CoapRequestCode.PUT );
+        requestParams.setPath( "/building/floor1/room12/setpoint" );
+        requestParams.setRequestPayload( TypedValue.of( "{ \"temperature\": 21.5 }" ) );
+        requestOptions= new RequestOptionsParams();
+        requestOptions.setContentFormat( 50 );
+        requestOptions.setAccept( 50 );
+        requestOptions.setOtherOptions( Collections.emptyList() );
+    }
+
+    @Benchmark
+    public Request build() throws InternalInvalidRequestCodeException,
+        InternalUriException,
+        InternalRequestException,
+        InternalInvalidOptionValueException,
+        InternalUnkownOptionException
+    {
+        return client.new CoapRequestBuilderImpl( requestParams, requestOptions ).build();
+    }
+}
@@ -0,0 +1,70 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.load;
+
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Counts events reported by the flows of the load harness.
+ */
+public class LoadProbe
+{
+    /**
+     * Number of observe responses received.
+     */
+    private static final AtomicLong notifications= new AtomicLong();
+
+    /**
+     * Do not create objects.
+     */
+    private LoadProbe()
+    {
+        //NOOP
+    }
+
+    /**
+     * Register the reception of an observe response.
+     */
+    public static void notified()
+    {
+        notifications.incrementAndGet();
+    }
+
+    /**
+     * @return The number of observe responses received.
+     */
+    public static long getNotifications()
+    {
+        return notifications.get();
+    }
+
+    /**
+     * Reset the counters.
+     */
+    public static void reset()
+    {
+        notifications.set( 0L );
+    }
+}
@@ -0,0 +1,291 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.load;
+
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.mule.runtime.api.event.Event;
+import org.mule.test.runner.RunnerDelegateTo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import nl.teslanet.mule.connectors.coap.api.CoapRequestType;
+import nl.teslanet.mule.connectors.coap.api.attributes.CoapResponseAttributes;
+import nl.teslanet.mule.connectors.coap.test.utils.AbstractTestCase;
+
+
+/**
+ * Loopback load harness that drives a connector server from a connector client in one process,
+ * over UDP and DTLS on 127.0.0.1. It reports throughput and latency percentiles of requests, 
+ * and the rate of observe notifications. Run it with:
+ * <pre>
+ * mvn -Pbenchmark test -Dtest=LoopbackLoadTest
+ * </pre>
+ * The load is configured with system properties:
+ * <ul>
+ * <li>load.resources: number of resources served, default 100</li>
+ * <li>load.concurrency: number of concurrent requesters, default 8</li>
+ * <li>load.requests: number of requests per requester, default 2000</li>
+ * <li>load.payloadSize: request payload size in bytes, default 64</li>
+ * <li>load.nonRatio: fraction of non-confirmable requests 0.0 .. 1.0, default 0.0</li>
+ * <li>load.observers: number of observed resources, default 10</li>
+ * <li>load.notifyRounds: number of notifications per observed resource, default 100</li>
+ * </ul>
+ */
+@RunnerDelegateTo( Parameterized.class )
+public class LoopbackLoadTest extends AbstractTestCase
+{
+    /**
+     * The logger of the harness.
+     */
+    private static final Logger LOGGER= LoggerFactory.getLogger( LoopbackLoadTest.class );
+
+    /**
+     * Number of resources served.
+     */
+    private static final int RESOURCES= Integer.getInteger( "load.resources", 100 );
+
+    /**
+     * Number of concurrent requesters.
+     */
+    private static final int CONCURRENCY= Integer.getInteger( "load.concurrency", 8 );
+
+    /**
+     * Number of requests per requester.
+     */
+    private static final int REQUESTS= Integer.getInteger( "load.requests", 2000 );
+
+    /**
+     * Size of the request payloads.
+     */
+    private static final int PAYLOAD_SIZE= Integer.getInteger( "load.payloadSize", 64 );
+
+    /**
+     * Fraction of non-confirmable requests.
+     */
+    private static final double NON_RATIO= Double.parseDouble( System.getProperty( "load.nonRatio", "0.0" ) );
+
+    /**
+     * Number of observed resources.
+     */
+    private static final int OBSERVERS= Integer.getInteger( "load.observers", 10 );
+
+    /**
+     * Number of notifications per observed resource.
+     */
+    private static final int NOTIFY_ROUNDS= Integer.getInteger( "load.notifyRounds", 100 );
+
+    /**
+     * Time without notifications after which the remaining notifications are considered skipped.
+     */
+    private static final long QUIET_PERIOD= TimeUnit.SECONDS.toNanos( 2 );
+
+    @Parameters( name= "config= {0}" )
+    public static Collection< Object[] > data()
+    {
+        return Arrays
+            .asList(
+                new Object [] []
+                {
+                    { "mule-load-config/loopback-udp.xml" },
+                    { "mule-load-config/loopback-dtls.xml" } }
+            );
+    }
+
+    /**
+     * The configuration to load.
+     */
+    @Parameter( 0 )
+    public String configResource;
+
+    /* (non-Javadoc)
+     * @see org.mule.munit.runner.functional.FunctionalMunitSuite#getConfigResources()
+     */
+    @Override
+    protected String getConfigResources()
+    {
+        return configResource;
+    }
+
+    @Test( timeout= 600000L )
+    public void load() throws Exception
+    {
+        flowRunner( "add_resources" ).withVariable( "count", RESOURCES ).run();
+        runRequests();
+        runNotifications();
+    }
+
+    /**
+     * Issue requests from concurrent requesters and report latency and throughput.
+     * @throws Exception When the load could not be run.
+     */
+    private void runRequests() throws Exception
+    {
+        byte[] payload= new byte [PAYLOAD_SIZE];
+        Arrays.fill( payload, (byte) 'x' );
+        AtomicInteger failures= new AtomicInteger();
+        ExecutorService executor= Executors.newFixedThreadPool( CONCURRENCY );
+        List< Future< long[] > > results= new ArrayList<>();
+        long start= System.nanoTime();
+        try
+        {
+            for ( int i= 0; i < CONCURRENCY; i++ )
+            {
+                Callable< long[] > requester= () -> {
+                    long[] latencies= new long [REQUESTS];
+                    ThreadLocalRandom random= ThreadLocalRandom.current();
+                    for ( int j= 0; j < REQUESTS; j++ )
+                    {
+                        String path= "/load/r" + ( 1 + random.nextInt( RESOURCES ) );
+                        CoapRequestType type= random.nextDouble() < NON_RATIO ? CoapRequestType.NON_CONFIRMABLE
+                            : CoapRequestType.CONFIRMABLE;
+                        long requestStart= System.nanoTime();
+                        Event result= flowRunner( "request" )
+                            .withPayload( payload )
+                            .withVariable( "path", path )
+                            .withVariable( "type", type )
+                            .run();
+                        latencies[j]= System.nanoTime() - requestStart;
+                        CoapResponseAttributes attributes= (CoapResponseAttributes) result
+                            .getMessage()
+                            .getAttributes()
+                            .getValue();
+                        if ( !attributes.isSuccess() ) failures.incrementAndGet();
+                    }
+                    return latencies;
+                };
+                results.add( executor.submit( requester ) );
+            }
+            long[] all= new long [CONCURRENCY * REQUESTS];
+            int offset= 0;
+            for ( Future< long[] > result : results )
+            {
+                long[] latencies= result.get();
+                System.arraycopy( latencies, 0, all, offset, latencies.length );
+                offset+= latencies.length;
+            }
+            long elapsed= System.nanoTime() - start;
+            Arrays.sort( all );
+            LOGGER
+                .info(
+                    "{}: {} requests, concurrency {}, payload {} bytes, non ratio {}: {} msgs/s, latency p50= {} us, p99= {} us, p999= {} us, max= {} us",
+                    configResource,
+                    all.length,
+                    CONCURRENCY,
+                    PAYLOAD_SIZE,
+                    NON_RATIO,
+                    String.format( "%.1f", all.length * 1e9 / elapsed ),
+                    percentile( all, 0.50 ) / 1000,
+                    percentile( all, 0.99 ) / 1000,
+                    percentile( all, 0.999 ) / 1000,
+                    all[all.length - 1] / 1000
+                );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+        assertEquals( "requests failed", 0, failures.get() );
+    }
+
+    /**
+     * Observe resources and report the rate of notifications when they all change repeatedly.
+     * @throws Exception When the load could not be run.
+     */
+    private void runNotifications() throws Exception
+    {
+        int observers= Math.min( OBSERVERS, RESOURCES );
+        LoadProbe.reset();
+        for ( int i= 1; i <= observers; i++ )
+        {
+            flowRunner( "observer_add" ).withVariable( "path", "/load/r" + i ).run();
+        }
+        // initial responses of the observe requests
+        await().atMost( 30, TimeUnit.SECONDS ).until( () -> LoadProbe.getNotifications() >= observers );
+        LoadProbe.reset();
+        long expected= (long) observers * NOTIFY_ROUNDS;
+        long start= System.nanoTime();
+        for ( int round= 0; round < NOTIFY_ROUNDS; round++ )
+        {
+            flowRunner( "notify" ).run();
+        }
+        // notifications of a resource that changes faster than its observer is updated may be skipped,
+        // so wait until all are received or no more arrive
+        long received= 0L;
+        long lastReceived= start;
+        while ( received < expected && System.nanoTime() - lastReceived < QUIET_PERIOD )
+        {
+            Thread.sleep( 10 );
+            long count= LoadProbe.getNotifications();
+            if ( count != received )
+            {
+                received= count;
+                lastReceived= System.nanoTime();
+            }
+        }
+        long elapsed= Math.max( 1L, lastReceived - start );
+        LOGGER
+            .info(
+                "{}: {} observers, {} notify rounds: {} notifications received, {} notifications/s",
+                configResource,
+                observers,
+                NOTIFY_ROUNDS,
+                received,
+                String.format( "%.1f", received * 1e9 / elapsed )
+            );
+        for ( int i= 1; i <= observers; i++ )
+        {
+            flowRunner( "observer_remove" ).withVariable( "path", "/load/r" + i ).run();
+        }
+    }
+
+    /**
+     * Get a percentile of sorted values.
+     * @param sorted The sorted values.
+     * @param fraction The percentile as fraction.
+     * @return The value at the percentile.
+     */
+    private static long percentile( long[] sorted, double fraction )
+    {
+        int index= (int) Math.ceil( fraction * sorted.length ) - 1;
+        return sorted[Math.max( 0, Math.min( index, sorted.length - 1 ) )];
+    }
+}
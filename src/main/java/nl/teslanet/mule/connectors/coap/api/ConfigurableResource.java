@@ -73,6 +73,21 @@ public interface ConfigurableResource
      */
     public boolean isEarlyAck();
 
+    /**
+     * @return The sharedNotifications flag.
+     */
+    public boolean isSharedNotifications();
+
+    /**
+     * @return The minimum interval between notification rounds.
+     */
+    public String getNotificationMinInterval();
+
+    /**
+     * @return The maximum number of notification rounds per second.
+     */
+    public Integer getNotificationMaxRate();
+
     /**
      * @return The configured CoRE info.
      */
@@ -0,0 +1,478 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.api;
+
+
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Statistics of an endpoint, its exchanges and the flows it dispatches requests to.
+ * Counters are cumulative since the endpoint was created.
+ */
+public class EndpointStats
+{
+    /**
+     * The name of the endpoint.
+     */
+    private String name;
+
+    /**
+     * The number of requests sent, retransmissions excluded.
+     */
+    private long requestsSent= 0L;
+
+    /**
+     * The number of responses sent, retransmissions excluded.
+     */
+    private long responsesSent= 0L;
+
+    /**
+     * The number of empty messages sent, such as acknowledgements and resets.
+     */
+    private long emptyMessagesSent= 0L;
+
+    /**
+     * The number of requests received, duplicates excluded.
+     */
+    private long requestsReceived= 0L;
+
+    /**
+     * The number of responses received, duplicates excluded.
+     */
+    private long responsesReceived= 0L;
+
+    /**
+     * The number of empty messages received, such as acknowledgements and resets.
+     */
+    private long emptyMessagesReceived= 0L;
+
+    /**
+     * The number of request retransmissions.
+     */
+    private long requestRetransmissions= 0L;
+
+    /**
+     * The number of response retransmissions.
+     */
+    private long responseRetransmissions= 0L;
+
+    /**
+     * The number of duplicate requests received.
+     */
+    private long duplicateRequests= 0L;
+
+    /**
+     * The number of duplicate responses received.
+     */
+    private long duplicateResponses= 0L;
+
+    /**
+     * The number of messages that could not be sent.
+     */
+    private long sendErrors= 0L;
+
+    /**
+     * The number of messages that timed out waiting for acknowledgement or response.
+     */
+    private long timeouts= 0L;
+
+    /**
+     * The number of requests sent that are awaiting completion.
+     */
+    private long activeExchanges= 0L;
+
+    /**
+     * The number of blockwise transfers started and not yet completed.
+     */
+    private long blockwiseTransfersInProgress= 0L;
+
+    /**
+     * The number of DTLS handshakes started.
+     */
+    private long dtlsHandshakesStarted= 0L;
+
+    /**
+     * The number of DTLS handshakes that succeeded.
+     */
+    private long dtlsHandshakesSucceeded= 0L;
+
+    /**
+     * The number of DTLS handshakes that failed.
+     */
+    private long dtlsHandshakesFailed= 0L;
+
+    /**
+     * The number of observe relations of clients on resources of the server using the endpoint.
+     */
+    private long serverObserveRelations= 0L;
+
+    /**
+     * The number of observe relations the clients using the endpoint have on remote resources.
+     */
+    private long clientObserveRelations= 0L;
+
+    /**
+     * Dispatch statistics of the listeners of the server using the endpoint.
+     */
+    private List< ListenerStats > listeners= Collections.emptyList();
+
+    /**
+     * Constructor.
+     * @param name The name of the endpoint.
+     */
+    public EndpointStats( String name )
+    {
+        super();
+        this.name= name;
+    }
+
+    /**
+     * @return the name of the endpoint.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return the number of requests sent, retransmissions excluded.
+     */
+    public long getRequestsSent()
+    {
+        return requestsSent;
+    }
+
+    /**
+     * @param requestsSent The number of requests sent, retransmissions excluded.
+     */
+    public void setRequestsSent( long requestsSent )
+    {
+        this.requestsSent= requestsSent;
+    }
+
+    /**
+     * @return the number of responses sent, retransmissions excluded.
+     */
+    public long getResponsesSent()
+    {
+        return responsesSent;
+    }
+
+    /**
+     * @param responsesSent The number of responses sent, retransmissions excluded.
+     */
+    public void setResponsesSent( long responsesSent )
+    {
+        this.responsesSent= responsesSent;
+    }
+
+    /**
+     * @return the number of empty messages sent, such as acknowledgements and resets.
+     */
+    public long getEmptyMessagesSent()
+    {
+        return emptyMessagesSent;
+    }
+
+    /**
+     * @param emptyMessagesSent The number of empty messages sent, such as acknowledgements and resets.
+     */
+    public void setEmptyMessagesSent( long emptyMessagesSent )
+    {
+        this.emptyMessagesSent= emptyMessagesSent;
+    }
+
+    /**
+     * @return the number of requests received, duplicates excluded.
+     */
+    public long getRequestsReceived()
+    {
+        return requestsReceived;
+    }
+
+    /**
+     * @param requestsReceived The number of requests received, duplicates excluded.
+     */
+    public void setRequestsReceived( long requestsReceived )
+    {
+        this.requestsReceived= requestsReceived;
+    }
+
+    /**
+     * @return the number of responses received, duplicates excluded.
+     */
+    public long getResponsesReceived()
+    {
+        return responsesReceived;
+    }
+
+    /**
+     * @param responsesReceived The number of responses received, duplicates excluded.
+     */
+    public void setResponsesReceived( long responsesReceived )
+    {
+        this.responsesReceived= responsesReceived;
+    }
+
+    /**
+     * @return the number of empty messages received, such as acknowledgements and resets.
+     */
+    public long getEmptyMessagesReceived()
+    {
+        return emptyMessagesReceived;
+    }
+
+    /**
+     * @param emptyMessagesReceived The number of empty messages received, such as acknowledgements and resets.
+     */
+    public void setEmptyMessagesReceived( long emptyMessagesReceived )
+    {
+        this.emptyMessagesReceived= emptyMessagesReceived;
+    }
+
+    /**
+     * @return the number of request retransmissions.
+     */
+    public long getRequestRetransmissions()
+    {
+        return requestRetransmissions;
+    }
+
+    /**
+     * @param requestRetransmissions The number of request retransmissions.
+     */
+    public void setRequestRetransmissions( long requestRetransmissions )
+    {
+        this.requestRetransmissions= requestRetransmissions;
+    }
+
+    /**
+     * @return the number of response retransmissions.
+     */
+    public long getResponseRetransmissions()
+    {
+        return responseRetransmissions;
+    }
+
+    /**
+     * @param responseRetransmissions The number of response retransmissions.
+     */
+    public void setResponseRetransmissions( long responseRetransmissions )
+    {
+        this.responseRetransmissions= responseRetransmissions;
+    }
+
+    /**
+     * @return the number of duplicate requests received.
+     */
+    public long getDuplicateRequests()
+    {
+        return duplicateRequests;
+    }
+
+    /**
+     * @param duplicateRequests The number of duplicate requests received.
+     */
+    public void setDuplicateRequests( long duplicateRequests )
+    {
+        this.duplicateRequests= duplicateRequests;
+    }
+
+    /**
+     * @return the number of duplicate responses received.
+     */
+    public long getDuplicateResponses()
+    {
+        return duplicateResponses;
+    }
+
+    /**
+     * @param duplicateResponses The number of duplicate responses received.
+     */
+    public void setDuplicateResponses( long duplicateResponses )
+    {
+        this.duplicateResponses= duplicateResponses;
+    }
+
+    /**
+     * @return the number of messages that could not be sent.
+     */
+    public long getSendErrors()
+    {
+        return sendErrors;
+    }
+
+    /**
+     * @param sendErrors The number of messages that could not be sent.
+     */
+    public void setSendErrors( long sendErrors )
+    {
+        this.sendErrors= sendErrors;
+    }
+
+    /**
+     * @return the number of messages that timed out waiting for acknowledgement or response.
+     */
+    public long getTimeouts()
+    {
+        return timeouts;
+    }
+
+    /**
+     * @param timeouts The number of messages that timed out waiting for acknowledgement or response.
+     */
+    public void setTimeouts( long timeouts )
+    {
+        this.timeouts= timeouts;
+    }
+
+    /**
+     * @return the number of requests sent that are awaiting completion.
+     */
+    public long getActiveExchanges()
+    {
+        return activeExchanges;
+    }
+
+    /**
+     * @param activeExchanges The number of requests sent that are awaiting completion.
+     */
+    public void setActiveExchanges( long activeExchanges )
+    {
+        this.activeExchanges= activeExchanges;
+    }
+
+    /**
+     * @return the number of blockwise transfers started and not yet completed.
+     */
+    public long getBlockwiseTransfersInProgress()
+    {
+        return blockwiseTransfersInProgress;
+    }
+
+    /**
+     * @param blockwiseTransfersInProgress The number of blockwise transfers started and not yet completed.
+     */
+    public void setBlockwiseTransfersInProgress( long blockwiseTransfersInProgress )
+    {
+        this.blockwiseTransfersInProgress= blockwiseTransfersInProgress;
+    }
+
+    /**
+     * @return the number of DTLS handshakes started.
+     */
+    public long getDtlsHandshakesStarted()
+    {
+        return dtlsHandshakesStarted;
+    }
+
+    /**
+     * @param dtlsHandshakesStarted The number of DTLS handshakes started.
+     */
+    public void setDtlsHandshakesStarted( long dtlsHandshakesStarted )
+    {
+        this.dtlsHandshakesStarted= dtlsHandshakesStarted;
+    }
+
+    /**
+     * @return the number of DTLS handshakes that succeeded.
+     */
+    public long getDtlsHandshakesSucceeded()
+    {
+        return dtlsHandshakesSucceeded;
+    }
+
+    /**
+     * @param dtlsHandshakesSucceeded The number of DTLS handshakes that succeeded.
+     */
+    public void setDtlsHandshakesSucceeded( long dtlsHandshakesSucceeded )
+    {
+        this.dtlsHandshakesSucceeded= dtlsHandshakesSucceeded;
+    }
+
+    /**
+     * @return the number of DTLS handshakes that failed.
+     */
+    public long getDtlsHandshakesFailed()
+    {
+        return dtlsHandshakesFailed;
+    }
+
+    /**
+     * @param dtlsHandshakesFailed The number of DTLS handshakes that failed.
+     */
+    public void setDtlsHandshakesFailed( long dtlsHandshakesFailed )
+    {
+        this.dtlsHandshakesFailed= dtlsHandshakesFailed;
+    }
+
+    /**
+     * @return the number of observe relations of clients on resources of the server using the endpoint.
+     */
+    public long getServerObserveRelations()
+    {
+        return serverObserveRelations;
+    }
+
+    /**
+     * @param serverObserveRelations The number of observe relations of clients on resources of the server using the endpoint.
+     */
+    public void setServerObserveRelations( long serverObserveRelations )
+    {
+        this.serverObserveRelations= serverObserveRelations;
+    }
+
+    /**
+     * @return the number of observe relations the clients using the endpoint have on remote resources.
+     */
+    public long getClientObserveRelations()
+    {
+        return clientObserveRelations;
+    }
+
+    /**
+     * @param clientObserveRelations The number of observe relations the clients using the endpoint have on remote resources.
+     */
+    public void setClientObserveRelations( long clientObserveRelations )
+    {
+        this.clientObserveRelations= clientObserveRelations;
+    }
+
+    /**
+     * @return the dispatch statistics of the listeners of the server using the endpoint.
+     */
+    public List< ListenerStats > getListeners()
+    {
+        return listeners;
+    }
+
+    /**
+     * @param listeners Dispatch statistics of the listeners of the server using the endpoint.
+     */
+    public void setListeners( List< ListenerStats > listeners )
+    {
+        this.listeners= listeners;
+    }
+}
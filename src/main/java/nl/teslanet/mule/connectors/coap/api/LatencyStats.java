@@ -0,0 +1,145 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.api;
+
+
+/**
+ * Latency statistics of a measured phase of request processing.
+ * Percentiles are resolved within about six percent of the actual value. 
+ * All latencies are in microseconds.
+ */
+public class LatencyStats
+{
+    /**
+     * The number of measurements.
+     */
+    private long count;
+
+    /**
+     * The mean latency.
+     */
+    private long mean;
+
+    /**
+     * The median latency.
+     */
+    private long p50;
+
+    /**
+     * The 90th percentile latency.
+     */
+    private long p90;
+
+    /**
+     * The 99th percentile latency.
+     */
+    private long p99;
+
+    /**
+     * The 99.9th percentile latency.
+     */
+    private long p999;
+
+    /**
+     * The maximum latency.
+     */
+    private long max;
+
+    /**
+     * Constructor.
+     * @param count The number of measurements.
+     * @param mean The mean latency.
+     * @param p50 The median latency.
+     * @param p90 The 90th percentile latency.
+     * @param p99 The 99th percentile latency.
+     * @param p999 The 99.9th percentile latency.
+     * @param max The maximum latency.
+     */
+    public LatencyStats( long count, long mean, long p50, long p90, long p99, long p999, long max )
+    {
+        super();
+        this.count= count;
+        this.mean= mean;
+        this.p50= p50;
+        this.p90= p90;
+        this.p99= p99;
+        this.p999= p999;
+        this.max= max;
+    }
+
+    /**
+     * @return the number of measurements.
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * @return the mean latency in microseconds.
+     */
+    public long getMean()
+    {
+        return mean;
+    }
+
+    /**
+     * @return the median latency in microseconds.
+     */
+    public long getP50()
+    {
+        return p50;
+    }
+
+    /**
+     * @return the 90th percentile latency in microseconds.
+     */
+    public long getP90()
+    {
+        return p90;
+    }
+
+    /**
+     * @return the 99th percentile latency in microseconds.
+     */
+    public long getP99()
+    {
+        return p99;
+    }
+
+    /**
+     * @return the 99.9th percentile latency in microseconds.
+     */
+    public long getP999()
+    {
+        return p999;
+    }
+
+    /**
+     * @return the maximum latency in microseconds.
+     */
+    public long getMax()
+    {
+        return max;
+    }
+}
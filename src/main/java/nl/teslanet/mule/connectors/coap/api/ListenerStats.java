@@ -0,0 +1,100 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.api;
+
+
+/**
+ * Dispatch statistics of a listener.
+ * Latencies are measured from the moment the request is handed to the flow 
+ * until the flow has completed and the response is issued.
+ */
+public class ListenerStats
+{
+    /**
+     * The uri pattern of the listener.
+     */
+    private String pathPattern;
+
+    /**
+     * The number of requests dispatched to the flow that completed.
+     */
+    private long dispatched;
+
+    /**
+     * The number of dispatched requests of which the flow failed.
+     */
+    private long failed;
+
+    /**
+     * The dispatch latency.
+     */
+    private LatencyStats latency;
+
+    /**
+     * Constructor.
+     * @param pathPattern The uri pattern of the listener.
+     * @param dispatched The number of requests dispatched to the flow that completed.
+     * @param failed The number of dispatched requests of which the flow failed.
+     * @param latency The dispatch latency.
+     */
+    public ListenerStats( String pathPattern, long dispatched, long failed, LatencyStats latency )
+    {
+        super();
+        this.pathPattern= pathPattern;
+        this.dispatched= dispatched;
+        this.failed= failed;
+        this.latency= latency;
+    }
+
+    /**
+     * @return the uri pattern of the listener.
+     */
+    public String getPathPattern()
+    {
+        return pathPattern;
+    }
+
+    /**
+     * @return the number of requests dispatched to the flow that completed.
+     */
+    public long getDispatched()
+    {
+        return dispatched;
+    }
+
+    /**
+     * @return the number of dispatched requests of which the flow failed.
+     */
+    public long getFailed()
+    {
+        return failed;
+    }
+
+    /**
+     * @return the dispatch latency.
+     */
+    public LatencyStats getLatency()
+    {
+        return latency;
+    }
+}
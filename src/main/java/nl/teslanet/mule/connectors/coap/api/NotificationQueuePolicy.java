@@ -0,0 +1,52 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.api;
+
+
+/**
+ * The policies of handing notifications over from the endpoint to the flow.
+ */
+public enum NotificationQueuePolicy
+{
+    /**
+     * Notifications are processed directly on the thread that received them.
+     */
+    DIRECT,
+
+    /**
+     * Only the latest notification is kept waiting, replacing any notification not yet processed.
+     */
+    CONFLATE,
+
+    /**
+     * Notifications are queued. When the queue is full the oldest notification waiting is dropped.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Notifications are queued. When the queue is full the receiving thread waits until there is room, 
+     * for at most one second. Meanwhile the endpoint does not process other incoming messages.
+     * The notification is dropped when the queue is still full.
+     */
+    BLOCK
+}
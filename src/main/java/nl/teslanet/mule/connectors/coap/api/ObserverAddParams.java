@@ -23,11 +23,73 @@
 package nl.teslanet.mule.connectors.coap.api;
 
 
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+
 /**
  * The parameters of a CoAP observer.
  *
  */
 public class ObserverAddParams extends AbstractResourceRequestParams
 {
-    //NOOP
+    /**
+     * The policy of handing notifications over to the flow.
+     * When DIRECT notifications are processed on the thread that received them.
+     * Otherwise notifications are queued and processed in order of arrival, one at a time.
+     */
+    @Parameter
+    @Optional( defaultValue= "DIRECT" )
+    @Expression( ExpressionSupport.SUPPORTED )
+    @Summary(
+        "The policy of handing notifications over to the flow. \nWhen DIRECT notifications are processed on the thread that received them. \nCONFLATE keeps only the latest notification waiting, \nDROP_OLDEST drops the oldest notification waiting when the queue is full, \nBLOCK waits up to one second for room in the queue, holding up the endpoint thread receiving messages, \nand drops the notification when there is still no room."
+    )
+    @Placement( order= 81 )
+    private NotificationQueuePolicy notificationQueuePolicy= NotificationQueuePolicy.DIRECT;
+
+    /**
+     * The maximum number of notifications waiting to be processed.
+     */
+    @Parameter
+    @Optional( defaultValue= "16" )
+    @Expression( ExpressionSupport.SUPPORTED )
+    @Summary( "The maximum number of notifications waiting to be processed." )
+    @Placement( order= 82 )
+    private int notificationQueueCapacity= 16;
+
+    /**
+     * @return the notification queue policy
+     */
+    public NotificationQueuePolicy getNotificationQueuePolicy()
+    {
+        return notificationQueuePolicy;
+    }
+
+    /**
+     * @param notificationQueuePolicy the notification queue policy to set
+     */
+    public void setNotificationQueuePolicy( NotificationQueuePolicy notificationQueuePolicy )
+    {
+        this.notificationQueuePolicy= notificationQueuePolicy;
+    }
+
+    /**
+     * @return the notification queue capacity
+     */
+    public int getNotificationQueueCapacity()
+    {
+        return notificationQueueCapacity;
+    }
+
+    /**
+     * @param notificationQueueCapacity the notification queue capacity to set
+     */
+    public void setNotificationQueueCapacity( int notificationQueueCapacity )
+    {
+        this.notificationQueueCapacity= notificationQueueCapacity;
+    }
 }
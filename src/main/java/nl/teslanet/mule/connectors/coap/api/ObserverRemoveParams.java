@@ -50,6 +50,20 @@ public class ObserverRemoveParams extends AbstractResourceRequestParams
     @Placement( order= 71 )
     private ObserveCancel observeCancel= ObserveCancel.DEFAULT;
 
+    /**
+     * The response handler to unsubscribe from the observer. 
+     * When omitted all response handlers of the observer are unsubscribed.
+     * The observer is removed when no response handlers or observer sources are subscribed anymore.
+     */
+    @Parameter
+    @Optional
+    @Expression( ExpressionSupport.SUPPORTED )
+    @Summary(
+        "The response handler to unsubscribe from the observer. \nWhen omitted all response handlers of the observer are unsubscribed."
+    )
+    @Placement( order= 72 )
+    private ResponseHandler responseHandler= null;
+
     /**
      * @return the observeCancel
      */
@@ -65,4 +79,20 @@ public class ObserverRemoveParams extends AbstractResourceRequestParams
     {
         this.observeCancel= observeCancel;
     }
+
+    /**
+     * @return the responseHandler
+     */
+    public ResponseHandler getResponseHandler()
+    {
+        return responseHandler;
+    }
+
+    /**
+     * @param responseHandler the responseHandler to set
+     */
+    public void setResponseHandler( ResponseHandler responseHandler )
+    {
+        this.responseHandler= responseHandler;
+    }
 }
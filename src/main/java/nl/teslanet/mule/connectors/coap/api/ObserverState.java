@@ -0,0 +1,156 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.api;
+
+
+/**
+ * The state of an observer of a CoAP client.
+ * An observer is recovering when its relation with the server has failed 
+ * and has not been restored yet. Recovery attempts are scheduled with increasing delays.
+ * The notification counters show the notifications that were not processed 
+ * because newer notifications arrived faster than the flow could process them.
+ * The relation with the server is shared by the flows subscribed to the observed uri.
+ */
+public class ObserverState
+{
+    /**
+     * The observed uri.
+     */
+    private String uri;
+
+    /**
+     * Flag indicating the relation has failed and is not restored yet.
+     */
+    private boolean recovering;
+
+    /**
+     * The number of consecutive failures of the relation.
+     */
+    private int recoveryAttempts;
+
+    /**
+     * The delay until the next scheduled recovery attempt [ms].
+     */
+    private long recoveryDelay;
+
+    /**
+     * The number of notifications dropped because the notification queue was full.
+     */
+    private long droppedNotifications;
+
+    /**
+     * The number of notifications replaced by a newer notification before being processed.
+     */
+    private long conflatedNotifications;
+
+    /**
+     * The number of response handlers and observer sources sharing the relation.
+     */
+    private int subscribers;
+
+    /**
+     * Constructor.
+     * @param uri The observed uri.
+     * @param recovering Flag indicating the relation has failed and is not restored yet.
+     * @param recoveryAttempts The number of consecutive failures of the relation.
+     * @param recoveryDelay The delay until the next scheduled recovery attempt [ms].
+     * @param droppedNotifications The number of notifications dropped because the notification queue was full.
+     * @param conflatedNotifications The number of notifications replaced by a newer notification before being processed.
+     * @param subscribers The number of response handlers and observer sources sharing the relation.
+     */
+    public ObserverState(
+        String uri,
+        boolean recovering,
+        int recoveryAttempts,
+        long recoveryDelay,
+        long droppedNotifications,
+        long conflatedNotifications,
+        int subscribers
+    )
+    {
+        super();
+        this.uri= uri;
+        this.recovering= recovering;
+        this.recoveryAttempts= recoveryAttempts;
+        this.recoveryDelay= recoveryDelay;
+        this.droppedNotifications= droppedNotifications;
+        this.conflatedNotifications= conflatedNotifications;
+        this.subscribers= subscribers;
+    }
+
+    /**
+     * @return the observed uri.
+     */
+    public String getUri()
+    {
+        return uri;
+    }
+
+    /**
+     * @return true when the relation has failed and is not restored yet.
+     */
+    public boolean isRecovering()
+    {
+        return recovering;
+    }
+
+    /**
+     * @return the number of consecutive failures of the relation.
+     */
+    public int getRecoveryAttempts()
+    {
+        return recoveryAttempts;
+    }
+
+    /**
+     * @return the delay until the next scheduled recovery attempt [ms], 0 when no attempt is scheduled.
+     */
+    public long getRecoveryDelay()
+    {
+        return recoveryDelay;
+    }
+
+    /**
+     * @return the number of notifications dropped because the notification queue was full.
+     */
+    public long getDroppedNotifications()
+    {
+        return droppedNotifications;
+    }
+
+    /**
+     * @return the number of notifications replaced by a newer notification before being processed.
+     */
+    public long getConflatedNotifications()
+    {
+        return conflatedNotifications;
+    }
+
+    /**
+     * @return the number of response handlers and observer sources sharing the relation.
+     */
+    public int getSubscribers()
+    {
+        return subscribers;
+    }
+}
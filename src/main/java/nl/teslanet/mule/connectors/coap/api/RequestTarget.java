@@ -0,0 +1,138 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.api;
+
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.Example;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+
+/**
+ * A target of a request that is issued on multiple targets.
+ * The target parameters that are given override the request parameters.
+ */
+public class RequestTarget
+{
+    /**
+     * The hostname or ip of the server to reach. 
+     */
+    @Parameter
+    @Optional
+    @Expression( ExpressionSupport.SUPPORTED )
+    @Summary( "The hostname or ip of the server to reach. When empty the host of the request is used." )
+    @Example( "californium.eclipseprojects.io" )
+    private String host= null;
+
+    /**
+     * The port of the server to reach.
+     */
+    @Parameter
+    @Optional
+    @Expression( ExpressionSupport.SUPPORTED )
+    @Summary( "The port of the server to reach. When empty the port of the request is used." )
+    @Example( "5683" )
+    private Integer port= null;
+
+    /**
+    * The path of the resource to access.
+    */
+    @Parameter
+    @Optional
+    @Expression( ExpressionSupport.SUPPORTED )
+    @Summary( "The path of the resource to access. When empty the path of the request is used." )
+    @Example( "/seg1/seg2/seg3" )
+    private String path= null;
+
+    /**
+     * Default constructor.
+     */
+    public RequestTarget()
+    {
+        //NOOP
+    }
+
+    /**
+     * Constructor with member values.
+     * @param host The host of the target.
+     * @param port The port of the target.
+     * @param path The path of the target.
+     */
+    public RequestTarget( String host, Integer port, String path )
+    {
+        this.host= host;
+        this.port= port;
+        this.path= path;
+    }
+
+    /**
+     * @return the host
+     */
+    public String getHost()
+    {
+        return host;
+    }
+
+    /**
+     * @param host the host to set
+     */
+    public void setHost( String host )
+    {
+        this.host= host;
+    }
+
+    /**
+     * @return the port
+     */
+    public Integer getPort()
+    {
+        return port;
+    }
+
+    /**
+     * @param port the port to set
+     */
+    public void setPort( Integer port )
+    {
+        this.port= port;
+    }
+
+    /**
+     * @return the path
+     */
+    public String getPath()
+    {
+        return path;
+    }
+
+    /**
+     * @param path the path to set
+     */
+    public void setPath( String path )
+    {
+        this.path= path;
+    }
+}
@@ -0,0 +1,99 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.api;
+
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.Example;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+
+/**
+ * The timeout parameters of a request. When no response has been received in time,
+ * the request is canceled and handled as if no response was received. 
+ * When no timeout or deadline is given, the exchange lifetime of the endpoint applies.
+ */
+public class RequestTimeoutParams
+{
+    /**
+     * The maximum time to wait for the response, e.g. 500ms or 2s.
+     */
+    @Parameter
+    @Optional
+    @Expression( ExpressionSupport.SUPPORTED )
+    @Example( "2s" )
+    @Summary(
+        "The maximum time to wait for the response, e.g. 500ms or 2s. \nWhen omitted the exchange lifetime of the endpoint applies."
+    )
+    @Placement( tab= "Timeout", order= 1 )
+    private String timeout= null;
+
+    /**
+     * The time at which the response must have been received, in milliseconds since the epoch. 
+     * When a timeout is given as well, the earliest applies.
+     */
+    @Parameter
+    @Optional
+    @Expression( ExpressionSupport.SUPPORTED )
+    @Summary(
+        "The time at which the response must have been received, in milliseconds since the epoch. \nWhen a timeout is given as well, the earliest applies."
+    )
+    @Placement( tab= "Timeout", order= 2 )
+    private Long deadline= null;
+
+    /**
+     * @return the timeout
+     */
+    public String getTimeout()
+    {
+        return timeout;
+    }
+
+    /**
+     * @param timeout the timeout to set
+     */
+    public void setTimeout( String timeout )
+    {
+        this.timeout= timeout;
+    }
+
+    /**
+     * @return the deadline
+     */
+    public Long getDeadline()
+    {
+        return deadline;
+    }
+
+    /**
+     * @param deadline the deadline to set
+     */
+    public void setDeadline( Long deadline )
+    {
+        this.deadline= deadline;
+    }
+}
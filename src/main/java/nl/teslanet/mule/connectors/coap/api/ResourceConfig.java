@@ -136,6 +136,46 @@ public class ResourceConfig implements ConfigurableResource
     @Summary( "When true an acknowledgement is immediately sent to the client, before processing the request." )
     private boolean earlyAck= false;
 
+    /**
+     * When true, the notifications of a notification round share one representation of the resource.
+     * The flow is run once per change, and the response is copied to every observer, varying only in token and observe sequence number.
+     * The representation is rendered for the observe request of the first observer notified in the round, 
+     * so every observer receives it regardless of its own request, such as its accept option or query parameters.
+     * Use this when the representation does not depend on the observe request of the client.
+     */
+    @Parameter
+    @Expression( ExpressionSupport.NOT_SUPPORTED )
+    @ParameterDsl( allowReferences= false )
+    @Summary( "When true, the notifications of a notification round share one representation of the resource." )
+    private boolean sharedNotifications= false;
+
+    /**
+     * The minimum interval between notification rounds to the observers of the resource.
+     * Changes notified within the interval are coalesced into one trailing notification round, 
+     * so observers receive the latest state. 
+     * When not set, each notify of the resource starts a notification round immediately.
+     */
+    @Parameter
+    @Optional
+    @Expression( ExpressionSupport.NOT_SUPPORTED )
+    @ParameterDsl( allowReferences= false )
+    @Summary( "The minimum interval between notification rounds to the observers of the resource." )
+    @Example( "100ms" )
+    private String notificationMinInterval= null;
+
+    /**
+     * The maximum number of notification rounds per second to the observers of the resource.
+     * Changes notified in excess of the rate are coalesced into one trailing notification round, 
+     * so observers receive the latest state. 
+     * When not set, the rate is not limited.
+     */
+    @Parameter
+    @Optional
+    @Expression( ExpressionSupport.NOT_SUPPORTED )
+    @ParameterDsl( allowReferences= false )
+    @Summary( "The maximum number of notification rounds per second to the observers of the resource." )
+    private Integer notificationMaxRate= null;
+
     /**
      * The CoRE information describing the contrained resource for discovery.
      */
@@ -338,6 +378,57 @@ public class ResourceConfig implements ConfigurableResource
         this.earlyAck= earlyAck;
     }
 
+    /**
+     * @return The sharedNotifications flag.
+     */
+    @Override
+    public boolean isSharedNotifications()
+    {
+        return sharedNotifications;
+    }
+
+    /**
+     * @param sharedNotifications The sharedNotifications flag to set.
+     */
+    public void setSharedNotifications( boolean sharedNotifications )
+    {
+        this.sharedNotifications= sharedNotifications;
+    }
+
+    /**
+     * @return The minimum interval between notification rounds.
+     */
+    @Override
+    public String getNotificationMinInterval()
+    {
+        return notificationMinInterval;
+    }
+
+    /**
+     * @param notificationMinInterval The minimum interval between notification rounds to set.
+     */
+    public void setNotificationMinInterval( String notificationMinInterval )
+    {
+        this.notificationMinInterval= notificationMinInterval;
+    }
+
+    /**
+     * @return The maximum number of notification rounds per second.
+     */
+    @Override
+    public Integer getNotificationMaxRate()
+    {
+        return notificationMaxRate;
+    }
+
+    /**
+     * @param notificationMaxRate The maximum number of notification rounds per second to set.
+     */
+    public void setNotificationMaxRate( Integer notificationMaxRate )
+    {
+        this.notificationMaxRate= notificationMaxRate;
+    }
+
     /**
      * @return The configured CoRE info.
      */
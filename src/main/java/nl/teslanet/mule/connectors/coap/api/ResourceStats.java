@@ -0,0 +1,138 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.api;
+
+
+/**
+ * Latency statistics of the requests with a request code on a resource.
+ * The total latency is measured from arrival of the request until the response is issued.
+ * It consists of queueing, the time until the request is dispatched to the flow,
+ * flow processing, and encoding of the response.
+ */
+public class ResourceStats
+{
+    /**
+     * The uri of the resource.
+     */
+    private String uri;
+
+    /**
+     * The request code.
+     */
+    private String requestCode;
+
+    /**
+     * The latency from arrival until the response is issued.
+     */
+    private LatencyStats total;
+
+    /**
+     * The latency from arrival until dispatch to the flow.
+     */
+    private LatencyStats queueing;
+
+    /**
+     * The latency of the flow processing the request.
+     */
+    private LatencyStats flow;
+
+    /**
+     * The latency of encoding and issuing the response.
+     */
+    private LatencyStats encoding;
+
+    /**
+     * Constructor.
+     * @param uri The uri of the resource.
+     * @param requestCode The request code.
+     * @param total The latency from arrival until the response is issued.
+     * @param queueing The latency from arrival until dispatch to the flow.
+     * @param flow The latency of the flow processing the request.
+     * @param encoding The latency of encoding and issuing the response.
+     */
+    public ResourceStats(
+        String uri,
+        String requestCode,
+        LatencyStats total,
+        LatencyStats queueing,
+        LatencyStats flow,
+        LatencyStats encoding
+    )
+    {
+        super();
+        this.uri= uri;
+        this.requestCode= requestCode;
+        this.total= total;
+        this.queueing= queueing;
+        this.flow= flow;
+        this.encoding= encoding;
+    }
+
+    /**
+     * @return the uri of the resource.
+     */
+    public String getUri()
+    {
+        return uri;
+    }
+
+    /**
+     * @return the request code.
+     */
+    public String getRequestCode()
+    {
+        return requestCode;
+    }
+
+    /**
+     * @return the latency from arrival until the response is issued.
+     */
+    public LatencyStats getTotal()
+    {
+        return total;
+    }
+
+    /**
+     * @return the latency from arrival until dispatch to the flow.
+     */
+    public LatencyStats getQueueing()
+    {
+        return queueing;
+    }
+
+    /**
+     * @return the latency of the flow processing the request.
+     */
+    public LatencyStats getFlow()
+    {
+        return flow;
+    }
+
+    /**
+     * @return the latency of encoding and issuing the response.
+     */
+    public LatencyStats getEncoding()
+    {
+        return encoding;
+    }
+}
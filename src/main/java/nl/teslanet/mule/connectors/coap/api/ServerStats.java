@@ -0,0 +1,86 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.api;
+
+
+import java.util.List;
+
+
+/**
+ * Latency statistics of a server, by resource and by listener.
+ */
+public class ServerStats
+{
+    /**
+     * The server name.
+     */
+    private String name;
+
+    /**
+     * The statistics of the resources, by request code.
+     */
+    private List< ResourceStats > resources;
+
+    /**
+     * The statistics of the listeners.
+     */
+    private List< ListenerStats > listeners;
+
+    /**
+     * Constructor.
+     * @param name The server name.
+     * @param resources The statistics of the resources, by request code.
+     * @param listeners The statistics of the listeners.
+     */
+    public ServerStats( String name, List< ResourceStats > resources, List< ListenerStats > listeners )
+    {
+        super();
+        this.name= name;
+        this.resources= resources;
+        this.listeners= listeners;
+    }
+
+    /**
+     * @return the server name.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return the statistics of the resources, by request code.
+     */
+    public List< ResourceStats > getResources()
+    {
+        return resources;
+    }
+
+    /**
+     * @return the statistics of the listeners.
+     */
+    public List< ListenerStats > getListeners()
+    {
+        return listeners;
+    }
+}
@@ -0,0 +1,59 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.api.attributes;
+
+
+import java.util.List;
+
+import nl.teslanet.mule.connectors.coap.api.ObserverState;
+
+
+/**
+ * The attributes of an observer list, containing the state of the listed observers.
+ *
+ */
+public class ObserverListAttributes
+{
+    /**
+     * The states of the observers, ordered by uri.
+     */
+    private List< ObserverState > observers;
+
+    /**
+     * Constructor.
+     * @param observers The states of the observers.
+     */
+    public ObserverListAttributes( List< ObserverState > observers )
+    {
+        super();
+        this.observers= observers;
+    }
+
+    /**
+     * @return the states of the observers, ordered by uri.
+     */
+    public List< ObserverState > getObservers()
+    {
+        return observers;
+    }
+}
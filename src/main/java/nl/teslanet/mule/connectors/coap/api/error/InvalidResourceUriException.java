@@ -47,6 +47,11 @@ public class InvalidResourceUriException extends ModuleException
         super( message + ", invalid resource uri { " + uri + " }.", Errors.INVALID_RESOURCE_URI );
     }
 
+    public InvalidResourceUriException( String message, Throwable cause )
+    {
+        super( message, Errors.INVALID_RESOURCE_URI, cause );
+    }
+
     public InvalidResourceUriException( String message, String uri, Throwable cause )
     {
         super( message + ", invalid resource uri { " + uri + " }." + message, Errors.INVALID_RESOURCE_URI, cause );
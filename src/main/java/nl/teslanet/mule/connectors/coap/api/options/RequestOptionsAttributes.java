@@ -49,7 +49,7 @@ public class RequestOptionsAttributes
      * Resource states known by client that issues the request. (to enable a Valid response.)
      * The list contains the entity tags representing known states.
      */
-    protected List< BytesValue > etags= null;
+    protected volatile List< BytesValue > etags= null;
 
     /**
      * If {@code true}, execute request only if the resource already exists.
@@ -60,7 +60,7 @@ public class RequestOptionsAttributes
      * Execute request only if the resource state is known by client. (to prevent concurrent mutations)
      * The list contains the entity tags representing known states.
      */
-    protected List< BytesValue > ifMatch= null;
+    protected volatile List< BytesValue > ifMatch= null;
 
     /**
      * If {@code true}, execute request only if the resource does not exist.
@@ -75,7 +75,7 @@ public class RequestOptionsAttributes
     /**
      * The other options of the request.
      */
-    protected List< OtherOptionAttribute > other= null;
+    protected volatile List< OtherOptionAttribute > other= null;
 
     /**
      * If {@code true}, client requests to provide size2 option in the response
@@ -116,12 +116,12 @@ public class RequestOptionsAttributes
     /**
      * The request uri host path.
      */
-    protected List< String > uriPath= null;
+    protected volatile List< String > uriPath= null;
 
     /**
      * The request uri query parameters.
      */
-    protected List< QueryParamAttribute > uriQuery;
+    protected volatile List< QueryParamAttribute > uriQuery;
 
     /**
      * @return The ifExists option.
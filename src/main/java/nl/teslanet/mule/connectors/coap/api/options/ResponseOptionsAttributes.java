@@ -53,12 +53,12 @@ public class ResponseOptionsAttributes
     /**
      * The location path of the resource that is created.
      */
-    protected List< String > locationPath= null;
+    protected volatile List< String > locationPath= null;
 
     /**
      * The location query of the resource that is created.
      */
-    protected List< QueryParamAttribute > locationQuery= null;
+    protected volatile List< QueryParamAttribute > locationQuery= null;
 
     /**
      * The max age of an observable resource.
@@ -73,7 +73,7 @@ public class ResponseOptionsAttributes
     /**
      * The other response options.
      */
-    protected List< OtherOptionAttribute > other= null;
+    protected volatile List< OtherOptionAttribute > other= null;
 
     /**
      * The response payload size indication [bytes].
@@ -23,13 +23,20 @@
 package nl.teslanet.mule.connectors.coap.internal;
 
 
+import org.mule.runtime.extension.api.annotation.Alias;
 import org.mule.runtime.extension.api.annotation.error.Throws;
 import org.mule.runtime.extension.api.annotation.param.ParameterGroup;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
 
+import nl.teslanet.mule.connectors.coap.api.EndpointStats;
 import nl.teslanet.mule.connectors.coap.api.binary.BytesValue;
+import nl.teslanet.mule.connectors.coap.api.error.EndpointException;
 import nl.teslanet.mule.connectors.coap.api.error.InvalidOptionValueException;
 import nl.teslanet.mule.connectors.coap.api.options.OptionValueException;
 import nl.teslanet.mule.connectors.coap.api.options.OptionValueParams;
+import nl.teslanet.mule.connectors.coap.internal.endpoint.OperationalEndpoint;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.EndpointStatsErrorProvider;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalEndpointException;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.OptionValueErrorProvider;
 import nl.teslanet.mule.connectors.coap.internal.options.DefaultBytesValue;
 
@@ -59,4 +66,29 @@ public class GlobalOperations
             throw new InvalidOptionValueException( "Invalid option value.", e );
         }
     }
+
+    /**
+     * Provides the statistics of an endpoint, such as message counts, retransmissions, timeouts, 
+     * exchanges and blockwise transfers in progress, DTLS handshakes, observe relations 
+     * and the dispatch latency of the listeners of the server using the endpoint.
+     * The same statistics are published as JMX MBeans.
+     * @param endpoint The name of the endpoint.
+     * @return The endpoint statistics.
+     */
+    @Throws( { EndpointStatsErrorProvider.class } )
+    public EndpointStats endpointStats(
+        @Alias( "endpoint" )
+        @Summary( "The name of the endpoint to get the statistics of." )
+        String endpoint
+    )
+    {
+        try
+        {
+            return OperationalEndpoint.getStats( endpoint );
+        }
+        catch ( InternalEndpointException e )
+        {
+            throw new EndpointException( "Endpoint statistics not available.", e );
+        }
+    }
 }
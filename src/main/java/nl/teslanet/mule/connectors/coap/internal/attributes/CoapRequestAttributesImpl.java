@@ -23,19 +23,25 @@
 package nl.teslanet.mule.connectors.coap.internal.attributes;
 
 
+import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
 
+import org.eclipse.californium.core.coap.Request;
+import org.eclipse.californium.core.network.KeyToken;
+
 import nl.teslanet.mule.connectors.coap.api.Defs;
 import nl.teslanet.mule.connectors.coap.api.attributes.CoapRequestAttributes;
 import nl.teslanet.mule.connectors.coap.api.options.OptionUtils;
 import nl.teslanet.mule.connectors.coap.api.options.RequestOptionsAttributes;
+import nl.teslanet.mule.connectors.coap.internal.utils.AttributeUtils;
 import nl.teslanet.mule.connectors.coap.internal.utils.AttributesStringBuilder;
 
 
 /**
  * The attributes of a CoAP request that was received from a client.
- *
+ * Addresses, request uri and relation can be set as raw values, 
+ * which are rendered to strings only when asked for.
  */
 public class CoapRequestAttributesImpl extends CoapRequestAttributes
 {
@@ -44,6 +50,26 @@ public class CoapRequestAttributesImpl extends CoapRequestAttributes
      */
     private URI requestUriObject= null;
 
+    /**
+     * The raw local address.
+     */
+    private InetSocketAddress localSocketAddress= null;
+
+    /**
+     * The raw remote address.
+     */
+    private InetSocketAddress remoteSocketAddress= null;
+
+    /**
+     * The request to render the uri from.
+     */
+    private Request request= null;
+
+    /**
+     * The raw key token of the relation.
+     */
+    private KeyToken relationToken= null;
+
     /**
      * @param requestType the requestType to set
      */
@@ -66,6 +92,7 @@ public class CoapRequestAttributesImpl extends CoapRequestAttributes
     public void setLocalAddress( String localAddress )
     {
         this.localAddress= localAddress;
+        this.localSocketAddress= null;
     }
 
     /**
@@ -74,6 +101,7 @@ public class CoapRequestAttributesImpl extends CoapRequestAttributes
     public void setRequestUri( String requestUri )
     {
         this.requestUri= requestUri;
+        this.request= null;
     }
 
     /**
@@ -82,6 +110,7 @@ public class CoapRequestAttributesImpl extends CoapRequestAttributes
     public void setRelation( String relation )
     {
         this.relation= relation;
+        this.relationToken= null;
     }
 
     /**
@@ -90,6 +119,43 @@ public class CoapRequestAttributesImpl extends CoapRequestAttributes
     public void setRemoteAddress( String remoteAddress )
     {
         this.remoteAddress= remoteAddress;
+        this.remoteSocketAddress= null;
+    }
+
+    /**
+     * @param localAddress The raw localAddress to set.
+     */
+    public void setLocalAddress( InetSocketAddress localAddress )
+    {
+        this.localSocketAddress= localAddress;
+        this.localAddress= null;
+    }
+
+    /**
+     * @param remoteAddress The raw remoteAddress to set.
+     */
+    public void setRemoteAddress( InetSocketAddress remoteAddress )
+    {
+        this.remoteSocketAddress= remoteAddress;
+        this.remoteAddress= null;
+    }
+
+    /**
+     * @param request The request to render the request uri from.
+     */
+    public void setRequest( Request request )
+    {
+        this.request= request;
+        this.requestUri= null;
+    }
+
+    /**
+     * @param relation The raw key token of the relation to set.
+     */
+    public void setRelation( KeyToken relation )
+    {
+        this.relationToken= relation;
+        this.relation= null;
     }
 
     /**
@@ -100,6 +166,58 @@ public class CoapRequestAttributesImpl extends CoapRequestAttributes
         this.requestOptions= requestOptionAttributes;
     }
 
+    /**
+     * @return The local address, rendered on first access.
+     */
+    @Override
+    public String getLocalAddress()
+    {
+        if ( localAddress == null && localSocketAddress != null )
+        {
+            localAddress= AttributeUtils.toLocalAddressAttribute( localSocketAddress );
+        }
+        return localAddress;
+    }
+
+    /**
+     * @return The remote address, rendered on first access.
+     */
+    @Override
+    public String getRemoteAddress()
+    {
+        if ( remoteAddress == null && remoteSocketAddress != null )
+        {
+            remoteAddress= remoteSocketAddress.toString();
+        }
+        return remoteAddress;
+    }
+
+    /**
+     * @return The request uri, rendered on first access.
+     */
+    @Override
+    public String getRequestUri()
+    {
+        if ( requestUri == null && request != null )
+        {
+            requestUri= request.getURI();
+        }
+        return requestUri;
+    }
+
+    /**
+     * @return The relation, rendered on first access.
+     */
+    @Override
+    public String getRelation()
+    {
+        if ( relation == null && relationToken != null )
+        {
+            relation= relationToken.toString();
+        }
+        return relation;
+    }
+
     /**
      * @return the requestScheme
      */
@@ -170,7 +288,8 @@ public class CoapRequestAttributesImpl extends CoapRequestAttributes
         {
             try
             {
-                requestUriObject= new URI( ( requestUri == null ? OptionUtils.EMPTY_STRING : requestUri ) );
+                String uri= getRequestUri();
+                requestUriObject= new URI( ( uri == null ? OptionUtils.EMPTY_STRING : uri ) );
             }
             catch ( URISyntaxException e )
             {
@@ -188,9 +307,9 @@ public class CoapRequestAttributesImpl extends CoapRequestAttributes
     {
         AttributesStringBuilder builder= new AttributesStringBuilder( this );
         builder
-            .append( "relation", relation )
-            .append( "localAddress", localAddress )
-            .append( "remoteAddress", remoteAddress )
+            .append( "relation", getRelation() )
+            .append( "localAddress", getLocalAddress() )
+            .append( "remoteAddress", getRemoteAddress() )
             .append( "requestType", requestType )
             .append( "requestCode", requestCode )
             .append( "requestOptions", requestOptions )
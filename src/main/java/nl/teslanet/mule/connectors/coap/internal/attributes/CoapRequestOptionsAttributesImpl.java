@@ -23,17 +23,19 @@
 package nl.teslanet.mule.connectors.coap.internal.attributes;
 
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Optional;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.eclipse.californium.core.coap.OptionSet;
 
+import nl.teslanet.mule.connectors.coap.api.binary.BytesValue;
 import nl.teslanet.mule.connectors.coap.api.error.InvalidOptionValueException;
 import nl.teslanet.mule.connectors.coap.api.options.OptionValueException;
+import nl.teslanet.mule.connectors.coap.api.options.OtherOptionAttribute;
 import nl.teslanet.mule.connectors.coap.api.options.RequestOptionsAttributes;
 import nl.teslanet.mule.connectors.coap.api.query.QueryParamAttribute;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidOptionValueException;
@@ -46,7 +48,11 @@ import nl.teslanet.mule.connectors.coap.internal.utils.MessageUtils;
 
 /**
  * The CoAP option parameters of a request.
- *
+ * Options that need decoding into lists are materialized from the option set
+ * on first access, so flows that do not use them do not pay for decoding.
+ * The option set is not modified after construction of the attributes.
+ * Decoded lists are completely built before they are published in volatile fields, 
+ * so the attributes can be read by several flows concurrently.
  */
 public class CoapRequestOptionsAttributesImpl extends RequestOptionsAttributes implements AppendableToString
 {
@@ -55,29 +61,28 @@ public class CoapRequestOptionsAttributesImpl extends RequestOptionsAttributes i
      */
     static final String MSG_CANNOT_CREATE= "cannot create attribute";
 
+    /**
+     * The option set the attributes are a view of.
+     */
+    private final OptionSet optionSet;
+
     /**
      * 
      * Constructor that uses options from given optionSet.
+     * Entity-tags are validated, but decoded on first access.
      * @param optionSet to copy from.
      * @throws InvalidOptionValueException when given option value could not be copied successfully.
      */
     public CoapRequestOptionsAttributesImpl( OptionSet optionSet ) throws InternalInvalidOptionValueException
     {
         super();
+        this.optionSet= optionSet;
 
         if ( !optionSet.getIfMatch().isEmpty() )
         {
             try
             {
-                Optional< List< DefaultEntityTag > > tmpIfMatch= MessageUtils.getList( optionSet.getIfMatch() );
-                if ( !tmpIfMatch.isPresent() )
-                {
-                    ifExists= true;
-                }
-                else
-                {
-                    ifMatch= Collections.unmodifiableList( tmpIfMatch.get() );
-                }
+                ifExists= !MessageUtils.checkList( optionSet.getIfMatch() );
             }
             catch ( OptionValueException e )
             {
@@ -90,42 +95,29 @@ public class CoapRequestOptionsAttributesImpl extends RequestOptionsAttributes i
         }
         if ( !optionSet.getETags().isEmpty() )
         {
+            boolean valid;
             try
             {
-                Optional< List< DefaultEntityTag > > tmpEtags= MessageUtils.getList( optionSet.getETags() );
-                if ( !tmpEtags.isPresent() )
-                {
-                    throw new InternalInvalidOptionValueException( "Entity-Tag option with empty value is invalid", MSG_CANNOT_CREATE );
-                }
-                else
-                {
-                    etags= Collections.unmodifiableList( tmpEtags.get() );
-                }
+                valid= MessageUtils.checkList( optionSet.getETags() );
             }
             catch ( OptionValueException e )
             {
                 throw new InternalInvalidOptionValueException( "Entity-Tag option is invalid", MSG_CANNOT_CREATE, e );
             }
+            if ( !valid )
+            {
+                throw new InternalInvalidOptionValueException( "Entity-Tag option with empty value is invalid", MSG_CANNOT_CREATE );
+            }
         }
         ifNoneMatch= optionSet.hasIfNoneMatch();
         if ( optionSet.hasUriPort() )
         {
             uriPort= optionSet.getUriPort();
         }
-        if ( !optionSet.getUriPath().isEmpty() )
-        {
-            uriPath= Collections.unmodifiableList( optionSet.getUriPath() );
-        }
         if ( optionSet.hasContentFormat() )
         {
             contentFormat= Integer.valueOf( optionSet.getContentFormat() );
         }
-        if ( !optionSet.getUriQuery().isEmpty() )
-        {
-            LinkedList< QueryParamAttribute > queryParams= new LinkedList<>();
-            optionSet.getUriQuery().forEach( queryParamString -> AttributeUtils.addQueryParam( queryParams, queryParamString ) );
-            uriQuery= Collections.unmodifiableList( queryParams );
-        }
         if ( optionSet.hasAccept() )
         {
             accept= Integer.valueOf( optionSet.getAccept() );
@@ -154,7 +146,106 @@ public class CoapRequestOptionsAttributesImpl extends RequestOptionsAttributes i
         {
             observe= optionSet.getObserve();
         }
-        other= AttributeUtils.createOthers( optionSet.getOthers() );
+    }
+
+    /**
+     * Decode a list of Entity-tags that has been validated on construction.
+     * @param bytesList The Entity-tag values.
+     * @return The unmodifiable list of Entity-tags.
+     */
+    private static List< BytesValue > decodeEntityTags( List< byte[] > bytesList )
+    {
+        ArrayList< BytesValue > tags= new ArrayList<>( bytesList.size() );
+        for ( byte[] bytes : bytesList )
+        {
+            try
+            {
+                tags.add( new DefaultEntityTag( bytes ) );
+            }
+            catch ( OptionValueException e )
+            {
+                //cannot happen, values are checked on construction
+                throw new IllegalStateException( MSG_CANNOT_CREATE, e );
+            }
+        }
+        return Collections.unmodifiableList( tags );
+    }
+
+    /**
+     * @return The If-Match option values, decoded on first access.
+     */
+    @Override
+    public List< BytesValue > getIfMatch()
+    {
+        List< BytesValue > decoded= ifMatch;
+        if ( decoded == null && !ifExists && !optionSet.getIfMatch().isEmpty() )
+        {
+            decoded= decodeEntityTags( optionSet.getIfMatch() );
+            ifMatch= decoded;
+        }
+        return decoded;
+    }
+
+    /**
+     * @return The Entity-tag option values, decoded on first access.
+     */
+    @Override
+    public List< BytesValue > getEtags()
+    {
+        List< BytesValue > decoded= etags;
+        if ( decoded == null && !optionSet.getETags().isEmpty() )
+        {
+            decoded= decodeEntityTags( optionSet.getETags() );
+            etags= decoded;
+        }
+        return decoded;
+    }
+
+    /**
+     * @return The Uri-Path option values, collected on first access.
+     */
+    @Override
+    public List< String > getUriPath()
+    {
+        List< String > decoded= uriPath;
+        if ( decoded == null && !optionSet.getUriPath().isEmpty() )
+        {
+            decoded= Collections.unmodifiableList( new ArrayList<>( optionSet.getUriPath() ) );
+            uriPath= decoded;
+        }
+        return decoded;
+    }
+
+    /**
+     * @return The Uri-Query parameters, parsed on first access.
+     */
+    @Override
+    public List< QueryParamAttribute > getUriQuery()
+    {
+        List< QueryParamAttribute > decoded= uriQuery;
+        if ( decoded == null && !optionSet.getUriQuery().isEmpty() )
+        {
+            LinkedList< QueryParamAttribute > queryParams= new LinkedList<>();
+            optionSet.getUriQuery().forEach( queryParamString -> AttributeUtils.addQueryParam( queryParams, queryParamString ) );
+            decoded= Collections.unmodifiableList( queryParams );
+            uriQuery= decoded;
+        }
+        return decoded;
+    }
+
+    /**
+     * @return The other options, decoded on first access.
+     */
+    @Override
+    public List< OtherOptionAttribute > getOther()
+    {
+        List< OtherOptionAttribute > decoded= other;
+        if ( decoded == null )
+        {
+            decoded= AttributeUtils.createOthers( optionSet.getOthers() );
+            other= decoded;
+        }
+        return decoded;
     }
 
     /**
@@ -189,12 +280,12 @@ public class CoapRequestOptionsAttributesImpl extends RequestOptionsAttributes i
         builder
             .append( "accept", accept )
             .append( "contentFormat", contentFormat )
-            .append( "etags", etags )
+            .append( "etags", getEtags() )
             .append( "ifExists", ifExists )
-            .append( "ifMatch", ifMatch )
+            .append( "ifMatch", getIfMatch() )
             .append( "ifNoneMatch", ifNoneMatch )
             .append( "observe", observe )
-            .append( "other", other )
+            .append( "other", getOther() )
             .append( "requireResponse", requireResponse )
             .append( "requireResponseSize", requireResponseSize )
             .append( "proxyScheme", proxyScheme )
@@ -202,7 +293,7 @@ public class CoapRequestOptionsAttributesImpl extends RequestOptionsAttributes i
             .append( "requestSize", requestSize )
             .append( "uriHost", uriHost )
             .append( "uriPort", uriPort )
-            .append( "uriPath", uriPath )
-            .append( "uriQuery", uriQuery );
+            .append( "uriPath", getUriPath() )
+            .append( "uriQuery", getUriQuery() );
     }
 }
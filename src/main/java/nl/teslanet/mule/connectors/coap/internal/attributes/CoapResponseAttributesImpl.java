@@ -54,6 +54,22 @@ public class CoapResponseAttributesImpl extends CoapResponseAttributes
         super();
     }
 
+    /**
+     * Constructor copying the request attributes of a template. 
+     * The request attributes are not changed after creation, so they are shared with the template.
+     * @param template The attributes to copy the request attributes from.
+     */
+    public CoapResponseAttributesImpl( CoapResponseAttributesImpl template )
+    {
+        super();
+        this.requestType= template.requestType;
+        this.requestCode= template.requestCode;
+        this.localAddress= template.localAddress;
+        this.requestUri= template.requestUri;
+        this.requestUriObject= template.requestUriObject;
+        this.requestOptions= template.requestOptions;
+    }
+
     /**
     }
     * @param requestType the requestType to set
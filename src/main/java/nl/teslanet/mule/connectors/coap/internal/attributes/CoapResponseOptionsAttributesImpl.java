@@ -23,8 +23,10 @@
 package nl.teslanet.mule.connectors.coap.internal.attributes;
 
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
+import java.util.List;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
@@ -32,6 +34,7 @@ import org.eclipse.californium.core.coap.OptionSet;
 
 import nl.teslanet.mule.connectors.coap.api.error.InvalidOptionValueException;
 import nl.teslanet.mule.connectors.coap.api.options.OptionValueException;
+import nl.teslanet.mule.connectors.coap.api.options.OtherOptionAttribute;
 import nl.teslanet.mule.connectors.coap.api.options.ResponseOptionsAttributes;
 import nl.teslanet.mule.connectors.coap.api.query.QueryParamAttribute;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidOptionValueException;
@@ -43,10 +46,19 @@ import nl.teslanet.mule.connectors.coap.internal.utils.AttributesStringBuilder;
 
 /**
  * The option parameters of a CoAP response.
- *
+ * Options that need decoding into lists are materialized from the option set
+ * on first access, so flows that do not use them do not pay for decoding.
+ * The option set is not modified after construction of the attributes.
+ * Decoded lists are completely built before they are published in volatile fields, 
+ * so the attributes can be read by several flows concurrently.
  */
 public class CoapResponseOptionsAttributesImpl extends ResponseOptionsAttributes implements AppendableToString
 {
+    /**
+     * The option set the attributes are a view of.
+     */
+    private final OptionSet optionSet;
+
     /**
      * Constructor that uses options from given optionSet.
      * @param optionSet to copy from.
@@ -55,6 +67,7 @@ public class CoapResponseOptionsAttributesImpl extends ResponseOptionsAttributes
     public CoapResponseOptionsAttributesImpl( OptionSet optionSet ) throws InternalInvalidOptionValueException
     {
         super();
+        this.optionSet= optionSet;
         String errorMsg= "cannot create attribute";
 
         if ( !optionSet.getETags().isEmpty() )
@@ -68,10 +81,6 @@ public class CoapResponseOptionsAttributesImpl extends ResponseOptionsAttributes
                 throw new InternalInvalidOptionValueException( "ETags", errorMsg, e );
             }
         }
-        if ( !optionSet.getLocationPath().isEmpty() )
-        {
-            locationPath= Collections.unmodifiableList( optionSet.getLocationPath() );
-        }
         if ( optionSet.hasContentFormat() )
         {
             contentFormat= Integer.valueOf( optionSet.getContentFormat() );
@@ -80,14 +89,6 @@ public class CoapResponseOptionsAttributesImpl extends ResponseOptionsAttributes
         {
             maxAge= optionSet.getMaxAge();
         }
-        if ( !optionSet.getLocationQuery().isEmpty() )
-        {
-            LinkedList< QueryParamAttribute > queryParams= new LinkedList<>();
-            optionSet
-                .getLocationQuery()
-                .forEach( queryParamString -> AttributeUtils.addQueryParam( queryParams, queryParamString ) );
-            locationQuery= Collections.unmodifiableList( queryParams );
-        }
         if ( optionSet.hasSize1() )
         {
             acceptableRequestSize= optionSet.getSize1();
@@ -100,7 +101,55 @@ public class CoapResponseOptionsAttributesImpl extends ResponseOptionsAttributes
         {
             observe= optionSet.getObserve();
         }
-        other= AttributeUtils.createOthers( optionSet.getOthers() );
+    }
+
+    /**
+     * @return The Location-Path option values, collected on first access.
+     */
+    @Override
+    public List< String > getLocationPath()
+    {
+        List< String > decoded= locationPath;
+        if ( decoded == null && !optionSet.getLocationPath().isEmpty() )
+        {
+            decoded= Collections.unmodifiableList( new ArrayList<>( optionSet.getLocationPath() ) );
+            locationPath= decoded;
+        }
+        return decoded;
+    }
+
+    /**
+     * @return The Location-Query parameters, parsed on first access.
+     */
+    @Override
+    public List< QueryParamAttribute > getLocationQuery()
+    {
+        List< QueryParamAttribute > decoded= locationQuery;
+        if ( decoded == null && !optionSet.getLocationQuery().isEmpty() )
+        {
+            LinkedList< QueryParamAttribute > queryParams= new LinkedList<>();
+            optionSet
+                .getLocationQuery()
+                .forEach( queryParamString -> AttributeUtils.addQueryParam( queryParams, queryParamString ) );
+            decoded= Collections.unmodifiableList( queryParams );
+            locationQuery= decoded;
+        }
+        return decoded;
+    }
+
+    /**
+     * @return The other options, decoded on first access.
+     */
+    @Override
+    public List< OtherOptionAttribute > getOther()
+    {
+        List< OtherOptionAttribute > decoded= other;
+        if ( decoded == null )
+        {
+            decoded= AttributeUtils.createOthers( optionSet.getOthers() );
+            other= decoded;
+        }
+        return decoded;
     }
 
     /**
@@ -136,11 +185,11 @@ public class CoapResponseOptionsAttributesImpl extends ResponseOptionsAttributes
             .append( "acceptableRequestSize", acceptableRequestSize )
             .append( "contentFormat", contentFormat )
             .append( "etag", etag )
-            .append( "locationPath", locationPath )
-            .append( "locationQuery", locationQuery )
+            .append( "locationPath", getLocationPath() )
+            .append( "locationQuery", getLocationQuery() )
             .append( "maxAge", maxAge )
             .append( "observe", observe )
-            .append( "other", other )
+            .append( "other", getOther() )
             .append( "responseSize", responseSize );
     }
 }
@@ -23,13 +23,20 @@
 package nl.teslanet.mule.connectors.coap.internal.client;
 
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
@@ -53,8 +60,8 @@ import org.mule.runtime.api.lifecycle.InitialisationException;
 import org.mule.runtime.api.lifecycle.Startable;
 import org.mule.runtime.api.lifecycle.Stoppable;
 import org.mule.runtime.api.meta.ExpressionSupport;
-import org.mule.runtime.api.metadata.MediaType;
 import org.mule.runtime.api.metadata.TypedValue;
+import org.mule.runtime.api.scheduler.Scheduler;
 import org.mule.runtime.api.scheduler.SchedulerConfig;
 import org.mule.runtime.api.scheduler.SchedulerService;
 import org.mule.runtime.api.transformation.TransformationService;
@@ -71,6 +78,8 @@ import org.mule.runtime.extension.api.annotation.param.RefName;
 import org.mule.runtime.extension.api.annotation.param.display.Placement;
 import org.mule.runtime.extension.api.annotation.param.display.Summary;
 import org.mule.runtime.extension.api.runtime.operation.Result;
+import org.mule.runtime.extension.api.runtime.process.CompletionCallback;
+import org.mule.runtime.extension.api.runtime.source.SourceCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -83,6 +92,7 @@ import nl.teslanet.mule.connectors.coap.api.CoapRequestCode;
 import nl.teslanet.mule.connectors.coap.api.CoapRequestType;
 import nl.teslanet.mule.connectors.coap.api.Defs;
 import nl.teslanet.mule.connectors.coap.api.DiscoverParams;
+import nl.teslanet.mule.connectors.coap.api.NotificationQueuePolicy;
 import nl.teslanet.mule.connectors.coap.api.ObserveCancel;
 import nl.teslanet.mule.connectors.coap.api.ObserverAddParams;
 import nl.teslanet.mule.connectors.coap.api.ObserverExistsParams;
@@ -93,6 +103,8 @@ import nl.teslanet.mule.connectors.coap.api.ProxyConfig;
 import nl.teslanet.mule.connectors.coap.api.RemoteEndpoint;
 import nl.teslanet.mule.connectors.coap.api.RemoteEndpointConfig;
 import nl.teslanet.mule.connectors.coap.api.RequestParams;
+import nl.teslanet.mule.connectors.coap.api.RequestTimeoutParams;
+import nl.teslanet.mule.connectors.coap.api.RequestTarget;
 import nl.teslanet.mule.connectors.coap.api.ResponseHandlerParams;
 import nl.teslanet.mule.connectors.coap.api.attributes.CoapResponseAttributes;
 import nl.teslanet.mule.connectors.coap.api.config.endpoint.AbstractEndpoint;
@@ -105,6 +117,7 @@ import nl.teslanet.mule.connectors.coap.internal.endpoint.OperationalEndpoint;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.EndpointConstructionException;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalClientErrorResponseException;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalEndpointException;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidDurationException;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidHandlerException;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidMessageTypeException;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidObserverException;
@@ -121,6 +134,8 @@ import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalUriException
 import nl.teslanet.mule.connectors.coap.internal.options.MediaTypeMediator;
 import nl.teslanet.mule.connectors.coap.internal.utils.AttributeUtils;
 import nl.teslanet.mule.connectors.coap.internal.utils.MessageUtils;
+import nl.teslanet.mule.connectors.coap.internal.utils.ParallelUtils;
+import nl.teslanet.mule.connectors.coap.internal.utils.TimeUtils;
 
 
 /**
@@ -144,6 +159,26 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
      */
     private static final String INVALID_URI_FORMAT= "%s cannot form valid uri { scheme= %s, host= %s, port= %d, path= %s, query= %s }";
 
+    /**
+     * Number of locks observer operations are striped over.
+     */
+    private static final int OBSERVER_LOCK_STRIPES= 64;
+
+    /**
+     * Maximum number of observers that are stopped in parallel when the client stops.
+     */
+    private static final int STOP_PARALLELISM= 8;
+
+    /**
+     * Uri pattern matching all observers.
+     */
+    public static final String URI_PATTERN_WILDCARD= "*";
+
+    /**
+     * The name of the notification queue slot variable.
+     */
+    public static final String VARNAME_NOTIFICATION_SLOT= "notificationSlot";
+
     /**
      * Clients reference name.
      */
@@ -191,6 +226,41 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
     )
     private boolean throwExceptionOnErrorResponse= true;
 
+    /**
+     * The delay before the first attempt to restore a failed observe relation.
+     * Delays of consecutive attempts double up to the maximum delay, and are randomly jittered.
+     */
+    @Parameter
+    @Optional( defaultValue= "1s" )
+    @Expression( ExpressionSupport.NOT_SUPPORTED )
+    @ParameterDsl( allowReferences= false )
+    @Summary(
+        "The delay before the first attempt to restore a failed observe relation. \nDelays of consecutive attempts double up to the maximum delay, and are randomly jittered."
+    )
+    @Placement( order= 1, tab= "Observe recovery" )
+    private String observeRecoveryInitialDelay= "1s";
+
+    /**
+     * The maximum delay between attempts to restore a failed observe relation.
+     */
+    @Parameter
+    @Optional( defaultValue= "60s" )
+    @Expression( ExpressionSupport.NOT_SUPPORTED )
+    @ParameterDsl( allowReferences= false )
+    @Summary( "The maximum delay between attempts to restore a failed observe relation." )
+    @Placement( order= 2, tab= "Observe recovery" )
+    private String observeRecoveryMaxDelay= "60s";
+
+    /**
+     * The maximum number of observe relations on the same server that are being restored concurrently.
+     */
+    @Parameter
+    @Optional( defaultValue= "4" )
+    @Expression( ExpressionSupport.NOT_SUPPORTED )
+    @Summary( "The maximum number of observe relations on the same server that are being restored concurrently." )
+    @Placement( order= 3, tab= "Observe recovery" )
+    private int observeRecoveryPeerConcurrency= 4;
+
     /**
      * Configuration of client defaults.
      */
@@ -207,6 +277,11 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
      */
     private OperationalEndpoint operationalEndpoint= null;
 
+    /**
+     * The static parts of the requests, resolved against the client defaults.
+     */
+    private PreparedRequests preparedRequests= null;
+
     /**
      * The Californium CoAP client instance.
      */
@@ -217,6 +292,27 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
      */
     private ConcurrentHashMap< URI, ObserveRelation > observeRelations= new ConcurrentHashMap<>();
 
+    /**
+     * The locks guarding observer changes, selected by the observed uri.
+     * Observers on different uri's are mostly guarded by different locks so they can be changed concurrently.
+     */
+    private final Object[] observerLocks= Stream.generate( Object::new ).limit( OBSERVER_LOCK_STRIPES ).toArray();
+
+    /**
+     * The scheduler used to execute bulk observer operations.
+     */
+    private Scheduler ioScheduler= null;
+
+    /**
+     * The scheduler used to restore failed observe relations.
+     */
+    private Scheduler cpuLightScheduler= null;
+
+    /**
+     * The recovery of failed observe relations.
+     */
+    private ObserveRecovery observeRecovery= null;
+
     /**
      * Default endpoint. 
      * Can be used by multiple clients that have no explicit endpoint configuration (reference).
@@ -258,6 +354,7 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
             throw new InitialisationException( e, this );
         }
         scheme= operationalEndpoint.getCoapEndpoint().getUri().getScheme();
+        preparedRequests= new PreparedRequests( clientConfig.getQueryConfigs(), PreparedRequests.DEFAULT_CAPACITY );
         LOGGER.info( "{} initialised.", this );
     }
 
@@ -271,9 +368,17 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
         //TODO scheduler type mismatch!
         //coapClient.setExecutors( ioScheduler, (ScheduledThreadPoolExecutor) cpuLightScheduler, true );
         operationalEndpoint.setSchedulersIfNeeded( schedulerService, schedulerConfig );
+        ioScheduler= schedulerService.ioScheduler( schedulerConfig.withPrefix( getClientName() ) );
+        cpuLightScheduler= schedulerService.cpuLightScheduler( schedulerConfig.withPrefix( getClientName() ) );
         coapClient.setEndpoint( operationalEndpoint.getCoapEndpoint() );
         try
         {
+            observeRecovery= new ObserveRecovery(
+                cpuLightScheduler,
+                TimeUtils.toNanos( observeRecoveryInitialDelay ),
+                TimeUtils.toNanos( observeRecoveryMaxDelay ),
+                observeRecoveryPeerConcurrency
+            );
             operationalEndpoint.startIfNeeded();
         }
         catch ( Exception e )
@@ -290,13 +395,20 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
     @Override
     public void stop() throws MuleException
     {
+        List< ParallelUtils.Task > tasks= new ArrayList<>();
         for ( ObserveRelation relation : observeRelations.values() )
         {
-            relation.stop();
+            tasks.add( relation::stop );
         }
+        ParallelUtils.runAll( ioScheduler, STOP_PARALLELISM, tasks );
         observeRelations.clear();
         coapClient.shutdown();
         coapClient= null;
+        observeRecovery= null;
+        ioScheduler.stop();
+        ioScheduler= null;
+        cpuLightScheduler.stop();
+        cpuLightScheduler= null;
         LOGGER.info( "{} stopped.", this );
     }
 
@@ -350,20 +462,18 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
      * @throws InternalInvalidObserverException when uri is already observed
      * @throws InternalUriException when uri is not valid
      */
-    synchronized void addRelation( URI uri, ObserveRelation relation ) throws InternalInvalidObserverException,
-        InternalUriException
+    void addRelation( URI uri, ObserveRelation relation ) throws InternalInvalidObserverException, InternalUriException
     {
         if ( uri == null )
         {
             throw new InternalUriException( this + " empty uri is invalid." );
         }
-        if ( observeRelations.get( uri ) != null )
+        if ( observeRelations.putIfAbsent( uri, relation ) != null )
         {
             throw new InternalInvalidObserverException(
                 String.format( "%s observer already exists: { %s }", this, uri )
             );
         }
-        observeRelations.put( uri, relation );
     }
 
     /**
@@ -385,11 +495,19 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
      * Remove an observe entry.
      * @param uri The observed uri.
      */
-    synchronized void removeRelation( URI uri )
+    void removeRelation( URI uri )
     {
         observeRelations.remove( uri );
     }
 
+    /**
+     * @return The number of active observe relations.
+     */
+    public int getObserveRelationCount()
+    {
+        return observeRelations.size();
+    }
+
     /**
      * Get the relations.
      * @param uri The observed uri.
@@ -410,108 +528,389 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
         return operationalEndpoint.getCoapEndpoint().getAddress().toString();
     }
 
-    // TODO add custom timeout
     /**
-     * Issue a request on a CoAP resource residing on a server.
+     * Issue a request on a CoAP resource residing on a server, without blocking the calling thread.
+     * The calling thread is released as soon as the request is sent. The result of the request, 
+     * or the failure when no valid response is received, is delivered to the callback.
      * @param requestParams Builder containing request parameters.
      * @param options The request options.
-     * @param handlerBuilder Builder containing the name of the handle when the response is handled asynchronously
-     * @return The result of the request including payload and attributes.
-     * @throws InternalInvalidHandlerException  When the handlerName is not null but does not reference an existing handler. 
+     * @param timeoutParams The timeout of the request.
+     * @param callback The callback that completes the request. Failures are delivered as internal exceptions: 
+     * {@link InternalEndpointException} when CoAP communication failed,
+     * {@link InternalNoResponseException} when timeout has occurred,
+     * {@link InternalClientErrorResponseException} when response indicates client error,
+     * {@link InternalServerErrorResponseException} when response indicates server error,
+     * {@link InternalInvalidResponseCodeException} or {@link InternalResponseException} 
+     * when the response indicates other error or cannot be processed.
      * @throws InternalRequestException When the Request could not be issued.
-     * @throws InternalResponseException When the received response appears to be invalid and cannot be processed.
-     * @throws InternalEndpointException When CoAP communication failed.
      * @throws InternalInvalidRequestCodeException When the request code has invalid value.
-     * @throws InternalNoResponseException When timeout has occurred.
-     * @throws InternalClientErrorResponseException When response indicates client error.
-     * @throws InternalInvalidResponseCodeException When response indicates other error.
-     * @throws InternalServerErrorResponseException When response indicates server error.
      * @throws InternalUriException When given request uri parameters are invalid.
      */
-    Result< InputStream, CoapResponseAttributes > doRequest(
+    void doRequest(
         RequestParams requestParams,
         RequestOptionsParams options,
-        ResponseHandlerParams handlerBuilder
-    ) throws InternalInvalidHandlerException,
-        InternalRequestException,
-        InternalResponseException,
-        InternalEndpointException,
+        RequestTimeoutParams timeoutParams,
+        CompletionCallback< InputStream, CoapResponseAttributes > callback
+    ) throws InternalRequestException,
         InternalInvalidRequestCodeException,
-        InternalNoResponseException,
-        InternalClientErrorResponseException,
-        InternalInvalidResponseCodeException,
-        InternalServerErrorResponseException,
         InternalUriException
     {
-        Result< InputStream, CoapResponseAttributes > result= null;
-        CoapHandler handler= null;
+        Long timeLeft= timeLeft( timeoutParams );
         try
         {
             CoapRequestBuilderImpl requestBuilder= new CoapRequestBuilderImpl( requestParams, options );
-            if ( handlerBuilder != null )
+            Request request= requestBuilder.build();
+            send( createCoapHandler( requestBuilder, request, callback ), request, timeLeft );
+        }
+        catch ( InternalInvalidOptionValueException | InternalUnkownOptionException e )
+        {
+            throw new InternalRequestException( this + " cannot process request options", e );
+        }
+    }
+
+    /**
+     * Issue a request on a number of targets, without blocking the calling thread.
+     * All requests are sent through the endpoint of the client, so its configuration 
+     * (e.g. congestion control) governs how they are transmitted. At most the given number 
+     * of requests is in progress at the same time, the next target is sent when a request completes.
+     * When all requests are completed, the results are delivered to the callback in the order of the targets. 
+     * The result of a target that did not respond has no payload and has attributes
+     * indicating the failure.
+     * @param requestParams Builder containing request parameters.
+     * @param options The request options.
+     * @param targets The targets of the request.
+     * @param parallelism The maximum number of requests in progress at the same time.
+     * @param timeoutParams The timeout of the requests.
+     * @param callback The callback that completes the requests.
+     * @throws InternalRequestException When a Request could not be issued.
+     * @throws InternalInvalidRequestCodeException When the request code has invalid value.
+     * @throws InternalUriException When given request uri parameters are invalid.
+     */
+    void doRequest(
+        RequestParams requestParams,
+        RequestOptionsParams options,
+        List< RequestTarget > targets,
+        int parallelism,
+        RequestTimeoutParams timeoutParams,
+        CompletionCallback< List< Result< InputStream, CoapResponseAttributes > >, Void > callback
+    ) throws InternalRequestException,
+        InternalInvalidRequestCodeException,
+        InternalUriException
+    {
+        Long timeout= timeout( timeoutParams );
+        Long deadline= ( timeoutParams == null ? null : timeoutParams.getDeadline() );
+        int size= targets.size();
+        //build all requests first, so invalid parameters fail before any request is sent
+        ArrayList< CoapRequestBuilderImpl > requestBuilders= new ArrayList<>( size );
+        ArrayList< Request > requests= new ArrayList<>( size );
+        try
+        {
+            for ( RequestTarget target : targets )
             {
-                // asynchronous request
-                ResponseProcessor processor= ResponseProcessor
-                    .getResponseProcessor( handlerBuilder.getResponseHandler().getHandlerName() );
-                handler= createCoapHandler(
-                    handlerBuilder.getResponseHandler().getHandlerName(),
-                    requestBuilder,
-                    processor
-                );
-                coapClient.advanced( handler, requestBuilder.build() );
-                // nothing to return
+                CoapRequestBuilderImpl requestBuilder= new CoapRequestBuilderImpl( requestParams, options, target );
+                requests.add( requestBuilder.build() );
+                requestBuilders.add( requestBuilder );
+            }
+        }
+        catch ( InternalInvalidOptionValueException | InternalUnkownOptionException e )
+        {
+            throw new InternalRequestException( this + " cannot process request options", e );
+        }
+        if ( size == 0 )
+        {
+            callback.success( createListResult( new ArrayList<>() ) );
+            return;
+        }
+        new TargetRequests( requestBuilders, requests, timeout, deadline, callback ).start( parallelism );
+    }
+
+    /**
+     * The requests of a request issued on multiple targets. 
+     * At most a given number of requests is in progress at the same time, 
+     * the next target is sent when a request completes.
+     */
+    private class TargetRequests
+    {
+        /**
+         * The builders that issued the requests.
+         */
+        private final List< CoapRequestBuilderImpl > requestBuilders;
+
+        /**
+         * The requests of the targets.
+         */
+        private final List< Request > requests;
+
+        /**
+         * The timeout of each request [ns], null when there is none.
+         */
+        private final Long timeout;
+
+        /**
+         * The deadline of the requests [ms since epoch], null when there is none.
+         */
+        private final Long deadline;
+
+        /**
+         * The callback to complete when all requests are completed.
+         */
+        private final CompletionCallback< List< Result< InputStream, CoapResponseAttributes > >, Void > callback;
+
+        /**
+         * The results of the targets.
+         */
+        private final AtomicReferenceArray< Result< InputStream, CoapResponseAttributes > > results;
+
+        /**
+         * The index of the next target to send.
+         */
+        private final AtomicInteger next= new AtomicInteger( 0 );
+
+        /**
+         * The number of requests that are not completed.
+         */
+        private final AtomicInteger outstanding;
+
+        /**
+         * The number of sends requested that are not handled yet.
+         */
+        private final AtomicInteger sendsRequested= new AtomicInteger( 0 );
+
+        /**
+         * Constructor.
+         * @param requestBuilders The builders that issued the requests.
+         * @param requests The requests of the targets.
+         * @param timeout The timeout of each request [ns], null when there is none.
+         * @param deadline The deadline of the requests [ms since epoch], null when there is none.
+         * @param callback The callback to complete when all requests are completed.
+         */
+        private TargetRequests(
+            List< CoapRequestBuilderImpl > requestBuilders,
+            List< Request > requests,
+            Long timeout,
+            Long deadline,
+            CompletionCallback< List< Result< InputStream, CoapResponseAttributes > >, Void > callback
+        )
+        {
+            this.requestBuilders= requestBuilders;
+            this.requests= requests;
+            this.timeout= timeout;
+            this.deadline= deadline;
+            this.callback= callback;
+            results= new AtomicReferenceArray<>( requests.size() );
+            outstanding= new AtomicInteger( requests.size() );
+        }
+
+        /**
+         * Start sending the requests.
+         * @param parallelism The maximum number of requests in progress at the same time.
+         */
+        private void start( int parallelism )
+        {
+            int window= Math.max( 1, Math.min( parallelism, requests.size() ) );
+            for ( int i= 0; i < window; i++ )
+            {
+                sendNext();
+            }
+        }
+
+        /**
+         * Send the next target, if any. 
+         * Sends requested while sending, e.g. by requests that complete immediately,
+         * are handled by the thread that is sending, so the stack does not grow.
+         */
+        private void sendNext()
+        {
+            if ( sendsRequested.getAndIncrement() > 0 ) return;
+            do
+            {
+                int index= next.getAndIncrement();
+                if ( index < requests.size() )
+                {
+                    try
+                    {
+                        send(
+                            createHandler( index ),
+                            requests.get( index ),
+                            DeadlineHandler.timeLeft( timeout, deadline, System.currentTimeMillis() )
+                        );
+                    }
+                    catch ( RuntimeException e )
+                    {
+                        LOGGER.error( Client.this + " cannot send request to target", e );
+                        complete( index, null );
+                    }
+                }
+            }
+            while ( sendsRequested.decrementAndGet() > 0 );
+        }
+
+        /**
+         * Create the handler of the response of a target.
+         * @param index The index of the target.
+         * @return The handler.
+         */
+        private CoapHandler createHandler( final int index )
+        {
+            return new CoapHandler()
+                {
+                    @Override
+                    public void onLoad( CoapResponse response )
+                    {
+                        complete( index, response );
+                    }
+
+                    @Override
+                    public void onError()
+                    {
+                        complete( index, null );
+                    }
+                };
+        }
+
+        /**
+         * Store the result of a target. Complete the callback when it is the last one,
+         * otherwise send the next target.
+         * @param index The index of the target.
+         * @param response The response received, or null when none was received.
+         */
+        private void complete( int index, CoapResponse response )
+        {
+            results.set( index, createTargetResult( requestBuilders.get( index ), response ) );
+            if ( outstanding.decrementAndGet() == 0 )
+            {
+                ArrayList< Result< InputStream, CoapResponseAttributes > > list= new ArrayList<>( results.length() );
+                for ( int j= 0; j < results.length(); j++ )
+                {
+                    list.add( results.get( j ) );
+                }
+                callback.success( createListResult( list ) );
             }
             else
             {
-                // send out synchronous request
-                result= executeSynchronous( requestBuilder );
+                sendNext();
             }
         }
+    }
+
+    /**
+     * Create the result of a request issued on multiple targets.
+     * @param results The results of the targets.
+     * @return The result.
+     */
+    private static Result< List< Result< InputStream, CoapResponseAttributes > >, Void > createListResult(
+        List< Result< InputStream, CoapResponseAttributes > > results
+    )
+    {
+        return Result.< List< Result< InputStream, CoapResponseAttributes > >, Void > builder().output( results ).build();
+    }
+
+    /**
+     * Create the result of a target of a request issued on multiple targets.
+     * The response is not checked for errors. When it cannot be processed 
+     * the target is handled as if no response was received.
+     * @param requestBuilder The builder that issued the request.
+     * @param response The response received, or null when none was received.
+     * @return The result of the target.
+     */
+    private Result< InputStream, CoapResponseAttributes > createTargetResult(
+        CoapRequestBuilder requestBuilder,
+        CoapResponse response
+    )
+    {
+        CoapResponseAttributesImpl responseAttributes;
+        try
+        {
+            responseAttributes= ResponseProcessor
+                .createReceivedResponseAttributes( getLocalAddress(), requestBuilder, response );
+            return ResponseProcessor.createResult( responseAttributes, response );
+        }
+        catch (
+            InternalInvalidOptionValueException | InternalInvalidResponseCodeException
+            | InternalInvalidMessageTypeException | InternalUriException | RuntimeException e
+        )
+        {
+            LOGGER.error( this + " cannot process response of request target", e );
+        }
+        try
+        {
+            responseAttributes= ResponseProcessor
+                .createReceivedResponseAttributes( getLocalAddress(), requestBuilder, null );
+        }
+        catch (
+            InternalInvalidOptionValueException | InternalInvalidResponseCodeException
+            | InternalInvalidMessageTypeException | InternalUriException | RuntimeException e
+        )
+        {
+            //this should never happen, the request uri has been built already
+            responseAttributes= new CoapResponseAttributesImpl();
+        }
+        return ResponseProcessor.createResult( responseAttributes, null );
+    }
+
+    /**
+     * Issue a request on a CoAP resource residing on a server. 
+     * The response is handled asynchronously by the response handler.
+     * @param requestParams Builder containing request parameters.
+     * @param options The request options.
+     * @param timeoutParams The timeout of the request.
+     * @param handlerBuilder Builder containing the name of the handler that handles the response.
+     * @throws InternalInvalidHandlerException  When the handlerName does not reference an existing handler. 
+     * @throws InternalRequestException When the Request could not be issued.
+     * @throws InternalInvalidRequestCodeException When the request code has invalid value.
+     * @throws InternalUriException When given request uri parameters are invalid.
+     */
+    void doRequest(
+        RequestParams requestParams,
+        RequestOptionsParams options,
+        RequestTimeoutParams timeoutParams,
+        ResponseHandlerParams handlerBuilder
+    ) throws InternalInvalidHandlerException,
+        InternalRequestException,
+        InternalInvalidRequestCodeException,
+        InternalUriException
+    {
+        Long timeLeft= timeLeft( timeoutParams );
+        try
+        {
+            CoapRequestBuilderImpl requestBuilder= new CoapRequestBuilderImpl( requestParams, options );
+            ResponseProcessor processor= ResponseProcessor
+                .getResponseProcessor( handlerBuilder.getResponseHandler().getHandlerName() );
+            CoapHandler handler= createCoapHandler(
+                handlerBuilder.getResponseHandler().getHandlerName(),
+                requestBuilder,
+                processor
+            );
+            send( handler, requestBuilder.build(), timeLeft );
+        }
         catch ( InternalInvalidOptionValueException | InternalUnkownOptionException e )
         {
             throw new InternalRequestException( this + " cannot process request options", e );
         }
-        return result;
     }
 
     /**
-     * Execute the request synchronously.
-     * @param request The request to execute.
+     * Create the result of a request from the received response.
+     * @param requestBuilder The builder that issued the request.
+     * @param response The response received, or null when none was received.
      * @return The result.
-     * @throws InternalEndpointException The Endpoint cannot execute the request.
      * @throws InternalResponseException  The response could not be interpreted.
      * @throws InternalServerErrorResponseException The response received indicates server error.
      * @throws InternalInvalidResponseCodeException The response contained an invalid response code.
      * @throws InternalClientErrorResponseException The response received indicates client error.
      * @throws InternalNoResponseException No response was received within exchange lifetime.
-     * @throws InternalInvalidRequestCodeException When request code is invalid.
-     * @throws InternalUnkownOptionException  When an other option is unknown.
-     * @throws InternalInvalidOptionValueException  When an option value is invalid.
-     * @throws InternalRequestException  When request parameters are invalid.
      * @throws InternalUriException  When request uri is invalid.
      */
-    private Result< InputStream, CoapResponseAttributes > executeSynchronous( CoapRequestBuilder requestBuilder )
-        throws InternalEndpointException,
-        InternalNoResponseException,
+    private Result< InputStream, CoapResponseAttributes > createResult(
+        CoapRequestBuilder requestBuilder,
+        CoapResponse response
+    ) throws InternalNoResponseException,
         InternalClientErrorResponseException,
         InternalInvalidResponseCodeException,
         InternalServerErrorResponseException,
         InternalResponseException,
-        InternalInvalidRequestCodeException,
-        InternalUriException,
-        InternalRequestException,
-        InternalInvalidOptionValueException,
-        InternalUnkownOptionException
+        InternalUriException
     {
-        CoapResponse response;
-        try
-        {
-            response= coapClient.advanced( requestBuilder.build() );
-        }
-        catch ( ConnectorException | IOException e )
-        {
-            throw new InternalEndpointException( this + " CoAP request failed", e );
-        }
         throwExceptionWhenNeeded( throwExceptionOnErrorResponse, response );
         CoapResponseAttributesImpl responseAttributes;
         try
@@ -526,29 +925,7 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
         {
             throw new InternalResponseException( this + " CoAP response cannot be processed", e );
         }
-        Result< InputStream, CoapResponseAttributes > result;
-        if ( response == null )
-        {
-            result= Result
-                .< InputStream, CoapResponseAttributes > builder()
-                .output( null )
-                .attributes( responseAttributes )
-                .mediaType( MediaType.ANY )
-                .build();
-        }
-        else
-        {
-            byte[] payload= response.getPayload();
-            // payload is always initialized, no need to check for null. 
-            result= Result
-                .< InputStream, CoapResponseAttributes > builder()
-                .output( new ByteArrayInputStream( payload ) )
-                .length( payload.length )
-                .attributes( responseAttributes )
-                .mediaType( MediaTypeMediator.toMediaType( response.getOptions().getContentFormat() ) )
-                .build();
-        }
-        return result;
+        return ResponseProcessor.createResult( responseAttributes, response );
     }
 
     /**
@@ -612,6 +989,22 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
         }
     }
 
+    /**
+     * Create a Handler of CoAP responses that completes a non-blocking request.
+     * @param requestBuilder The builder that issued the request.
+     * @param request The request issued.
+     * @param callback The callback to complete.
+     * @return The created handler.
+     */
+    private CoapHandler createCoapHandler(
+        final CoapRequestBuilder requestBuilder,
+        final Request request,
+        final CompletionCallback< InputStream, CoapResponseAttributes > callback
+    )
+    {
+        return new RequestCompletionHandler( this, request, response -> createResult( requestBuilder, response ), callback );
+    }
+
     /**
      * Create a Handler of CoAP responses.
      * @param handlerName The name of response handler. 
@@ -707,13 +1100,19 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
     /**
      * See if server is reachable
      * @param pingbuilder The ping request parameters.
+     * @param timeoutParams The timeout of the ping.
      * @return true 
      * @throws ConnectorException
      * @throws IOException
      * @throws InternalUriException
+     * @throws InternalRequestException When the timeout is invalid.
      */
-    Boolean ping( PingParams pingbuilder ) throws ConnectorException, IOException, InternalUriException
+    Boolean ping( PingParams pingbuilder, RequestTimeoutParams timeoutParams ) throws ConnectorException,
+        IOException,
+        InternalUriException,
+        InternalRequestException
     {
+        Long timeLeft= timeLeft( timeoutParams );
         Request request;
         try
         {
@@ -723,7 +1122,14 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
         {
             throw new InternalUriException( e );
         }
-        coapClient.advanced( request );
+        if ( timeLeft == null )
+        {
+            coapClient.advanced( request );
+        }
+        else
+        {
+            synchronous( request, timeLeft );
+        }
         return request.isRejected();
 
     }
@@ -734,6 +1140,7 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
      * @param host hostname or ip of server to ping, when null client configuration is used
      * @param port portnumber of server to ping, when null client configuration is used
      * @param queryString
+     * @param timeoutParams The timeout of the discover request.
      * @return The set containg the discovered resources.
      * @throws InternalUriException When no valid uri could be constructed.
      * @throws InternalUnexpectedResponseException When resonse does not contain link format payload.
@@ -749,7 +1156,8 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
      * @throws InternalUnkownOptionException 
      * @throws InternalInvalidOptionValueException 
      */
-    Set< WebLink > discover( DiscoverParams discoverParams ) throws InternalUriException,
+    Set< WebLink > discover( DiscoverParams discoverParams, RequestTimeoutParams timeoutParams )
+        throws InternalUriException,
         InternalNoResponseException,
         InternalUnexpectedResponseException,
         ConnectorException,
@@ -763,8 +1171,9 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
         InternalInvalidOptionValueException,
         InternalUnkownOptionException
     {
+        Long timeLeft= timeLeft( timeoutParams );
         Request request= new CoapRequestBuilderImpl( discoverParams ).build();
-        CoapResponse response= coapClient.advanced( request );
+        CoapResponse response= ( timeLeft == null ? coapClient.advanced( request ) : synchronous( request, timeLeft ) );
 
         throwExceptionWhenNeeded( response );
         // check if Link Format
@@ -778,15 +1187,127 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
         return LinkFormat.parse( response.getResponseText() );
     }
 
+    /**
+     * Get the time left to receive the response of a request.
+     * @param timeoutParams The timeout parameters of the request.
+     * @return The time left [ns], null when the request has no timeout nor deadline.
+     * @throws InternalRequestException When the timeout is invalid.
+     */
+    private Long timeLeft( RequestTimeoutParams timeoutParams ) throws InternalRequestException
+    {
+        if ( timeoutParams == null ) return null;
+        return DeadlineHandler.timeLeft( timeout( timeoutParams ), timeoutParams.getDeadline(), System.currentTimeMillis() );
+    }
+
+    /**
+     * Get the timeout of a request.
+     * @param timeoutParams The timeout parameters of the request.
+     * @return The timeout [ns], null when the request has no timeout.
+     * @throws InternalRequestException When the timeout is invalid.
+     */
+    private Long timeout( RequestTimeoutParams timeoutParams ) throws InternalRequestException
+    {
+        if ( timeoutParams == null || timeoutParams.getTimeout() == null ) return null;
+        try
+        {
+            return TimeUtils.toNanos( timeoutParams.getTimeout() );
+        }
+        catch ( InternalInvalidDurationException e )
+        {
+            throw new InternalRequestException( this + " invalid timeout", e );
+        }
+    }
+
+    /**
+     * Send a request without blocking the calling thread. 
+     * When the request has a deadline and no response has been received at the deadline,
+     * the request is canceled and the handler is notified of the error.
+     * @param handler The handler of the response.
+     * @param request The request to send.
+     * @param timeLeft The time left until the deadline [ns], null when the request has no deadline.
+     */
+    private void send( CoapHandler handler, Request request, Long timeLeft )
+    {
+        if ( timeLeft == null )
+        {
+            coapClient.advanced( handler, request );
+        }
+        else if ( timeLeft == 0L )
+        {
+            // the deadline has passed already
+            handler.onError();
+        }
+        else
+        {
+            DeadlineHandler deadlineHandler= DeadlineHandler.create( handler, request );
+            coapClient.advanced( deadlineHandler, request );
+            deadlineHandler.schedule( cpuLightScheduler, timeLeft );
+        }
+    }
+
+    /**
+     * Send a request and wait for the response until the deadline.
+     * @param request The request to send.
+     * @param timeLeft The time left until the deadline [ns].
+     * @return The response, or null when no response has been received.
+     * @throws ConnectorException When the request could not be sent.
+     * @throws IOException When the request could not be sent.
+     */
+    private CoapResponse synchronous( Request request, long timeLeft ) throws ConnectorException, IOException
+    {
+        CompletableFuture< CoapResponse > result= new CompletableFuture<>();
+        send( new CoapHandler()
+            {
+                @Override
+                public void onLoad( CoapResponse response )
+                {
+                    result.complete( response );
+                }
+
+                @Override
+                public void onError()
+                {
+                    result.complete( null );
+                }
+            }, request, timeLeft );
+        CoapResponse response;
+        try
+        {
+            response= result.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            request.cancel();
+            return null;
+        }
+        catch ( ExecutionException e )
+        {
+            // the handler does not complete exceptionally
+            throw new IOException( e.getCause() );
+        }
+        Throwable sendError= request.getSendError();
+        if ( response == null && sendError != null )
+        {
+            if ( sendError instanceof ConnectorException )
+            {
+                throw (ConnectorException) sendError;
+            }
+            throw new IOException( sendError );
+        }
+        return response;
+    }
+
     /**
      * Start observing a resource on a CoAP server.
+     * When the resource is observed already, the handler subscribes to the existing relation with the server.
      * @param params The observer parameters.
      * @param handlerBuilder The response handler parameters.
      * @throws InternalInvalidObserverException When the observer parameters are invalid.
      * @throws InternalUriException When the uri parameters of the resource to observe are invalid.
      * @throws InternalInvalidHandlerException When the handler parameters are invalid.
      */
-    synchronized void addObserver( ObserverAddParams params, ResponseHandlerParams handlerBuilder )
+    void addObserver( ObserverAddParams params, ResponseHandlerParams handlerBuilder )
         throws InternalInvalidObserverException,
         InternalUriException,
         InternalInvalidHandlerException
@@ -794,54 +1315,379 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
         ResponseProcessor processor= ResponseProcessor
             .getResponseProcessor( handlerBuilder.getResponseHandler().getHandlerName() );
         CoapRequestBuilderImpl requestBuilder= new CoapRequestBuilderImpl( params );
-        URI uri= requestBuilder.buildResourceUri();
-        String localAddress= getLocalAddress();
-        ObserveRelation relation= getRelation( uri );
-        if ( relation != null )
+        startObserver( requestBuilder.buildResourceUri(), requestBuilder, params, processor );
+    }
+
+    /**
+     * Start observing resources on CoAP servers. All observe requests are constructed before any request is sent,
+     * so when the parameters of one of the targets are invalid, no observer is started.
+     * The observe requests are sent with at most the given number of requests in progress at the same time.
+     * @param params The observer parameters.
+     * @param targets The targets to observe. Target parameters override the observer parameters.
+     * @param handlerBuilder The response handler parameters.
+     * @param parallelism The maximum number of observers that are started concurrently.
+     * @throws InternalUriException When the uri parameters of a resource to observe are invalid.
+     * @throws InternalInvalidHandlerException When the handler parameters are invalid.
+     */
+    void addObservers(
+        ObserverAddParams params,
+        List< RequestTarget > targets,
+        ResponseHandlerParams handlerBuilder,
+        int parallelism
+    ) throws InternalUriException,
+        InternalInvalidHandlerException
+    {
+        ResponseProcessor processor= ResponseProcessor
+            .getResponseProcessor( handlerBuilder.getResponseHandler().getHandlerName() );
+        LinkedHashMap< URI, CoapRequestBuilderImpl > requestBuilders= new LinkedHashMap<>();
+        for ( RequestTarget target : targets )
+        {
+            CoapRequestBuilderImpl requestBuilder= new CoapRequestBuilderImpl( params, target );
+            requestBuilders.put( requestBuilder.buildResourceUri(), requestBuilder );
+        }
+        List< ParallelUtils.Task > tasks= new ArrayList<>();
+        for ( Map.Entry< URI, CoapRequestBuilderImpl > entry : requestBuilders.entrySet() )
+        {
+            tasks.add( () -> startObserver( entry.getKey(), entry.getValue(), params, processor ) );
+        }
+        logFailures( "start", ParallelUtils.runAll( ioScheduler, parallelism, tasks ) );
+    }
+
+    /**
+     * Start an observer. When the uri is observed already, the handler subscribes to the existing relation,
+     * which must have the same request and notification queue settings. 
+     * When the handler has subscribed already, the relation is stopped and replaced by a relation using
+     * the given request parameters, which takes over the other subscribers.
+     * @param uri The uri of the resource to observe.
+     * @param requestBuilder The builder of the observe requests.
+     * @param params The observer parameters.
+     * @param processor The processor of the notifications.
+     * @throws InternalInvalidObserverException When the observer cannot be registered, 
+     * or its settings differ from the existing relation.
+     * @throws InternalUriException When the uri is invalid.
+     */
+    private void startObserver(
+        URI uri,
+        CoapRequestBuilderImpl requestBuilder,
+        ObserverAddParams params,
+        ResponseProcessor processor
+    ) throws InternalInvalidObserverException,
+        InternalUriException
+    {
+        synchronized ( observerLock( uri ) )
+        {
+            ObserveRelation relation= getRelation( uri );
+            if ( relation != null && !relation.hasProcessor( processor ) )
+            {
+                checkJoin(
+                    uri,
+                    relation,
+                    requestBuilder,
+                    null,
+                    params.getNotificationQueuePolicy(),
+                    params.getNotificationQueueCapacity()
+                );
+                relation.addProcessor( processor );
+                return;
+            }
+            ObserveRelation newRelation= createRelation(
+                uri,
+                requestBuilder,
+                clientConfig.isActiveObserveCancel(),
+                new NotificationQueue(
+                    params.getNotificationQueuePolicy(),
+                    params.getNotificationQueueCapacity(),
+                    ioScheduler
+                )
+            );
+            if ( relation != null )
+            {
+                // re-registration by the handler, only one observe relation allowed per uri
+                relation.stop( false, null );
+                removeRelation( uri );
+                newRelation.addSubscribers( relation );
+            }
+            else
+            {
+                newRelation.addProcessor( processor );
+            }
+            addRelation( uri, newRelation );
+            newRelation.start();
+        }
+    }
+
+    /**
+     * Subscribe an observer source to the notifications of a resource on a CoAP server.
+     * When the resource is observed already, the source subscribes to the existing relation with the server,
+     * which must have the same request, cancel and notification queue settings.
+     * @param uri The uri of the resource to observe.
+     * @param requestBuilder The builder of the observe requests.
+     * @param config The observer source configuration.
+     * @param source The callback of the observer source.
+     * @throws InternalInvalidObserverException When the observer cannot be registered,
+     * or its settings differ from the existing relation.
+     * @throws InternalUriException When the uri is invalid.
+     */
+    void subscribeObserver(
+        URI uri,
+        CoapRequestBuilder requestBuilder,
+        ObserverConfig config,
+        SourceCallback< InputStream, CoapResponseAttributes > source
+    ) throws InternalInvalidObserverException,
+        InternalUriException
+    {
+        synchronized ( observerLock( uri ) )
+        {
+            ObserveRelation relation= getRelation( uri );
+            if ( relation != null )
+            {
+                checkJoin(
+                    uri,
+                    relation,
+                    requestBuilder,
+                    activeObserveCancel( config.getObserveCancel() ),
+                    config.getNotificationQueuePolicy(),
+                    config.getNotificationQueueCapacity()
+                );
+                relation.addSource( source );
+                return;
+            }
+            relation= createRelation(
+                uri,
+                requestBuilder,
+                activeObserveCancel( config.getObserveCancel() ),
+                new NotificationQueue(
+                    config.getNotificationQueuePolicy(),
+                    config.getNotificationQueueCapacity(),
+                    ioScheduler
+                )
+            );
+            relation.addSource( source );
+            addRelation( uri, relation );
+            relation.start();
+        }
+    }
+
+    /**
+     * Check a subscriber joining a relation has the same settings as the relation.
+     * @param uri The observed uri.
+     * @param relation The relation to join.
+     * @param requestBuilder The builder of the observe requests of the subscriber.
+     * @param proactiveCancel The cancel setting of the subscriber, or null when it has none.
+     * @param policy The notification queue policy of the subscriber.
+     * @param capacity The notification queue capacity of the subscriber.
+     * @throws InternalInvalidObserverException When settings of the subscriber differ from the relation.
+     */
+    private void checkJoin(
+        URI uri,
+        ObserveRelation relation,
+        CoapRequestBuilder requestBuilder,
+        Boolean proactiveCancel,
+        NotificationQueuePolicy policy,
+        int capacity
+    ) throws InternalInvalidObserverException
+    {
+        List< String > conflicts= relation.getConflicts( requestBuilder, proactiveCancel, policy, capacity );
+        if ( !conflicts.isEmpty() )
         {
-            // only one observe relation allowed per uri
-            relation.stop(false, null);
-            removeRelation( uri );
+            throw new InternalInvalidObserverException(
+                String
+                    .format(
+                        "%s cannot join observer on resource { %s }, settings differ from the existing observer: %s",
+                        this,
+                        uri,
+                        String.join( ", ", conflicts )
+                    )
+            );
+        }
+    }
+
+    /**
+     * Unsubscribe an observer source. The relation with the server is stopped when no subscribers are left.
+     * @param uri The observed uri.
+     * @param source The callback of the observer source.
+     * @param proactiveCancel If true, a cancellation message is sent to the server.
+     */
+    void unsubscribeObserver(
+        URI uri,
+        SourceCallback< InputStream, CoapResponseAttributes > source,
+        boolean proactiveCancel
+    )
+    {
+        synchronized ( observerLock( uri ) )
+        {
+            ObserveRelation relation= observeRelations.get( uri );
+            if ( relation != null && relation.removeSource( source ) && relation.getSubscriberCount() == 0 )
+            {
+                relation.stop( proactiveCancel, null );
+                removeRelation( uri );
+            }
         }
-        relation= new ObserveRelation(
+    }
+
+    /**
+     * Create an observe relation.
+     * @param uri The uri of the resource to observe.
+     * @param requestBuilder The builder of the observe requests.
+     * @param proactiveCancel The default setting indicating whether to proactively terminate the observation.
+     * @param notificationQueue The queue handing notifications over to the subscribers.
+     * @return The relation created.
+     */
+    private ObserveRelation createRelation(
+        URI uri,
+        CoapRequestBuilder requestBuilder,
+        boolean proactiveCancel,
+        NotificationQueue notificationQueue
+    )
+    {
+        return new ObserveRelation(
             String.format( "CoAP Observer { %s::%s }", getClientName(), uri ),
             coapClient,
             requestBuilder,
-            clientConfig.isActiveObserveCancel(),
-            ( requestBuilder2, response ) -> ResponseProcessor
-                .processMuleFlow( localAddress, requestBuilder2, response, processor )
+            proactiveCancel,
+            observeRecovery,
+            notificationQueue,
+            getLocalAddress()
         );
-        addRelation( uri, relation );
-        relation.start();
     }
 
     /**
-     * Stop observing a resource of a CoAP server.
+     * Stop observing a resource of a CoAP server. When a response handler is given only that handler is unsubscribed,
+     * otherwise all response handlers. The relation with the server is stopped when no subscribers are left.
      * @see <a href="https://www.rfc-editor.org/rfc/rfc7641.html#section-3.6">IETF RFC 7252 - 3.6. Cancellation</a>
      * @param params The parameters identifying the observer to stop.
      * @throws InternalUriException
      * @throws InternalInvalidObserverException
+     * @throws InternalInvalidHandlerException When the handler parameter is invalid.
      */
-    synchronized void removeObserver( ObserverRemoveParams params ) throws InternalUriException,
-        InternalInvalidObserverException
+    void removeObserver( ObserverRemoveParams params ) throws InternalUriException,
+        InternalInvalidObserverException,
+        InternalInvalidHandlerException
     {
+        ResponseProcessor processor= null;
+        if ( params.getResponseHandler() != null )
+        {
+            processor= ResponseProcessor.getResponseProcessor( params.getResponseHandler().getHandlerName() );
+        }
         CoapRequestBuilderImpl requestBuilder= new CoapRequestBuilderImpl( params );
         URI uri= requestBuilder.buildResourceUri();
-        ObserveRelation relation= getRelation( uri );
-        if ( relation != null )
+        synchronized ( observerLock( uri ) )
         {
-            relation
-                .stop(
-                    activeObserveCancel( params.getObserveCancel() ),
-                    requestBuilder.buildMessageType() == CoapMessageType.CONFIRMABLE
+            ObserveRelation relation= getRelation( uri );
+            if ( relation == null
+                || !( processor != null ? relation.removeProcessor( processor ) : relation.removeProcessors() ) )
+            {
+                throw new InternalInvalidObserverException(
+                    String.format( "%s cannot stop observer, observer nonexistent on resource { %s }", this, uri )
                 );
-            removeRelation( uri );
+            }
+            if ( relation.getSubscriberCount() == 0 )
+            {
+                relation
+                    .stop(
+                        activeObserveCancel( params.getObserveCancel() ),
+                        requestBuilder.buildMessageType() == CoapMessageType.CONFIRMABLE
+                    );
+                removeRelation( uri );
+            }
         }
-        else
+    }
+
+    /**
+     * Stop observing the resources that match the uri pattern. All response handlers are unsubscribed, 
+     * the relations with the servers are stopped when no observer sources are subscribed.
+     * The observers are stopped with at most the given number of cancellations in progress at the same time.
+     * @see <a href="https://www.rfc-editor.org/rfc/rfc7641.html#section-3.6">IETF RFC 7252 - 3.6. Cancellation</a>
+     * @param uriPattern The pattern of the uri's of the observers to stop.
+     * @param cancel Indicates whether the observers are canceled actively.
+     * @param parallelism The maximum number of observers that are stopped concurrently.
+     * @see #matchesUriPattern(String, URI)
+     */
+    void removeObservers( String uriPattern, ObserveCancel cancel, int parallelism )
+    {
+        boolean proactiveCancel= activeObserveCancel( cancel );
+        List< ParallelUtils.Task > tasks= new ArrayList<>();
+        for ( URI uri : observeRelations.keySet() )
         {
-            throw new InternalInvalidObserverException(
-                String.format( "%s cannot stop observer, observer nonexistent on resource { %s }", this, uri )
-            );
+            if ( matchesUriPattern( uriPattern, uri ) )
+            {
+                tasks.add( () -> {
+                    synchronized ( observerLock( uri ) )
+                    {
+                        ObserveRelation relation= observeRelations.get( uri );
+                        if ( relation != null && relation.removeProcessors() && relation.getSubscriberCount() == 0 )
+                        {
+                            relation.stop( proactiveCancel, null );
+                            removeRelation( uri );
+                        }
+                    }
+                } );
+            }
+        }
+        logFailures( "stop", ParallelUtils.runAll( ioScheduler, parallelism, tasks ) );
+    }
+
+    /**
+     * Reregister the observers of the resources that match the uri pattern. 
+     * The observers are reregistered with at most the given number of observe requests in progress at the same time.
+     * @param uriPattern The pattern of the uri's of the observers to reregister.
+     * @param parallelism The maximum number of observers that are reregistered concurrently.
+     * @see #matchesUriPattern(String, URI)
+     */
+    void reregisterObservers( String uriPattern, int parallelism )
+    {
+        List< ParallelUtils.Task > tasks= new ArrayList<>();
+        for ( Map.Entry< URI, ObserveRelation > entry : observeRelations.entrySet() )
+        {
+            if ( entry.getValue().hasProcessors() && matchesUriPattern( uriPattern, entry.getKey() ) )
+            {
+                tasks.add( entry.getValue()::reregister );
+            }
+        }
+        logFailures( "reregister", ParallelUtils.runAll( ioScheduler, parallelism, tasks ) );
+    }
+
+    /**
+     * Establish whether an uri matches a pattern. An empty pattern or the wildcard matches all uri's. 
+     * A pattern ending with the wildcard matches all uri's starting with the part before the wildcard.
+     * Otherwise the pattern must be equal to the uri.
+     * @param uriPattern The pattern to match.
+     * @param uri The uri to test.
+     * @return True when the uri matches the pattern, otherwise false.
+     */
+    static boolean matchesUriPattern( String uriPattern, URI uri )
+    {
+        if ( uriPattern == null || uriPattern.isEmpty() || uriPattern.equals( URI_PATTERN_WILDCARD ) )
+        {
+            return true;
+        }
+        if ( uriPattern.endsWith( URI_PATTERN_WILDCARD ) )
+        {
+            return uri.toString().startsWith( uriPattern.substring( 0, uriPattern.length() - 1 ) );
+        }
+        return uri.toString().equals( uriPattern );
+    }
+
+    /**
+     * Get the lock that guards changes of the observer on given uri.
+     * @param uri The observed uri.
+     * @return The lock object.
+     */
+    private Object observerLock( URI uri )
+    {
+        return observerLocks[Math.floorMod( uri.hashCode(), observerLocks.length )];
+    }
+
+    /**
+     * Log the failures of a bulk observer operation.
+     * @param action The action that was executed on the observers.
+     * @param failures The exceptions of the observers the action failed on.
+     */
+    private void logFailures( String action, List< Exception > failures )
+    {
+        for ( Exception failure : failures )
+        {
+            LOGGER.error( String.format( "%s failed to %s observer.", this, action ), failure );
         }
     }
 
@@ -856,7 +1702,7 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
         CoapRequestBuilderImpl requestBuilder= new CoapRequestBuilderImpl( params );
         URI uri= requestBuilder.buildResourceUri();
         ObserveRelation relation= getRelation( uri );
-        return( relation != null );
+        return( relation != null && relation.hasProcessors() );
     }
 
     /**
@@ -996,12 +1842,13 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
                 }
                 if ( sendPayload )
                 {
-                    //TODO add streaming & blockwise cooperation
+                    // Californium needs the complete body to perform a blockwise transfer,
+                    // so streams are read once, directly into the request payload.
                     try
                     {
-                        request.setPayload( MessageUtils.toBytes( requestPayload, transformationService ) );
+                        request.setPayload( MessageUtils.payloadToBytes( requestPayload, transformationService ) );
                     }
-                    catch ( RuntimeException e )
+                    catch ( IOException | RuntimeException e )
                     {
                         throw new InternalRequestException( Client.this + " cannot convert payload to byte[]", e );
                     }
@@ -1120,6 +1967,44 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
             this.options= options;
         }
 
+        /**
+         * Constructor using RequestBuilder, a request target and client defaults.
+         * The target parameters that are given override the request parameters.
+         * @param params Provides request parameters.
+         * @param options Provides request options.
+         * @param target Provides the target of the request.
+         */
+        public CoapRequestBuilderImpl( RequestParams params, RequestOptionsParams options, RequestTarget target )
+        {
+            this( params, options );
+            setTarget( params, target );
+        }
+
+        /**
+         * Override request parameters with the target parameters that are given.
+         * @param params The request parameters.
+         * @param target Provides the target of the request.
+         */
+        private void setTarget( AbstractAddressParams params, RequestTarget target )
+        {
+            //without remote endpoint the request is sent to the target directly
+            boolean direct= params.getRemoteEndpoint() == null && clientConfig.getRemoteEndpointConfig() == null;
+            if ( target.getHost() != null )
+            {
+                resourceHost= target.getHost();
+                if ( direct ) endpointHost= target.getHost();
+            }
+            if ( target.getPort() != null )
+            {
+                resourcePort= target.getPort();
+                if ( direct ) endpointPort= target.getPort();
+            }
+            if ( target.getPath() != null )
+            {
+                resourcePath= target.getPath();
+            }
+        }
+
         /**
          * Constructor using AbstractResourceRequestParams and client defaults.
          * @param params Provides request parameters.
@@ -1169,7 +2054,7 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
         private CoapRequestBuilderImpl( AbstractQueryParams params )
         {
             this( (AbstractAddressParams) params );
-            resourceQuery= MessageUtils.queryString( clientConfig.getQueryConfigs(), params.getQueryParams() );
+            resourceQuery= preparedRequests.queryString( params.getQueryParams() );
         }
 
         /**
@@ -1251,6 +2136,18 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
             requestCode= CoapRequestCode.GET;
         }
 
+        /**
+         * Constructor using ObserverAddParams, a target and client defaults.
+         * The target parameters that are given override the observer parameters.
+         * @param params Provides request parameters.
+         * @param target Provides the target of the observe request.
+         */
+        public CoapRequestBuilderImpl( ObserverAddParams params, RequestTarget target )
+        {
+            this( params );
+            setTarget( params, target );
+        }
+
         /**
          * Constructor using ObserverRemoveParams and client defaults.
          * @param params Provides request parameters.
@@ -1338,7 +2235,7 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
             {
                 resourcePort= clientConfig.getPort();
             }
-            resourceQuery= MessageUtils.queryString( clientConfig.getQueryConfigs(), params.getQueryConfigs() );
+            resourceQuery= preparedRequests.queryString( params.getQueryConfigs() );
             if ( params.getPath() != null )
             {
                 resourcePath= params.getPath();
@@ -1378,6 +2275,7 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
 
         /**
          * Build the URI of the endpoint to address the request.
+         * The URI is prepared once for all requests with the same URI components.
          * @return The endpoint URI.
          * @throws InternalUriException When URI components cannot be assembled to a valid URI.
          */
@@ -1387,7 +2285,7 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
             URI uri;
             try
             {
-                uri= new URI( scheme, null, endpointHost, endpointPort, null, null, null );
+                uri= preparedRequests.endpointUri( scheme, endpointHost, endpointPort );
             }
             catch ( Exception e )
             {
@@ -1410,6 +2308,7 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
 
         /**
          * Build the URI of the resource to request.
+         * The URI is prepared once for all requests with the same URI components.
          * @return The resource URI.
          * @throws InternalUriException When URI components cannot be assembled to a valid URI.
          */
@@ -1423,14 +2322,12 @@ public class Client implements Initialisable, Disposable, Startable, Stoppable
             URI uri;
             try
             {
-                uri= new URI(
+                uri= preparedRequests.resourceUri(
                     ( proxyScheme != null ? proxyScheme : scheme ),
-                    null,
                     resourceHost,
                     resourcePort,
                     resourcePath,
-                    resourceQuery,
-                    null
+                    resourceQuery
                 );
             }
             catch ( Exception e )
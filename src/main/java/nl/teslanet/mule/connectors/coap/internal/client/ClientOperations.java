@@ -25,30 +25,39 @@ package nl.teslanet.mule.connectors.coap.internal.client;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentSkipListSet;
-import java.util.stream.Collectors;
 
 import org.eclipse.californium.core.WebLink;
 import org.eclipse.californium.elements.exception.ConnectorException;
 import org.mule.runtime.extension.api.annotation.error.Throws;
 import org.mule.runtime.extension.api.annotation.param.Config;
 import org.mule.runtime.extension.api.annotation.param.MediaType;
+import org.mule.runtime.extension.api.annotation.param.Optional;
 import org.mule.runtime.extension.api.annotation.param.ParameterGroup;
 import org.mule.runtime.extension.api.annotation.param.display.Placement;
 import org.mule.runtime.extension.api.annotation.param.display.Summary;
+import org.mule.runtime.extension.api.exception.ModuleException;
 import org.mule.runtime.extension.api.runtime.operation.Result;
+import org.mule.runtime.extension.api.runtime.process.CompletionCallback;
 
 import nl.teslanet.mule.connectors.coap.api.DiscoverParams;
 import nl.teslanet.mule.connectors.coap.api.DiscoveredResource;
+import nl.teslanet.mule.connectors.coap.api.ObserveCancel;
 import nl.teslanet.mule.connectors.coap.api.ObserverAddParams;
 import nl.teslanet.mule.connectors.coap.api.ObserverExistsParams;
 import nl.teslanet.mule.connectors.coap.api.ObserverRemoveParams;
+import nl.teslanet.mule.connectors.coap.api.ObserverState;
 import nl.teslanet.mule.connectors.coap.api.PingParams;
 import nl.teslanet.mule.connectors.coap.api.RequestParams;
+import nl.teslanet.mule.connectors.coap.api.RequestTimeoutParams;
+import nl.teslanet.mule.connectors.coap.api.RequestTarget;
 import nl.teslanet.mule.connectors.coap.api.ResponseHandlerParams;
 import nl.teslanet.mule.connectors.coap.api.attributes.CoapResponseAttributes;
+import nl.teslanet.mule.connectors.coap.api.attributes.ObserverListAttributes;
 import nl.teslanet.mule.connectors.coap.api.error.ClientErrorResponseException;
 import nl.teslanet.mule.connectors.coap.api.error.EndpointException;
 import nl.teslanet.mule.connectors.coap.api.error.InvalidHandlerException;
@@ -118,64 +127,174 @@ public class ClientOperations
      */
     static final String OBSERVER_REMOVE_ERROR_MSG= " failed to remove observer.";
 
+    /**
+     * Observer add all failure message.
+     */
+    static final String OBSERVER_ADD_ALL_ERROR_MSG= " failed to add observers.";
+
     /**
      * Observer exists failure message.
      */
     static final String OBSERVER_EXISTS_ERROR_MSG= " failed to query observer existence.";
 
     /**
-     * The Request Processor issues a request on a CoAP server. The processor blocks
-     * until a response is received or a timeout occurs.
+     * The Request Processor issues a request on a CoAP server. The processor does not block 
+     * the flow thread while waiting for the response. The flow continues when a response is 
+     * received or a timeout occurs.
      * 
      * @param client         The client used for issuing the request.
      * @param requestParams Builder that delivers the request parameters.
      * @param requestOptions The CoAP options to send with the request.
-     * @return The result of the request which contains the received server response, if any.
+     * @param timeoutParams The timeout of the request.
+     * @param callback The callback that completes the operation with the result of the request 
+     * which contains the received server response, if any.
+     */
+    @MediaType( value= "*/*", strict= false )
+    @Throws(
+        { RequestErrorProvider.class }
+    )
+    public void request( @Config
+    Client client, @ParameterGroup( name= "Request" )
+    RequestParams requestParams,
+        @ParameterGroup( name= "Request options" )
+        @Summary( "The CoAP options to send with the request." )
+        @Placement( tab= "Options", order= 1 )
+        RequestOptionsParams requestOptions,
+        @ParameterGroup( name= "Timeout" )
+        @Summary( "The timeout of the request." )
+        @Placement( tab= "Timeout", order= 1 )
+        RequestTimeoutParams timeoutParams,
+        CompletionCallback< InputStream, CoapResponseAttributes > callback
+    )
+    {
+        try
+        {
+            client.doRequest( requestParams, requestOptions, timeoutParams, new CompletionCallback< InputStream, CoapResponseAttributes >()
+                {
+                    @Override
+                    public void success( Result< InputStream, CoapResponseAttributes > result )
+                    {
+                        callback.success( result );
+                    }
+
+                    @Override
+                    public void error( Throwable e )
+                    {
+                        callback.error( toRequestException( client, e ) );
+                    }
+                } );
+        }
+        catch ( InternalInvalidRequestCodeException | InternalRequestException | InternalUriException e )
+        {
+            callback.error( toRequestException( client, e ) );
+        }
+    }
+
+    /**
+     * The Request All Processor issues a request on a number of targets. The requests are sent 
+     * through the endpoint of the client, with at most the given number of requests in progress at the 
+     * same time. The next target is sent when a request completes. The processor
+     * does not block the flow thread. The flow continues when all targets have responded or timed out,
+     * with the list of results in the order of the targets. The result of a target that did not 
+     * respond has no payload and attributes indicating the failure.
+     * 
+     * @param client         The client used for issuing the requests.
+     * @param requestParams Builder that delivers the request parameters.
+     * @param targets The targets of the request. Target parameters override the request parameters.
+     * @param parallelism The maximum number of requests in progress at the same time.
+     * @param requestOptions The CoAP options to send with the requests.
+     * @param timeoutParams The timeout of each of the requests.
+     * @param callback The callback that completes the operation with the list of results.
      */
     @MediaType( value= "*/*", strict= false )
     @Throws(
         { RequestErrorProvider.class }
     )
-    public Result< InputStream, CoapResponseAttributes > request( @Config
+    public void requestAll( @Config
     Client client, @ParameterGroup( name= "Request" )
     RequestParams requestParams,
+        @Summary( "The targets of the request. Target parameters override the request parameters." )
+        List< RequestTarget > targets,
+        @Optional( defaultValue= "8" )
+        @Summary( "The maximum number of requests in progress at the same time." )
+        int parallelism,
         @ParameterGroup( name= "Request options" )
         @Summary( "The CoAP options to send with the request." )
         @Placement( tab= "Options", order= 1 )
-        RequestOptionsParams requestOptions
+        RequestOptionsParams requestOptions,
+        @ParameterGroup( name= "Timeout" )
+        @Summary( "The timeout of the requests." )
+        @Placement( tab= "Timeout", order= 1 )
+        RequestTimeoutParams timeoutParams,
+        CompletionCallback< List< Result< InputStream, CoapResponseAttributes > >, Void > callback
     )
     {
         try
         {
-            return client.doRequest( requestParams, requestOptions, null );
+            client
+                .doRequest(
+                    requestParams,
+                    requestOptions,
+                    targets,
+                    parallelism,
+                    timeoutParams,
+                    new CompletionCallback< List< Result< InputStream, CoapResponseAttributes > >, Void >()
+                        {
+                            @Override
+                            public void success( Result< List< Result< InputStream, CoapResponseAttributes > >, Void > result )
+                            {
+                                callback.success( result );
+                            }
+
+                            @Override
+                            public void error( Throwable e )
+                            {
+                                callback.error( toRequestException( client, e ) );
+                            }
+                        }
+                );
         }
-        catch ( InternalEndpointException e )
+        catch ( InternalInvalidRequestCodeException | InternalRequestException | InternalUriException e )
         {
-            throw new EndpointException( client + REQUEST_ERROR_MSG, e );
+            callback.error( toRequestException( client, e ) );
         }
-        catch ( InternalInvalidRequestCodeException | InternalInvalidHandlerException | InternalRequestException e )
+    }
+
+    /**
+     * Convert an internal exception that occurred on a request to the exception exposed by the request processor.
+     * @param client The client used for issuing the request.
+     * @param e The internal exception.
+     * @return The exception to expose.
+     */
+    static ModuleException toRequestException( Client client, Throwable e )
+    {
+        if ( e instanceof InternalEndpointException )
         {
-            throw new RequestException( client + REQUEST_ERROR_MSG, e );
+            return new EndpointException( client + REQUEST_ERROR_MSG, e );
         }
-        catch ( InternalResponseException | InternalInvalidResponseCodeException e )
+        else if ( e instanceof InternalResponseException || e instanceof InternalInvalidResponseCodeException )
         {
-            throw new ResponseException( client + REQUEST_ERROR_MSG, e );
+            return new ResponseException( client + REQUEST_ERROR_MSG, e );
         }
-        catch ( InternalUriException e )
+        else if ( e instanceof InternalUriException )
         {
-            throw new UriException( client + REQUEST_ERROR_MSG, e );
+            return new UriException( client + REQUEST_ERROR_MSG, e );
         }
-        catch ( InternalNoResponseException e )
+        else if ( e instanceof InternalNoResponseException )
         {
-            throw new NoResponseException( client + REQUEST_ERROR_MSG, e );
+            return new NoResponseException( client + REQUEST_ERROR_MSG, e );
         }
-        catch ( InternalClientErrorResponseException e )
+        else if ( e instanceof InternalClientErrorResponseException )
         {
-            throw new ClientErrorResponseException( client + REQUEST_ERROR_MSG, e );
+            return new ClientErrorResponseException( client + REQUEST_ERROR_MSG, e );
         }
-        catch ( InternalServerErrorResponseException e )
+        else if ( e instanceof InternalServerErrorResponseException )
+        {
+            return new ServerErrorResponseException( client + REQUEST_ERROR_MSG, e );
+        }
+        else
         {
-            throw new ServerErrorResponseException( client + REQUEST_ERROR_MSG, e );
+            return new RequestException( client + REQUEST_ERROR_MSG, e );
         }
     }
 
@@ -188,6 +307,7 @@ public class ClientOperations
      * @param responseHandlerParams Builder that delivers the response handler parameters.
      * @param requestParams Builder that delivers the request parameters.
      * @param requestOptions The CoAP options to send with the request.
+     * @param timeoutParams The timeout of the request.
      */
     @Throws( { RequestAsyncErrorProvider.class } )
     public void requestAsync( @Config
@@ -197,18 +317,18 @@ public class ClientOperations
         @ParameterGroup( name= "Request options" )
         @Summary( "The CoAP options to send with the request." )
         @Placement( tab= "Options", order= 1 )
-        RequestOptionsParams requestOptions
+        RequestOptionsParams requestOptions,
+        @ParameterGroup( name= "Timeout" )
+        @Summary( "The timeout of the request." )
+        @Placement( tab= "Timeout", order= 1 )
+        RequestTimeoutParams timeoutParams
     )
     {
         try
         {
-            client.doRequest( requestParams, requestOptions, responseHandlerParams );
+            client.doRequest( requestParams, requestOptions, timeoutParams, responseHandlerParams );
         }
-        catch ( InternalEndpointException e )
-        {
-            throw new EndpointException( client + ASYNC_REQUEST_ERROR_MSG, e );
-        }
-        catch ( InternalInvalidRequestCodeException | InternalResponseException | InternalRequestException e )
+        catch ( InternalInvalidRequestCodeException | InternalRequestException e )
         {
             throw new RequestException( client + ASYNC_REQUEST_ERROR_MSG, e );
         }
@@ -220,40 +340,29 @@ public class ClientOperations
         {
             throw new UriException( client + ASYNC_REQUEST_ERROR_MSG, e );
         }
-        catch ( InternalInvalidResponseCodeException e )
-        {
-            throw new ResponseException( client + ASYNC_REQUEST_ERROR_MSG, e );
-        }
-        catch ( InternalNoResponseException e )
-        {
-            throw new NoResponseException( client + ASYNC_REQUEST_ERROR_MSG, e );
-        }
-        catch ( InternalClientErrorResponseException e )
-        {
-            throw new ClientErrorResponseException( client + ASYNC_REQUEST_ERROR_MSG, e );
-        }
-        catch ( InternalServerErrorResponseException e )
-        {
-            throw new ServerErrorResponseException( client + ASYNC_REQUEST_ERROR_MSG, e );
-        }
     }
 
-    // TODO add custom timeout
     /**
      * The Ping processor checks whether a CoAP server is reachable.
      * 
      * @param client         The client to use to issue the request.
      * @param pingParams The request attributes to use.
+     * @param timeoutParams The timeout of the ping.
      * @return {@code True} when the server has responded, {@code False} otherwise.
      */
     @Throws( { PingErrorProvider.class } )
     public boolean ping( @Config
     Client client, @ParameterGroup( name= "Ping address" )
-    PingParams pingParams )
+    PingParams pingParams,
+        @ParameterGroup( name= "Timeout" )
+        @Summary( "The timeout of the ping." )
+        @Placement( tab= "Timeout", order= 1 )
+        RequestTimeoutParams timeoutParams
+    )
     {
         try
         {
-            return client.ping( pingParams );
+            return client.ping( pingParams, timeoutParams );
         }
         catch ( ConnectorException | IOException e )
         {
@@ -263,6 +372,10 @@ public class ClientOperations
         {
             throw new UriException( client + PING_ERROR_MSG, e );
         }
+        catch ( InternalRequestException e )
+        {
+            throw new RequestException( client + PING_ERROR_MSG, e );
+        }
     }
 
     /**
@@ -271,17 +384,23 @@ public class ClientOperations
      * 
      * @param client         The client to use to issue the request.
      * @param discoverParams The attributes of the discover request
+     * @param timeoutParams The timeout of the discover request.
      * @return The description of resources on the server that have been discovered.
      */
     @Throws( { DiscoverErrorProvider.class } )
     public Set< DiscoveredResource > discover( @Config
     Client client, @ParameterGroup( name= "Discover address" )
-    DiscoverParams discoverParams )
+    DiscoverParams discoverParams,
+        @ParameterGroup( name= "Timeout" )
+        @Summary( "The timeout of the discover request." )
+        @Placement( tab= "Timeout", order= 1 )
+        RequestTimeoutParams timeoutParams
+    )
     {
         Set< WebLink > links= null;
         try
         {
-            links= client.discover( discoverParams );
+            links= client.discover( discoverParams, timeoutParams );
         }
         catch ( IOException | ConnectorException e )
         {
@@ -366,9 +485,49 @@ public class ClientOperations
         }
     }
 
+    /**
+     * The ObserverAddAll processor creates an observer on each of the targets. 
+     * Requests to observe the resources are sent to the servers, with at most the given number
+     * of requests in progress at the same time. When the parameters of any of the targets are invalid, 
+     * no observer is created. The client defaults are used to issue the requests.
+     * @param client The client instance that the observers belong to.
+     * @param responseHandlerParams Name of the response handler that will process the
+     *                           notifications received from servers.
+     * @param observerAddParams Parameters of the observe requests. These will override client defaults.
+     * @param targets The targets to observe. Target parameters override the observe request parameters.
+     * @param parallelism The maximum number of observe requests in progress at the same time.
+     */
+    @Throws( { ObserverAddErrorProvider.class } )
+    public void observerAddAll( @Config
+    Client client, @ParameterGroup( name= "Notification handling" )
+    ResponseHandlerParams responseHandlerParams, @ParameterGroup( name= "Observe request" )
+    ObserverAddParams observerAddParams,
+        @Summary( "The targets to observe. Target parameters override the observe request parameters." )
+        List< RequestTarget > targets,
+        @Optional( defaultValue= "8" )
+        @Summary( "The maximum number of observe requests in progress at the same time." )
+        int parallelism
+    )
+    {
+        try
+        {
+            client.addObservers( observerAddParams, targets, responseHandlerParams, parallelism );
+        }
+        catch ( InternalUriException e )
+        {
+            throw new UriException( client + OBSERVER_ADD_ALL_ERROR_MSG, e );
+        }
+        catch ( InternalInvalidHandlerException e )
+        {
+            throw new InvalidHandlerException( client + OBSERVER_ADD_ALL_ERROR_MSG, e );
+        }
+    }
+
     /**
      * The ObserverRemove processor removes an observer. 
-     * A request to terminate observe the specified resource is sent to the server.
+     * When a response handler is given only that handler is unsubscribed, otherwise all handlers of the observer. 
+     * A request to terminate observe the specified resource is sent to the server, 
+     * when no response handlers or observer sources are subscribed anymore.
      * The client defaults are used to issue the request.
      * @param client The client instance that the observer belongs to.
      * @param observerRemoveParams Parameters of the observe request. These will override client defaults.
@@ -390,6 +549,64 @@ public class ClientOperations
         {
             throw new InvalidObserverException( client + OBSERVER_REMOVE_ERROR_MSG, e );
         }
+        catch ( InternalInvalidHandlerException e )
+        {
+            throw new InvalidHandlerException( client + OBSERVER_REMOVE_ERROR_MSG, e );
+        }
+    }
+
+    /**
+     * The ObserverRemoveAll processor removes the observers of which the uri matches the pattern. 
+     * When the pattern ends with a wildcard '*', all observers of which the uri starts with the part
+     * before the wildcard are removed. When no pattern is given all observers are removed. 
+     * The observers are removed with at most the given number of cancellations in progress at the same time.
+     * @param client The client instance that the observers belong to.
+     * @param uriPattern The pattern of the uri's of the observers to remove.
+     * @param observeCancel Indicates whether a cancel message is sent to the servers.
+     * @param parallelism The maximum number of cancellations in progress at the same time.
+     */
+    public void observerRemoveAll( @Config
+    Client client,
+        @Optional
+        @Summary(
+            "The pattern of the uri's of the observers to remove. A trailing '*' matches any uri ending. \nWhen empty all observers are removed."
+        )
+        String uriPattern,
+        @Optional( defaultValue= "DEFAULT" )
+        @Summary(
+            "When true a cancel message is sent. \nOtherwise a passive cancel is executed.\n When DEFAULT the client default is used"
+        )
+        ObserveCancel observeCancel,
+        @Optional( defaultValue= "8" )
+        @Summary( "The maximum number of cancellations in progress at the same time." )
+        int parallelism
+    )
+    {
+        client.removeObservers( uriPattern, observeCancel, parallelism );
+    }
+
+    /**
+     * The ObserverReregister processor reregisters the observers of which the uri matches the pattern. 
+     * When the pattern ends with a wildcard '*', all observers of which the uri starts with the part
+     * before the wildcard are reregistered. When no pattern is given all observers are reregistered. 
+     * The observers are reregistered with at most the given number of observe requests in progress at the same time.
+     * @param client The client instance that the observers belong to.
+     * @param uriPattern The pattern of the uri's of the observers to reregister.
+     * @param parallelism The maximum number of observe requests in progress at the same time.
+     */
+    public void observerReregister( @Config
+    Client client,
+        @Optional
+        @Summary(
+            "The pattern of the uri's of the observers to reregister. A trailing '*' matches any uri ending. \nWhen empty all observers are reregistered."
+        )
+        String uriPattern,
+        @Optional( defaultValue= "8" )
+        @Summary( "The maximum number of observe requests in progress at the same time." )
+        int parallelism
+    )
+    {
+        client.reregisterObservers( uriPattern, parallelism );
     }
 
     /**
@@ -416,19 +633,27 @@ public class ClientOperations
 
     /**
      * This processor returns a list of observers. The list contains the uri's of
-     * the active observers of the CoAP client.
+     * the active observers of the CoAP client. The attributes contain the state of the observers, 
+     * showing whether they are recovering from failure.
      * 
      * @param client The client instance of which the observers are listed.
-     * @return the set of observed uri's
+     * @return the set of observed uri's, with the observer states as attributes
      */
-    public Set< String > observerList( @Config
+    public Result< Set< String >, ObserverListAttributes > observerList( @Config
     Client client )
     {
-        return client
-            .getRelations()
-            .keySet()
-            .stream()
-            .map( URI::toString )
-            .collect( Collectors.toCollection( ConcurrentSkipListSet< String >::new ) );
+        TreeMap< String, ObserverState > states= new TreeMap<>();
+        client.getRelations().forEach( ( uri, relation ) -> {
+            if ( relation.hasProcessors() )
+            {
+                String uriString= uri.toString();
+                states.put( uriString, relation.getState( uriString ) );
+            }
+        } );
+        return Result
+            .< Set< String >, ObserverListAttributes > builder()
+            .output( new ConcurrentSkipListSet< String >( states.keySet() ) )
+            .attributes( new ObserverListAttributes( new ArrayList<>( states.values() ) ) )
+            .build();
     }
 }
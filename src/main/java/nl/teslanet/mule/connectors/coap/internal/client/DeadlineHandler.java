@@ -0,0 +1,179 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.internal.client;
+
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.californium.core.CoapHandler;
+import org.eclipse.californium.core.CoapResponse;
+import org.eclipse.californium.core.coap.Request;
+
+
+/**
+ * Handler of CoAP responses that enforces a deadline on a request. 
+ * When no response has been received at the deadline, the request is canceled 
+ * so its exchange is released, and the handler is notified of the error. 
+ * The deadline applies to the complete exchange, including blockwise transfer of the response.
+ * The handler is notified once, either of the response, the error or the expiry of the deadline.
+ */
+public class DeadlineHandler implements CoapHandler
+{
+    /**
+     * The handler to notify.
+     */
+    private final CoapHandler handler;
+
+    /**
+     * The request the deadline applies to.
+     */
+    private final Request request;
+
+    /**
+     * Flag indicating the handler has been notified.
+     */
+    private final AtomicBoolean completed= new AtomicBoolean( false );
+
+    /**
+     * The scheduled expiry of the deadline.
+     */
+    private volatile ScheduledFuture< ? > expiry= null;
+
+    /**
+     * Constructor.
+     * @param handler The handler to notify.
+     * @param request The request the deadline applies to.
+     */
+    private DeadlineHandler( CoapHandler handler, Request request )
+    {
+        this.handler= handler;
+        this.request= request;
+    }
+
+    /**
+     * Create a handler that enforces a deadline. 
+     * The deadline is scheduled by calling {@link #schedule(ScheduledExecutorService, long)} after the request has been sent.
+     * @param handler The handler to notify.
+     * @param request The request the deadline applies to.
+     * @return The created handler.
+     */
+    public static DeadlineHandler create( CoapHandler handler, Request request )
+    {
+        return new DeadlineHandler( handler, request );
+    }
+
+    /**
+     * Schedule the expiry of the deadline. 
+     * When the handler has been notified already, nothing is scheduled.
+     * @param scheduler The scheduler of the expiry.
+     * @param timeLeft The time left until the deadline [ns].
+     */
+    public void schedule( ScheduledExecutorService scheduler, long timeLeft )
+    {
+        if ( !completed.get() )
+        {
+            expiry= scheduler.schedule( this::expire, timeLeft, TimeUnit.NANOSECONDS );
+            if ( completed.get() ) expiry.cancel( false );
+        }
+    }
+
+    /**
+     * Calculate the time left to receive a response.
+     * @param timeout The maximum time to wait [ns], or null when there is none.
+     * @param deadline The time at which the response must have been received [ms since epoch], or null when there is none.
+     * @param now The current time [ms since epoch].
+     * @return The time left [ns], null when there is no timeout nor deadline. When the deadline has passed 0 is returned.
+     */
+    public static Long timeLeft( Long timeout, Long deadline, long now )
+    {
+        Long timeLeft= timeout;
+        if ( deadline != null )
+        {
+            long untilDeadline= TimeUnit.MILLISECONDS.toNanos( deadline - now );
+            if ( timeLeft == null || untilDeadline < timeLeft )
+            {
+                timeLeft= untilDeadline;
+            }
+        }
+        return ( timeLeft == null ? null : Math.max( 0L, timeLeft ) );
+    }
+
+    /**
+     * Expire the deadline. When no response has been received, the request is canceled and the handler is notified.
+     */
+    public void expire()
+    {
+        if ( completed.compareAndSet( false, true ) )
+        {
+            request.cancel();
+            handler.onError();
+        }
+    }
+
+    /**
+     * @return True when the handler has been notified, otherwise false.
+     */
+    public boolean isCompleted()
+    {
+        return completed.get();
+    }
+
+    /**
+     * Callback for processing the response.
+     */
+    @Override
+    public void onLoad( CoapResponse response )
+    {
+        if ( complete() )
+        {
+            handler.onLoad( response );
+        }
+    }
+
+    /**
+     * Callback for errors that occur on the request.
+     */
+    @Override
+    public void onError()
+    {
+        if ( complete() )
+        {
+            handler.onError();
+        }
+    }
+
+    /**
+     * Mark the handler notified and cancel the expiry.
+     * @return True when the handler was not notified yet, otherwise false.
+     */
+    private boolean complete()
+    {
+        if ( !completed.compareAndSet( false, true ) ) return false;
+        ScheduledFuture< ? > scheduled= expiry;
+        if ( scheduled != null ) scheduled.cancel( false );
+        return true;
+    }
+}
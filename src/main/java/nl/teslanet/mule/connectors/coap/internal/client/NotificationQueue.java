@@ -0,0 +1,296 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.internal.client;
+
+
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import org.eclipse.californium.core.CoapResponse;
+
+import nl.teslanet.mule.connectors.coap.api.NotificationQueuePolicy;
+
+
+/**
+ * The NotificationQueue hands notifications of an observe relation over to the processing flow.
+ * Unless the policy is direct, notifications are queued and processed one at a time, in order of arrival, 
+ * on the executor. A notification occupies the processing slot of the queue until the flows 
+ * processing it have terminated, so notifications wait in the queue meanwhile. 
+ * The queue is bounded, its policy determines what happens when notifications 
+ * arrive faster than they are processed.
+ */
+public class NotificationQueue
+{
+    /**
+     * The maximum time a blocking queue waits for room [ms].
+     */
+    public static final long BLOCK_TIMEOUT= 1000L;
+
+    /**
+     * The policy of the queue.
+     */
+    private final NotificationQueuePolicy policy;
+
+    /**
+     * The maximum number of notifications waiting.
+     */
+    private final int capacity;
+
+    /**
+     * The notifications waiting to be processed.
+     */
+    private final BlockingDeque< CoapResponse > queue;
+
+    /**
+     * The executor that processes queued notifications.
+     */
+    private final Executor executor;
+
+    /**
+     * The consumer that processes notifications. 
+     * The consumer gets the slot of the notification, or null when the policy is direct.
+     */
+    private volatile BiConsumer< CoapResponse, Slot > consumer= null;
+
+    /**
+     * Flag indicating a notification occupies the processing slot.
+     */
+    private final AtomicBoolean draining= new AtomicBoolean( false );
+
+    /**
+     * The number of notifications dropped because the queue was full or could not be processed.
+     */
+    private final AtomicLong dropped= new AtomicLong();
+
+    /**
+     * The number of notifications replaced by a newer notification before being processed.
+     */
+    private final AtomicLong conflated= new AtomicLong();
+
+    /**
+     * Constructor.
+     * @param policy The policy of the queue, when null notifications are processed directly.
+     * @param capacity The maximum number of notifications waiting.
+     * @param executor The executor that processes queued notifications, when null notifications are processed directly.
+     */
+    public NotificationQueue( NotificationQueuePolicy policy, int capacity, Executor executor )
+    {
+        this.policy= ( policy == null || executor == null ) ? NotificationQueuePolicy.DIRECT : policy;
+        this.executor= executor;
+        this.capacity= ( this.policy == NotificationQueuePolicy.CONFLATE ? 1 : Math.max( 1, capacity ) );
+        this.queue= new LinkedBlockingDeque<>( this.capacity );
+    }
+
+    /**
+     * Check whether the queue has the given settings.
+     * The capacity is only relevant when notifications are queued without conflating.
+     * @param policy The policy of the queue, when null notifications are processed directly.
+     * @param capacity The maximum number of notifications waiting.
+     * @return True when the queue has the settings, otherwise false.
+     */
+    public boolean hasSettings( NotificationQueuePolicy policy, int capacity )
+    {
+        NotificationQueuePolicy other= ( policy == null || executor == null ) ? NotificationQueuePolicy.DIRECT : policy;
+        if ( other != this.policy ) return false;
+        return this.policy == NotificationQueuePolicy.DIRECT || this.policy == NotificationQueuePolicy.CONFLATE
+            || Math.max( 1, capacity ) == this.capacity;
+    }
+
+    /**
+     * Set the consumer that processes the notifications.
+     * The consumer acquires the slot it gets for each flow processing the notification,
+     * and the flow releases it when terminated.
+     * @param consumer The notification consumer.
+     */
+    public void setConsumer( BiConsumer< CoapResponse, Slot > consumer )
+    {
+        this.consumer= consumer;
+    }
+
+    /**
+     * Offer a notification for processing.
+     * @param notification The notification received.
+     */
+    public void offer( CoapResponse notification )
+    {
+        switch ( policy )
+        {
+            case CONFLATE:
+            case DROP_OLDEST:
+                while ( !queue.offerLast( notification ) )
+                {
+                    if ( queue.pollFirst() != null )
+                    {
+                        ( policy == NotificationQueuePolicy.CONFLATE ? conflated : dropped ).incrementAndGet();
+                    }
+                }
+                break;
+            case BLOCK:
+                try
+                {
+                    if ( !queue.offerLast( notification, BLOCK_TIMEOUT, TimeUnit.MILLISECONDS ) )
+                    {
+                        dropped.incrementAndGet();
+                        return;
+                    }
+                }
+                catch ( InterruptedException e )
+                {
+                    dropped.incrementAndGet();
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                break;
+            default:
+                consumer.accept( notification, null );
+                return;
+        }
+        drain();
+    }
+
+    /**
+     * Discard the notifications waiting.
+     */
+    public void clear()
+    {
+        queue.clear();
+    }
+
+    /**
+     * @return The number of notifications dropped because the queue was full or could not be processed.
+     */
+    public long getDropped()
+    {
+        return dropped.get();
+    }
+
+    /**
+     * @return The number of notifications replaced by a newer notification before being processed.
+     */
+    public long getConflated()
+    {
+        return conflated.get();
+    }
+
+    /**
+     * Schedule processing of waiting notifications, when not already in progress.
+     */
+    private void drain()
+    {
+        if ( !queue.isEmpty() && draining.compareAndSet( false, true ) )
+        {
+            schedule();
+        }
+    }
+
+    /**
+     * Schedule processing of the next notification waiting. 
+     * Must be called occupying the processing slot.
+     */
+    private void schedule()
+    {
+        try
+        {
+            executor.execute( this::process );
+        }
+        catch ( RejectedExecutionException e )
+        {
+            draining.set( false );
+            while ( queue.pollFirst() != null )
+            {
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Process the next notification waiting. The next one is processed when its slot is released,
+     * when none is left the processing slot is freed.
+     */
+    private void process()
+    {
+        CoapResponse notification= queue.pollFirst();
+        if ( notification == null )
+        {
+            draining.set( false );
+            // notifications may have arrived after the last poll
+            drain();
+            return;
+        }
+        Slot slot= new Slot();
+        try
+        {
+            consumer.accept( notification, slot );
+        }
+        finally
+        {
+            slot.release();
+        }
+    }
+
+    /**
+     * The processing slot occupied by a notification. The slot is released when 
+     * all flows processing the notification have terminated.
+     */
+    public final class Slot
+    {
+        /**
+         * The number of holders of the slot, the queue itself holds it while handing the notification over.
+         */
+        private final AtomicInteger holders= new AtomicInteger( 1 );
+
+        /**
+         * Constructor.
+         */
+        private Slot()
+        {
+            super();
+        }
+
+        /**
+         * Hold the slot until released.
+         */
+        public void acquire()
+        {
+            holders.incrementAndGet();
+        }
+
+        /**
+         * Release the slot. When the last holder releases it the next notification is processed.
+         */
+        public void release()
+        {
+            if ( holders.decrementAndGet() == 0 )
+            {
+                schedule();
+            }
+        }
+    }
+}
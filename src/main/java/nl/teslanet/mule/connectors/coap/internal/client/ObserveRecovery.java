@@ -0,0 +1,186 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.internal.client;
+
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The ObserveRecovery schedules the restoration of failed observe relations.
+ * Consecutive failures of a relation are retried with exponentially increasing, jittered delays,
+ * so relations that failed at the same moment do not retry at the same moment.
+ * The number of relations that are being restored concurrently is limited per peer, 
+ * so a recovering server or gateway is not overrun by reregistrations.
+ */
+public class ObserveRecovery
+{
+    /**
+     * The logger.
+     */
+    private static final Logger LOGGER= LoggerFactory.getLogger( ObserveRecovery.class.getCanonicalName() );
+
+    /**
+     * Maximum exponent of the backoff, preventing overflow.
+     */
+    private static final int MAX_BACKOFF_EXPONENT= 30;
+
+    /**
+     * The scheduler that executes recovery attempts.
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * The delay before the first recovery attempt [ns].
+     */
+    private final long initialDelay;
+
+    /**
+     * The maximum delay between recovery attempts [ns].
+     */
+    private final long maxDelay;
+
+    /**
+     * The maximum number of concurrent recovery attempts per peer.
+     */
+    private final int peerConcurrency;
+
+    /**
+     * The recovery permits per peer.
+     */
+    private final ConcurrentHashMap< String, Semaphore > peerPermits= new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     * @param scheduler The scheduler that executes recovery attempts.
+     * @param initialDelay The delay before the first recovery attempt [ns].
+     * @param maxDelay The maximum delay between recovery attempts [ns].
+     * @param peerConcurrency The maximum number of concurrent recovery attempts per peer.
+     */
+    public ObserveRecovery( ScheduledExecutorService scheduler, long initialDelay, long maxDelay, int peerConcurrency )
+    {
+        this.scheduler= scheduler;
+        this.initialDelay= Math.max( 1L, initialDelay );
+        this.maxDelay= Math.max( this.initialDelay, maxDelay );
+        this.peerConcurrency= Math.max( 1, peerConcurrency );
+    }
+
+    /**
+     * Calculate the delay of the next recovery attempt. 
+     * The delay doubles with every failed attempt up to the maximum, and is jittered 
+     * randomly between half and the full delay.
+     * @param attempts The number of failed attempts.
+     * @return The delay [ns].
+     */
+    public long backoff( int attempts )
+    {
+        int exponent= Math.min( Math.max( 0, attempts - 1 ), MAX_BACKOFF_EXPONENT );
+        long delay= initialDelay << exponent;
+        if ( delay <= 0L || delay > maxDelay )
+        {
+            delay= maxDelay;
+        }
+        long half= delay / 2L;
+        return half + ThreadLocalRandom.current().nextLong( delay - half + 1L );
+    }
+
+    /**
+     * Schedule a recovery attempt of a relation that has failed.
+     * @param relation The relation to recover.
+     */
+    void failed( ObserveRelation relation )
+    {
+        if ( relation.isStarted() )
+        {
+            schedule( relation, backoff( relation.recoveryFailed() ) );
+        }
+    }
+
+    /**
+     * A relation has been restored.
+     * @param relation The relation that has been restored.
+     */
+    void succeeded( ObserveRelation relation )
+    {
+        relation.recoverySucceeded();
+    }
+
+    /**
+     * Release the recovery permit of a relation on its peer.
+     * @param relation The relation that holds the permit.
+     */
+    void release( ObserveRelation relation )
+    {
+        Semaphore permits= peerPermits.get( relation.getPeer() );
+        if ( permits != null ) permits.release();
+    }
+
+    /**
+     * Schedule a recovery attempt.
+     * @param relation The relation to recover.
+     * @param delay The delay of the attempt [ns].
+     */
+    private void schedule( ObserveRelation relation, long delay )
+    {
+        try
+        {
+            ScheduledFuture< ? > future= scheduler.schedule( () -> attempt( relation ), delay, TimeUnit.NANOSECONDS );
+            relation.recoveryScheduled( future, System.nanoTime() + delay );
+        }
+        catch ( RejectedExecutionException e )
+        {
+            LOGGER.warn( "{} recovery not scheduled, client is stopping.", relation );
+        }
+    }
+
+    /**
+     * Attempt to recover a relation. When the peer has no recovery permit available, 
+     * the attempt is postponed.
+     * @param relation The relation to recover.
+     */
+    private void attempt( ObserveRelation relation )
+    {
+        Semaphore permits= peerPermits.computeIfAbsent( relation.getPeer(), peer -> new Semaphore( peerConcurrency ) );
+        if ( permits.tryAcquire() )
+        {
+            if ( !relation.recover() )
+            {
+                permits.release();
+                failed( relation );
+            }
+        }
+        else
+        {
+            schedule( relation, backoff( 1 ) );
+        }
+    }
+}
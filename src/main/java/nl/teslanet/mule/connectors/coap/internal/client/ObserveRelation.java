@@ -23,15 +23,28 @@
 package nl.teslanet.mule.connectors.coap.internal.client;
 
 
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.californium.core.CoapClient;
 import org.eclipse.californium.core.CoapHandler;
 import org.eclipse.californium.core.CoapObserveRelation;
 import org.eclipse.californium.core.CoapResponse;
+import org.mule.runtime.extension.api.runtime.source.SourceCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import nl.teslanet.mule.connectors.coap.api.NotificationQueuePolicy;
+import nl.teslanet.mule.connectors.coap.api.ObserverState;
+import nl.teslanet.mule.connectors.coap.api.attributes.CoapResponseAttributes;
+import nl.teslanet.mule.connectors.coap.internal.attributes.CoapResponseAttributesImpl;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidOptionValueException;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidRequestCodeException;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalRequestException;
@@ -42,6 +55,9 @@ import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalUriException
 
 /**
  * The ObserverRelation processes notifications and manages re-registration when needed.
+ * One relation is established with the server per observed uri, which is shared by all subscribers: 
+ * the response handlers of observer operations and observer sources. 
+ * The attributes of a notification are created once and passed to all subscribers.
  */
 public class ObserveRelation implements CoapHandler
 {
@@ -72,9 +88,30 @@ public class ObserveRelation implements CoapHandler
     private final boolean defaultProactiveCancel;
 
     /**
-     * processor that will process notifications.
+     * The local address of the endpoint receiving the notifications.
      */
-    private final ResponseProcessingStrategy processor;
+    private final String localAddress;
+
+    /**
+     * The response handlers subscribed to the notifications.
+     */
+    private final CopyOnWriteArraySet< ResponseProcessor > processors= new CopyOnWriteArraySet<>();
+
+    /**
+     * The observer sources subscribed to the notifications.
+     */
+    private final CopyOnWriteArraySet< SourceCallback< InputStream, CoapResponseAttributes > > sources=
+        new CopyOnWriteArraySet<>();
+
+    /**
+     * The request attributes shared by all notifications, created on first use.
+     */
+    private volatile CoapResponseAttributesImpl requestAttributes= null;
+
+    /**
+     * The last notification processed, passed to subscribers joining the relation.
+     */
+    private volatile Notification lastNotification= null;
 
     /**
      * The CoAP relation that has been established.
@@ -86,20 +123,64 @@ public class ObserveRelation implements CoapHandler
      */
     private AtomicBoolean started= new AtomicBoolean( false );
 
+    /**
+     * The recovery scheduler, when null the relation is resumed immediately on error.
+     */
+    private final ObserveRecovery recovery;
+
+    /**
+     * The peer the relation is established with.
+     */
+    private final String peer;
+
+    /**
+     * Flag indicating the relation has failed and is not restored yet.
+     */
+    private volatile boolean recovering= false;
+
+    /**
+     * The number of consecutive failures.
+     */
+    private int recoveryAttempts= 0;
+
+    /**
+     * Flag indicating the relation holds a recovery permit of its peer.
+     */
+    private boolean recoveryPermit= false;
+
+    /**
+     * The scheduled recovery attempt.
+     */
+    private ScheduledFuture< ? > recoveryFuture= null;
+
+    /**
+     * The time of the scheduled recovery attempt [ns].
+     */
+    private long recoveryTime= 0L;
+
+    /**
+     * The queue handing notifications over to the subscribers.
+     */
+    private final NotificationQueue notificationQueue;
+
     /**
      * Constructor
      * @param observerName The name of the observer. 
      * @param coapClient The client this observer belongs to..
      * @param requestBuilder The builder to issue observe requests.
      * @param proactiveCancel The default setting indicating whether to proactively terminate the observation.
-     * @param processor The strategy that will process notifications.
+     * @param recovery The recovery scheduler of failed relations.
+     * @param notificationQueue The queue handing notifications over to the subscribers.
+     * @param localAddress The local address of the endpoint receiving the notifications.
      */
     ObserveRelation(
         String observerName,
         CoapClient coapClient,
         CoapRequestBuilder requestBuilder,
         boolean proactiveCancel,
-        ResponseProcessingStrategy processor
+        ObserveRecovery recovery,
+        NotificationQueue notificationQueue,
+        String localAddress
     )
     {
         super();
@@ -107,7 +188,149 @@ public class ObserveRelation implements CoapHandler
         this.coapClient= coapClient;
         this.requestBuilder= requestBuilder;
         this.defaultProactiveCancel= proactiveCancel;
-        this.processor= processor;
+        this.recovery= recovery;
+        this.notificationQueue= notificationQueue;
+        this.localAddress= localAddress;
+        notificationQueue.setConsumer( this::process );
+        String endpointUri;
+        try
+        {
+            endpointUri= requestBuilder.buildEndpointUri().toString();
+        }
+        catch ( InternalUriException e )
+        {
+            // the relation cannot be established, so it will not compete for recovery with others
+            endpointUri= observerName;
+        }
+        this.peer= endpointUri;
+    }
+
+    /**
+     * Subscribe a response handler to the notifications.
+     * The last notification received, if any, is passed to the handler.
+     * @param processor The response handler to subscribe.
+     * @return True when the handler was not subscribed yet, otherwise false.
+     */
+    boolean addProcessor( ResponseProcessor processor )
+    {
+        if ( !processors.add( processor ) ) return false;
+        replay( processor.getListeners() );
+        return true;
+    }
+
+    /**
+     * Subscribe an observer source to the notifications.
+     * The last notification received, if any, is passed to the source.
+     * @param source The callback of the observer source to subscribe.
+     * @return True when the source was not subscribed yet, otherwise false.
+     */
+    boolean addSource( SourceCallback< InputStream, CoapResponseAttributes > source )
+    {
+        if ( !sources.add( source ) ) return false;
+        replay( Collections.singletonList( source ) );
+        return true;
+    }
+
+    /**
+     * Take over the subscribers of a relation that is replaced.
+     * @param relation The relation that is replaced.
+     */
+    void addSubscribers( ObserveRelation relation )
+    {
+        processors.addAll( relation.processors );
+        sources.addAll( relation.sources );
+    }
+
+    /**
+     * @param processor The response handler.
+     * @return True when the response handler is subscribed, otherwise false.
+     */
+    boolean hasProcessor( ResponseProcessor processor )
+    {
+        return processors.contains( processor );
+    }
+
+    /**
+     * @return True when response handlers of observer operations are subscribed, otherwise false.
+     */
+    boolean hasProcessors()
+    {
+        return !processors.isEmpty();
+    }
+
+    /**
+     * Unsubscribe a response handler.
+     * @param processor The response handler to unsubscribe.
+     * @return True when the handler was subscribed, otherwise false.
+     */
+    boolean removeProcessor( ResponseProcessor processor )
+    {
+        return processors.remove( processor );
+    }
+
+    /**
+     * Unsubscribe all response handlers.
+     * @return True when any handler was subscribed, otherwise false.
+     */
+    boolean removeProcessors()
+    {
+        boolean subscribed= !processors.isEmpty();
+        processors.clear();
+        return subscribed;
+    }
+
+    /**
+     * Unsubscribe an observer source.
+     * @param source The callback of the observer source to unsubscribe.
+     * @return True when the source was subscribed, otherwise false.
+     */
+    boolean removeSource( SourceCallback< InputStream, CoapResponseAttributes > source )
+    {
+        return sources.remove( source );
+    }
+
+    /**
+     * Get the settings of a subscriber joining the relation that differ from the settings of the relation.
+     * The subscriber shares the relation, so differing settings would not be applied.
+     * @param joiner The builder of the observe requests of the subscriber.
+     * @param proactiveCancel The cancel setting of the subscriber, or null when it has none.
+     * @param policy The notification queue policy of the subscriber.
+     * @param capacity The notification queue capacity of the subscriber.
+     * @return The names of the settings that differ, empty when none differ.
+     */
+    List< String > getConflicts(
+        CoapRequestBuilder joiner,
+        Boolean proactiveCancel,
+        NotificationQueuePolicy policy,
+        int capacity
+    )
+    {
+        ArrayList< String > conflicts= new ArrayList<>();
+        if ( joiner.buildMessageType() != requestBuilder.buildMessageType() )
+        {
+            conflicts.add( "confirmable" );
+        }
+        if ( !joiner.buildOptionSet().asSortedList().equals( requestBuilder.buildOptionSet().asSortedList() ) )
+        {
+            conflicts.add( "request options" );
+        }
+        if ( proactiveCancel != null && proactiveCancel != defaultProactiveCancel )
+        {
+            conflicts.add( "observeCancel" );
+        }
+        if ( !notificationQueue.hasSettings( policy, capacity ) )
+        {
+            conflicts.add( "notificationQueuePolicy/notificationQueueCapacity" );
+        }
+        return conflicts;
+    }
+
+    /**
+     * @return The number of subscribers. The relation is stopped when no subscribers are left.
+     */
+    int getSubscriberCount()
+    {
+        return processors.size() + sources.size();
     }
 
     /**
@@ -140,51 +363,195 @@ public class ObserveRelation implements CoapHandler
         if ( started.get() )
         {
             LOGGER.warn( "{} trying to restore observe relation with server...", this );
-            if ( coapRelation != null )
+            restore();
+        }
+    }
+
+    /**
+     * Reregister the observer on the server.
+     * A relation that has been canceled is recreated.
+     */
+    public synchronized void reregister()
+    {
+        if ( started.get() )
+        {
+            LOGGER.info( "{} reregistering observe relation with server...", this );
+            restore();
+        }
+    }
+
+    /**
+     * Restore the relation with the server by reregistering,
+     * or by sending a new observe request when the relation has been canceled.
+     */
+    private boolean restore()
+    {
+        if ( coapRelation != null )
+        {
+            if ( coapRelation.isCanceled() )
             {
-                if ( coapRelation.isCanceled() )
+                try
+                {
+                    coapRelation= sendObserveRequest();
+                }
+                catch (
+                    InternalInvalidRequestCodeException | InternalUriException | InternalRequestException
+                    | InternalInvalidOptionValueException | InternalUnkownOptionException e
+                )
+                {
+                    LOGGER
+                        .error(
+                            String.format( "%s observe request failed, cannot restore relation with server...", this ),
+                            e
+                        );
+                    return false;
+                }
+                if ( coapRelation != null )
                 {
-                    try
-                    {
-                        coapRelation= sendObserveRequest();
-                    }
-                    catch (
-                        InternalInvalidRequestCodeException | InternalUriException | InternalRequestException
-                        | InternalInvalidOptionValueException | InternalUnkownOptionException e
-                    )
-                    {
-                        LOGGER
-                            .error(
-                                String
-                                    .format(
-                                        "%s observe request failed, cannot restore relation with server...",
-                                        this
-                                    ),
-                                e
-                            );
-                    }
-                    if ( coapRelation != null )
-                    {
-                        LOGGER.info( "{} observe request sent.", this );
-                    }
-                    else
-                    {
-                        LOGGER.error( "{} failed to recreate relation with server.", this );
-                    }
+                    LOGGER.info( "{} observe request sent.", this );
+                    return true;
                 }
                 else
                 {
-                    if ( coapRelation.reregister() )
-                    {
-                        LOGGER.info( "{} reregistered on server.", this );
-                    }
-                    else
-                    {
-                        LOGGER.error( "{} failed to reregister on server.", this );
-                    }
+                    LOGGER.error( "{} failed to recreate relation with server.", this );
                 }
             }
+            else
+            {
+                if ( coapRelation.reregister() )
+                {
+                    LOGGER.info( "{} reregistered on server.", this );
+                    return true;
+                }
+                else
+                {
+                    LOGGER.error( "{} failed to reregister on server.", this );
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Attempt to recover the relation after failure.
+     * On success the relation holds a recovery permit of its peer, 
+     * until the relation has been restored or has failed again.
+     * @return True when an observe request has been sent, otherwise false.
+     */
+    synchronized boolean recover()
+    {
+        recoveryFuture= null;
+        if ( !started.get() ) return false;
+        LOGGER.warn( "{} trying to restore observe relation with server...", this );
+        recoveryPermit= restore();
+        return recoveryPermit;
+    }
+
+    /**
+     * Register a failure of the relation. A recovery permit that is held is released.
+     * @return The number of consecutive failures.
+     */
+    synchronized int recoveryFailed()
+    {
+        releaseRecoveryPermit();
+        recovering= true;
+        return ++recoveryAttempts;
+    }
+
+    /**
+     * Register a scheduled recovery attempt. 
+     * When the relation has stopped in the meantime, the attempt is cancelled.
+     * @param future The scheduled attempt.
+     * @param time The time of the attempt [ns].
+     */
+    synchronized void recoveryScheduled( ScheduledFuture< ? > future, long time )
+    {
+        if ( started.get() )
+        {
+            recoveryFuture= future;
+            recoveryTime= time;
+        }
+        else
+        {
+            future.cancel( false );
+        }
+    }
+
+    /**
+     * Register the restoration of the relation. A recovery permit that is held is released.
+     */
+    synchronized void recoverySucceeded()
+    {
+        releaseRecoveryPermit();
+        recovering= false;
+        recoveryAttempts= 0;
+        LOGGER.info( "{} restored observe relation with server.", this );
+    }
+
+    /**
+     * Cancel recovery of the relation and release the recovery permit when it is held.
+     */
+    private void cancelRecovery()
+    {
+        if ( recoveryFuture != null )
+        {
+            recoveryFuture.cancel( false );
+            recoveryFuture= null;
         }
+        releaseRecoveryPermit();
+        recovering= false;
+        recoveryAttempts= 0;
+    }
+
+    /**
+     * Release the recovery permit when it is held.
+     */
+    private void releaseRecoveryPermit()
+    {
+        if ( recoveryPermit )
+        {
+            recoveryPermit= false;
+            recovery.release( this );
+        }
+    }
+
+    /**
+     * @return True when the observer is intended to be active.
+     */
+    boolean isStarted()
+    {
+        return started.get();
+    }
+
+    /**
+     * @return The peer the relation is established with.
+     */
+    String getPeer()
+    {
+        return peer;
+    }
+
+    /**
+     * Get the state of the relation.
+     * @param uri The observed uri.
+     * @return The observer state.
+     */
+    public synchronized ObserverState getState( String uri )
+    {
+        long delay= 0L;
+        if ( recoveryFuture != null )
+        {
+            delay= Math.max( 0L, TimeUnit.NANOSECONDS.toMillis( recoveryTime - System.nanoTime() ) );
+        }
+        return new ObserverState(
+            uri,
+            recovering,
+            recoveryAttempts,
+            delay,
+            notificationQueue.getDropped(),
+            notificationQueue.getConflated(),
+            getSubscriberCount()
+        );
     }
 
     /**
@@ -205,6 +572,9 @@ public class ObserveRelation implements CoapHandler
     {
         if ( started.compareAndSet( true, false ) )
         {
+            cancelRecovery();
+            notificationQueue.clear();
+            lastNotification= null;
             if ( coapRelation != null )
             {
                 if ( confirmable != null )
@@ -231,16 +601,23 @@ public class ObserveRelation implements CoapHandler
     @Override
     public void onError()
     {
+        lastNotification= null;
         try
         {
-            processor.process( requestBuilder, null );
+            deliver( ResponseProcessor.createResponseAttributes( getRequestAttributes(), null ), null, null );
         }
         catch ( InternalResponseException e )
         {
             LOGGER.error( String.format( "%s error processing failed.", this ), e );
         }
-        //TODO wait time?
-        resume();
+        if ( recovery != null )
+        {
+            recovery.failed( this );
+        }
+        else
+        {
+            resume();
+        }
     }
 
     /**
@@ -249,13 +626,86 @@ public class ObserveRelation implements CoapHandler
     @Override
     public void onLoad( CoapResponse response )
     {
+        if ( recovering && recovery != null )
+        {
+            recovery.succeeded( this );
+        }
+        notificationQueue.offer( response );
+    }
+
+    /**
+     * Process a notification.
+     * @param response The notification to process.
+     * @param slot The queue slot the notification occupies, or null when not queued.
+     */
+    private void process( CoapResponse response, NotificationQueue.Slot slot )
+    {
+        CoapResponseAttributesImpl attributes;
         try
         {
-            processor.process( requestBuilder, response );
+            attributes= ResponseProcessor.createResponseAttributes( getRequestAttributes(), response );
         }
         catch ( InternalResponseException e )
         {
             LOGGER.error( String.format( "%s notification processing failed.", this ), e );
+            return;
+        }
+        lastNotification= new Notification( attributes, response );
+        deliver( attributes, response, slot );
+    }
+
+    /**
+     * Get the request attributes of the notifications. 
+     * The request does not change during the life of the relation, so they are created once. 
+     * @return The attributes containing the request attributes.
+     * @throws InternalResponseException When the request attributes cannot be created.
+     */
+    private CoapResponseAttributesImpl getRequestAttributes() throws InternalResponseException
+    {
+        CoapResponseAttributesImpl template= requestAttributes;
+        if ( template == null )
+        {
+            template= ResponseProcessor.createRequestAttributesTemplate( localAddress, requestBuilder );
+            requestAttributes= template;
+        }
+        return template;
+    }
+
+    /**
+     * Pass a notification to all subscribers.
+     * @param attributes The attributes of the notification.
+     * @param response The notification, or null when the relation has failed.
+     * @param slot The queue slot the notification occupies, or null when not queued.
+     */
+    private void deliver( CoapResponseAttributesImpl attributes, CoapResponse response, NotificationQueue.Slot slot )
+    {
+        for ( ResponseProcessor subscriber : processors )
+        {
+            for ( SourceCallback< InputStream, CoapResponseAttributes > callback : subscriber.getListeners() )
+            {
+                ResponseProcessor.callMuleFlow( attributes, response, callback, slot );
+            }
+        }
+        for ( SourceCallback< InputStream, CoapResponseAttributes > callback : sources )
+        {
+            ResponseProcessor.callMuleFlow( attributes, response, callback, slot );
+        }
+    }
+
+    /**
+     * Pass the last notification to a subscriber joining the relation. 
+     * The subscriber may receive a notification that arrives at the same time twice.
+     * @param callbacks The callbacks of the subscriber.
+     */
+    private void replay( Collection< SourceCallback< InputStream, CoapResponseAttributes > > callbacks )
+    {
+        Notification notification= lastNotification;
+        if ( notification != null )
+        {
+            for ( SourceCallback< InputStream, CoapResponseAttributes > callback : callbacks )
+            {
+                ResponseProcessor.callMuleFlow( notification.attributes, notification.response, callback );
+            }
         }
     }
 
@@ -285,4 +735,31 @@ public class ObserveRelation implements CoapHandler
     {
         return observerName;
     }
+
+    /**
+     * A notification with its attributes.
+     */
+    private static final class Notification
+    {
+        /**
+         * The attributes of the notification.
+         */
+        private final CoapResponseAttributesImpl attributes;
+
+        /**
+         * The notification.
+         */
+        private final CoapResponse response;
+
+        /**
+         * Constructor.
+         * @param attributes The attributes of the notification.
+         * @param response The notification.
+         */
+        private Notification( CoapResponseAttributesImpl attributes, CoapResponse response )
+        {
+            this.attributes= attributes;
+            this.response= response;
+        }
+    }
 }
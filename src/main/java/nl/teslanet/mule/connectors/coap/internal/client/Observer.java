@@ -28,15 +28,18 @@ import java.net.URI;
 
 import org.mule.runtime.api.exception.MuleException;
 import org.mule.runtime.extension.api.annotation.Alias;
+import org.mule.runtime.extension.api.annotation.execution.OnTerminate;
 import org.mule.runtime.extension.api.annotation.param.Config;
 import org.mule.runtime.extension.api.annotation.param.MediaType;
 import org.mule.runtime.extension.api.annotation.param.ParameterGroup;
 import org.mule.runtime.extension.api.runtime.source.Source;
 import org.mule.runtime.extension.api.runtime.source.SourceCallback;
+import org.mule.runtime.extension.api.runtime.source.SourceResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import nl.teslanet.mule.connectors.coap.api.attributes.CoapResponseAttributes;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidObserverException;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalUriException;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.StartException;
 
@@ -47,6 +50,7 @@ import nl.teslanet.mule.connectors.coap.internal.exceptions.StartException;
  * The resource is observed during runtime of the flow. When 
  * an observe relation with the server could not be established or is lost, 
  * the flow is notified of the error and the observe request is retried continuously. 
+ * When the resource is observed by other flows of the client as well, the relation with the server is shared.
  */
 @Alias( "observer" )
 @MediaType( value= MediaType.APPLICATION_OCTET_STREAM, strict= false )
@@ -71,9 +75,9 @@ public class Observer extends Source< InputStream, CoapResponseAttributes >
 
     //TODO add refresh observe feature
     /**
-     * The relation that has been established
+     * The callback subscribed to the relation.
      */
-    private ObserveRelation relation= null;
+    private SourceCallback< InputStream, CoapResponseAttributes > callback= null;
 
     private URI uri= null;
 
@@ -84,7 +88,6 @@ public class Observer extends Source< InputStream, CoapResponseAttributes >
     public void onStart( SourceCallback< InputStream, CoapResponseAttributes > sourceCallback ) throws MuleException
     {
         CoapRequestBuilder requestBuilder= client.new CoapRequestBuilderImpl( observerConfig );
-        final String localAdress= client.getLocalAddress();
         try
         {
             uri= requestBuilder.buildResourceUri();
@@ -93,15 +96,15 @@ public class Observer extends Source< InputStream, CoapResponseAttributes >
         {
             throw new StartException( this + " failed to start, invalid uri. ", e );
         }
-        relation= new ObserveRelation(
-            this.toString(),
-            client.getCoapClient(),
-            requestBuilder,
-            client.activeObserveCancel( observerConfig.getObserveCancel() ),
-            ( requestBuilder2, response ) -> ResponseProcessor
-                .processMuleFlow( localAdress, requestBuilder2, response, sourceCallback )
-        );
-        relation.start();
+        try
+        {
+            client.subscribeObserver( uri, requestBuilder, observerConfig, sourceCallback );
+        }
+        catch ( InternalInvalidObserverException | InternalUriException e )
+        {
+            throw new StartException( this + " failed to start, observer could not be registered. ", e );
+        }
+        callback= sourceCallback;
         LOGGER.info( "{} started.", this );
     }
 
@@ -111,14 +114,24 @@ public class Observer extends Source< InputStream, CoapResponseAttributes >
     @Override
     public void onStop()
     {
-        if ( relation != null )
+        if ( callback != null )
         {
-            relation.stop();
-            relation= null;
+            client.unsubscribeObserver( uri, callback, client.activeObserveCancel( observerConfig.getObserveCancel() ) );
+            callback= null;
         }
         LOGGER.info( "{} stopped.", this );
     }
 
+    /**
+     * Release the notification queue slot held by the flow, so the next notification is processed.
+     * @param sourceResult Provides processing context.
+     */
+    @OnTerminate
+    public void onTerminate( SourceResult sourceResult )
+    {
+        ResponseProcessor.releaseSlot( sourceResult.getSourceCallbackContext() );
+    }
+
     /**
      * Get String representation.
      */
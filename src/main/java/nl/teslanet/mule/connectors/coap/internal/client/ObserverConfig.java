@@ -31,6 +31,7 @@ import org.mule.runtime.extension.api.annotation.param.display.Placement;
 import org.mule.runtime.extension.api.annotation.param.display.Summary;
 
 import nl.teslanet.mule.connectors.coap.api.CoapRequestType;
+import nl.teslanet.mule.connectors.coap.api.NotificationQueuePolicy;
 import nl.teslanet.mule.connectors.coap.api.ObserveCancel;
 
 
@@ -67,6 +68,30 @@ public class ObserverConfig extends AbstractRequestConfig
     @Placement( order= 71 )
     private ObserveCancel observeCancel= ObserveCancel.DEFAULT;
 
+    /**
+     * The policy of handing notifications over to the flow.
+     * When DIRECT notifications are processed on the thread that received them.
+     * Otherwise notifications are queued and processed in order of arrival, one at a time.
+     */
+    @Parameter
+    @Optional( defaultValue= "DIRECT" )
+    @Expression( ExpressionSupport.NOT_SUPPORTED )
+    @Summary(
+        "The policy of handing notifications over to the flow. \nWhen DIRECT notifications are processed on the thread that received them. \nCONFLATE keeps only the latest notification waiting, \nDROP_OLDEST drops the oldest notification waiting when the queue is full, \nBLOCK waits up to one second for room in the queue, holding up the endpoint thread receiving messages, \nand drops the notification when there is still no room."
+    )
+    @Placement( order= 81 )
+    private NotificationQueuePolicy notificationQueuePolicy= NotificationQueuePolicy.DIRECT;
+
+    /**
+     * The maximum number of notifications waiting to be processed.
+     */
+    @Parameter
+    @Optional( defaultValue= "16" )
+    @Expression( ExpressionSupport.NOT_SUPPORTED )
+    @Summary( "The maximum number of notifications waiting to be processed." )
+    @Placement( order= 82 )
+    private int notificationQueueCapacity= 16;
+
     /**
      * @return the confirmable
      */
@@ -98,4 +123,36 @@ public class ObserverConfig extends AbstractRequestConfig
     {
         this.observeCancel= observeCancel;
     }
+
+    /**
+     * @return the notification queue policy
+     */
+    public NotificationQueuePolicy getNotificationQueuePolicy()
+    {
+        return notificationQueuePolicy;
+    }
+
+    /**
+     * @param notificationQueuePolicy the notification queue policy to set
+     */
+    public void setNotificationQueuePolicy( NotificationQueuePolicy notificationQueuePolicy )
+    {
+        this.notificationQueuePolicy= notificationQueuePolicy;
+    }
+
+    /**
+     * @return the notification queue capacity
+     */
+    public int getNotificationQueueCapacity()
+    {
+        return notificationQueueCapacity;
+    }
+
+    /**
+     * @param notificationQueueCapacity the notification queue capacity to set
+     */
+    public void setNotificationQueueCapacity( int notificationQueueCapacity )
+    {
+        this.notificationQueueCapacity= notificationQueueCapacity;
+    }
 }
@@ -0,0 +1,174 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.internal.client;
+
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import nl.teslanet.mule.connectors.coap.api.query.AbstractQueryParam;
+import nl.teslanet.mule.connectors.coap.internal.utils.MessageUtils;
+
+
+/**
+ * The prepared requests of a client contain the static parts of request definitions,
+ * resolved against the client defaults. The endpoint and resource uri's are constructed once 
+ * for each definition and are reused by all requests with the same definition. 
+ * The number of prepared uri's is bounded, so definitions that change with every request, 
+ * like paths containing expressions, are constructed anew when the bound has been reached.
+ */
+public class PreparedRequests
+{
+    /**
+     * The default maximum number of uri's that are prepared.
+     */
+    public static final int DEFAULT_CAPACITY= 1024;
+
+    /**
+     * The maximum number of uri's that are prepared.
+     */
+    private final int capacity;
+
+    /**
+     * The default query parameters of the client.
+     */
+    private final List< ? extends AbstractQueryParam > defaultQueryParams;
+
+    /**
+     * The query string of the default query parameters.
+     */
+    private final String defaultQuery;
+
+    /**
+     * The prepared endpoint uri's, by scheme, host and port.
+     */
+    private final ConcurrentHashMap< List< Object >, URI > endpointUris= new ConcurrentHashMap<>();
+
+    /**
+     * The prepared resource uri's, by scheme, host, port, path and query.
+     */
+    private final ConcurrentHashMap< List< Object >, URI > resourceUris= new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     * @param defaultQueryParams The default query parameters of the client.
+     * @param capacity The maximum number of endpoint uri's and of resource uri's that are prepared.
+     */
+    public PreparedRequests( List< ? extends AbstractQueryParam > defaultQueryParams, int capacity )
+    {
+        this.defaultQueryParams= defaultQueryParams;
+        this.defaultQuery= MessageUtils.queryString( defaultQueryParams, Collections.emptyList() );
+        this.capacity= capacity;
+    }
+
+    /**
+     * Get the query string of the request, merging the default query parameters.
+     * @param queryParams The query parameters of the request.
+     * @return The query string, null when there are no query parameters.
+     */
+    public String queryString( List< ? extends AbstractQueryParam > queryParams )
+    {
+        if ( queryParams == null || queryParams.isEmpty() )
+        {
+            return defaultQuery;
+        }
+        return MessageUtils.queryString( defaultQueryParams, queryParams );
+    }
+
+    /**
+     * Get the uri of an endpoint.
+     * @param scheme The scheme of the uri.
+     * @param host The host of the endpoint.
+     * @param port The port of the endpoint, -1 when undefined.
+     * @return The endpoint uri.
+     * @throws URISyntaxException When the components do not form a valid uri.
+     */
+    public URI endpointUri( String scheme, String host, int port ) throws URISyntaxException
+    {
+        List< Object > key= Arrays.asList( scheme, host, port );
+        URI uri= endpointUris.get( key );
+        if ( uri == null )
+        {
+            uri= new URI( scheme, null, host, port, null, null, null );
+            prepare( endpointUris, key, uri );
+        }
+        return uri;
+    }
+
+    /**
+     * Get the uri of a resource.
+     * @param scheme The scheme of the uri.
+     * @param host The host of the resource.
+     * @param port The port of the resource, -1 when undefined.
+     * @param path The path of the resource.
+     * @param query The query of the resource, null when undefined.
+     * @return The resource uri.
+     * @throws URISyntaxException When the components do not form a valid uri.
+     */
+    public URI resourceUri( String scheme, String host, int port, String path, String query ) throws URISyntaxException
+    {
+        List< Object > key= Arrays.asList( scheme, host, port, path, query );
+        URI uri= resourceUris.get( key );
+        if ( uri == null )
+        {
+            uri= new URI( scheme, null, host, port, path, query, null );
+            prepare( resourceUris, key, uri );
+        }
+        return uri;
+    }
+
+    /**
+     * @return The number of prepared endpoint and resource uri's.
+     */
+    public int size()
+    {
+        return endpointUris.size() + resourceUris.size();
+    }
+
+    /**
+     * Remove all prepared uri's.
+     */
+    public void clear()
+    {
+        endpointUris.clear();
+        resourceUris.clear();
+    }
+
+    /**
+     * Add a prepared uri when the bound has not been reached.
+     * @param uris The prepared uri's.
+     * @param key The components of the uri.
+     * @param uri The uri to add.
+     */
+    private void prepare( ConcurrentHashMap< List< Object >, URI > uris, List< Object > key, URI uri )
+    {
+        if ( uris.size() < capacity )
+        {
+            uris.putIfAbsent( key, uri );
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.internal.client;
+
+
+import java.io.InputStream;
+
+import org.eclipse.californium.core.CoapHandler;
+import org.eclipse.californium.core.CoapResponse;
+import org.eclipse.californium.core.coap.Request;
+import org.mule.runtime.extension.api.runtime.operation.Result;
+import org.mule.runtime.extension.api.runtime.process.CompletionCallback;
+
+import nl.teslanet.mule.connectors.coap.api.attributes.CoapResponseAttributes;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalClientErrorResponseException;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalEndpointException;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidResponseCodeException;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalNoResponseException;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalResponseException;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalServerErrorResponseException;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalUriException;
+
+
+/**
+ * Handler of CoAP responses that completes a non-blocking request.
+ * The callback is completed exactly once, also when processing the response fails unexpectedly.
+ */
+public class RequestCompletionHandler implements CoapHandler
+{
+    /**
+     * Factory of the result of a request.
+     */
+    @FunctionalInterface
+    public interface ResultFactory
+    {
+        /**
+         * Create the result of the request from the received response.
+         * @param response The response received, or null when none was received.
+         * @return The result.
+         * @throws InternalNoResponseException No response was received.
+         * @throws InternalClientErrorResponseException The response received indicates client error.
+         * @throws InternalInvalidResponseCodeException The response contained an invalid response code.
+         * @throws InternalServerErrorResponseException The response received indicates server error.
+         * @throws InternalResponseException The response could not be interpreted.
+         * @throws InternalUriException When request uri is invalid.
+         */
+        Result< InputStream, CoapResponseAttributes > create( CoapResponse response ) throws InternalNoResponseException,
+            InternalClientErrorResponseException,
+            InternalInvalidResponseCodeException,
+            InternalServerErrorResponseException,
+            InternalResponseException,
+            InternalUriException;
+    }
+
+    /**
+     * The owner of the request, used in messages.
+     */
+    private final Object owner;
+
+    /**
+     * The request issued.
+     */
+    private final Request request;
+
+    /**
+     * The factory of the result.
+     */
+    private final ResultFactory resultFactory;
+
+    /**
+     * The callback to complete.
+     */
+    private final CompletionCallback< InputStream, CoapResponseAttributes > callback;
+
+    /**
+     * Constructor.
+     * @param owner The owner of the request, used in messages.
+     * @param request The request issued.
+     * @param resultFactory The factory of the result.
+     * @param callback The callback to complete.
+     */
+    public RequestCompletionHandler(
+        Object owner,
+        Request request,
+        ResultFactory resultFactory,
+        CompletionCallback< InputStream, CoapResponseAttributes > callback
+    )
+    {
+        this.owner= owner;
+        this.request= request;
+        this.resultFactory= resultFactory;
+        this.callback= callback;
+    }
+
+    /**
+     * Callback for errors that occur on the request, 
+     * being a failure to send or the absence of a response.
+     */
+    @Override
+    public void onError()
+    {
+        if ( request.getSendError() != null )
+        {
+            callback.error( new InternalEndpointException( owner + " CoAP request failed", request.getSendError() ) );
+        }
+        else
+        {
+            complete( null );
+        }
+    }
+
+    /**
+     * Callback for delivering the response.
+     * @param response The response received.
+     */
+    @Override
+    public void onLoad( CoapResponse response )
+    {
+        complete( response );
+    }
+
+    /**
+     * Complete the request with the result of the response.
+     * @param response The response received, or null when none was received.
+     */
+    private void complete( CoapResponse response )
+    {
+        Result< InputStream, CoapResponseAttributes > result;
+        try
+        {
+            result= resultFactory.create( response );
+        }
+        catch (
+            InternalNoResponseException | InternalClientErrorResponseException | InternalInvalidResponseCodeException
+            | InternalServerErrorResponseException | InternalResponseException | InternalUriException e
+        )
+        {
+            callback.error( e );
+            return;
+        }
+        catch ( RuntimeException e )
+        {
+            callback.error( new InternalResponseException( owner + " CoAP response cannot be processed", e ) );
+            return;
+        }
+        callback.success( result );
+    }
+}
@@ -28,10 +28,12 @@ import java.io.InputStream;
 import org.mule.runtime.api.exception.MuleException;
 import org.mule.runtime.api.meta.ExpressionSupport;
 import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.execution.OnTerminate;
 import org.mule.runtime.extension.api.annotation.param.MediaType;
 import org.mule.runtime.extension.api.annotation.param.Parameter;
 import org.mule.runtime.extension.api.runtime.source.Source;
 import org.mule.runtime.extension.api.runtime.source.SourceCallback;
+import org.mule.runtime.extension.api.runtime.source.SourceResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -100,6 +102,16 @@ public class ResponseListener extends Source< InputStream, CoapResponseAttribute
         LOGGER.info( "{} stopped.", this );
     }
 
+    /**
+     * Release the notification queue slot held by the flow, so the next notification is processed.
+     * @param sourceResult Provides processing context.
+     */
+    @OnTerminate
+    public void onTerminate( SourceResult sourceResult )
+    {
+        ResponseProcessor.releaseSlot( sourceResult.getSourceCallbackContext() );
+    }
+
     /**
      * Get String representation.
      */
@@ -155,18 +155,11 @@ public class ResponseProcessor
     ) throws InternalResponseException
 
     {
-        CoapResponseAttributesImpl responseAttributes;
-        try
-        {
-            responseAttributes= createReceivedResponseAttributes( localAddress, requestBuilder, response );
-        }
-        catch (
-            InternalInvalidOptionValueException | InternalInvalidResponseCodeException
-            | InternalInvalidMessageTypeException | InternalUriException e
-        )
-        {
-            throw new InternalResponseException( "cannot proces received response", e );
-        }
+        CoapResponseAttributesImpl responseAttributes= createResponseAttributes(
+            localAddress,
+            requestBuilder,
+            response
+        );
         for ( SourceCallback< InputStream, CoapResponseAttributes > callback : processor.getListeners() )
         {
             callMuleFlow( responseAttributes, response, callback );
@@ -189,10 +182,31 @@ public class ResponseProcessor
     ) throws InternalResponseException
 
     {
-        CoapResponseAttributesImpl responseAttributes;
+        CoapResponseAttributesImpl responseAttributes= createResponseAttributes(
+            localAddress,
+            requestBuilder,
+            response
+        );
+        callMuleFlow( responseAttributes, response, callback );
+    }
+
+    /**
+     * Create the response attributes of a received response, to be shared by the flows the response is passed to.
+     * @param localAddress The local address of the endpoint that has received the response.
+     * @param requestBuilder The builder containing request parameters
+     * @param response The received response, or null when no response was received.
+     * @return The created response attributes.
+     * @throws InternalResponseException When the received CoAP response contains values that cannot be processed.
+     */
+    static CoapResponseAttributesImpl createResponseAttributes(
+        String localAddress,
+        CoapRequestBuilder requestBuilder,
+        CoapResponse response
+    ) throws InternalResponseException
+    {
         try
         {
-            responseAttributes= createReceivedResponseAttributes( localAddress, requestBuilder, response );
+            return createReceivedResponseAttributes( localAddress, requestBuilder, response );
         }
         catch (
             InternalInvalidOptionValueException | InternalInvalidResponseCodeException
@@ -201,7 +215,58 @@ public class ResponseProcessor
         {
             throw new InternalResponseException( "cannot proces received response", e );
         }
-        callMuleFlow( responseAttributes, response, callback );
+    }
+
+    /**
+     * Create the request attributes that are shared by the responses on a request, 
+     * like the notifications of an observe relation.
+     * @param localAddress The local address of the endpoint that receives the responses.
+     * @param requestBuilder The builder containing request parameters
+     * @return The attributes containing the request attributes only.
+     * @throws InternalResponseException When the request attributes cannot be created.
+     */
+    static CoapResponseAttributesImpl createRequestAttributesTemplate(
+        String localAddress,
+        CoapRequestBuilder requestBuilder
+    ) throws InternalResponseException
+    {
+        try
+        {
+            CoapResponseAttributesImpl template= createRequestAttributes( localAddress, requestBuilder );
+            template.setRequestUri( template.getRequestUri() );
+            return template;
+        }
+        catch ( InternalInvalidOptionValueException | InternalInvalidMessageTypeException | InternalUriException e )
+        {
+            throw new InternalResponseException( "cannot proces received response", e );
+        }
+    }
+
+    /**
+     * Create the response attributes of a received response, using precomputed request attributes.
+     * @param template The attributes containing the request attributes.
+     * @param response The received response, or null when no response was received.
+     * @return The created response attributes.
+     * @throws InternalResponseException When the received CoAP response contains values that cannot be processed.
+     */
+    static CoapResponseAttributesImpl createResponseAttributes(
+        CoapResponseAttributesImpl template,
+        CoapResponse response
+    ) throws InternalResponseException
+    {
+        CoapResponseAttributesImpl attributes= new CoapResponseAttributesImpl( template );
+        try
+        {
+            setResponseAttributes( attributes, response );
+        }
+        catch (
+            InternalInvalidOptionValueException | InternalInvalidResponseCodeException
+            | InternalInvalidMessageTypeException e
+        )
+        {
+            throw new InternalResponseException( "cannot proces received response", e );
+        }
+        return attributes;
     }
 
     /**
@@ -210,40 +275,100 @@ public class ResponseProcessor
      * @param response The CoAP response received.
      * @param callback The callback that will handle the response.
      */
-    private static void callMuleFlow(
+    static void callMuleFlow(
         CoapResponseAttributesImpl responseAttributes,
         CoapResponse response,
         SourceCallback< InputStream, CoapResponseAttributes > callback
     )
+    {
+        callMuleFlow( responseAttributes, response, callback, null );
+    }
+
+    /**
+     * Call Muleflow to hand over a queued notification. 
+     * The flow holds the queue slot of the notification until it terminates.
+     * @param responseAttributes The response attributes giving context o.f the response.
+     * @param response The CoAP response received.
+     * @param callback The callback that will handle the response.
+     * @param slot The queue slot the notification occupies, or null when not queued.
+     */
+    static void callMuleFlow(
+        CoapResponseAttributesImpl responseAttributes,
+        CoapResponse response,
+        SourceCallback< InputStream, CoapResponseAttributes > callback,
+        NotificationQueue.Slot slot
+    )
     {
         SourceCallbackContext requestcontext= callback.createContext();
         //not needed yet in request context: addVariable CoapExchange
-        if ( response != null )
+        if ( slot == null )
         {
-            byte[] responsePayload= response.getPayload();
-            callback
-                .handle(
-                    Result
-                        .< InputStream, CoapResponseAttributes > builder()
-                        .output( new ByteArrayInputStream( responsePayload ) )
-                        .attributes( responseAttributes )
-                        .mediaType( MediaTypeMediator.toMediaType( response.getOptions().getContentFormat() ) )
-                        .build(),
-                    requestcontext
-                );
+            callback.handle( createResult( responseAttributes, response ), requestcontext );
+            return;
+        }
+        slot.acquire();
+        requestcontext.addVariable( Client.VARNAME_NOTIFICATION_SLOT, slot );
+        try
+        {
+            callback.handle( createResult( responseAttributes, response ), requestcontext );
+        }
+        catch ( RuntimeException e )
+        {
+            slot.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Release the queue slot held by a terminated flow, if any.
+     * @param callbackContext The context of the terminated flow.
+     */
+    static void releaseSlot( SourceCallbackContext callbackContext )
+    {
+        NotificationQueue.Slot slot= (NotificationQueue.Slot) callbackContext
+            .getVariable( Client.VARNAME_NOTIFICATION_SLOT )
+            .orElse( null );
+        if ( slot != null )
+        {
+            slot.release();
+        }
+    }
+
+    /**
+     * Create the result that hands over a received response to Mule.
+     * Californium has already assembled blockwise transfers, so the payload is wrapped as is, without copying.
+     * @param responseAttributes The response attributes giving context of the response.
+     * @param response The CoAP response received, or null when no response was received.
+     * @return The result containing the response payload and attributes.
+     */
+    static Result< InputStream, CoapResponseAttributes > createResult(
+        CoapResponseAttributesImpl responseAttributes,
+        CoapResponse response
+    )
+    {
+        Result< InputStream, CoapResponseAttributes > result;
+        if ( response == null )
+        {
+            result= Result
+                .< InputStream, CoapResponseAttributes > builder()
+                .output( null )
+                .attributes( responseAttributes )
+                .mediaType( MediaType.ANY )
+                .build();
         }
         else
         {
-            callback
-                .handle(
-                    Result
-                        .< InputStream, CoapResponseAttributes > builder()
-                        .attributes( responseAttributes )
-                        .mediaType( MediaType.ANY )
-                        .build(),
-                    requestcontext
-                );
+            byte[] payload= response.getPayload();
+            // payload is always initialized, no need to check for null. 
+            result= Result
+                .< InputStream, CoapResponseAttributes > builder()
+                .output( new ByteArrayInputStream( payload ) )
+                .length( payload.length )
+                .attributes( responseAttributes )
+                .mediaType( MediaTypeMediator.toMediaType( response.getOptions().getContentFormat() ) )
+                .build();
         }
+        return result;
     }
 
     /**
@@ -266,6 +391,27 @@ public class ResponseProcessor
         InternalInvalidOptionValueException,
         InternalUriException
 
+    {
+        CoapResponseAttributesImpl attributes= createRequestAttributes( localAddress, requestBuilder );
+        setResponseAttributes( attributes, response );
+        return attributes;
+    }
+
+    /**
+     * Create response attributes containing the request attributes only.
+     * @param localAddress The local address of the endpoint that receives the response.
+     * @param requestBuilder The builder containing request parameters
+     * @return The created attributes.
+     * @throws InternalInvalidMessageTypeException When the request type could not be interpreted.
+     * @throws InternalInvalidOptionValueException When an option value is invalid.
+     * @throws InternalUriException When the request uri is invalid.
+     */
+    private static CoapResponseAttributesImpl createRequestAttributes(
+        String localAddress,
+        CoapRequestBuilder requestBuilder
+    ) throws InternalInvalidMessageTypeException,
+        InternalInvalidOptionValueException,
+        InternalUriException
     {
         CoapResponseAttributesImpl attributes= new CoapResponseAttributesImpl();
         attributes.setLocalAddress( localAddress );
@@ -273,6 +419,22 @@ public class ResponseProcessor
         attributes.setRequestCode( requestBuilder.buildRequestCode().name() );
         attributes.setRequestUriObject( requestBuilder.buildResourceUri() );
         attributes.setRequestOptions( new CoapRequestOptionsAttributesImpl( requestBuilder.buildOptionSet() ) );
+        return attributes;
+    }
+
+    /**
+     * Set the response attributes of a received response.
+     * @param attributes The attributes to set.
+     * @param response The received response, or null when no response was received.
+     * @throws InternalInvalidMessageTypeException When the responseType could not be interpreted.
+     * @throws InternalInvalidResponseCodeException When the response code is invalid.
+     * @throws InternalInvalidOptionValueException When an option value is invalid.
+     */
+    private static void setResponseAttributes( CoapResponseAttributesImpl attributes, CoapResponse response )
+        throws InternalInvalidMessageTypeException,
+        InternalInvalidResponseCodeException,
+        InternalInvalidOptionValueException
+    {
         if ( response == null )
         {
             attributes.setResult( nl.teslanet.mule.connectors.coap.api.attributes.Result.NO_RESPONSE );
@@ -294,7 +456,6 @@ public class ResponseProcessor
                         )
                 );
         }
-        return attributes;
     }
 
 }
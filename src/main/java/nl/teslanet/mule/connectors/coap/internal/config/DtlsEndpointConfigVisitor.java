@@ -50,6 +50,7 @@ import nl.teslanet.mule.connectors.coap.api.config.security.PreSharedKeyGroup;
 import nl.teslanet.mule.connectors.coap.api.config.security.PreSharedKeyStore;
 import nl.teslanet.mule.connectors.coap.api.config.security.TrustStore;
 import nl.teslanet.mule.connectors.coap.api.options.OptionValueException;
+import nl.teslanet.mule.connectors.coap.internal.endpoint.DtlsHandshakeStatistics;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.EndpointConstructionException;
 import nl.teslanet.mule.connectors.coap.internal.utils.MuleInputStreamFactory;
 
@@ -125,6 +126,11 @@ public class DtlsEndpointConfigVisitor extends EndpointConfigVisitor
      */
     private String preSharedKeyStorePassword= null;
 
+    /**
+     * The handshake statistics of the endpoint built.
+     */
+    private DtlsHandshakeStatistics handshakeStatistics= null;
+
     /**
      * Visit SecurityParams is NOOP.
      */
@@ -198,6 +204,8 @@ public class DtlsEndpointConfigVisitor extends EndpointConfigVisitor
         DtlsConnectorConfig.Builder connectBuilder= new DtlsConnectorConfig.Builder( getConfiguration() );
         connectBuilder.setAddress( getLocalAddress() );
         connectBuilder.setReuseAddress( isReuseAddress() );
+        handshakeStatistics= new DtlsHandshakeStatistics( getEndpointName() );
+        connectBuilder.setHealthHandler( handshakeStatistics );
         // Pre-shared secrets
         if ( preSharedKeys != null )
         {
@@ -297,4 +305,13 @@ public class DtlsEndpointConfigVisitor extends EndpointConfigVisitor
         endpointBuilder.setConnector( dtlsConnector );
         return endpointBuilder.build();
     }
+
+    /**
+     * Get the handshake statistics of the endpoint built.
+     * @return The handshake statistics, null when no endpoint has been built.
+     */
+    public DtlsHandshakeStatistics getHandshakeStatistics()
+    {
+        return handshakeStatistics;
+    }
 }
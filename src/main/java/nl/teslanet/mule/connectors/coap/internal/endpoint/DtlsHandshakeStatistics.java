@@ -0,0 +1,106 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.internal.endpoint;
+
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.californium.scandium.DtlsHealthLogger;
+
+
+/**
+ * Health handler of a DTLS connector that counts handshakes.
+ * It extends the default health logger of the connector, 
+ * so health status logging stays available when it is configured.
+ */
+public class DtlsHandshakeStatistics extends DtlsHealthLogger
+{
+    /**
+     * Handshakes started.
+     */
+    private final LongAdder started= new LongAdder();
+
+    /**
+     * Handshakes succeeded.
+     */
+    private final LongAdder succeeded= new LongAdder();
+
+    /**
+     * Handshakes failed.
+     */
+    private final LongAdder failed= new LongAdder();
+
+    /**
+     * Constructor.
+     * @param tag The logging tag of the connector.
+     */
+    public DtlsHandshakeStatistics( String tag )
+    {
+        super( tag );
+    }
+
+    @Override
+    public void startHandshake()
+    {
+        started.increment();
+        super.startHandshake();
+    }
+
+    @Override
+    public void endHandshake( boolean success )
+    {
+        if ( success )
+        {
+            succeeded.increment();
+        }
+        else
+        {
+            failed.increment();
+        }
+        super.endHandshake( success );
+    }
+
+    /**
+     * @return The number of handshakes started.
+     */
+    public long getStarted()
+    {
+        return started.sum();
+    }
+
+    /**
+     * @return The number of handshakes succeeded.
+     */
+    public long getSucceeded()
+    {
+        return succeeded.sum();
+    }
+
+    /**
+     * @return The number of handshakes failed.
+     */
+    public long getFailed()
+    {
+        return failed.sum();
+    }
+}
@@ -0,0 +1,532 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.internal.endpoint;
+
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.californium.core.coap.BlockOption;
+import org.eclipse.californium.core.coap.EmptyMessage;
+import org.eclipse.californium.core.coap.MessageObserver;
+import org.eclipse.californium.core.coap.MessageObserverAdapter;
+import org.eclipse.californium.core.coap.Request;
+import org.eclipse.californium.core.coap.Response;
+import org.eclipse.californium.core.network.CoapEndpoint;
+import org.eclipse.californium.core.network.interceptors.MessageInterceptor;
+
+import nl.teslanet.mule.connectors.coap.api.EndpointStats;
+
+
+/**
+ * Metrics of an operational endpoint.
+ * Message counts are collected by interceptors on the CoAP endpoint. 
+ * Outgoing messages are counted before they are sent, so an observer can be attached 
+ * that tracks completion. Incoming messages are counted after deduplication.
+ * Counters are lock free, so counting can be done on every message.
+ */
+public class EndpointMetrics implements EndpointMetricsMBean
+{
+    /**
+     * The endpoint measured.
+     */
+    private final OperationalEndpoint operationalEndpoint;
+
+    /**
+     * The handshake statistics, null when the endpoint does not use DTLS.
+     */
+    private final DtlsHandshakeStatistics handshakeStatistics;
+
+    /**
+     * Requests sent.
+     */
+    private final LongAdder requestsSent= new LongAdder();
+
+    /**
+     * Responses sent.
+     */
+    private final LongAdder responsesSent= new LongAdder();
+
+    /**
+     * Empty messages sent.
+     */
+    private final LongAdder emptyMessagesSent= new LongAdder();
+
+    /**
+     * Requests received.
+     */
+    private final LongAdder requestsReceived= new LongAdder();
+
+    /**
+     * Responses received.
+     */
+    private final LongAdder responsesReceived= new LongAdder();
+
+    /**
+     * Empty messages received.
+     */
+    private final LongAdder emptyMessagesReceived= new LongAdder();
+
+    /**
+     * Request retransmissions.
+     */
+    private final LongAdder requestRetransmissions= new LongAdder();
+
+    /**
+     * Response retransmissions.
+     */
+    private final LongAdder responseRetransmissions= new LongAdder();
+
+    /**
+     * Duplicate requests received.
+     */
+    private final LongAdder duplicateRequests= new LongAdder();
+
+    /**
+     * Duplicate responses received.
+     */
+    private final LongAdder duplicateResponses= new LongAdder();
+
+    /**
+     * Messages that could not be sent.
+     */
+    private final LongAdder sendErrors= new LongAdder();
+
+    /**
+     * Messages that timed out.
+     */
+    private final LongAdder timeouts= new LongAdder();
+
+    /**
+     * Requests sent awaiting completion.
+     */
+    private final LongAdder activeExchanges= new LongAdder();
+
+    /**
+     * Blockwise transfers started.
+     */
+    private final LongAdder blockwiseStarted= new LongAdder();
+
+    /**
+     * Blockwise transfers completed.
+     */
+    private final LongAdder blockwiseCompleted= new LongAdder();
+
+    /**
+     * Observer of responses sent, that counts failures.
+     */
+    private final MessageObserverAdapter responseObserver= new MessageObserverAdapter( true )
+        {
+            @Override
+            public void onTimeout()
+            {
+                timeouts.increment();
+            }
+
+            @Override
+            public void onSendError( Throwable error )
+            {
+                sendErrors.increment();
+            }
+        };
+
+    /**
+     * Interceptor counting outgoing messages.
+     */
+    private final MessageInterceptor sendCounter= new MessageInterceptor()
+        {
+            @Override
+            public void sendRequest( Request request )
+            {
+                if ( request.isDuplicate() )
+                {
+                    requestRetransmissions.increment();
+                    return;
+                }
+                requestsSent.increment();
+                if ( !isTracked( request ) )
+                {
+                    activeExchanges.increment();
+                    request.addMessageObserver( new RequestObserver() );
+                }
+                countBlockwise( request.getOptions().getBlock1() );
+            }
+
+            @Override
+            public void sendResponse( Response response )
+            {
+                if ( response.isDuplicate() )
+                {
+                    responseRetransmissions.increment();
+                    return;
+                }
+                responsesSent.increment();
+                response.addMessageObserver( responseObserver );
+                countBlockwise( response.getOptions().getBlock2() );
+            }
+
+            @Override
+            public void sendEmptyMessage( EmptyMessage message )
+            {
+                emptyMessagesSent.increment();
+            }
+
+            @Override
+            public void receiveRequest( Request request )
+            {
+                //NOOP
+            }
+
+            @Override
+            public void receiveResponse( Response response )
+            {
+                //NOOP
+            }
+
+            @Override
+            public void receiveEmptyMessage( EmptyMessage message )
+            {
+                //NOOP
+            }
+        };
+
+    /**
+     * Interceptor counting incoming messages.
+     */
+    private final MessageInterceptor receiveCounter= new MessageInterceptor()
+        {
+            @Override
+            public void sendRequest( Request request )
+            {
+                //NOOP
+            }
+
+            @Override
+            public void sendResponse( Response response )
+            {
+                //NOOP
+            }
+
+            @Override
+            public void sendEmptyMessage( EmptyMessage message )
+            {
+                //NOOP
+            }
+
+            @Override
+            public void receiveRequest( Request request )
+            {
+                if ( request.isDuplicate() )
+                {
+                    duplicateRequests.increment();
+                    return;
+                }
+                requestsReceived.increment();
+                countBlockwise( request.getOptions().getBlock1() );
+            }
+
+            @Override
+            public void receiveResponse( Response response )
+            {
+                if ( response.isDuplicate() )
+                {
+                    duplicateResponses.increment();
+                    return;
+                }
+                responsesReceived.increment();
+                countBlockwise( response.getOptions().getBlock2() );
+            }
+
+            @Override
+            public void receiveEmptyMessage( EmptyMessage message )
+            {
+                emptyMessagesReceived.increment();
+            }
+        };
+
+    /**
+     * Constructor.
+     * @param operationalEndpoint The endpoint to measure.
+     * @param handshakeStatistics The handshake statistics, null when the endpoint does not use DTLS.
+     */
+    EndpointMetrics( OperationalEndpoint operationalEndpoint, DtlsHandshakeStatistics handshakeStatistics )
+    {
+        this.operationalEndpoint= operationalEndpoint;
+        this.handshakeStatistics= handshakeStatistics;
+    }
+
+    /**
+     * Attach the interceptors to the CoAP endpoint.
+     * @param coapEndpoint The endpoint to count the messages of.
+     */
+    void attach( CoapEndpoint coapEndpoint )
+    {
+        coapEndpoint.addInterceptor( sendCounter );
+        coapEndpoint.addPostProcessInterceptor( receiveCounter );
+    }
+
+    /**
+     * Check whether completion of the request is already tracked. 
+     * The requests that transfer the following blocks of a blockwise transfer 
+     * inherit the observers of the original request, which completes the exchange. 
+     * @param request The request to check.
+     * @return True when the request has an observer tracking completion.
+     */
+    private static boolean isTracked( Request request )
+    {
+        for ( MessageObserver observer : request.getMessageObservers() )
+        {
+            if ( observer instanceof RequestObserver )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Count start and completion of blockwise transfers.
+     * A transfer starts with the first block that has more blocks following 
+     * and completes with the last block.
+     * @param block The block option of the message, null when absent.
+     */
+    private void countBlockwise( BlockOption block )
+    {
+        if ( block == null ) return;
+        if ( block.getNum() == 0 && block.isM() )
+        {
+            blockwiseStarted.increment();
+        }
+        else if ( block.getNum() > 0 && !block.isM() )
+        {
+            blockwiseCompleted.increment();
+        }
+    }
+
+    /**
+     * Get a snapshot of the statistics.
+     * @param name The name of the endpoint.
+     * @return The endpoint statistics.
+     */
+    EndpointStats getStats( String name )
+    {
+        EndpointStats stats= new EndpointStats( name );
+        stats.setRequestsSent( getRequestsSent() );
+        stats.setResponsesSent( getResponsesSent() );
+        stats.setEmptyMessagesSent( getEmptyMessagesSent() );
+        stats.setRequestsReceived( getRequestsReceived() );
+        stats.setResponsesReceived( getResponsesReceived() );
+        stats.setEmptyMessagesReceived( getEmptyMessagesReceived() );
+        stats.setRequestRetransmissions( getRequestRetransmissions() );
+        stats.setResponseRetransmissions( getResponseRetransmissions() );
+        stats.setDuplicateRequests( getDuplicateRequests() );
+        stats.setDuplicateResponses( getDuplicateResponses() );
+        stats.setSendErrors( getSendErrors() );
+        stats.setTimeouts( getTimeouts() );
+        stats.setActiveExchanges( getActiveExchanges() );
+        stats.setBlockwiseTransfersInProgress( getBlockwiseTransfersInProgress() );
+        stats.setDtlsHandshakesStarted( getDtlsHandshakesStarted() );
+        stats.setDtlsHandshakesSucceeded( getDtlsHandshakesSucceeded() );
+        stats.setDtlsHandshakesFailed( getDtlsHandshakesFailed() );
+        stats.setServerObserveRelations( getServerObserveRelations() );
+        stats.setClientObserveRelations( getClientObserveRelations() );
+        stats.setListeners( operationalEndpoint.getListenerStats() );
+        return stats;
+    }
+
+    @Override
+    public long getRequestsSent()
+    {
+        return requestsSent.sum();
+    }
+
+    @Override
+    public long getResponsesSent()
+    {
+        return responsesSent.sum();
+    }
+
+    @Override
+    public long getEmptyMessagesSent()
+    {
+        return emptyMessagesSent.sum();
+    }
+
+    @Override
+    public long getRequestsReceived()
+    {
+        return requestsReceived.sum();
+    }
+
+    @Override
+    public long getResponsesReceived()
+    {
+        return responsesReceived.sum();
+    }
+
+    @Override
+    public long getEmptyMessagesReceived()
+    {
+        return emptyMessagesReceived.sum();
+    }
+
+    @Override
+    public long getRequestRetransmissions()
+    {
+        return requestRetransmissions.sum();
+    }
+
+    @Override
+    public long getResponseRetransmissions()
+    {
+        return responseRetransmissions.sum();
+    }
+
+    @Override
+    public long getDuplicateRequests()
+    {
+        return duplicateRequests.sum();
+    }
+
+    @Override
+    public long getDuplicateResponses()
+    {
+        return duplicateResponses.sum();
+    }
+
+    @Override
+    public long getSendErrors()
+    {
+        return sendErrors.sum();
+    }
+
+    @Override
+    public long getTimeouts()
+    {
+        return timeouts.sum();
+    }
+
+    @Override
+    public long getActiveExchanges()
+    {
+        return Math.max( 0L, activeExchanges.sum() );
+    }
+
+    @Override
+    public long getBlockwiseTransfersInProgress()
+    {
+        return Math.max( 0L, blockwiseStarted.sum() - blockwiseCompleted.sum() );
+    }
+
+    @Override
+    public long getDtlsHandshakesStarted()
+    {
+        return handshakeStatistics == null ? 0L : handshakeStatistics.getStarted();
+    }
+
+    @Override
+    public long getDtlsHandshakesSucceeded()
+    {
+        return handshakeStatistics == null ? 0L : handshakeStatistics.getSucceeded();
+    }
+
+    @Override
+    public long getDtlsHandshakesFailed()
+    {
+        return handshakeStatistics == null ? 0L : handshakeStatistics.getFailed();
+    }
+
+    @Override
+    public long getServerObserveRelations()
+    {
+        return operationalEndpoint.getServerObserveRelationCount();
+    }
+
+    @Override
+    public long getClientObserveRelations()
+    {
+        return operationalEndpoint.getClientObserveRelationCount();
+    }
+
+    /**
+     * Observer of a request sent, that tracks completion of its exchange.
+     */
+    private class RequestObserver extends MessageObserverAdapter
+    {
+        /**
+         * Flag indicating the exchange is still active.
+         */
+        private final AtomicBoolean active= new AtomicBoolean( true );
+
+        /**
+         * Constructor.
+         */
+        private RequestObserver()
+        {
+            super( true );
+        }
+
+        @Override
+        public void onResponse( Response response )
+        {
+            complete();
+        }
+
+        @Override
+        public void onReject()
+        {
+            complete();
+        }
+
+        @Override
+        public void onCancel()
+        {
+            complete();
+        }
+
+        @Override
+        public void onTimeout()
+        {
+            timeouts.increment();
+            complete();
+        }
+
+        @Override
+        public void onSendError( Throwable error )
+        {
+            sendErrors.increment();
+            complete();
+        }
+
+        /**
+         * Mark the exchange completed, once.
+         */
+        private void complete()
+        {
+            if ( active.compareAndSet( true, false ) )
+            {
+                activeExchanges.decrement();
+            }
+        }
+    }
+}
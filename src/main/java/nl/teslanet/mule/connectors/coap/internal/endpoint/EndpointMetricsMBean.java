@@ -0,0 +1,125 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.internal.endpoint;
+
+
+/**
+ * JMX management interface of the statistics of an endpoint.
+ */
+public interface EndpointMetricsMBean
+{
+    /**
+     * @return The number of requests sent, retransmissions excluded.
+     */
+    long getRequestsSent();
+
+    /**
+     * @return The number of responses sent, retransmissions excluded.
+     */
+    long getResponsesSent();
+
+    /**
+     * @return The number of empty messages sent, such as acknowledgements and resets.
+     */
+    long getEmptyMessagesSent();
+
+    /**
+     * @return The number of requests received, duplicates excluded.
+     */
+    long getRequestsReceived();
+
+    /**
+     * @return The number of responses received, duplicates excluded.
+     */
+    long getResponsesReceived();
+
+    /**
+     * @return The number of empty messages received, such as acknowledgements and resets.
+     */
+    long getEmptyMessagesReceived();
+
+    /**
+     * @return The number of request retransmissions.
+     */
+    long getRequestRetransmissions();
+
+    /**
+     * @return The number of response retransmissions.
+     */
+    long getResponseRetransmissions();
+
+    /**
+     * @return The number of duplicate requests received.
+     */
+    long getDuplicateRequests();
+
+    /**
+     * @return The number of duplicate responses received.
+     */
+    long getDuplicateResponses();
+
+    /**
+     * @return The number of messages that could not be sent.
+     */
+    long getSendErrors();
+
+    /**
+     * @return The number of messages that timed out waiting for acknowledgement or response.
+     */
+    long getTimeouts();
+
+    /**
+     * @return The number of requests sent that are awaiting completion.
+     */
+    long getActiveExchanges();
+
+    /**
+     * @return The number of blockwise transfers started and not yet completed.
+     */
+    long getBlockwiseTransfersInProgress();
+
+    /**
+     * @return The number of DTLS handshakes started.
+     */
+    long getDtlsHandshakesStarted();
+
+    /**
+     * @return The number of DTLS handshakes that succeeded.
+     */
+    long getDtlsHandshakesSucceeded();
+
+    /**
+     * @return The number of DTLS handshakes that failed.
+     */
+    long getDtlsHandshakesFailed();
+
+    /**
+     * @return The number of observe relations of clients on resources of the server using the endpoint.
+     */
+    long getServerObserveRelations();
+
+    /**
+     * @return The number of observe relations the clients using the endpoint have on remote resources.
+     */
+    long getClientObserveRelations();
+}
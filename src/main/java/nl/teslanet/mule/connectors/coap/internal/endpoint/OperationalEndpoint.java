@@ -33,12 +33,16 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 
+import javax.management.ObjectName;
+
 import org.eclipse.californium.core.network.CoapEndpoint;
 import org.eclipse.californium.core.network.interceptors.MessageTracer;
 import org.mule.runtime.api.scheduler.Scheduler;
 import org.mule.runtime.api.scheduler.SchedulerConfig;
 import org.mule.runtime.api.scheduler.SchedulerService;
 
+import nl.teslanet.mule.connectors.coap.api.EndpointStats;
+import nl.teslanet.mule.connectors.coap.api.ListenerStats;
 import nl.teslanet.mule.connectors.coap.api.config.ConfigException;
 import nl.teslanet.mule.connectors.coap.api.config.endpoint.AbstractEndpoint;
 import nl.teslanet.mule.connectors.coap.api.config.endpoint.DTLSEndpoint;
@@ -53,7 +57,9 @@ import nl.teslanet.mule.connectors.coap.internal.config.DtlsEndpointConfigVisito
 import nl.teslanet.mule.connectors.coap.internal.config.MulticastUdpEndpointConfigVisitor;
 import nl.teslanet.mule.connectors.coap.internal.config.UdpEndpointConfigVisitor;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.EndpointConstructionException;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalEndpointException;
 import nl.teslanet.mule.connectors.coap.internal.server.Server;
+import nl.teslanet.mule.connectors.coap.internal.utils.MBeanUtils;
 
 
 /**
@@ -97,6 +103,21 @@ public final class OperationalEndpoint
      */
     private boolean schedulerIsSet= false;
 
+    /**
+     * The handshake statistics, when the endpoint uses DTLS.
+     */
+    private DtlsHandshakeStatistics handshakeStatistics= null;
+
+    /**
+     * The metrics of the endpoint.
+     */
+    private EndpointMetrics metrics= null;
+
+    /**
+     * The name of the MBean publishing the metrics.
+     */
+    private ObjectName mbeanName= null;
+
     /**
      * Create an endpoint not attached to a server or return existing when already created
      * @param config the configuration for the endpoint
@@ -148,6 +169,10 @@ public final class OperationalEndpoint
         {
             operationalEndpoint.coapEndpoint.addInterceptor( new MessageTracer() );
         }
+        operationalEndpoint.metrics= new EndpointMetrics( operationalEndpoint, operationalEndpoint.handshakeStatistics );
+        operationalEndpoint.metrics.attach( operationalEndpoint.coapEndpoint );
+        operationalEndpoint.mbeanName= MBeanUtils.toObjectName( "Endpoint", operationalEndpoint.configName );
+        MBeanUtils.register( operationalEndpoint.mbeanName, operationalEndpoint.metrics );
         return operationalEndpoint;
     }
 
@@ -270,7 +295,7 @@ public final class OperationalEndpoint
                 if ( endpoint.clients.isEmpty() )
                 {
                     registry.remove( endpointName );
-                    endpoint.coapEndpoint.destroy();
+                    endpoint.destroy();
                 }
             }
         }
@@ -294,12 +319,81 @@ public final class OperationalEndpoint
                 if ( endpoint.clients.isEmpty() && !endpoint.server.isPresent() )
                 {
                     registry.remove( endpointName );
-                    endpoint.coapEndpoint.destroy();
+                    endpoint.destroy();
                 }
             }
         }
     }
 
+    /**
+     * Get the statistics of an endpoint.
+     * @param endpointName The configured name of the endpoint.
+     * @return The statistics of the endpoint.
+     * @throws InternalEndpointException When no endpoint with given name is in use.
+     */
+    public static EndpointStats getStats( String endpointName ) throws InternalEndpointException
+    {
+        OperationalEndpoint endpoint= registry.get( endpointName );
+        if ( endpoint == null )
+        {
+            throw new InternalEndpointException( ENDPOINT_MSG_PREFIX + endpointName + " }: is not in use." );
+        }
+        return endpoint.metrics.getStats( endpointName );
+    }
+
+    /**
+     * Destroy the endpoint and withdraw its metrics.
+     */
+    private void destroy()
+    {
+        MBeanUtils.unregister( mbeanName );
+        coapEndpoint.destroy();
+    }
+
+    /**
+     * @return The number of observe relations of clients on the resources of the server using this endpoint.
+     */
+    long getServerObserveRelationCount()
+    {
+        Optional< Server > actualServer;
+        synchronized ( OperationalEndpoint.class )
+        {
+            actualServer= server;
+        }
+        return actualServer.map( Server::getObserveRelationCount ).orElse( 0L );
+    }
+
+    /**
+     * @return The number of observe relations the clients using this endpoint have on remote resources.
+     */
+    long getClientObserveRelationCount()
+    {
+        List< Client > actualClients;
+        synchronized ( OperationalEndpoint.class )
+        {
+            actualClients= new ArrayList<>( clients );
+        }
+        long count= 0L;
+        for ( Client client : actualClients )
+        {
+            count+= client.getObserveRelationCount();
+        }
+        return count;
+    }
+
+    /**
+     * @return The dispatch statistics of the listeners of the server using this endpoint.
+     */
+    List< ListenerStats > getListenerStats()
+    {
+        Optional< Server > actualServer;
+        synchronized ( OperationalEndpoint.class )
+        {
+            actualServer= server;
+        }
+        return actualServer.map( Server::getListenerStats ).orElse( Collections.emptyList() );
+    }
+
     /**
      * Get the name of this endpoint.
      * @return the configured endpoint name
@@ -376,6 +470,7 @@ public final class OperationalEndpoint
         }
         this.configName= visitor.getEndpointName();
         this.coapEndpoint= visitor.getEndpoint();
+        this.handshakeStatistics= visitor.getHandshakeStatistics();
     }
 
     /**
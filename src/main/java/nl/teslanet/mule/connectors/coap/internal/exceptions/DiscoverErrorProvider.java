@@ -48,6 +48,7 @@ public class DiscoverErrorProvider implements ErrorTypeProvider
         Set< ErrorTypeDefinition > errors= new HashSet<>();
         errors.add( Errors.ENDPOINT_ERROR );
         errors.add( Errors.INVALID_URI );
+        errors.add( Errors.INVALID_REQUEST );
         errors.add( Errors.INVALID_RESPONSE );
         errors.add( Errors.NO_RESPONSE );
         return errors;
@@ -25,9 +25,15 @@ package nl.teslanet.mule.connectors.coap.internal.server;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.eclipse.californium.core.CoapResource;
+import org.eclipse.californium.core.coap.CoAP.Code;
 import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.Request;
 import org.eclipse.californium.core.coap.Response;
 import org.eclipse.californium.core.network.Exchange;
 import org.eclipse.californium.core.server.resources.CoapExchange;
@@ -40,6 +46,7 @@ import org.slf4j.Marker;
 import org.slf4j.MarkerFactory;
 
 import nl.teslanet.mule.connectors.coap.api.CoapResponseCode;
+import nl.teslanet.mule.connectors.coap.api.ResourceStats;
 import nl.teslanet.mule.connectors.coap.api.attributes.CoapRequestAttributes;
 import nl.teslanet.mule.connectors.coap.internal.attributes.CoapRequestAttributesImpl;
 import nl.teslanet.mule.connectors.coap.internal.attributes.CoapRequestOptionsAttributesImpl;
@@ -81,6 +88,23 @@ public class AbstractResource extends CoapResource
      */
     protected boolean earlyAck= false;
 
+    /**
+     * The coalescer limiting notification rounds, or null when notifications are not limited.
+     */
+    protected volatile NotificationCoalescer notificationCoalescer= null;
+
+    /**
+     * The representation shared by the notifications of the current notification round, 
+     * or null when notifications are not shared or no round is in progress.
+     * Rounds of shared notifications are serialized, so the field belongs to one round at a time.
+     */
+    protected volatile SharedNotification sharedNotification= null;
+
+    /**
+     * The request timings of the resource by request code, created on first request.
+     */
+    private final AtomicReferenceArray< RequestTimings > timings= new AtomicReferenceArray<>( Code.values().length );
+
     /**
      * Resource constructor.
      * @param name The name of the resource.
@@ -131,6 +155,15 @@ public class AbstractResource extends CoapResource
             }
             return;
         }
+        // a notification of an established observe relation
+        boolean notification= exchange.advanced().getRelation() != null
+            && exchange.advanced().getRelation().isEstablished();
+        SharedNotification shared= ( notification ? sharedNotification : null );
+        if ( shared != null && shared.join( exchange ) )
+        {
+            // another notification of the round renders the shared response
+            return;
+        }
         if ( earlyAck )
         {
             exchange.accept();
@@ -146,13 +179,34 @@ public class AbstractResource extends CoapResource
             // probably Californium has already dealt with this, so shouldn't occur
             Response response= new Response( ResponseCode.BAD_OPTION );
             response.setPayload( e1.getMessage() );
+            if ( shared != null )
+            {
+                shared.complete( response );
+            }
             exchange.respond( response );
             return;
         }
         SourceCallbackContext requestcontext= callback.createContext();
         requestcontext.addVariable( Server.VARNAME_DEFAULT_RESPONSE_CODE, defaultCoapResponseCode );
         requestcontext.addVariable( Server.VARNAME_COAP_EXCHANGE, exchange );
-        //TODO add streaming & blockwise cooperation
+        Request request= exchange.advanced().getRequest();
+        requestcontext
+            .addVariable(
+                Server.VARNAME_REQUEST_TIMER,
+                new RequestTimer( getTimings( request.getCode() ), request.getNanoTimestamp() )
+            );
+        NotificationCoalescer coalescer= ( notification ? notificationCoalescer : null );
+        if ( coalescer != null )
+        {
+            coalescer.notificationStarted();
+            requestcontext.addVariable( Server.VARNAME_NOTIFICATION_COALESCER, coalescer );
+        }
+        if ( shared != null )
+        {
+            requestcontext.addVariable( Server.VARNAME_SHARED_NOTIFICATION, shared );
+        }
+        // Californium delivers a blockwise request after the last block has been received,
+        // with the payload assembled, so it is handed over without copying.
         byte[] requestPayload= exchange.getRequestPayload();
         // payload is always initialized, no need to check null
         callback
@@ -168,6 +222,40 @@ public class AbstractResource extends CoapResource
             );
     }
 
+    /**
+     * Get the request timings of a request code.
+     * @param code The request code.
+     * @return The timings, created when absent.
+     */
+    private RequestTimings getTimings( Code code )
+    {
+        RequestTimings codeTimings= timings.get( code.ordinal() );
+        if ( codeTimings == null )
+        {
+            timings.compareAndSet( code.ordinal(), null, new RequestTimings( getURI(), code.name() ) );
+            codeTimings= timings.get( code.ordinal() );
+        }
+        return codeTimings;
+    }
+
+    /**
+     * Get the latency statistics of the requests on the resource.
+     * @return The statistics of the request codes that have been requested.
+     */
+    public List< ResourceStats > getStats()
+    {
+        ArrayList< ResourceStats > stats= new ArrayList<>();
+        for ( int i= 0; i < timings.length(); i++ )
+        {
+            RequestTimings codeTimings= timings.get( i );
+            if ( codeTimings != null )
+            {
+                stats.add( codeTimings.getStats() );
+            }
+        }
+        return stats;
+    }
+
     /**
      * Create request attributes.
      * @param coapExchange
@@ -188,15 +276,29 @@ public class AbstractResource extends CoapResource
                 AttributeUtils.toMessageTypeAttribute( coapExchange.advanced().getRequest().getType() ).name()
             );
         attributes.setRequestCode( AttributeUtils.toRequestCodeAttribute( coapExchange.getRequestCode() ).name() );
-        attributes.setLocalAddress( exchange.getEndpoint().getAddress().toString() );
-        attributes.setRemoteAddress( coapExchange.getSourceSocketAddress().toString() );
-        attributes.setRequestUri( exchange.getRequest().getURI() );
+        attributes.setLocalAddress( exchange.getEndpoint().getAddress() );
+        attributes.setRemoteAddress( coapExchange.getSourceSocketAddress() );
+        attributes.setRequest( exchange.getRequest() );
         attributes.setRequestOptions( new CoapRequestOptionsAttributesImpl( coapExchange.getRequestOptions() ) );
-        attributes
-            .setRelation( ( exchange.getRelation() != null ? exchange.getRelation().getKeyToken().toString() : null ) );
+        attributes.setRelation( ( exchange.getRelation() != null ? exchange.getRelation().getKeyToken() : null ) );
         return attributes;
     }
 
+    /**
+     * Set the Mule callbacks for this resource for all request codes at once.
+     * @param sourceCallbacks The callbacks by request code. A missing request code means no callback.
+     */
+    public void setCallbacks( Map< Code, SourceCallback< InputStream, CoapRequestAttributes > > sourceCallbacks )
+    {
+        setGetCallback( sourceCallbacks.get( Code.GET ) );
+        setPostCallback( sourceCallbacks.get( Code.POST ) );
+        setPutCallback( sourceCallbacks.get( Code.PUT ) );
+        setDeleteCallback( sourceCallbacks.get( Code.DELETE ) );
+        setFetchCallback( sourceCallbacks.get( Code.FETCH ) );
+        setPatchCallback( sourceCallbacks.get( Code.PATCH ) );
+        setIpatchCallback( sourceCallbacks.get( Code.IPATCH ) );
+    }
+
     /**
      * set the Mule callback for this resource for Get requests.
      */
@@ -0,0 +1,121 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.internal.server;
+
+
+import java.util.concurrent.atomic.LongAdder;
+
+import nl.teslanet.mule.connectors.coap.api.LatencyStats;
+import nl.teslanet.mule.connectors.coap.api.ListenerStats;
+import nl.teslanet.mule.connectors.coap.internal.utils.LatencyHistogram;
+
+
+/**
+ * Statistics of the requests a listener dispatched to its flow.
+ * Recording is lock free, so it can be done on every request.
+ */
+public class DispatchStatistics implements DispatchStatisticsMXBean
+{
+    /**
+     * The uri pattern of the listener.
+     */
+    private final String pathPattern;
+
+    /**
+     * Failed dispatches.
+     */
+    private final LongAdder failed= new LongAdder();
+
+    /**
+     * Dispatch latencies.
+     */
+    private final LatencyHistogram latency= new LatencyHistogram();
+
+    /**
+     * Constructor.
+     * @param pathPattern The uri pattern of the listener.
+     */
+    public DispatchStatistics( String pathPattern )
+    {
+        this.pathPattern= pathPattern;
+    }
+
+    /**
+     * Record a completed dispatch.
+     * @param startNanos The {@link System#nanoTime()} at which the request was dispatched.
+     * @param success True when the flow completed successfully.
+     */
+    public void record( long startNanos, boolean success )
+    {
+        if ( !success )
+        {
+            failed.increment();
+        }
+        latency.record( System.nanoTime() - startNanos );
+    }
+
+    /**
+     * @return The statistics as snapshot.
+     */
+    public ListenerStats getStats()
+    {
+        LatencyStats latencyStats= latency.getStats();
+        return new ListenerStats( pathPattern, latencyStats.getCount(), getFailed(), latencyStats );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getPathPattern()
+    {
+        return pathPattern;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDispatched()
+    {
+        return latency.getStats().getCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getFailed()
+    {
+        return failed.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LatencyStats getLatency()
+    {
+        return latency.getStats();
+    }
+}
@@ -0,0 +1,54 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.internal.server;
+
+
+import nl.teslanet.mule.connectors.coap.api.LatencyStats;
+
+
+/**
+ * JMX management interface of the dispatch statistics of a listener.
+ * It is an MXBean, so the latency is published as composite data.
+ */
+public interface DispatchStatisticsMXBean
+{
+    /**
+     * @return The uri pattern of the listener.
+     */
+    String getPathPattern();
+
+    /**
+     * @return The number of requests dispatched to the flow that completed.
+     */
+    long getDispatched();
+
+    /**
+     * @return The number of dispatched requests of which the flow failed.
+     */
+    long getFailed();
+
+    /**
+     * @return The dispatch latency percentiles in microseconds.
+     */
+    LatencyStats getLatency();
+}
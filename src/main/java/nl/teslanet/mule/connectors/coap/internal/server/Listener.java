@@ -216,6 +216,11 @@ public class Listener extends Source< InputStream, CoapRequestAttributes >
         InternalExchangeException,
         InternalUnkownOptionException
     {
+        RequestTimer timer= (RequestTimer) callbackContext.getVariable( Server.VARNAME_REQUEST_TIMER ).orElse( null );
+        if ( timer != null )
+        {
+            timer.encoding();
+        }
         CoapResponseCode defaultCoapResponseCode= (CoapResponseCode) callbackContext
             .getVariable( Server.VARNAME_DEFAULT_RESPONSE_CODE )
             .orElseThrow(
@@ -236,51 +241,106 @@ public class Listener extends Source< InputStream, CoapRequestAttributes >
                 coapResponse.getOptions(),
                 transformationService
             );
-        //TODO add streaming & blockwise cooperation
+        // Californium serves Block2 requests from the complete response,
+        // so streams are read once, directly into the response payload.
         try
         {
-            coapResponse.setPayload( MessageUtils.toBytes( responsePayload, transformationService ) );
+            coapResponse.setPayload( MessageUtils.payloadToBytes( responsePayload, transformationService ) );
         }
         catch ( Exception e )
         {
             throw new InternalInvalidByteArrayValueException( "Cannot convert payload to byte[]", e );
         }
+        SharedNotification shared= (SharedNotification) callbackContext
+            .getVariable( Server.VARNAME_SHARED_NOTIFICATION )
+            .orElse( null );
+        if ( shared != null )
+        {
+            shared.complete( coapResponse );
+        }
         ( (CoapExchange) callbackContext
             .getVariable( Server.VARNAME_COAP_EXCHANGE )
             .orElseThrow(
                 () -> new InternalExchangeException( "Not able to issue CoAP response: no exchange object provided." )
             ) ).respond( coapResponse );
+        if ( timer != null )
+        {
+            timer.responded();
+        }
     }
 
     /**
-     * Returns internal server error when needed.
+     * Returns internal server error when needed, records the request timing
+     * and registers the completion of a notification.
+     * When the response of a shared notification was not issued, the waiting notifications get the error as well.
      * @param sourceResult Provides processing context.
      * @throws InternalExchangeException When the exchange object was absent.
      */
     @OnTerminate
     public void onTerminate( SourceResult sourceResult ) throws InternalExchangeException
     {
-        if ( !sourceResult.isSuccess() )
+        SourceCallbackContext callbackContext= sourceResult.getSourceCallbackContext();
+        RequestTimer timer= (RequestTimer) callbackContext.getVariable( Server.VARNAME_REQUEST_TIMER ).orElse( null );
+        NotificationCoalescer coalescer= (NotificationCoalescer) callbackContext
+            .getVariable( Server.VARNAME_NOTIFICATION_COALESCER )
+            .orElse( null );
+        SharedNotification shared= (SharedNotification) callbackContext
+            .getVariable( Server.VARNAME_SHARED_NOTIFICATION )
+            .orElse( null );
+        try
         {
-            CoapExchange exchange= (CoapExchange) sourceResult
-                .getSourceCallbackContext()
-                .getVariable( Server.VARNAME_COAP_EXCHANGE )
-                .orElseThrow(
-                    () -> new InternalExchangeException(
-                        "Not able to issue CoAP internal server error response: no exchange object provided."
-                    )
-                );
-            if ( sourceResult.getInvocationError().isPresent() )
+            if ( !sourceResult.isSuccess() )
+            {
+                CoapExchange exchange= (CoapExchange) callbackContext
+                    .getVariable( Server.VARNAME_COAP_EXCHANGE )
+                    .orElseThrow(
+                        () -> new InternalExchangeException(
+                            "Not able to issue CoAP internal server error response: no exchange object provided."
+                        )
+                    );
+                String message;
+                if ( sourceResult.getInvocationError().isPresent() )
+                {
+                    message= "EXCEPTION IN PROCESSING REQUEST";
+                }
+                else if ( sourceResult.getResponseError().isPresent() )
+                {
+                    message= "EXCEPTION IN PROCESSING FLOW";
+                }
+                else
+                {
+                    message= "INTERNAL SERVER ERROR";
+                }
+                if ( shared != null )
+                {
+                    shared.fail( ResponseCode.INTERNAL_SERVER_ERROR, message );
+                }
+                exchange.respond( ResponseCode.INTERNAL_SERVER_ERROR, message );
+                if ( timer != null )
+                {
+                    timer.responded();
+                }
+            }
+            OperationalListener listener= operationalListener;
+            if ( timer != null )
             {
-                exchange.respond( ResponseCode.INTERNAL_SERVER_ERROR, "EXCEPTION IN PROCESSING REQUEST" );
+                timer.complete();
+                if ( listener != null )
+                {
+                    listener.getDispatchStatistics().record( timer.getDispatchNanos(), sourceResult.isSuccess() );
+                }
             }
-            else if ( sourceResult.getResponseError().isPresent() )
+        }
+        finally
+        {
+            if ( shared != null )
             {
-                exchange.respond( ResponseCode.INTERNAL_SERVER_ERROR, "EXCEPTION IN PROCESSING FLOW" );
+                // no effect when the response has been shared already
+                shared.fail( ResponseCode.INTERNAL_SERVER_ERROR, "INTERNAL SERVER ERROR" );
             }
-            else
+            if ( coalescer != null )
             {
-                exchange.respond( ResponseCode.INTERNAL_SERVER_ERROR, "INTERNAL SERVER ERROR" );
+                coalescer.notificationCompleted();
             }
         }
     }
@@ -0,0 +1,287 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.internal.server;
+
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.californium.core.CoapResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidDurationException;
+import nl.teslanet.mule.connectors.coap.internal.utils.TimeUtils;
+
+
+/**
+ * The NotificationCoalescer limits the notification rounds of an observable resource.
+ * Notification rounds start at most once per interval. Changes notified in between are coalesced 
+ * into one trailing round, so observers always receive the latest state. 
+ * A round is not started while the previous round is being dispatched to the observers, 
+ * or while its notifications are still being processed by the flow.
+ */
+public class NotificationCoalescer
+{
+    /**
+     * The logger of this class.
+     */
+    private static final Logger LOGGER= LoggerFactory.getLogger( NotificationCoalescer.class );
+
+    /**
+     * The resource of which observers are notified.
+     */
+    private final CoapResource resource;
+
+    /**
+     * The minimum interval between the start of notification rounds.
+     */
+    private final long intervalNanos;
+
+    /**
+     * The scheduler used for trailing notification rounds.
+     */
+    private ScheduledExecutorService scheduler= null;
+
+    /**
+     * Flag indicating a change has been notified that no round has been started for yet.
+     */
+    private boolean pendingChange= false;
+
+    /**
+     * The scheduled trailing round, or null when none is scheduled.
+     */
+    private ScheduledFuture< ? > trailingRound= null;
+
+    /**
+     * Flag indicating a round has been started that has not been dispatched to the observers yet.
+     */
+    private boolean roundInProgress= false;
+
+    /**
+     * The number of notifications that are being processed.
+     */
+    private int inFlight= 0;
+
+    /**
+     * The earliest time the next round may start.
+     */
+    private long nextRoundNanos;
+
+    /**
+     * Flag indicating the resource has been deleted.
+     */
+    private boolean cancelled= false;
+
+    /**
+     * Constructor.
+     * @param resource The resource of which observers are notified.
+     * @param intervalNanos The minimum interval between the start of notification rounds.
+     */
+    NotificationCoalescer( CoapResource resource, long intervalNanos )
+    {
+        this.resource= resource;
+        this.intervalNanos= intervalNanos;
+        this.nextRoundNanos= System.nanoTime();
+    }
+
+    /**
+     * Create a coalescer for a resource when notifications are limited.
+     * @param resource The resource of which observers are notified.
+     * @param minInterval The minimum interval between notification rounds, as duration expression. 
+     * @param maxRate The maximum number of notification rounds per second.
+     * @return The coalescer, or null when notifications are not limited.
+     * @throws InternalInvalidDurationException When the minimum interval is not a valid duration expression.
+     */
+    public static NotificationCoalescer create( CoapResource resource, String minInterval, Integer maxRate )
+        throws InternalInvalidDurationException
+    {
+        long intervalNanos= ( minInterval != null ? TimeUtils.toNanos( minInterval ) : 0L );
+        if ( maxRate != null && maxRate > 0 )
+        {
+            intervalNanos= Math.max( intervalNanos, TimeUnit.SECONDS.toNanos( 1L ) / maxRate );
+        }
+        return ( intervalNanos > 0L ? new NotificationCoalescer( resource, intervalNanos ) : null );
+    }
+
+    /**
+     * Notify the resource has changed. A notification round is started immediately 
+     * when allowed, otherwise a trailing round is scheduled when needed.
+     * @param scheduler The scheduler to use for the trailing round.
+     */
+    public void changed( ScheduledExecutorService scheduler )
+    {
+        boolean startRound;
+        synchronized ( this )
+        {
+            this.scheduler= scheduler;
+            pendingChange= true;
+            startRound= nextRound( true );
+        }
+        if ( startRound )
+        {
+            resource.changed();
+        }
+    }
+
+    /**
+     * Register the start of processing a notification.
+     */
+    public synchronized void notificationStarted()
+    {
+        inFlight++;
+    }
+
+    /**
+     * Register the completion of processing a notification. 
+     * A coalesced round is started when it was waiting for this.
+     */
+    public void notificationCompleted()
+    {
+        boolean startRound;
+        synchronized ( this )
+        {
+            if ( inFlight > 0 )
+            {
+                inFlight--;
+            }
+            startRound= nextRound( true );
+        }
+        if ( startRound )
+        {
+            resource.changed();
+        }
+    }
+
+    /**
+     * Register the notification round has been dispatched to the observers. 
+     * The notifications of the round have been started by now, so a coalesced round 
+     * may follow when they complete. A round that is due is scheduled, as this is called 
+     * while the resource is notifying its observers.
+     */
+    public synchronized void roundDispatched()
+    {
+        roundInProgress= false;
+        nextRound( false );
+    }
+
+    /**
+     * Cancel pending notification rounds. Called when the resource is deleted. 
+     */
+    public synchronized void cancel()
+    {
+        cancelled= true;
+        pendingChange= false;
+        if ( trailingRound != null )
+        {
+            trailingRound.cancel( false );
+            trailingRound= null;
+        }
+    }
+
+    /**
+     * Start the trailing round.
+     */
+    private void onTrailingRound()
+    {
+        boolean startRound;
+        synchronized ( this )
+        {
+            trailingRound= null;
+            startRound= nextRound( true );
+        }
+        if ( startRound )
+        {
+            resource.changed();
+        }
+    }
+
+    /**
+     * Determine whether a round must start now. When the interval has not passed yet, 
+     * or the caller may not start the round, the trailing round is scheduled. 
+     * The round is marked as in progress when the caller must start it. Must be called holding the lock.
+     * @param mayStart True when the caller is able to start the round.
+     * @return True when the caller must start the round.
+     */
+    private boolean nextRound( boolean mayStart )
+    {
+        if ( !pendingChange || cancelled || roundInProgress || trailingRound != null || inFlight > 0 )
+        {
+            return false;
+        }
+        long now= System.nanoTime();
+        long delay= Math.max( 0L, nextRoundNanos - now );
+        if ( mayStart && ( delay == 0L || scheduler == null ) )
+        {
+            return startRound( now );
+        }
+        if ( scheduler != null )
+        {
+            try
+            {
+                trailingRound= scheduler.schedule( this::onTrailingRound, delay, TimeUnit.NANOSECONDS );
+                return false;
+            }
+            catch ( RejectedExecutionException e )
+            {
+                if ( mayStart )
+                {
+                    LOGGER
+                        .warn(
+                            "trailing notification round of { {} } rejected, round started immediately: {}",
+                            resource.getURI(),
+                            e.getMessage()
+                        );
+                    return startRound( now );
+                }
+                LOGGER
+                    .warn(
+                        "trailing notification round of { {} } rejected, change dropped: {}",
+                        resource.getURI(),
+                        e.getMessage()
+                    );
+            }
+        }
+        else
+        {
+            LOGGER.warn( "no scheduler for trailing notification round of { {} }, change dropped", resource.getURI() );
+        }
+        pendingChange= false;
+        return false;
+    }
+
+    /**
+     * Mark a round as started. Must be called holding the lock.
+     * @param now The current time [ns].
+     * @return True, the caller must start the round.
+     */
+    private boolean startRound( long now )
+    {
+        pendingChange= false;
+        roundInProgress= true;
+        nextRoundNanos= now + intervalNanos;
+        return true;
+    }
+}
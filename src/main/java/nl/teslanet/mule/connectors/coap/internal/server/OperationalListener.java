@@ -24,6 +24,7 @@ package nl.teslanet.mule.connectors.coap.internal.server;
 
 
 import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.mule.runtime.extension.api.runtime.source.SourceCallback;
 
@@ -38,6 +39,15 @@ import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalResourceUriE
  */
 public class OperationalListener
 {
+    /**
+     * The number of listeners created, used to identify listeners.
+     */
+    private static final AtomicLong instances= new AtomicLong( 0L );
+
+    /**
+     * The identification of the listener, unique within the application.
+     */
+    private final long id= instances.incrementAndGet();
 
     /**
      * The uri pattern describing the resources of which requests will be processed.
@@ -54,6 +64,11 @@ public class OperationalListener
      */
     SourceCallback< InputStream, CoapRequestAttributes > callback= null;
 
+    /**
+     * The statistics of the requests dispatched to the flow.
+     */
+    DispatchStatistics dispatchStatistics= null;
+
     /**
      * Constructor
      * 
@@ -71,6 +86,7 @@ public class OperationalListener
         setUriPattern( uriPattern );
         setRequestCodeFlags( flags );
         setCallback( callback );
+        dispatchStatistics= new DispatchStatistics( this.uriPattern );
     }
 
     /**
@@ -136,6 +152,24 @@ public class OperationalListener
         this.callback= callback;
     }
 
+    /**
+     * @return the statistics of the requests dispatched to the flow.
+     */
+    public DispatchStatistics getDispatchStatistics()
+    {
+        return dispatchStatistics;
+    }
+
+    /**
+     * Get the identification of the listener, that distinguishes listeners 
+     * having the same uri pattern and request codes.
+     * @return the identification of the listener.
+     */
+    public long getId()
+    {
+        return id;
+    }
+
     /**
      * @return the requestcode flags that indicate the kind of request the listener is receiving.
      */
@@ -0,0 +1,102 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.internal.server;
+
+
+/**
+ * Timer of a request that is processed by a flow. 
+ * It is passed to the listener in the callback context, which marks the phases 
+ * of processing and completes the timer when the flow has terminated.
+ */
+public class RequestTimer
+{
+    /**
+     * The timings to record to.
+     */
+    private final RequestTimings timings;
+
+    /**
+     * The time the request arrived.
+     */
+    private final long arrivalNanos;
+
+    /**
+     * The time the request was dispatched to the flow.
+     */
+    private final long dispatchNanos;
+
+    /**
+     * The time encoding of the response started.
+     */
+    private volatile long encodingNanos= 0L;
+
+    /**
+     * The time the response was issued.
+     */
+    private volatile long respondedNanos= 0L;
+
+    /**
+     * Constructor, that starts dispatch.
+     * @param timings The timings to record to.
+     * @param arrivalNanos The time the request arrived, 0 when unknown.
+     */
+    public RequestTimer( RequestTimings timings, long arrivalNanos )
+    {
+        this.timings= timings;
+        this.dispatchNanos= System.nanoTime();
+        this.arrivalNanos= ( arrivalNanos != 0L ? arrivalNanos : dispatchNanos );
+    }
+
+    /**
+     * @return The time the request was dispatched to the flow.
+     */
+    public long getDispatchNanos()
+    {
+        return dispatchNanos;
+    }
+
+    /**
+     * Mark the start of encoding the response.
+     */
+    public void encoding()
+    {
+        encodingNanos= System.nanoTime();
+    }
+
+    /**
+     * Mark the response is issued.
+     */
+    public void responded()
+    {
+        respondedNanos= System.nanoTime();
+    }
+
+    /**
+     * Record the timing of the request.
+     */
+    public void complete()
+    {
+        long end= respondedNanos;
+        timings.record( arrivalNanos, dispatchNanos, encodingNanos, ( end != 0L ? end : System.nanoTime() ) );
+    }
+}
@@ -0,0 +1,114 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.internal.server;
+
+
+import nl.teslanet.mule.connectors.coap.api.ResourceStats;
+import nl.teslanet.mule.connectors.coap.internal.utils.LatencyHistogram;
+
+
+/**
+ * Latency histograms of the requests with a request code on a resource.
+ * The histograms are created on the first request, so resources that are not 
+ * requested do not use memory for them.
+ */
+public class RequestTimings
+{
+    /**
+     * The uri of the resource.
+     */
+    private final String uri;
+
+    /**
+     * The request code.
+     */
+    private final String requestCode;
+
+    /**
+     * Latency from arrival until the response is issued.
+     */
+    private final LatencyHistogram total= new LatencyHistogram();
+
+    /**
+     * Latency from arrival until dispatch to the flow.
+     */
+    private final LatencyHistogram queueing= new LatencyHistogram();
+
+    /**
+     * Latency of the flow.
+     */
+    private final LatencyHistogram flow= new LatencyHistogram();
+
+    /**
+     * Latency of encoding and issuing the response.
+     */
+    private final LatencyHistogram encoding= new LatencyHistogram();
+
+    /**
+     * Constructor.
+     * @param uri The uri of the resource.
+     * @param requestCode The request code.
+     */
+    public RequestTimings( String uri, String requestCode )
+    {
+        this.uri= uri;
+        this.requestCode= requestCode;
+    }
+
+    /**
+     * Record the timing of a request.
+     * @param arrivalNanos The time the request arrived.
+     * @param dispatchNanos The time the request was dispatched to the flow.
+     * @param encodingNanos The time encoding of the response started, 0 when the flow did not complete successfully.
+     * @param respondedNanos The time the response was issued.
+     */
+    public void record( long arrivalNanos, long dispatchNanos, long encodingNanos, long respondedNanos )
+    {
+        total.record( respondedNanos - arrivalNanos );
+        queueing.record( dispatchNanos - arrivalNanos );
+        if ( encodingNanos != 0L )
+        {
+            flow.record( encodingNanos - dispatchNanos );
+            encoding.record( respondedNanos - encodingNanos );
+        }
+        else
+        {
+            flow.record( respondedNanos - dispatchNanos );
+        }
+    }
+
+    /**
+     * @return The statistics as snapshot.
+     */
+    public ResourceStats getStats()
+    {
+        return new ResourceStats(
+            uri,
+            requestCode,
+            total.getStats(),
+            queueing.getStats(),
+            flow.getStats(),
+            encoding.getStats()
+        );
+    }
+}
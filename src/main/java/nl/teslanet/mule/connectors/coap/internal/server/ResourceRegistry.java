@@ -23,19 +23,29 @@
 package nl.teslanet.mule.connectors.coap.internal.server;
 
 
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
 
+import org.eclipse.californium.core.coap.CoAP.Code;
 import org.eclipse.californium.core.server.resources.Resource;
+import org.mule.runtime.extension.api.runtime.source.SourceCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import nl.teslanet.mule.connectors.coap.api.ResourceConfig;
 import nl.teslanet.mule.connectors.coap.api.Defs;
 import nl.teslanet.mule.connectors.coap.api.ResourceParams;
+import nl.teslanet.mule.connectors.coap.api.attributes.CoapRequestAttributes;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidDurationException;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalResourceRegistryException;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalResourceUriException;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalUriPatternException;
@@ -53,14 +63,14 @@ public class ResourceRegistry
     private static final Logger LOGGER= LoggerFactory.getLogger( ResourceRegistry.class );
 
     /**
-     * The hosted resources.
+     * The hosted resources, indexed by uri.
      */
-    private ConcurrentHashMap< String, AbstractResource > servedResources;
+    private UriIndex< AbstractResource > servedResources;
 
     /**
-     * The listeners that are active on the resources.
+     * The listeners that are active on the resources, indexed by the path their uri pattern applies to.
      */
-    private CopyOnWriteArrayList< OperationalListener > listeners;
+    private UriIndex< PatternListeners > listeners;
 
     /**
      * The root resource on the server.
@@ -81,8 +91,8 @@ public class ResourceRegistry
         );
         this.root= root;
 
-        servedResources= new ConcurrentHashMap<>();
-        listeners= new CopyOnWriteArrayList<>();
+        servedResources= new UriIndex<>();
+        listeners= new UriIndex<>();
     }
 
     /**
@@ -95,7 +105,7 @@ public class ResourceRegistry
      * @throws InternalResourceUriException the parent uri does not resolve to an
      *                                      existing resource or resource parameters are invalid.
      */
-    public void add( String parentUri, ResourceConfig resourceDesciption ) throws InternalResourceUriException
+    public synchronized void add( String parentUri, ResourceConfig resourceDesciption ) throws InternalResourceUriException
     {
         ServedResource parent= getResource( parentUri );
         ServedResource resource;
@@ -124,11 +134,11 @@ public class ResourceRegistry
      * @param resourceDesciption The definition of the resource to create.
      * @throws InternalResourceUriException when the uri is invalid.
      */
-    public void add( ResourceParams resourceDesciption ) throws InternalResourceUriException
+    public synchronized void add( ResourceParams resourceDesciption ) throws InternalResourceUriException
     {
         String parentUri= ResourceRegistry.getParentUri( resourceDesciption.getResourcePath() );
         AbstractResource parent= getResource( parentUri );
-        AbstractResource resource= new ServedResource( resourceDesciption );
+        AbstractResource resource= createResource( resourceDesciption );
         if ( parent == null )
         {
             root.add( resource );
@@ -140,6 +150,77 @@ public class ResourceRegistry
         register( resource );
     }
 
+    /**
+     * Create a resource based on given resource description.
+     * 
+     * @param resourceDesciption The definition of the resource to create.
+     * @return The created resource.
+     * @throws InternalResourceUriException when the resource parameters are invalid.
+     */
+    private static ServedResource createResource( ResourceParams resourceDesciption )
+        throws InternalResourceUriException
+    {
+        try
+        {
+            return new ServedResource( resourceDesciption );
+        }
+        catch ( InternalInvalidDurationException e )
+        {
+            throw new InternalResourceUriException( "Resource parameters are invalid", e );
+        }
+    }
+
+    /**
+     * Add a batch of new resources to the registry based on given resource descriptions.
+     * Resources in the batch may have their parent in the batch as well. The new resources 
+     * are constructed and bound to the listeners before they are published on the server. 
+     * Every subtree of new resources is published in one step.
+     * 
+     * @param resourceDesciptions The definitions of the resources to create.
+     * @throws InternalResourceUriException when an uri is invalid or a parent does not exist. 
+     *                                      No resource is added in that case.
+     */
+    public synchronized void add( Collection< ResourceParams > resourceDesciptions ) throws InternalResourceUriException
+    {
+        //parents must be constructed before their children
+        ArrayList< ResourceParams > ordered= new ArrayList<>( resourceDesciptions );
+        ordered.sort( Comparator.comparingInt( description -> getUriDepth( description.getResourcePath() ) ) );
+
+        HashMap< String, AbstractResource > constructed= new HashMap<>();
+        LinkedHashMap< AbstractResource, Resource > subTrees= new LinkedHashMap<>();
+        for ( ResourceParams resourceDesciption : ordered )
+        {
+            String uri= resourceDesciption.getResourcePath();
+            String parentUri= ResourceRegistry.getParentUri( uri );
+            AbstractResource resource= createResource( resourceDesciption );
+            AbstractResource batchParent= constructed.get( parentUri );
+            if ( batchParent != null )
+            {
+                batchParent.add( resource );
+            }
+            else
+            {
+                Resource parent= getResource( parentUri );
+                if ( parent == null )
+                {
+                    parent= root;
+                }
+                //set the path the resource will have when published
+                resource.setPath( parent.getPath() + parent.getName() + Defs.COAP_URI_PATHSEP );
+                subTrees.put( resource, parent );
+            }
+            constructed.put( uri, resource );
+        }
+        for ( AbstractResource subTree : subTrees.keySet() )
+        {
+            register( subTree );
+        }
+        for ( Entry< AbstractResource, Resource > subTree : subTrees.entrySet() )
+        {
+            subTree.getValue().add( subTree.getKey() );
+        }
+    }
+
     /**
      * Register resource and its children.
      * 
@@ -169,7 +250,7 @@ public class ResourceRegistry
      * 
      * @param uriPattern The uri pattern defining the resources to remove
      */
-    public void remove( String uriPattern )
+    public synchronized void remove( String uriPattern )
     {
         for ( AbstractResource resource : findResources( uriPattern ) )
         {
@@ -194,176 +275,198 @@ public class ResourceRegistry
     }
 
     /**
-     * Add a listener to the registry.
+     * Add a listener to the registry. 
+     * Only the resources the listener applies to are rebound.
      * 
      * @param operationalListener The listener to add
      * @throws InternalUriPatternException When the listeners uri pattern is
      *                                     invalid.
      */
-    public void add( OperationalListener operationalListener ) throws InternalUriPatternException
+    public synchronized void add( OperationalListener operationalListener ) throws InternalUriPatternException
     {
-        // validate wildcard
-        uriHasWildcard( operationalListener.getUriPattern() );
-        listeners.add( operationalListener );
-        updateResourceCallBack();
+        String uriPattern= operationalListener.getUriPattern();
+        boolean wildcard= uriHasWildcard( uriPattern );
+        if ( !uriPattern.startsWith( Defs.COAP_URI_PATHSEP ) )
+        {
+            // relative patterns do not match any resource
+            return;
+        }
+        String indexUri= getIndexUri( uriPattern, wildcard );
+        PatternListeners patternListeners= listeners.get( indexUri );
+        if ( patternListeners == null )
+        {
+            patternListeners= new PatternListeners();
+            listeners.put( indexUri, patternListeners );
+        }
+        if ( wildcard )
+        {
+            patternListeners.wildcard.add( operationalListener );
+        }
+        else
+        {
+            patternListeners.exact.add( operationalListener );
+        }
+        updateResourceCallBack( uriPattern, wildcard );
     }
 
     /**
      * Remove a listener from the registry.
+     * Only the resources the listener applies to are rebound.
      * 
      * @param listener The listener to add
      */
-    public void remove( OperationalListener listener )
-    {
-        listeners.remove( listener );
-        updateResourceCallBack();
-    }
-
-    /**
-     * Updates callback of all served resources.
-     */
-    private void updateResourceCallBack()
+    public synchronized void remove( OperationalListener listener )
     {
-        for ( Entry< String, AbstractResource > e : servedResources.entrySet() )
+        String uriPattern= listener.getUriPattern();
+        boolean wildcard;
+        try
         {
-            setResourceCallBack( e.getValue() );
+            wildcard= uriHasWildcard( uriPattern );
         }
-    }
-
-    /**
-     * Set the callback of the resource on the listener that matches best the
-     * resources uri.
-     * 
-     * @param resource The served resource.
-     */
-    private void setResourceCallBack( AbstractResource resource )
-    {
-        OperationalListener bestGetListener= null;
-        OperationalListener bestPostListener= null;
-        OperationalListener bestPutListener= null;
-        OperationalListener bestDeleteListener= null;
-        OperationalListener bestFetchListener= null;
-        OperationalListener bestPatchListener= null;
-        OperationalListener bestIpatchListener= null;
-        int maxGetMatchlevel= 0;
-        int maxPostMatchlevel= 0;
-        int maxPutMatchlevel= 0;
-        int maxDeleteMatchlevel= 0;
-        int maxFetchMatchlevel= 0;
-        int maxPatchMatchlevel= 0;
-        int maxIpatchMatchlevel= 0;
-        for ( OperationalListener listener : listeners )
-        {
-            int matchLevel;
-            try
-            {
-                matchLevel= matchUri( listener.getUriPattern(), resource.getURI() );
-            }
-            catch ( InternalUriPatternException e )
-            {
-                // listeners uriPattern is invalid. Should not occur.
-                LOGGER.error( e.getMessage() );
-                matchLevel= 0;
-            }
-            if ( matchLevel > maxGetMatchlevel && listener.requestCodeFlags.isGet() )
-            {
-                maxGetMatchlevel= matchLevel;
-                bestGetListener= listener;
-            }
-            if ( matchLevel > maxPostMatchlevel && listener.requestCodeFlags.isPost() )
-            {
-                maxPostMatchlevel= matchLevel;
-                bestPostListener= listener;
-            }
-            if ( matchLevel > maxPutMatchlevel && listener.requestCodeFlags.isPut() )
-            {
-                maxPutMatchlevel= matchLevel;
-                bestPutListener= listener;
-            }
-            if ( matchLevel > maxDeleteMatchlevel && listener.requestCodeFlags.isDelete() )
-            {
-                maxDeleteMatchlevel= matchLevel;
-                bestDeleteListener= listener;
-            }
-            if ( matchLevel > maxFetchMatchlevel && listener.requestCodeFlags.isFetch() )
+        catch ( InternalUriPatternException e )
+        {
+            // listeners uriPattern is invalid. Should not occur, it is validated when added.
+            LOGGER.error( e.getMessage() );
+            return;
+        }
+        if ( !uriPattern.startsWith( Defs.COAP_URI_PATHSEP ) )
+        {
+            // relative patterns are not indexed
+            return;
+        }
+        String indexUri= getIndexUri( uriPattern, wildcard );
+        PatternListeners patternListeners= listeners.get( indexUri );
+        if ( patternListeners != null )
+        {
+            if ( wildcard )
             {
-                maxFetchMatchlevel= matchLevel;
-                bestFetchListener= listener;
+                patternListeners.wildcard.remove( listener );
             }
-            if ( matchLevel > maxPatchMatchlevel && listener.requestCodeFlags.isPatch() )
+            else
             {
-                maxPatchMatchlevel= matchLevel;
-                bestPatchListener= listener;
+                patternListeners.exact.remove( listener );
             }
-            if ( matchLevel > maxIpatchMatchlevel && listener.requestCodeFlags.isIpatch() )
+            if ( patternListeners.isEmpty() )
             {
-                maxIpatchMatchlevel= matchLevel;
-                bestIpatchListener= listener;
+                listeners.remove( indexUri );
             }
         }
-        // set the Get callback to the best found listener
-        if ( bestGetListener != null )
-        {
-            resource.setGetCallback( bestGetListener.getCallback() );
-        }
-        else
-        {
-            resource.setGetCallback( null );
-        }
-        // set the Post callback to the best found listener
-        if ( bestPostListener != null )
-        {
-            resource.setPostCallback( bestPostListener.getCallback() );
-        }
-        else
-        {
-            resource.setPostCallback( null );
-        }
-        // set the Put callback to the best found listener
-        if ( bestPutListener != null )
-        {
-            resource.setPutCallback( bestPutListener.getCallback() );
-        }
-        else
-        {
-            resource.setPutCallback( null );
-        }
-        // set the Delete callback to the best found listener
-        if ( bestDeleteListener != null )
-        {
-            resource.setDeleteCallback( bestDeleteListener.getCallback() );
-        }
-        else
+        updateResourceCallBack( uriPattern, wildcard );
+    }
+
+    /**
+     * Get all listeners in the registry.
+     * @return The listeners. The list is not thread safe.
+     */
+    public List< OperationalListener > getListeners()
+    {
+        ArrayList< OperationalListener > found= new ArrayList<>();
+        List< PatternListeners > indexed= listeners.values();
+        PatternListeners rootListeners= listeners.get( Defs.COAP_URI_ROOTRESOURCE );
+        if ( rootListeners != null )
         {
-            resource.setDeleteCallback( null );
+            indexed.add( rootListeners );
         }
-        // set the Fetch callback to the best found listener
-        if ( bestFetchListener != null )
+        for ( PatternListeners patternListeners : indexed )
         {
-            resource.setFetchCallback( bestFetchListener.getCallback() );
+            found.addAll( patternListeners.exact );
+            found.addAll( patternListeners.wildcard );
         }
-        else
+        return found;
+    }
+
+    /**
+     * Get the uri on which listeners are indexed. 
+     * That is the pattern itself when it has no wildcard, otherwise the path the pattern applies to.
+     * @param uriPattern The uri pattern of the listener.
+     * @param wildcard Flag indicating the pattern has a wildcard.
+     * @return The uri to index the listener on.
+     */
+    private static String getIndexUri( String uriPattern, boolean wildcard )
+    {
+        if ( wildcard )
         {
-            resource.setFetchCallback( null );
+            String path= getUriPath( uriPattern );
+            return( path.length() > 1 && path.endsWith( Defs.COAP_URI_PATHSEP ) ? path.substring( 0, path.length() - 1 ) : path );
         }
-        // set the Patch callback to the best found listener
-        if ( bestPatchListener != null )
+        return uriPattern;
+    }
+
+    /**
+     * Updates callback of the served resources that match given uri pattern.
+     * @param uriPattern The pattern of the resources to update.
+     * @param wildcard Flag indicating the pattern has a wildcard.
+     */
+    private void updateResourceCallBack( String uriPattern, boolean wildcard )
+    {
+        if ( wildcard )
         {
-            resource.setPatchCallback( bestPatchListener.getCallback() );
+            for ( AbstractResource resource : servedResources.findUnder( getUriPath( uriPattern ) ) )
+            {
+                setResourceCallBack( resource );
+            }
         }
         else
         {
-            resource.setPatchCallback( null );
-        }
-        // set the iPatch callback to the best found listener
-        if ( bestIpatchListener != null )
-        {
-            resource.setIpatchCallback( bestIpatchListener.getCallback() );
+            AbstractResource resource= servedResources.get( uriPattern );
+            if ( resource != null )
+            {
+                setResourceCallBack( resource );
+            }
         }
-        else
+    }
+
+    /**
+     * Set the callback of the resource on the listener that matches best the
+     * resources uri. A listener with a pattern equal to the uri matches best, 
+     * otherwise the listener with the most specific wildcard pattern. 
+     * When multiple listeners match equally, the first one added is used.
+     * 
+     * @param resource The served resource.
+     */
+    private void setResourceCallBack( AbstractResource resource )
+    {
+        String uri= resource.getURI();
+        ArrayList< OperationalListener > candidates= new ArrayList<>();
+        PatternListeners exactListeners= listeners.get( uri );
+        if ( exactListeners != null )
+        {
+            candidates.addAll( exactListeners.exact );
+        }
+        for ( PatternListeners pathListeners : listeners.findAbove( uri ) )
+        {
+            candidates.addAll( pathListeners.wildcard );
+        }
+        EnumMap< Code, SourceCallback< InputStream, CoapRequestAttributes > > callbacks= new EnumMap<>( Code.class );
+        callbacks.put( Code.GET, getBestCallback( candidates, RequestCodeFlags::isGet ) );
+        callbacks.put( Code.POST, getBestCallback( candidates, RequestCodeFlags::isPost ) );
+        callbacks.put( Code.PUT, getBestCallback( candidates, RequestCodeFlags::isPut ) );
+        callbacks.put( Code.DELETE, getBestCallback( candidates, RequestCodeFlags::isDelete ) );
+        callbacks.put( Code.FETCH, getBestCallback( candidates, RequestCodeFlags::isFetch ) );
+        callbacks.put( Code.PATCH, getBestCallback( candidates, RequestCodeFlags::isPatch ) );
+        callbacks.put( Code.IPATCH, getBestCallback( candidates, RequestCodeFlags::isIpatch ) );
+        resource.setCallbacks( callbacks );
+    }
+
+    /**
+     * Get the callback of the first candidate listener that listens to a request code.
+     * @param candidates The listeners ordered by matching degree.
+     * @param listensTo Predicate establishing whether the listener listens to the request code. 
+     * @return The callback, or null when no candidate listens to the request code.
+     */
+    private static SourceCallback< InputStream, CoapRequestAttributes > getBestCallback(
+        List< OperationalListener > candidates,
+        Predicate< RequestCodeFlags > listensTo
+    )
+    {
+        for ( OperationalListener candidate : candidates )
         {
-            resource.setIpatchCallback( null );
+            if ( listensTo.test( candidate.requestCodeFlags ) )
+            {
+                return candidate.getCallback();
+            }
         }
+        return null;
     }
 
     /**
@@ -392,16 +495,10 @@ public class ResourceRegistry
             // do not expose root resource
             return null;
         }
-        else
+        AbstractResource resource= servedResources.get( uri );
+        if ( resource instanceof ServedResource )
         {
-            for ( Entry< String, AbstractResource > entry : servedResources.entrySet() )
-            {
-                AbstractResource resource= entry.getValue();
-                if ( uri.equals( entry.getKey() ) && resource instanceof ServedResource )
-                {
-                    return (ServedResource) entry.getValue();
-                }
-            }
+            return (ServedResource) resource;
         }
         throw new InternalResourceUriException( "resource { " + uri + " } does not exist." );
     }
@@ -417,22 +514,34 @@ public class ResourceRegistry
     {
         // TODO regex support
         ArrayList< ServedResource > found= new ArrayList<>();
-
-        for ( Entry< String, AbstractResource > entry : servedResources.entrySet() )
+        boolean wildcard;
+        try
         {
-            try
+            wildcard= uriHasWildcard( uriPattern );
+        }
+        catch ( InternalUriPatternException e )
+        {
+            // uriPattern is invalid. Should not occur, is already validated.
+            LOGGER.error( e.getMessage() );
+            return found;
+        }
+        if ( wildcard )
+        {
+            // all resources under the path of the pattern match
+            for ( AbstractResource resource : servedResources.findUnder( getUriPath( uriPattern ) ) )
             {
-                AbstractResource resource= entry.getValue();
-                if ( matchUri( uriPattern, entry.getKey() ) > 0 && resource instanceof ServedResource )
+                if ( resource instanceof ServedResource )
                 {
-                    found.add( (ServedResource) entry.getValue() );
+                    found.add( (ServedResource) resource );
                 }
             }
-            catch ( InternalUriPatternException e )
+        }
+        else
+        {
+            AbstractResource resource= servedResources.get( uriPattern );
+            if ( resource instanceof ServedResource )
             {
-                // uriPattern is invalid. Should not occur, is already validated.
-                LOGGER.error( e.getMessage() );
-                break;
+                found.add( (ServedResource) resource );
             }
         }
         return found;
@@ -595,4 +704,30 @@ public class ResourceRegistry
             return Defs.COAP_URI_ROOTRESOURCE;
         }
     }
+
+    /**
+     * The listeners indexed on an uri. 
+     * These are the listeners having that uri as pattern 
+     * and the listeners having a wildcard pattern on the path of that uri.
+     */
+    private static class PatternListeners
+    {
+        /**
+         * Listeners with a pattern equal to the uri, in order of addition.
+         */
+        private final CopyOnWriteArrayList< OperationalListener > exact= new CopyOnWriteArrayList<>();
+
+        /**
+         * Listeners with a wildcard pattern on the path of the uri, in order of addition.
+         */
+        private final CopyOnWriteArrayList< OperationalListener > wildcard= new CopyOnWriteArrayList<>();
+
+        /**
+         * @return True when no listeners are present.
+         */
+        private boolean isEmpty()
+        {
+            return exact.isEmpty() && wildcard.isEmpty();
+        }
+    }
 }
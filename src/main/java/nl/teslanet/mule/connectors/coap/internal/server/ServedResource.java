@@ -24,8 +24,13 @@ package nl.teslanet.mule.connectors.coap.internal.server;
 
 
 import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
 
 import org.apache.commons.lang3.StringUtils;
+import org.eclipse.californium.core.coap.CoAP.Code;
+import org.eclipse.californium.core.network.Exchange;
+import org.eclipse.californium.core.observe.ObserveRelationFilter;
 import org.eclipse.californium.core.server.resources.CoapExchange;
 import org.mule.runtime.extension.api.runtime.source.SourceCallback;
 
@@ -35,6 +40,7 @@ import nl.teslanet.mule.connectors.coap.api.NewSubResource;
 import nl.teslanet.mule.connectors.coap.api.ResourceConfig;
 import nl.teslanet.mule.connectors.coap.api.ResourceParams;
 import nl.teslanet.mule.connectors.coap.api.attributes.CoapRequestAttributes;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidDurationException;
 
 
 /**
@@ -44,58 +50,34 @@ import nl.teslanet.mule.connectors.coap.api.attributes.CoapRequestAttributes;
 public class ServedResource extends AbstractResource
 {
     /**
-     * The callback of the messagesource for Get requests.
-     * It is used to hand messages over to the Mule flow that should process the request.
+     * The request codes, indexed by ordinal.
      */
-    private SourceCallback< InputStream, CoapRequestAttributes > getCallback= null;
+    private static final Code[] CODES= Code.values();
 
     /**
-     * The callback of the messagesource for Post requests.
-     * It is used to hand messages over to the Mule flow that should process the request.
+     * Immutable dispatch table holding the request handler for each request code, indexed by ordinal.
+     * Worker threads read the table once per request, while rebinding replaces it as a whole,
+     * so a rebind is visible at once and never partially applied.
      */
-    private SourceCallback< InputStream, CoapRequestAttributes > postCallback= null;
+    private volatile RequestHandler[] handlers= new RequestHandler [CODES.length];
 
     /**
-     * The callback of the messagesource for Put requests.
-     * It is used to hand messages over to the Mule flow that should process the request.
+     * Flag indicating the notifications of a notification round share one representation.
      */
-    private SourceCallback< InputStream, CoapRequestAttributes > putCallback= null;
+    private boolean sharedNotifications= false;
 
     /**
-     * The callback of the messagesource for Delete requests.
-     * It is used to hand messages over to the Mule flow that should process the request.
+     * Lock serializing the notification rounds of shared notifications.
      */
-    private SourceCallback< InputStream, CoapRequestAttributes > deleteCallback= null;
-
-    /**
-     * The callback of the messagesource for Fetch requests.
-     * It is used to hand messages over to the Mule flow that should process the request.
-     */
-    private SourceCallback< InputStream, CoapRequestAttributes > fetchCallback= null;
-
-    /**
-     * The callback of the messagesource for Patch requests.
-     * It is used to hand messages over to the Mule flow that should process the request.
-     */
-    private SourceCallback< InputStream, CoapRequestAttributes > patchCallback= null;
-
-    /**
-     * The callback of the messagesource for iPatch requests.
-     * It is used to hand messages over to the Mule flow that should process the request.
-     */
-    private SourceCallback< InputStream, CoapRequestAttributes > ipatchCallback= null;
-
-    /**
-     * RequestCode flags indicating which requests the resource accepts.
-     */
-    private RequestCodeFlags requestCodeFlags= new RequestCodeFlags();
+    private final Object sharedNotificationLock= new Object();
 
     /**
      * Constuctor that creates a ServedResource object according to given configuration.
      * The ServedResource and its child resources will be constructed.
      * @param resource the configuration of the resource to create. 
+     * @throws InternalInvalidDurationException When a notification interval is invalid.
      */
-    public ServedResource( ResourceConfig resource )
+    public ServedResource( ResourceConfig resource ) throws InternalInvalidDurationException
     {
         super( resource.getResourceName(), true );
         configure( resource );
@@ -117,8 +99,9 @@ public class ServedResource extends AbstractResource
      * Constructor that creates a ServedResource object using given builder.
      * The ServedResource and its child resources will be constructed.
      * @param resource the builder of the resource to create. 
+     * @throws InternalInvalidDurationException When a notification interval is invalid.
      */
-    public ServedResource( ResourceParams resource )
+    public ServedResource( ResourceParams resource ) throws InternalInvalidDurationException
     {
         super( ResourceRegistry.getUriResourceName( resource.getResourcePath() ), true );
         configure( resource );
@@ -143,22 +126,28 @@ public class ServedResource extends AbstractResource
     /**
      * Configure the resource.
      * @param resource the configuration to set. 
+     * @throws InternalInvalidDurationException When a notification interval is invalid.
      */
-    private void configure( ConfigurableResource resource )
+    private void configure( ConfigurableResource resource ) throws InternalInvalidDurationException
     {
-        requestCodeFlags.setGet( resource.isGet() );
-        requestCodeFlags.setPost( resource.isPost() );
-        requestCodeFlags.setPut( resource.isPut() );
-        requestCodeFlags.setDelete( resource.isDelete() );
-        requestCodeFlags.setFetch( resource.isFetch() );
-        requestCodeFlags.setPatch( resource.isPatch() );
-        requestCodeFlags.setIpatch( resource.isIpatch() );
+        RequestHandler[] configured= new RequestHandler [CODES.length];
+        configured[Code.GET.ordinal()]= new RequestHandler( resource.isGet(), CoapResponseCode.CONTENT, null );
+        configured[Code.POST.ordinal()]= new RequestHandler( resource.isPost(), CoapResponseCode.CHANGED, null );
+        configured[Code.PUT.ordinal()]= new RequestHandler( resource.isPut(), CoapResponseCode.CHANGED, null );
+        configured[Code.DELETE.ordinal()]= new RequestHandler( resource.isDelete(), CoapResponseCode.DELETED, null );
+        configured[Code.FETCH.ordinal()]= new RequestHandler( resource.isFetch(), CoapResponseCode.CONTENT, null );
+        configured[Code.PATCH.ordinal()]= new RequestHandler( resource.isPatch(), CoapResponseCode.CHANGED, null );
+        configured[Code.IPATCH.ordinal()]= new RequestHandler( resource.isIpatch(), CoapResponseCode.CHANGED, null );
+        handlers= configured;
         earlyAck= resource.isEarlyAck();
 
         if ( resource.isObservable() )
         {
             setObservable( true );
             getAttributes().setObservable();
+            notificationCoalescer= NotificationCoalescer
+                .create( this, resource.getNotificationMinInterval(), resource.getNotificationMaxRate() );
+            sharedNotifications= resource.isSharedNotifications();
         }
         else
         {
@@ -205,122 +194,140 @@ public class ServedResource extends AbstractResource
     }
 
     /**
-     * Override default handler of Cf.
+     * Override default request dispatching of Cf.
+     * The request is dispatched directly to the handler of its request code.
+     * Requests with a code the resource does not accept are handed to the default dispatching,
+     * which responds METHOD_NOT_ALLOWED.
      */
     @Override
-    public void handleGET( CoapExchange exchange )
+    public void handleRequest( Exchange exchange )
     {
-        if ( requestCodeFlags.isNotGet() )
+        Code code= exchange.getRequest().getCode();
+        RequestHandler handler= ( code != null ? handlers[code.ordinal()] : null );
+        if ( handler == null || !handler.accepted )
         {
-            // default implementation is to respond METHOD_NOT_ALLOWED
-            super.handleGET( exchange );
+            super.handleRequest( exchange );
         }
         else
         {
-            handleRequest( getCallback, exchange, CoapResponseCode.CONTENT );
+            handleRequest( handler.callback, new CoapExchange( exchange ), handler.defaultResponseCode );
         }
     }
 
     /**
-     * Override default handler of Cf.
+     * Notify observers the resource has changed. 
+     * When notifications are limited, the change is coalesced with other changes.
+     * @param scheduler The scheduler to use for coalesced notifications.
      */
-    @Override
-    public void handlePUT( CoapExchange exchange )
+    public void notifyChanged( ScheduledExecutorService scheduler )
     {
-        if ( requestCodeFlags.isNotPut() )
+        NotificationCoalescer coalescer= notificationCoalescer;
+        if ( coalescer == null )
         {
-            // default implementation is to respond METHOD_NOT_ALLOWED
-            super.handlePUT( exchange );
+            changed();
         }
         else
         {
-            handleRequest( putCallback, exchange, CoapResponseCode.CHANGED );
+            coalescer.changed( scheduler );
         }
     }
 
     /**
-     * Override default handler of Cf.
+     * Notify the observe relations. When notifications are shared, 
+     * the relations notified in this round share one representation rendered by the flow
+     * for the request of the first relation. Rounds are serialized then, so concurrent rounds 
+     * do not replace each other's shared representation.
+     * When notifications are limited, the coalescer is told the round has been dispatched.
      */
     @Override
-    public void handlePOST( CoapExchange exchange )
+    protected void notifyObserverRelations( ObserveRelationFilter filter )
     {
-        if ( requestCodeFlags.isNotPost() )
+        try
         {
-            // default implementation is to respond METHOD_NOT_ALLOWED
-            super.handlePOST( exchange );
+            if ( sharedNotifications )
+            {
+                synchronized ( sharedNotificationLock )
+                {
+                    sharedNotification= new SharedNotification();
+                    try
+                    {
+                        super.notifyObserverRelations( filter );
+                    }
+                    finally
+                    {
+                        sharedNotification= null;
+                    }
+                }
+            }
+            else
+            {
+                super.notifyObserverRelations( filter );
+            }
         }
-        else
+        finally
         {
-            handleRequest( postCallback, exchange, CoapResponseCode.CHANGED );
+            NotificationCoalescer coalescer= notificationCoalescer;
+            if ( coalescer != null )
+            {
+                coalescer.roundDispatched();
+            }
         }
     }
 
     /**
-     * Override default handler of Cf.
+     * Delete the resource. Pending coalesced notifications are cancelled.
      */
     @Override
-    public void handleDELETE( CoapExchange exchange )
+    public synchronized void delete()
     {
-        if ( requestCodeFlags.isNotDelete() )
-        {
-            // default implementation is to respond METHOD_NOT_ALLOWED
-            super.handleDELETE( exchange );
-        }
-        else
+        NotificationCoalescer coalescer= notificationCoalescer;
+        if ( coalescer != null )
         {
-            handleRequest( deleteCallback, exchange, CoapResponseCode.DELETED );
+            coalescer.cancel();
         }
+        super.delete();
     }
 
     /**
-     * Override default handler of Cf.
+     * Set the Mule callback for this resource for one request code.
+     * The dispatch table is replaced by a copy containing the new callback.
+     * @param code The request code.
+     * @param sourceCallback The callback to set.
      */
-    @Override
-    public void handleFETCH( CoapExchange exchange )
+    private synchronized void setCallback( Code code, SourceCallback< InputStream, CoapRequestAttributes > sourceCallback )
     {
-        if ( requestCodeFlags.isNotFetch() )
-        {
-            // default implementation is to respond METHOD_NOT_ALLOWED
-            super.handleFETCH( exchange );
-        }
-        else
-        {
-            handleRequest( fetchCallback, exchange, CoapResponseCode.CONTENT );
-        }
+        RequestHandler[] updated= handlers.clone();
+        updated[code.ordinal()]= updated[code.ordinal()].withCallback( sourceCallback );
+        handlers= updated;
     }
 
     /**
-     * Override default handler of Cf.
+     * Get the Mule callback of this resource for one request code.
+     * @param code The request code.
+     * @return The callback, or null when none is set.
      */
-    @Override
-    public void handlePATCH( CoapExchange exchange )
+    private SourceCallback< InputStream, CoapRequestAttributes > getCallback( Code code )
     {
-        if ( requestCodeFlags.isNotPatch() )
-        {
-            // default implementation is to respond METHOD_NOT_ALLOWED
-            super.handlePATCH( exchange );
-        }
-        else
-        {
-            handleRequest( patchCallback, exchange, CoapResponseCode.CHANGED );
-        }
+        RequestHandler handler= handlers[code.ordinal()];
+        return ( handler != null ? handler.callback : null );
     }
 
     /**
-     * Override default handler of Cf.
+     * Set the Mule callbacks for this resource for all request codes at once.
+     * The dispatch table is replaced in one step, so requests never see a partially updated set of callbacks.
      */
     @Override
-    public void handleIPATCH( CoapExchange exchange )
+    public synchronized void setCallbacks( Map< Code, SourceCallback< InputStream, CoapRequestAttributes > > sourceCallbacks )
     {
-        if ( requestCodeFlags.isNotIpatch() )
-        {
-            // default implementation is to respond METHOD_NOT_ALLOWED
-            super.handleIPATCH( exchange );
-        }
-        else
+        RequestHandler[] updated= handlers.clone();
+        for ( int i= 0; i < updated.length; i++ )
         {
-            handleRequest( ipatchCallback, exchange, CoapResponseCode.CHANGED );
+            if ( updated[i] != null )
+            {
+                updated[i]= updated[i].withCallback( sourceCallbacks.get( CODES[i] ) );
+            }
         }
+        handlers= updated;
     }
 
     /**
@@ -329,7 +336,7 @@ public class ServedResource extends AbstractResource
     @Override
     public void setGetCallback( SourceCallback< InputStream, CoapRequestAttributes > sourceCallback )
     {
-        getCallback= sourceCallback;
+        setCallback( Code.GET, sourceCallback );
     }
 
     /**
@@ -339,7 +346,7 @@ public class ServedResource extends AbstractResource
     @Override
     public SourceCallback< InputStream, CoapRequestAttributes > getGetCallback()
     {
-        return getCallback;
+        return getCallback( Code.GET );
     }
 
     /**
@@ -348,7 +355,7 @@ public class ServedResource extends AbstractResource
     @Override
     public void setPostCallback( SourceCallback< InputStream, CoapRequestAttributes > sourceCallback )
     {
-        postCallback= sourceCallback;
+        setCallback( Code.POST, sourceCallback );
     }
 
     /**
@@ -358,7 +365,7 @@ public class ServedResource extends AbstractResource
     @Override
     public SourceCallback< InputStream, CoapRequestAttributes > getPostCallback()
     {
-        return postCallback;
+        return getCallback( Code.POST );
     }
 
     /**
@@ -367,7 +374,7 @@ public class ServedResource extends AbstractResource
     @Override
     public void setPutCallback( SourceCallback< InputStream, CoapRequestAttributes > sourceCallback )
     {
-        putCallback= sourceCallback;
+        setCallback( Code.PUT, sourceCallback );
     }
 
     /**
@@ -377,7 +384,7 @@ public class ServedResource extends AbstractResource
     @Override
     public SourceCallback< InputStream, CoapRequestAttributes > getPutCallback()
     {
-        return putCallback;
+        return getCallback( Code.PUT );
     }
 
     /**
@@ -386,7 +393,7 @@ public class ServedResource extends AbstractResource
     @Override
     public void setDeleteCallback( SourceCallback< InputStream, CoapRequestAttributes > sourceCallback )
     {
-        deleteCallback= sourceCallback;
+        setCallback( Code.DELETE, sourceCallback );
     }
 
     /**
@@ -396,7 +403,7 @@ public class ServedResource extends AbstractResource
     @Override
     public SourceCallback< InputStream, CoapRequestAttributes > getDeleteCallback()
     {
-        return deleteCallback;
+        return getCallback( Code.DELETE );
     }
 
     /**
@@ -405,7 +412,7 @@ public class ServedResource extends AbstractResource
     @Override
     public void setFetchCallback( SourceCallback< InputStream, CoapRequestAttributes > sourceCallback )
     {
-        fetchCallback= sourceCallback;
+        setCallback( Code.FETCH, sourceCallback );
     }
 
     /**
@@ -415,7 +422,7 @@ public class ServedResource extends AbstractResource
     @Override
     public SourceCallback< InputStream, CoapRequestAttributes > getFetchCallback()
     {
-        return fetchCallback;
+        return getCallback( Code.FETCH );
     }
 
     /**
@@ -424,7 +431,7 @@ public class ServedResource extends AbstractResource
     @Override
     public void setPatchCallback( SourceCallback< InputStream, CoapRequestAttributes > sourceCallback )
     {
-        patchCallback= sourceCallback;
+        setCallback( Code.PATCH, sourceCallback );
     }
 
     /**
@@ -434,7 +441,7 @@ public class ServedResource extends AbstractResource
     @Override
     public SourceCallback< InputStream, CoapRequestAttributes > getPatchCallback()
     {
-        return patchCallback;
+        return getCallback( Code.PATCH );
     }
 
     /**
@@ -443,7 +450,7 @@ public class ServedResource extends AbstractResource
     @Override
     public void setIpatchCallback( SourceCallback< InputStream, CoapRequestAttributes > sourceCallback )
     {
-        ipatchCallback= sourceCallback;
+        setCallback( Code.IPATCH, sourceCallback );
     }
 
     /**
@@ -453,6 +460,54 @@ public class ServedResource extends AbstractResource
     @Override
     public SourceCallback< InputStream, CoapRequestAttributes > getIpatchCallback()
     {
-        return ipatchCallback;
+        return getCallback( Code.IPATCH );
+    }
+
+    /**
+     * Immutable entry of the dispatch table, holding what is needed to handle requests with a request code.
+     */
+    private static final class RequestHandler
+    {
+        /**
+         * Flag indicating whether the resource accepts the request code.
+         */
+        private final boolean accepted;
+
+        /**
+         * The response code used when the flow does not set one.
+         */
+        private final CoapResponseCode defaultResponseCode;
+
+        /**
+         * The callback of the messagesource that handles the requests.
+         */
+        private final SourceCallback< InputStream, CoapRequestAttributes > callback;
+
+        /**
+         * Constructor.
+         * @param accepted Flag indicating whether the resource accepts the request code.
+         * @param defaultResponseCode The response code used when the flow does not set one.
+         * @param callback The callback of the messagesource.
+         */
+        private RequestHandler(
+            boolean accepted,
+            CoapResponseCode defaultResponseCode,
+            SourceCallback< InputStream, CoapRequestAttributes > callback
+        )
+        {
+            this.accepted= accepted;
+            this.defaultResponseCode= defaultResponseCode;
+            this.callback= callback;
+        }
+
+        /**
+         * Create a copy of this handler using another callback.
+         * @param callback The callback to use.
+         * @return The new handler.
+         */
+        private RequestHandler withCallback( SourceCallback< InputStream, CoapRequestAttributes > callback )
+        {
+            return new RequestHandler( accepted, defaultResponseCode, callback );
+        }
     }
 }
@@ -27,8 +27,10 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
 
 import javax.inject.Inject;
+import javax.management.ObjectName;
 
 import org.eclipse.californium.core.CoapServer;
 import org.eclipse.californium.core.coap.CoAP;
@@ -59,9 +61,13 @@ import org.mule.runtime.extension.api.annotation.param.display.Summary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import nl.teslanet.mule.connectors.coap.api.Defs;
 import nl.teslanet.mule.connectors.coap.api.EndpointInfo;
+import nl.teslanet.mule.connectors.coap.api.ListenerStats;
 import nl.teslanet.mule.connectors.coap.api.ResourceConfig;
+import nl.teslanet.mule.connectors.coap.api.ResourceStats;
 import nl.teslanet.mule.connectors.coap.api.ServerInfo;
+import nl.teslanet.mule.connectors.coap.api.ServerStats;
 import nl.teslanet.mule.connectors.coap.api.config.endpoint.AbstractEndpoint;
 import nl.teslanet.mule.connectors.coap.api.config.endpoint.AdditionalEndpoint;
 import nl.teslanet.mule.connectors.coap.api.config.endpoint.Endpoint;
@@ -69,6 +75,7 @@ import nl.teslanet.mule.connectors.coap.api.config.endpoint.UDPEndpoint;
 import nl.teslanet.mule.connectors.coap.internal.endpoint.OperationalEndpoint;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalResourceRegistryException;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalUriPatternException;
+import nl.teslanet.mule.connectors.coap.internal.utils.MBeanUtils;
 import nl.teslanet.mule.connectors.coap.internal.utils.TimeUtils;
 
 
@@ -95,6 +102,21 @@ public class Server implements Initialisable, Disposable, Startable, Stoppable
      */
     public static final String VARNAME_DEFAULT_RESPONSE_CODE= "defaultResponseCode";
 
+    /**
+     * The name of the request timer variable.
+     */
+    public static final String VARNAME_REQUEST_TIMER= "requestTimer";
+
+    /**
+     * The name of the notification coalescer variable.
+     */
+    public static final String VARNAME_NOTIFICATION_COALESCER= "notificationCoalescer";
+
+    /**
+     * The name of the shared notification variable.
+     */
+    public static final String VARNAME_SHARED_NOTIFICATION= "sharedNotification";
+
     /**
      * The name of the server.
      */
@@ -307,6 +329,7 @@ public class Server implements Initialisable, Disposable, Startable, Stoppable
         {
             throw new StartException( e, this );
         }
+        MBeanUtils.register( MBeanUtils.toObjectName( "Server", serverName ), new ServerStatistics( this ) );
         LOGGER.info( "{} started.", this );
 
     }
@@ -338,6 +361,7 @@ public class Server implements Initialisable, Disposable, Startable, Stoppable
         finally
         {
             //stop server
+            MBeanUtils.unregister( MBeanUtils.toObjectName( "Server", serverName ) );
             coapServer.stop();
             if ( !notifyOnShutdown )
             {
@@ -360,6 +384,7 @@ public class Server implements Initialisable, Disposable, Startable, Stoppable
     void addListener( OperationalListener operationalListener ) throws InternalUriPatternException
     {
         registry.add( operationalListener );
+        MBeanUtils.register( toObjectName( operationalListener ), operationalListener.getDispatchStatistics() );
     }
 
     /**
@@ -369,6 +394,77 @@ public class Server implements Initialisable, Disposable, Startable, Stoppable
     void removeListener( OperationalListener listener )
     {
         registry.remove( listener );
+        MBeanUtils.unregister( toObjectName( listener ) );
+    }
+
+    /**
+     * Get the name of the MBean publishing the dispatch statistics of a listener.
+     * The name contains the identification of the listener, so listeners 
+     * with the same uri pattern and request codes get their own MBean.
+     * @param listener The listener.
+     * @return The MBean name.
+     */
+    private ObjectName toObjectName( OperationalListener listener )
+    {
+        RequestCodeFlags flags= listener.getRequestCodeFlags();
+        StringBuilder name= new StringBuilder();
+        name.append( serverName ).append( "::" ).append( listener.getUriPattern() ).append( " {" );
+        if ( flags.isGet() ) name.append( " GET" );
+        if ( flags.isPost() ) name.append( " POST" );
+        if ( flags.isPut() ) name.append( " PUT" );
+        if ( flags.isDelete() ) name.append( " DELETE" );
+        if ( flags.isFetch() ) name.append( " FETCH" );
+        if ( flags.isPatch() ) name.append( " PATCH" );
+        if ( flags.isIpatch() ) name.append( " IPATCH" );
+        name.append( " } #" ).append( listener.getId() );
+        return MBeanUtils.toObjectName( "Listener", name.toString() );
+    }
+
+    /**
+     * @return The dispatch statistics of the listeners of the server.
+     */
+    public List< ListenerStats > getListenerStats()
+    {
+        List< ListenerStats > stats= new ArrayList<>();
+        for ( OperationalListener listener : registry.getListeners() )
+        {
+            stats.add( listener.getDispatchStatistics().getStats() );
+        }
+        return stats;
+    }
+
+    /**
+     * @return The latency statistics of the resources of the server, by request code.
+     */
+    public List< ResourceStats > getResourceStats()
+    {
+        List< ResourceStats > stats= new ArrayList<>();
+        for ( ServedResource resource : registry.findResources( Defs.COAP_URI_PATHSEP + Defs.COAP_URI_WILDCARD ) )
+        {
+            stats.addAll( resource.getStats() );
+        }
+        return stats;
+    }
+
+    /**
+     * @return The latency statistics of the server.
+     */
+    public ServerStats getStats()
+    {
+        return new ServerStats( serverName, getResourceStats(), getListenerStats() );
+    }
+
+    /**
+     * @return The number of observe relations of clients on the resources of the server.
+     */
+    public long getObserveRelationCount()
+    {
+        long count= 0L;
+        for ( ServedResource resource : registry.findResources( Defs.COAP_URI_PATHSEP + Defs.COAP_URI_WILDCARD ) )
+        {
+            count+= resource.getObserverCount();
+        }
+        return count;
     }
 
     /**
@@ -435,6 +531,14 @@ public class Server implements Initialisable, Disposable, Startable, Stoppable
         return schedulerConfig;
     }
 
+    /**
+     * @return The scheduler for coalesced notifications, or null when the server is not started.
+     */
+    public ScheduledExecutorService getNotificationScheduler()
+    {
+        return cpuLightScheduler;
+    }
+
     /**
      * @return The server information.
      */
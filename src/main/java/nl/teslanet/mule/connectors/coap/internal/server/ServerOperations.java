@@ -27,6 +27,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ScheduledExecutorService;
 
 import org.mule.runtime.extension.api.annotation.Alias;
 import org.mule.runtime.extension.api.annotation.error.Throws;
@@ -37,6 +38,7 @@ import org.mule.runtime.extension.api.annotation.param.display.Summary;
 
 import nl.teslanet.mule.connectors.coap.api.ResourceParams;
 import nl.teslanet.mule.connectors.coap.api.ServerInfo;
+import nl.teslanet.mule.connectors.coap.api.ServerStats;
 import nl.teslanet.mule.connectors.coap.api.error.InvalidResourceUriException;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalResourceUriException;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.ServerOperationErrorProvider;
@@ -54,6 +56,8 @@ public class ServerOperations
      * For every observing client and resource an internal get-request
      * is issued on the listener concerned.
      * The response that the listener flow will be used as notication as is sent to the observing client.
+     * When the resource limits its notifications, changes are coalesced and the notification is delayed 
+     * until the minimum interval has passed, so the observing clients receive the latest state.
      * @param server The server configuration name of which the resource(s) have changed content.
      * @param pathPattern The path pattern specifies the resource(s) that have changed content. Wildcards can be used, like "/*" or "/some/deeper/resources/*".
      * @throws InvalidResourceUriException Thrown when given uri pattern is invalid.
@@ -71,9 +75,10 @@ public class ServerOperations
         {
             throw new InvalidResourceUriException( server + ": notify operation failed, invalid uri.", "null" );
         }
+        ScheduledExecutorService scheduler= server.getNotificationScheduler();
         for ( ServedResource resource : server.getRegistry().findResources( pathPattern ) )
         {
-            resource.changed();
+            resource.notifyChanged( scheduler );
         }
     }
 
@@ -117,6 +122,53 @@ public class ServerOperations
         }
     }
 
+    /**
+     * The Resource Add Batch processor dynamically adds a batch of new resources to the CoAP server.
+     * The uri's need to be complete resource-paths, including all parent resource(s). 
+     * All parent resources in the paths must exist already or be part of the batch.
+     * The resources are constructed and bound to listeners before they are made available to clients.
+     * When any of the resources cannot be added, none of the resources is added.
+     * @param server The configuration name of the CoAP server to add the resources to.
+     * @param resources The parameters of the resources to add.
+     * @throws InvalidResourceUriException When an uri has invalid value.
+     */
+    @Throws( { ServerOperationErrorProvider.class } )
+    public void resourceAddBatch( @Config
+    Server server,
+        @Alias( "resources" )
+        @Summary( "The resources to add." )
+        List< ResourceParams > resources
+    ) throws InvalidResourceUriException
+    {
+        if ( resources == null )
+        {
+            throw new InvalidResourceUriException( server + ": resource add batch operation failed,", "null" );
+        }
+        for ( ResourceParams resourceParams : resources )
+        {
+            if ( resourceParams == null || resourceParams.getResourcePath() == null )
+            {
+                throw new InvalidResourceUriException( server + ": resource add batch operation failed,", "null" );
+            }
+            String name= ResourceRegistry.getUriResourceName( resourceParams.getResourcePath() );
+            if ( name.length() <= 0 ) throw new InvalidResourceUriException(
+                server + ": resource add batch operation failed, empty resource name",
+                resourceParams.getResourcePath()
+            );
+        }
+        try
+        {
+            server.getRegistry().add( resources );
+        }
+        catch ( InternalResourceUriException e )
+        {
+            throw new InvalidResourceUriException(
+                server + ": resource add batch operation failed, " + e.getMessage(),
+                e
+            );
+        }
+    }
+
     //TODO add notification parameter
     /**
      * The  Resource Remove processor removes resources from the CoAP server.  
@@ -206,4 +258,19 @@ public class ServerOperations
     {
         return server.getInfo();
     }
+
+    /**
+     * Provides the latency statistics of the server. For each resource and request code the latency
+     * from arrival of a request until the response is issued is given, as well as the latency of
+     * queueing until dispatch to the flow, the flow itself and encoding of the response.
+     * For each listener the dispatch latency is given. The same statistics are published as JMX MBeans.
+     * @param server The server instance to get the statistics of.
+     * @return The server statistics.
+     */
+    @Throws( { ServerOperationErrorProvider.class } )
+    public ServerStats serverStats( @Config
+    Server server )
+    {
+        return server.getStats();
+    }
 }
@@ -0,0 +1,62 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.internal.server;
+
+
+import java.util.List;
+
+import nl.teslanet.mule.connectors.coap.api.ListenerStats;
+import nl.teslanet.mule.connectors.coap.api.ResourceStats;
+
+
+/**
+ * Publishes the latency statistics of a server as MXBean.
+ */
+public class ServerStatistics implements ServerStatisticsMXBean
+{
+    /**
+     * The server.
+     */
+    private final Server server;
+
+    /**
+     * Constructor.
+     * @param server The server to publish the statistics of.
+     */
+    ServerStatistics( Server server )
+    {
+        this.server= server;
+    }
+
+    @Override
+    public List< ResourceStats > getResources()
+    {
+        return server.getResourceStats();
+    }
+
+    @Override
+    public List< ListenerStats > getListeners()
+    {
+        return server.getListenerStats();
+    }
+}
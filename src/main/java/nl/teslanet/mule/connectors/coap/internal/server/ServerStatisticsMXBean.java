@@ -2,7 +2,7 @@
  * #%L
  * Mule CoAP Connector
  * %%
- * Copyright (C) 2019 - 2024 (teslanet.nl) Rogier Cobben
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
  * 
  * Contributors:
  *     (teslanet.nl) Rogier Cobben - initial creation
@@ -20,25 +20,28 @@
  * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
  * #L%
  */
+package nl.teslanet.mule.connectors.coap.internal.server;
 
-package nl.teslanet.mule.connectors.coap.internal.client;
 
+import java.util.List;
 
-import org.eclipse.californium.core.CoapResponse;
-
-import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalResponseException;
+import nl.teslanet.mule.connectors.coap.api.ListenerStats;
+import nl.teslanet.mule.connectors.coap.api.ResourceStats;
 
 
 /**
- * Interface of a processing strategy that processes a CoAP response. 
+ * JMX management interface of the latency statistics of a server.
+ * It is an MXBean, so the statistics are published as composite data.
  */
-interface ResponseProcessingStrategy
+public interface ServerStatisticsMXBean
 {
     /**
-     * Process a CoAP response.
-     * @param requestBuilder The originating request.
-     * @param response The response received, or null when no response was be received.
-     * @throws InternalResponseException When the response could not be interpreted correctly. 
+     * @return The latency statistics of the resources, by request code.
+     */
+    List< ResourceStats > getResources();
+
+    /**
+     * @return The latency statistics of the listeners.
      */
-    void process( CoapRequestBuilder requestBuilder, CoapResponse response ) throws InternalResponseException;
+    List< ListenerStats > getListeners();
 }
@@ -0,0 +1,138 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.internal.server;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.OptionSet;
+import org.eclipse.californium.core.coap.Response;
+import org.eclipse.californium.core.server.resources.CoapExchange;
+
+
+/**
+ * The SharedNotification holds the representation of a resource that is shared by all notifications of
+ * one notification round. The first notification of the round is processed by the flow, the response of 
+ * which is cloned for the notifications of the other observe relations. 
+ * Only token and observe sequence number, which are set per exchange, vary between the notifications.
+ * The flow renders the representation for the request of the first observe relation of the round, 
+ * so options of the other requests, like accept and query parameters, are not taken into account.
+ */
+public class SharedNotification
+{
+    /**
+     * Flag indicating a notification of this round has been handed to the flow.
+     */
+    private boolean rendering= false;
+
+    /**
+     * The response that is shared, or null when not yet available.
+     */
+    private Response template= null;
+
+    /**
+     * The notification exchanges waiting for the shared response.
+     */
+    private List< CoapExchange > waiting= new ArrayList<>();
+
+    /**
+     * Join the notification round. The first exchange that joins must be processed by the flow. 
+     * The other exchanges are responded when the shared response is available.
+     * @param exchange The notification exchange.
+     * @return True when the exchange is or will be responded with the shared response, 
+     * false when the exchange must be processed by the flow.
+     */
+    public boolean join( CoapExchange exchange )
+    {
+        Response shared;
+        synchronized ( this )
+        {
+            if ( !rendering )
+            {
+                rendering= true;
+                return false;
+            }
+            if ( template == null )
+            {
+                waiting.add( exchange );
+                return true;
+            }
+            shared= template;
+        }
+        exchange.respond( copy( shared ) );
+        return true;
+    }
+
+    /**
+     * Share the response of the flow with the waiting exchanges. 
+     * Has no effect when the round has already been completed.
+     * @param response The response issued by the flow.
+     */
+    public void complete( Response response )
+    {
+        List< CoapExchange > toRespond;
+        Response shared= copy( response );
+        synchronized ( this )
+        {
+            if ( template != null )
+            {
+                return;
+            }
+            template= shared;
+            toRespond= waiting;
+            waiting= null;
+        }
+        for ( CoapExchange exchange : toRespond )
+        {
+            exchange.respond( copy( shared ) );
+        }
+    }
+
+    /**
+     * Respond the waiting exchanges with an error, when processing the flow failed.
+     * Has no effect when the round has already been completed.
+     * @param code The error response code.
+     * @param message The error message.
+     */
+    public void fail( ResponseCode code, String message )
+    {
+        Response response= new Response( code );
+        response.setPayload( message );
+        complete( response );
+    }
+
+    /**
+     * Create a copy of a response for another exchange.
+     * @param response The response to copy.
+     * @return The copy.
+     */
+    private static Response copy( Response response )
+    {
+        Response copy= new Response( response.getCode() );
+        copy.setOptions( new OptionSet( response.getOptions() ) );
+        copy.setPayload( response.getPayload() );
+        return copy;
+    }
+}
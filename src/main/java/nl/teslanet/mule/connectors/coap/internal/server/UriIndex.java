@@ -0,0 +1,225 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.internal.server;
+
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import nl.teslanet.mule.connectors.coap.api.Defs;
+
+
+/**
+ * Index of values keyed by resource uri. The index is organised as a tree of uri path segments,
+ * so an uri is found in the number of steps equal to its depth and all uri's under a path
+ * are enumerated without visiting other entries.
+ * Lookups are lock free, updates are serialized.
+ *
+ * @param <T> The type of the indexed values.
+ */
+public class UriIndex< T >
+{
+    /**
+     * Node of the index, representing one path segment.
+     *
+     * @param <T> The type of the indexed values.
+     */
+    private static class Node< T >
+    {
+        /**
+         * Child nodes by segment name.
+         */
+        private final ConcurrentHashMap< String, Node< T > > children= new ConcurrentHashMap<>();
+
+        /**
+         * The value indexed on the uri this node represents, or null when absent.
+         */
+        private volatile T value= null;
+    }
+
+    /**
+     * The node representing the root uri.
+     */
+    private final Node< T > root= new Node<>();
+
+    /**
+     * Get the value indexed on given uri.
+     * @param uri The uri to look up.
+     * @return The value or null when no value is indexed on the uri.
+     */
+    public T get( String uri )
+    {
+        if ( uri == null || !uri.startsWith( Defs.COAP_URI_PATHSEP ) )
+        {
+            //relative uri's are not indexed
+            return null;
+        }
+        Node< T > node= root;
+        for ( String segment : segments( uri ) )
+        {
+            node= node.children.get( segment );
+            if ( node == null ) return null;
+        }
+        return node.value;
+    }
+
+    /**
+     * Index a value on given uri.
+     * @param uri The uri to index the value on.
+     * @param value The value to index.
+     * @return The value previously indexed on the uri, or null when absent.
+     */
+    public synchronized T put( String uri, T value )
+    {
+        Node< T > node= root;
+        for ( String segment : segments( uri ) )
+        {
+            node= node.children.computeIfAbsent( segment, key -> new Node<>() );
+        }
+        T previous= node.value;
+        node.value= value;
+        return previous;
+    }
+
+    /**
+     * Remove the value indexed on given uri. Nodes that are no longer needed are pruned.
+     * @param uri The uri to remove the value of.
+     * @return The removed value, or null when absent.
+     */
+    public synchronized T remove( String uri )
+    {
+        LinkedList< Node< T > > trail= new LinkedList<>();
+        Node< T > node= root;
+        String[] segments= segments( uri );
+        for ( String segment : segments )
+        {
+            trail.push( node );
+            node= node.children.get( segment );
+            if ( node == null ) return null;
+        }
+        T previous= node.value;
+        node.value= null;
+        //prune empty nodes bottom up
+        for ( int i= segments.length - 1; i >= 0 && node.value == null && node.children.isEmpty(); i-- )
+        {
+            Node< T > parent= trail.pop();
+            parent.children.remove( segments[i] );
+            node= parent;
+        }
+        return previous;
+    }
+
+    /**
+     * Find all values indexed on uri's that start with given path.
+     * The path is interpreted as a sequence of complete segments, 
+     * so {@code /one/} yields the values of {@code /one/two} and {@code /one/two/three}, 
+     * but not those of {@code /one} or {@code /onetwo}.
+     * @param path The path ending with a path separator.
+     * @return The list of values found. The list is not thread safe.
+     */
+    public List< T > findUnder( String path )
+    {
+        ArrayList< T > found= new ArrayList<>();
+        Node< T > node= root;
+        String prefix= ( path.endsWith( Defs.COAP_URI_PATHSEP ) ? path.substring( 0, path.length() - 1 ) : path );
+        if ( prefix.length() > 0 && !prefix.startsWith( Defs.COAP_URI_PATHSEP ) )
+        {
+            //relative paths do not match resource uri's
+            return found;
+        }
+        for ( String segment : segments( prefix ) )
+        {
+            node= node.children.get( segment );
+            if ( node == null ) return found;
+        }
+        collect( node, found );
+        return found;
+    }
+
+    /**
+     * Find the values indexed on the ancestors of given uri. 
+     * These are the root uri and all other uri's that are a path of given uri.
+     * @param uri The uri to find the ancestor values of.
+     * @return The values found, the value of the nearest ancestor first. The list is not thread safe.
+     */
+    public List< T > findAbove( String uri )
+    {
+        LinkedList< T > found= new LinkedList<>();
+        if ( uri == null || !uri.startsWith( Defs.COAP_URI_PATHSEP ) )
+        {
+            //relative uri's are not indexed
+            return found;
+        }
+        Node< T > node= root;
+        for ( String segment : segments( uri ) )
+        {
+            T value= node.value;
+            if ( value != null ) found.addFirst( value );
+            node= node.children.get( segment );
+            if ( node == null ) break;
+        }
+        return found;
+    }
+
+    /**
+     * Get all indexed values, except the value indexed on the root uri.
+     * @return The list of values. The list is not thread safe.
+     */
+    public List< T > values()
+    {
+        ArrayList< T > found= new ArrayList<>();
+        collect( root, found );
+        return found;
+    }
+
+    /**
+     * Collect the values of all descendants of a node.
+     * @param node The node to collect from.
+     * @param found The list to add the values to.
+     */
+    private static < T > void collect( Node< T > node, List< T > found )
+    {
+        for ( Node< T > child : node.children.values() )
+        {
+            T value= child.value;
+            if ( value != null ) found.add( value );
+            collect( child, found );
+        }
+    }
+
+    /**
+     * Split an uri into its path segments. 
+     * A leading path separator is ignored, a trailing one results in an empty segment.
+     * @param uri The uri to split.
+     * @return The segments.
+     */
+    static String[] segments( String uri )
+    {
+        if ( uri == null ) return new String [0];
+        int start= ( uri.startsWith( Defs.COAP_URI_PATHSEP ) ? Defs.COAP_URI_PATHSEP.length() : 0 );
+        if ( start >= uri.length() ) return new String [0];
+        return uri.substring( start ).split( Defs.COAP_URI_PATHSEP, -1 );
+    }
+}
@@ -41,8 +41,9 @@ public class VirtualResource extends AbstractResource
     /**
      * The callback of the messagesource for Put requests.
      * It is used to hand messages over to the Mule flow that should process the request.
+     * The callback is set by the registry and read on the threads that handle requests.
      */
-    private SourceCallback< InputStream, CoapRequestAttributes > putCallback= null;
+    private volatile SourceCallback< InputStream, CoapRequestAttributes > putCallback= null;
 
     /**
      * Constructor that creates a VirtualResource object.
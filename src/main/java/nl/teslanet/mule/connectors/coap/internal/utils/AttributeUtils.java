@@ -23,9 +23,11 @@
 package nl.teslanet.mule.connectors.coap.internal.utils;
 
 
+import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.californium.core.coap.CoAP.Code;
 import org.eclipse.californium.core.coap.CoAP.ResponseCode;
@@ -50,6 +52,16 @@ import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidRespo
  */
 public class AttributeUtils
 {
+    /**
+     * Maximum number of local address strings that are kept for reuse.
+     */
+    private static final int MAX_LOCAL_ADDRESSES= 256;
+
+    /**
+     * The local address strings of endpoints, for reuse in attributes.
+     */
+    private static final ConcurrentHashMap< InetSocketAddress, String > localAddresses= new ConcurrentHashMap<>();
+
     /**
      * No instances needed.
      */
@@ -371,6 +383,26 @@ public class AttributeUtils
         return Collections.unmodifiableList( others );
     }
 
+    /**
+     * Get the string representation of a local endpoint address.
+     * The strings are shared, as only a few endpoint addresses exist.
+     * @param address The local address of the endpoint.
+     * @return The string representation of the address.
+     */
+    public static String toLocalAddressAttribute( InetSocketAddress address )
+    {
+        String addressString= localAddresses.get( address );
+        if ( addressString == null )
+        {
+            addressString= address.toString();
+            if ( localAddresses.size() < MAX_LOCAL_ADDRESSES )
+            {
+                localAddresses.putIfAbsent( address, addressString );
+            }
+        }
+        return addressString;
+    }
+
     /**
      * Translate response code to result.
      * @param code The response code to translate.
@@ -0,0 +1,175 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.internal.utils;
+
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import nl.teslanet.mule.connectors.coap.api.LatencyStats;
+
+
+/**
+ * Lock free latency histogram with microsecond resolution.
+ * Values are counted in log-linear buckets: each power of two range is divided into 
+ * sixteen sub buckets, which resolves values within about six percent. 
+ * Values of more than about 71 minutes are counted in the highest bucket.
+ * Recording costs a few atomic increments, so it can be done on every request.
+ */
+public class LatencyHistogram
+{
+    /**
+     * The number of bits that determine the sub bucket.
+     */
+    private static final int SUB_BUCKET_BITS= 4;
+
+    /**
+     * The number of sub buckets in a power of two range.
+     */
+    private static final int SUB_BUCKET_COUNT= 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The highest value that is counted, in microseconds.
+     */
+    private static final long HIGHEST_VALUE= ( 1L << 32 ) - 1;
+
+    /**
+     * The number of buckets needed to count up to the highest value.
+     */
+    private static final int BUCKET_COUNT= indexOf( HIGHEST_VALUE ) + 1;
+
+    /**
+     * The bucket counts.
+     */
+    private final AtomicLongArray buckets= new AtomicLongArray( BUCKET_COUNT );
+
+    /**
+     * The sum of the recorded values.
+     */
+    private final LongAdder total= new LongAdder();
+
+    /**
+     * The maximum recorded value.
+     */
+    private final AtomicLong max= new AtomicLong();
+
+    /**
+     * Record a latency.
+     * @param nanos The latency in nanoseconds. Negative values are recorded as zero.
+     */
+    public void record( long nanos )
+    {
+        long micros= Math.min( HIGHEST_VALUE, Math.max( 0L, TimeUnit.NANOSECONDS.toMicros( nanos ) ) );
+        buckets.incrementAndGet( indexOf( micros ) );
+        total.add( micros );
+        max.accumulateAndGet( micros, Math::max );
+    }
+
+    /**
+     * Get a snapshot of the latency statistics.
+     * As recording continues concurrently, the snapshot may be slightly inconsistent.
+     * @return The statistics.
+     */
+    public LatencyStats getStats()
+    {
+        long[] counts= new long[BUCKET_COUNT];
+        long count= 0L;
+        for ( int i= 0; i < BUCKET_COUNT; i++ )
+        {
+            counts[i]= buckets.get( i );
+            count+= counts[i];
+        }
+        if ( count == 0L )
+        {
+            return new LatencyStats( 0L, 0L, 0L, 0L, 0L, 0L, 0L );
+        }
+        long maxValue= max.get();
+        return new LatencyStats(
+            count,
+            total.sum() / count,
+            percentile( counts, count, 50.0, maxValue ),
+            percentile( counts, count, 90.0, maxValue ),
+            percentile( counts, count, 99.0, maxValue ),
+            percentile( counts, count, 99.9, maxValue ),
+            maxValue
+        );
+    }
+
+    /**
+     * Get the value at given percentile. 
+     * The highest value of the bucket the percentile falls in is returned, limited by the maximum recorded.
+     * @param counts The bucket counts.
+     * @param count The total count.
+     * @param percentile The percentile to get.
+     * @param maxValue The maximum value recorded.
+     * @return The value at the percentile.
+     */
+    private static long percentile( long[] counts, long count, double percentile, long maxValue )
+    {
+        long rank= Math.max( 1L, (long) Math.ceil( count * percentile / 100.0 ) );
+        long seen= 0L;
+        for ( int i= 0; i < counts.length; i++ )
+        {
+            seen+= counts[i];
+            if ( seen >= rank )
+            {
+                return Math.min( highestValueOf( i ), maxValue );
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Get the index of the bucket counting given value.
+     * @param value The value.
+     * @return The bucket index.
+     */
+    static int indexOf( long value )
+    {
+        if ( value < SUB_BUCKET_COUNT )
+        {
+            return (int) value;
+        }
+        int shift= 63 - Long.numberOfLeadingZeros( value ) - SUB_BUCKET_BITS;
+        int subBucket= (int) ( value >>> shift ) & ( SUB_BUCKET_COUNT - 1 );
+        return ( shift + 1 ) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * Get the highest value counted by a bucket.
+     * @param index The bucket index.
+     * @return The highest value.
+     */
+    static long highestValueOf( int index )
+    {
+        if ( index < SUB_BUCKET_COUNT )
+        {
+            return index;
+        }
+        int shift= index / SUB_BUCKET_COUNT - 1;
+        long subBucket= index % SUB_BUCKET_COUNT;
+        return ( ( SUB_BUCKET_COUNT + subBucket + 1 ) << shift ) - 1;
+    }
+}
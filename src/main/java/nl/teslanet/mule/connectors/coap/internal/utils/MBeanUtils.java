@@ -0,0 +1,123 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.internal.utils;
+
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Utilities for publishing statistics as JMX MBeans.
+ * Failure to publish statistics is logged and does not affect the connector.
+ */
+public class MBeanUtils
+{
+    /**
+     * The logger.
+     */
+    private static final Logger LOGGER= LoggerFactory.getLogger( MBeanUtils.class );
+
+    /**
+     * The JMX domain of the connectors MBeans.
+     */
+    public static final String DOMAIN= "nl.teslanet.mule.connectors.coap";
+
+    /**
+     * No instances needed.
+     */
+    private MBeanUtils()
+    {
+        //NOOP
+    }
+
+    /**
+     * Create the name of an MBean in the connectors domain.
+     * @param type The type of the MBean.
+     * @param name The name of the MBean, which is quoted.
+     * @return The object name, null when the name is invalid.
+     */
+    public static ObjectName toObjectName( String type, String name )
+    {
+        try
+        {
+            return new ObjectName( DOMAIN + ":type=" + type + ",name=" + ObjectName.quote( name ) );
+        }
+        catch ( JMException e )
+        {
+            LOGGER.warn( "Invalid MBean name { {}, {} }", type, name, e );
+            return null;
+        }
+    }
+
+    /**
+     * Register an MBean with the platform MBean server.
+     * An MBean that was registered before under the same name is replaced.
+     * @param objectName The name of the MBean.
+     * @param mbean The MBean to register.
+     */
+    public static void register( ObjectName objectName, Object mbean )
+    {
+        if ( objectName == null ) return;
+        MBeanServer mbeanServer= ManagementFactory.getPlatformMBeanServer();
+        try
+        {
+            if ( mbeanServer.isRegistered( objectName ) )
+            {
+                mbeanServer.unregisterMBean( objectName );
+            }
+            mbeanServer.registerMBean( mbean, objectName );
+        }
+        catch ( JMException e )
+        {
+            LOGGER.warn( "Could not register MBean { {} }", objectName, e );
+        }
+    }
+
+    /**
+     * Unregister an MBean from the platform MBean server.
+     * @param objectName The name of the MBean.
+     */
+    public static void unregister( ObjectName objectName )
+    {
+        if ( objectName == null ) return;
+        MBeanServer mbeanServer= ManagementFactory.getPlatformMBeanServer();
+        try
+        {
+            if ( mbeanServer.isRegistered( objectName ) )
+            {
+                mbeanServer.unregisterMBean( objectName );
+            }
+        }
+        catch ( JMException e )
+        {
+            LOGGER.warn( "Could not unregister MBean { {} }", objectName, e );
+        }
+    }
+}
@@ -25,6 +25,8 @@ package nl.teslanet.mule.connectors.coap.internal.utils;
 
 import static org.mule.runtime.api.metadata.DataType.BYTE_ARRAY;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringWriter;
 import java.util.Arrays;
 import java.util.Collection;
@@ -32,6 +34,7 @@ import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 import org.eclipse.californium.core.coap.CoAP;
 import org.eclipse.californium.core.coap.NoResponseOption;
@@ -44,6 +47,7 @@ import org.eclipse.californium.core.coap.option.OptionDefinition;
 import org.eclipse.californium.core.coap.option.StringOptionDefinition;
 import org.eclipse.californium.elements.util.Bytes;
 import org.mule.runtime.api.metadata.TypedValue;
+import org.mule.runtime.api.streaming.bytes.CursorStreamProvider;
 import org.mule.runtime.api.transformation.TransformationService;
 
 import nl.teslanet.mule.connectors.coap.api.binary.BytesValue;
@@ -73,6 +77,22 @@ public class MessageUtils
 {
     private static final String VALUE_INVALID= "value is not valid";
 
+    /**
+     * Size of the chunks used to read streams of unknown length.
+     */
+    private static final int STREAM_CHUNK_SIZE= 8192;
+
+    /**
+     * Maximum size of the buffer that is allocated on the announced length of a stream, 
+     * before any content has been read.
+     */
+    private static final int MAX_ANNOUNCED_BUFFER_SIZE= 1024 * 1024;
+
+    /**
+     * Maximum payload size that fits in a byte array.
+     */
+    private static final int MAX_PAYLOAD_SIZE= Integer.MAX_VALUE - 8;
+
     /**
      * Do not create objects.
      */
@@ -644,6 +664,95 @@ public class MessageUtils
 
     }
 
+    /**
+     * Convert a message payload to byte array.
+     * Streamed payloads are read directly from the stream or a cursor on it, without intermediate copies.
+     * When the length of the stream is known the byte array is allocated only once.
+     * Other payloads are converted using {@link #toBytes(Object, TransformationService)}.
+     * @param payload The payload to convert.
+     * @param transformationService Mule transformation service.
+     * @return Converted payload as bytes, or empty byte array when the payload was null.
+     * @throws IOException When the payload stream could not be read.
+     */
+    public static byte[] payloadToBytes( TypedValue< Object > payload, TransformationService transformationService )
+        throws IOException
+    {
+        Object object= TypedValue.unwrap( payload );
+
+        if ( object instanceof CursorStreamProvider )
+        {
+            try ( InputStream cursor= ( (CursorStreamProvider) object ).openCursor() )
+            {
+                return readFully( cursor, payload.getByteLength() );
+            }
+        }
+        else if ( object instanceof InputStream )
+        {
+            // not repeatable, stream is owned and closed by Mule
+            return readFully( (InputStream) object, payload.getByteLength() );
+        }
+        return toBytes( payload, transformationService );
+    }
+
+    /**
+     * Read a stream until its end is reached.
+     * When the length is known the stream is read into one exactly sized array,
+     * otherwise the content is collected in chunks that are concatenated once.
+     * The announced length is not trusted beyond {@link #MAX_ANNOUNCED_BUFFER_SIZE}, 
+     * larger content is collected in chunks of that size as it is read.
+     * @param in The stream to read.
+     * @param byteLength The length of the stream, when known.
+     * @return The content of the stream.
+     * @throws IOException When the stream could not be read, or its content is too large.
+     */
+    private static byte[] readFully( InputStream in, OptionalLong byteLength ) throws IOException
+    {
+        int expected= -1;
+        if ( byteLength.isPresent() && byteLength.getAsLong() >= 0 && byteLength.getAsLong() <= MAX_PAYLOAD_SIZE )
+        {
+            expected= (int) byteLength.getAsLong();
+        }
+        LinkedList< byte[] > chunks= new LinkedList<>();
+        byte[] chunk= new byte [expected >= 0 ? Math.min( expected, MAX_ANNOUNCED_BUFFER_SIZE ) : STREAM_CHUNK_SIZE];
+        int filled= 0;
+        long total= 0;
+        while ( true )
+        {
+            if ( filled == chunk.length )
+            {
+                //only allocate more when the stream has not ended
+                int next= in.read();
+                if ( next == -1 ) break;
+                total+= filled;
+                int nextSize= Math.max( STREAM_CHUNK_SIZE, chunk.length );
+                if ( total + nextSize > MAX_PAYLOAD_SIZE )
+                {
+                    throw new IOException( "payload too large, max. " + MAX_PAYLOAD_SIZE + " bytes" );
+                }
+                chunks.add( chunk );
+                chunk= new byte [nextSize];
+                chunk[0]= (byte) next;
+                filled= 1;
+            }
+            int read= in.read( chunk, filled, chunk.length - filled );
+            if ( read == -1 ) break;
+            filled+= read;
+        }
+        if ( chunks.isEmpty() && filled == chunk.length )
+        {
+            return chunk;
+        }
+        byte[] result= new byte [(int) ( total + filled )];
+        int offset= 0;
+        for ( byte[] full : chunks )
+        {
+            System.arraycopy( full, 0, result, offset, full.length );
+            offset+= full.length;
+        }
+        System.arraycopy( chunk, 0, result, offset, filled );
+        return result;
+    }
+
     /* TODO needed in future release
      * Convert a typed value to {@code InputStream}.
      * @param typedValueObject is the value to convert.
@@ -953,6 +1062,23 @@ public class MessageUtils
         return Optional.of( result );
     }
 
+    /**
+     * Check a list of byte arrays on being valid Entity-tags without creating them.
+     * The check stops at the first empty value in the same way {@link #getList(List)} does.
+     * @param bytesList The List of Byte arrays to check.
+     * @return False when an empty etag occurs, otherwise true.
+     * @throws OptionValueException when an Entity-tag could not be created from bytes
+     */
+    public static boolean checkList( List< byte[] > bytesList ) throws OptionValueException
+    {
+        for ( byte[] bytes : bytesList )
+        {
+            if ( bytes.length <= 0 ) return false;
+            if ( bytes.length > 8 ) DefaultEntityTag.valueOf( bytes );
+        }
+        return true;
+    }
+
     /**
      * Check a collection of Entity-tags whether it contains the Entity-tag.
      * When given collection is null the Entity-tag is considered not found.
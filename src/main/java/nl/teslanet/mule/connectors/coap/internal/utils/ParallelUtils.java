@@ -0,0 +1,136 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.internal.utils;
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+
+/**
+ * Utilities for running a number of tasks with bounded parallelism.
+ *
+ */
+public class ParallelUtils
+{
+    /**
+     * A task that may fail.
+     */
+    @FunctionalInterface
+    public interface Task
+    {
+        /**
+         * Run the task.
+         * @throws Exception When the task failed.
+         */
+        void run() throws Exception;
+    }
+
+    /**
+     * Do not create objects.
+     */
+    private ParallelUtils()
+    {
+        // NOOP
+    }
+
+    /**
+     * Run all tasks with at most the given number of tasks in progress at the same time.
+     * The calling thread waits until all tasks have been run. The tasks run on the calling thread 
+     * when no executor is given, parallelism is one or less, or the executor rejects them.
+     * A failing task does not prevent other tasks from being run.
+     * @param executor The executor to run the tasks on, may be null.
+     * @param parallelism The maximum number of tasks in progress at the same time.
+     * @param tasks The tasks to run.
+     * @return The exceptions of the tasks that failed, empty when all tasks succeeded.
+     */
+    public static List< Exception > runAll( Executor executor, int parallelism, Collection< ? extends Task > tasks )
+    {
+        Queue< Task > pending= new ConcurrentLinkedQueue<>( tasks );
+        Queue< Exception > failures= new ConcurrentLinkedQueue<>();
+        int workers= Math.min( parallelism, pending.size() );
+        if ( executor == null || workers <= 1 )
+        {
+            work( pending, failures );
+            return new ArrayList<>( failures );
+        }
+        CountDownLatch done= new CountDownLatch( workers );
+        for ( int i= 0; i < workers; i++ )
+        {
+            Runnable worker= () -> {
+                try
+                {
+                    work( pending, failures );
+                }
+                finally
+                {
+                    done.countDown();
+                }
+            };
+            try
+            {
+                executor.execute( worker );
+            }
+            catch ( RejectedExecutionException e )
+            {
+                worker.run();
+            }
+        }
+        try
+        {
+            done.await();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        return new ArrayList<>( failures );
+    }
+
+    /**
+     * Run pending tasks until none are left.
+     * @param pending The tasks to run.
+     * @param failures The collection of exceptions of failed tasks.
+     */
+    private static void work( Queue< Task > pending, Queue< Exception > failures )
+    {
+        Task task;
+        while ( ( task= pending.poll() ) != null )
+        {
+            try
+            {
+                task.run();
+            }
+            catch ( Exception e )
+            {
+                failures.add( e );
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.client.basic;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.californium.core.CoapServer;
+import org.junit.Test;
+import org.mule.runtime.api.message.Message;
+
+import nl.teslanet.mule.connectors.coap.api.RequestTarget;
+import nl.teslanet.mule.connectors.coap.api.attributes.CoapResponseAttributes;
+import nl.teslanet.mule.connectors.coap.api.attributes.Result;
+import nl.teslanet.mule.connectors.coap.test.utils.AbstractClientTestCase;
+import nl.teslanet.mule.connectors.coap.test.utils.MuleEventSpy;
+
+
+/**
+ * Test the request on multiple targets.
+ */
+public class RequestAllTest extends AbstractClientTestCase
+{
+    /**
+     * Port on which no server is listening.
+     */
+    private static final int SILENT_PORT= 5699;
+
+    /* (non-Javadoc)
+     * @see org.mule.munit.runner.functional.FunctionalMunitSuite#getConfigResources()
+     */
+    @Override
+    protected String getConfigResources()
+    {
+        return "mule-client-config/basic/testclient-requestall.xml";
+    };
+
+    /* (non-Javadoc)
+     * @see nl.teslanet.mule.connectors.coap.test.utils.AbstractClientTestCase#getTestServer()
+     */
+    @Override
+    protected CoapServer getTestServer() throws SocketException
+    {
+        return new TimeoutTestServer();
+    }
+
+    /**
+     * Create a target on the test server.
+     * @param path The path of the resource.
+     * @return The target.
+     */
+    private static RequestTarget target( String path )
+    {
+        return new RequestTarget( "127.0.0.1", null, path );
+    }
+
+    /**
+     * Run the request all flow and return the messages of the targets.
+     * @param targets The targets of the request.
+     * @param parallelism The maximum number of requests in progress.
+     * @param timeout The timeout of the requests, or null.
+     * @return The messages of the targets, in the order received by the flow.
+     * @throws Exception When the flow failed.
+     */
+    private List< Message > requestAll( List< RequestTarget > targets, int parallelism, String timeout )
+        throws Exception
+    {
+        MuleEventSpy spy= new MuleEventSpy( "do_request" );
+        spy.clear();
+        MuleEventSpy doneSpy= new MuleEventSpy( "do_request_all" );
+        doneSpy.clear();
+
+        flowRunner( "do_request_all" )
+            .withPayload( "nothing_important" )
+            .withVariable( "targets", targets )
+            .withVariable( "parallelism", parallelism )
+            .withVariable( "timeout", timeout )
+            .run();
+
+        assertEquals( "flow has not completed once", 1, doneSpy.getEvents().size() );
+        assertEquals( "wrong number of results", targets.size(), spy.getEvents().size() );
+        ArrayList< Message > messages= new ArrayList<>();
+        for ( int i= 0; i < spy.getEvents().size(); i++ )
+        {
+            Message message= (Message) spy.getEvents().get( i ).getContent();
+            assertTrue( "wrong attributes class", message.getAttributes().getValue() instanceof CoapResponseAttributes );
+            messages.add( message );
+        }
+        return messages;
+    }
+
+    /**
+     * Assert the result of a target.
+     * @param message The message of the target.
+     * @param expectedResult The expected result.
+     * @param expectedPayload The expected payload, or null when none is expected.
+     */
+    private static void assertTarget( Message message, Result expectedResult, String expectedPayload )
+    {
+        CoapResponseAttributes attributes= (CoapResponseAttributes) message.getAttributes().getValue();
+        assertEquals( "wrong result", expectedResult, attributes.getResult() );
+        if ( expectedPayload != null )
+        {
+            assertArrayEquals(
+                "wrong response payload",
+                expectedPayload.getBytes(),
+                (byte[]) message.getPayload().getValue()
+            );
+        }
+    }
+
+    /**
+     * Test request on an empty list of targets.
+     * @throws Exception should not happen in this test
+     */
+    @Test( timeout= 2000L )
+    public void testNoTargets() throws Exception
+    {
+        List< Message > messages= requestAll( new ArrayList<>(), 8, null );
+        assertTrue( "unexpected results", messages.isEmpty() );
+    }
+
+    /**
+     * Test the results are in the order of the targets, not in the order of response.
+     * @throws Exception should not happen in this test
+     */
+    @Test( timeout= 5000L )
+    public void testResultOrder() throws Exception
+    {
+        List< Message > messages= requestAll(
+            Arrays.asList( target( "/medium" ), target( "/fast" ), target( "/medium" ), target( "/fast" ) ),
+            8,
+            null
+        );
+        assertTarget( messages.get( 0 ), Result.CONTENT, "Response is: medium" );
+        assertTarget( messages.get( 1 ), Result.CONTENT, "Response is: fast" );
+        assertTarget( messages.get( 2 ), Result.CONTENT, "Response is: medium" );
+        assertTarget( messages.get( 3 ), Result.CONTENT, "Response is: fast" );
+    }
+
+    /**
+     * Test a mix of targets that respond and targets that do not.
+     * @throws Exception should not happen in this test
+     */
+    @Test( timeout= 5000L )
+    public void testRespondingAndSilentTargets() throws Exception
+    {
+        List< Message > messages= requestAll(
+            Arrays
+                .asList(
+                    target( "/fast" ),
+                    new RequestTarget( "127.0.0.1", SILENT_PORT, "/fast" ),
+                    target( "/medium" ),
+                    new RequestTarget( "127.0.0.1", SILENT_PORT, "/medium" )
+                ),
+            8,
+            "1s"
+        );
+        assertTarget( messages.get( 0 ), Result.CONTENT, "Response is: fast" );
+        assertTarget( messages.get( 1 ), Result.NO_RESPONSE, null );
+        assertTarget( messages.get( 2 ), Result.CONTENT, "Response is: medium" );
+        assertTarget( messages.get( 3 ), Result.NO_RESPONSE, null );
+    }
+
+    /**
+     * Test targets that time out complete the request without waiting for their response.
+     * @throws Exception should not happen in this test
+     */
+    @Test( timeout= 2500L )
+    public void testTimeout() throws Exception
+    {
+        List< Message > messages= requestAll(
+            Arrays.asList( target( "/slow" ), target( "/fast" ), target( "/slow" ) ),
+            8,
+            "200ms"
+        );
+        assertTarget( messages.get( 0 ), Result.NO_RESPONSE, null );
+        assertTarget( messages.get( 1 ), Result.CONTENT, "Response is: fast" );
+        assertTarget( messages.get( 2 ), Result.NO_RESPONSE, null );
+    }
+
+    /**
+     * Test the number of requests in progress is limited.
+     * @throws Exception should not happen in this test
+     */
+    @Test( timeout= 5000L )
+    public void testParallelism() throws Exception
+    {
+        long start= System.nanoTime();
+        List< Message > messages= requestAll(
+            Arrays.asList( target( "/medium" ), target( "/medium" ), target( "/medium" ) ),
+            1,
+            null
+        );
+        long duration= ( System.nanoTime() - start ) / 1000000L;
+        assertTrue(
+            "requests were not sent one at a time",
+            duration >= 3 * TimeoutTestServer.MEDIUM_DELAY
+        );
+        for ( Message message : messages )
+        {
+            assertTarget( message, Result.CONTENT, "Response is: medium" );
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.client.basic;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.net.SocketException;
+
+import org.eclipse.californium.core.CoapServer;
+import org.junit.Test;
+import org.mule.runtime.api.message.Message;
+
+import nl.teslanet.mule.connectors.coap.api.attributes.CoapResponseAttributes;
+import nl.teslanet.mule.connectors.coap.api.attributes.Result;
+import nl.teslanet.mule.connectors.coap.api.error.NoResponseException;
+import nl.teslanet.mule.connectors.coap.test.utils.AbstractClientTestCase;
+import nl.teslanet.mule.connectors.coap.test.utils.MuleEventSpy;
+
+
+/**
+ * Test the timeout and deadline of requests.
+ */
+public class TimeoutTest extends AbstractClientTestCase
+{
+    /* (non-Javadoc)
+     * @see org.mule.munit.runner.functional.FunctionalMunitSuite#getConfigResources()
+     */
+    @Override
+    protected String getConfigResources()
+    {
+        return "mule-client-config/basic/testclient-timeout.xml";
+    };
+
+    /* (non-Javadoc)
+     * @see nl.teslanet.mule.connectors.coap.test.utils.AbstractClientTestCase#getTestServer()
+     */
+    @Override
+    protected CoapServer getTestServer() throws SocketException
+    {
+        return new TimeoutTestServer();
+    }
+
+    /**
+     * Run the request flow and return the attributes of the result.
+     * @param flowName The flow to run.
+     * @param path The path of the resource.
+     * @param timeout The timeout of the request, or null.
+     * @param deadline The deadline of the request, or null.
+     * @return The response attributes.
+     * @throws Exception When the flow failed.
+     */
+    private CoapResponseAttributes request( String flowName, String path, String timeout, Long deadline )
+        throws Exception
+    {
+        MuleEventSpy spy= new MuleEventSpy( "do_request" );
+        spy.clear();
+
+        flowRunner( flowName )
+            .withPayload( "nothing_important" )
+            .withVariable( "path", path )
+            .withVariable( "timeout", timeout )
+            .withVariable( "deadline", deadline )
+            .run();
+
+        assertEquals( "spy has not been called once", 1, spy.getEvents().size() );
+        Message response= (Message) spy.getEvents().get( 0 ).getContent();
+        assertTrue( "wrong attributes class", response.getAttributes().getValue() instanceof CoapResponseAttributes );
+        return (CoapResponseAttributes) response.getAttributes().getValue();
+    }
+
+    /**
+     * Test request that responds in time.
+     * @throws Exception should not happen in this test
+     */
+    @Test
+    public void testResponseInTime() throws Exception
+    {
+        CoapResponseAttributes attributes= request( "do_request", "/fast", "2s", null );
+        assertEquals( "wrong result", Result.CONTENT, attributes.getResult() );
+    }
+
+    /**
+     * Test request that times out, without exception on no response.
+     * @throws Exception should not happen in this test
+     */
+    @Test( timeout= 2000L )
+    public void testTimeout() throws Exception
+    {
+        CoapResponseAttributes attributes= request( "do_request", "/slow", "200ms", null );
+        assertEquals( "wrong result", Result.NO_RESPONSE, attributes.getResult() );
+    }
+
+    /**
+     * Test request that passes its deadline, without exception on no response.
+     * @throws Exception should not happen in this test
+     */
+    @Test( timeout= 2000L )
+    public void testDeadline() throws Exception
+    {
+        CoapResponseAttributes attributes= request(
+            "do_request",
+            "/slow",
+            null,
+            System.currentTimeMillis() + 200L
+        );
+        assertEquals( "wrong result", Result.NO_RESPONSE, attributes.getResult() );
+    }
+
+    /**
+     * Test request with a deadline that has passed already, without exception on no response.
+     * @throws Exception should not happen in this test
+     */
+    @Test( timeout= 2000L )
+    public void testDeadlinePassed() throws Exception
+    {
+        CoapResponseAttributes attributes= request(
+            "do_request",
+            "/fast",
+            null,
+            System.currentTimeMillis() - 1000L
+        );
+        assertEquals( "wrong result", Result.NO_RESPONSE, attributes.getResult() );
+    }
+
+    /**
+     * Test request that times out, with exception on no response.
+     * @throws Exception should not happen in this test
+     */
+    @Test( timeout= 2000L )
+    public void testTimeoutWithException() throws Exception
+    {
+        MuleEventSpy spy= new MuleEventSpy( "do_request" );
+        spy.clear();
+
+        Exception e= assertThrows(
+            Exception.class,
+            () -> flowRunner( "do_request_exception" )
+                .withPayload( "nothing_important" )
+                .withVariable( "path", "/slow" )
+                .withVariable( "timeout", "200ms" )
+                .withVariable( "deadline", null )
+                .run()
+        );
+        assertEquals( "spy has been called", 0, spy.getEvents().size() );
+        assertEquals(
+            "wrong exception message",
+            "CoAP Client { config_exception } failed to execute request.",
+            e.getMessage()
+        );
+        assertEquals( "wrong exception cause", NoResponseException.class, e.getCause().getClass() );
+    }
+}
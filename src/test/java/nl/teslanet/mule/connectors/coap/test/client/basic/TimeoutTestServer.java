@@ -0,0 +1,121 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.client.basic;
+
+
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+
+import org.eclipse.californium.core.CoapResource;
+import org.eclipse.californium.core.CoapServer;
+import org.eclipse.californium.core.coap.CoAP;
+import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.network.CoapEndpoint;
+import org.eclipse.californium.core.server.resources.CoapExchange;
+import org.eclipse.californium.elements.config.Configuration;
+
+
+/**
+ * Server used to test request timeouts.
+ *
+ */
+public class TimeoutTestServer extends CoapServer
+{
+    /**
+     * The delay of the slow resource [ms].
+     */
+    public static final long SLOW_DELAY= 3000L;
+
+    /**
+     * The delay of the medium resource [ms].
+     */
+    public static final long MEDIUM_DELAY= 500L;
+
+    /**
+     * Network configuration is set to standards 
+     */
+    private static Configuration networkConfig= Configuration.createStandardWithoutFile();
+
+    /**
+     * Default Constructor for test server.
+     */
+    public TimeoutTestServer() throws SocketException
+    {
+        super( networkConfig );
+        addEndpoints( CoAP.DEFAULT_COAP_PORT );
+        add( new DelayResource( "fast", 0L ) );
+        add( new DelayResource( "medium", MEDIUM_DELAY ) );
+        add( new DelayResource( "slow", SLOW_DELAY ) );
+    }
+
+    /**
+     * Add test endpoints listening on given port.
+     */
+    private void addEndpoints( int port )
+    {
+        CoapEndpoint.Builder builder= new CoapEndpoint.Builder();
+        builder.setInetSocketAddress( new InetSocketAddress( port ) );
+        builder.setConfiguration( networkConfig );
+        addEndpoint( builder.build() );
+    }
+
+    /**
+     * Resource that responds after a delay.
+     */
+    class DelayResource extends CoapResource
+    {
+        /**
+         * The delay of the response [ms].
+         */
+        private long delay;
+
+        /**
+         * @param name The name of the resource.
+         * @param delay The delay of the response [ms].
+         */
+        public DelayResource( String name, long delay )
+        {
+            super( name );
+            getAttributes().setTitle( name );
+            this.delay= delay;
+        }
+
+        @Override
+        public void handleGET( CoapExchange exchange )
+        {
+            if ( delay > 0L )
+            {
+                try
+                {
+                    Thread.sleep( delay );
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            exchange.respond( ResponseCode.CONTENT, "Response is: " + getName() );
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.client.observe;
+
+
+import static nl.teslanet.mule.connectors.coap.test.utils.Timing.pauze;
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.californium.core.CoapServer;
+import org.junit.Test;
+import org.mule.runtime.api.message.Message;
+
+import nl.teslanet.mule.connectors.coap.api.ObserverState;
+import nl.teslanet.mule.connectors.coap.api.attributes.ObserverListAttributes;
+import nl.teslanet.mule.connectors.coap.test.utils.AbstractClientTestCase;
+import nl.teslanet.mule.connectors.coap.test.utils.MuleEventSpy;
+
+
+/**
+ * Test bulk observer operations.
+ *
+ */
+public class ObserveAllTest extends AbstractClientTestCase
+{
+    /* (non-Javadoc)
+     * @see org.mule.munit.runner.functional.FunctionalMunitSuite#getConfigResources()
+     */
+    @Override
+    protected String getConfigResources()
+    {
+        return "mule-client-config/observe/testclient2.xml";
+    };
+
+    /* (non-Javadoc)
+     * @see nl.teslanet.mule.connectors.coap.test.utils.AbstractClientTestCase#getTestServer()
+     */
+    @Override
+    protected CoapServer getTestServer() throws Exception
+    {
+        return new ObserveTestServer();
+    }
+
+    /**
+     * Get the uri's of the active observers.
+     * @return The set of observed uri's.
+     * @throws Exception should not happen in this test
+     */
+    @SuppressWarnings( "unchecked" )
+    private Set< String > observerList() throws Exception
+    {
+        Message response= flowRunner( "observer_list" ).withPayload( "nothing_important" ).run().getMessage();
+        return (Set< String >) response.getPayload().getValue();
+    }
+
+    /**
+     * Test adding, reregistering and removing observers in bulk.
+     * @throws Exception should not happen in this test
+     */
+    @Test( timeout= 100000L )
+    public void testObserveAll() throws Exception
+    {
+        MuleEventSpy spy= new MuleEventSpy( "all" );
+        spy.clear();
+
+        flowRunner( "start_all" ).withPayload( "nothing_important" ).run();
+        // one response on each observe request
+        await( "initial responses" ).atMost( 10, TimeUnit.SECONDS ).until( () -> {
+            return spy.getEvents().size() == 3;
+        } );
+        Set< String > uris= observerList();
+        assertEquals( "wrong number of observers", 3, uris.size() );
+        assertTrue( "wrong observer uri", uris.contains( "coap://127.0.0.1/observe/temporary" ) );
+        assertTrue( "wrong observer uri", uris.contains( "coap://127.0.0.1/observe/temporary2" ) );
+        assertTrue( "wrong observer uri", uris.contains( "coap://127.0.0.1/observe/permanent" ) );
+        Message response= flowRunner( "observer_list" ).withPayload( "nothing_important" ).run().getMessage();
+        ObserverListAttributes attributes= (ObserverListAttributes) response.getAttributes().getValue();
+        assertEquals( "wrong number of observer states", 3, attributes.getObservers().size() );
+        for ( ObserverState state : attributes.getObservers() )
+        {
+            assertFalse( "observer is recovering", state.isRecovering() );
+            assertEquals( "observer has recovery attempts", 0, state.getRecoveryAttempts() );
+        }
+
+        flowRunner( "reregister_all" ).withPayload( "nothing_important" ).run();
+        pauze();
+        assertEquals( "wrong number of observers", 3, observerList().size() );
+
+        flowRunner( "stop_temporary_all" ).withPayload( "nothing_important" ).run();
+        uris= observerList();
+        assertEquals( "wrong number of observers", 1, uris.size() );
+        assertTrue( "wrong observer uri", uris.contains( "coap://127.0.0.1/observe/permanent" ) );
+
+        pauze();
+        int received= spy.getEvents().size();
+        flowRunner( "do_put_permanent" ).withPayload( "changed" ).run();
+        await( "notification" ).atMost( 10, TimeUnit.SECONDS ).until( () -> {
+            return spy.getEvents().size() == received + 1;
+        } );
+
+        flowRunner( "stop_all" ).withPayload( "nothing_important" ).run();
+        assertEquals( "wrong number of observers", 0, observerList().size() );
+    }
+}
@@ -0,0 +1,94 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.client.observe;
+
+
+import static nl.teslanet.mule.connectors.coap.test.utils.Timing.pauze;
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.californium.core.CoapServer;
+import org.junit.Test;
+import org.mule.runtime.api.message.Message;
+
+import nl.teslanet.mule.connectors.coap.test.utils.AbstractClientTestCase;
+import nl.teslanet.mule.connectors.coap.test.utils.MuleEventSpy;
+
+
+/**
+ * Test an observer source queueing notifications for a slow flow.
+ *
+ */
+public class QueuedObserveTest extends AbstractClientTestCase
+{
+    /* (non-Javadoc)
+     * @see org.mule.munit.runner.functional.FunctionalMunitSuite#getConfigResources()
+     */
+    @Override
+    protected String getConfigResources()
+    {
+        return "mule-client-config/observe/testclient4.xml";
+    };
+
+    /* (non-Javadoc)
+     * @see nl.teslanet.mule.connectors.coap.test.utils.AbstractClientTestCase#getTestServer()
+     */
+    @Override
+    protected CoapServer getTestServer() throws Exception
+    {
+        return new ObserveTestServer();
+    }
+
+    /**
+     * Test notifications arriving while the flow processes a notification are conflated.
+     * @throws Exception should not happen in this test
+     */
+    @Test( timeout= 100000L )
+    public void testConflateWhileProcessing() throws Exception
+    {
+        MuleEventSpy spy= new MuleEventSpy( "slow_source" );
+
+        await( "initial notification" ).atMost( 10, TimeUnit.SECONDS ).until( () -> {
+            return spy.getEvents().size() == 1;
+        } );
+        //the flow is still processing the initial notification
+        for ( int i= 1; i <= 5; i++ )
+        {
+            flowRunner( "do_put_permanent" ).withPayload( "change" + i ).run();
+        }
+        await( "conflated notification" ).atMost( 10, TimeUnit.SECONDS ).until( () -> {
+            return spy.getEvents().size() == 2;
+        } );
+        pauze();
+        assertEquals( "notifications not conflated", 2, spy.getEvents().size() );
+        Message notification= (Message) spy.getEvents().get( 1 ).getContent();
+        assertArrayEquals(
+            "latest notification not processed",
+            "change5".getBytes(),
+            (byte[]) notification.getPayload().getValue()
+        );
+    }
+}
@@ -0,0 +1,178 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.client.observe;
+
+
+import static nl.teslanet.mule.connectors.coap.test.utils.Timing.pauze;
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.californium.core.CoapServer;
+import org.junit.Test;
+import org.mule.runtime.api.message.Message;
+
+import nl.teslanet.mule.connectors.coap.api.attributes.ObserverListAttributes;
+import nl.teslanet.mule.connectors.coap.api.error.InvalidObserverException;
+import nl.teslanet.mule.connectors.coap.test.utils.AbstractClientTestCase;
+import nl.teslanet.mule.connectors.coap.test.utils.MuleEventSpy;
+
+
+/**
+ * Test observers sharing one relation with the server.
+ *
+ */
+public class SharedObserveTest extends AbstractClientTestCase
+{
+    /* (non-Javadoc)
+     * @see org.mule.munit.runner.functional.FunctionalMunitSuite#getConfigResources()
+     */
+    @Override
+    protected String getConfigResources()
+    {
+        return "mule-client-config/observe/testclient3.xml";
+    };
+
+    /* (non-Javadoc)
+     * @see nl.teslanet.mule.connectors.coap.test.utils.AbstractClientTestCase#getTestServer()
+     */
+    @Override
+    protected CoapServer getTestServer() throws Exception
+    {
+        return new ObserveTestServer();
+    }
+
+    /**
+     * Get the number of subscribers of the only observer listed.
+     * @return The number of subscribers.
+     * @throws Exception should not happen in this test
+     */
+    @SuppressWarnings( "unchecked" )
+    private int subscribers() throws Exception
+    {
+        Message response= flowRunner( "observer_list" ).withPayload( "nothing_important" ).run().getMessage();
+        Set< String > uris= (Set< String >) response.getPayload().getValue();
+        assertEquals( "wrong number of observers", 1, uris.size() );
+        assertTrue( "wrong observer uri", uris.contains( "coap://127.0.0.1/observe/permanent" ) );
+        ObserverListAttributes attributes= (ObserverListAttributes) response.getAttributes().getValue();
+        return attributes.getObservers().get( 0 ).getSubscribers();
+    }
+
+    /**
+     * Test response handlers and an observer source sharing the relation.
+     * @throws Exception should not happen in this test
+     */
+    @Test( timeout= 100000L )
+    public void testSharedObserver() throws Exception
+    {
+        MuleEventSpy spy1= new MuleEventSpy( "shared1" );
+        MuleEventSpy spy2= new MuleEventSpy( "shared2" );
+        MuleEventSpy sourceSpy= new MuleEventSpy( "source" );
+
+        await( "source response" ).atMost( 10, TimeUnit.SECONDS ).until( () -> {
+            return sourceSpy.getEvents().size() == 1;
+        } );
+        //the last notification is passed to joining handlers
+        flowRunner( "start_shared1" ).withPayload( "nothing_important" ).run();
+        await( "shared1 response" ).atMost( 10, TimeUnit.SECONDS ).until( () -> {
+            return spy1.getEvents().size() == 1;
+        } );
+        flowRunner( "start_shared2" ).withPayload( "nothing_important" ).run();
+        await( "shared2 response" ).atMost( 10, TimeUnit.SECONDS ).until( () -> {
+            return spy2.getEvents().size() == 1;
+        } );
+        assertEquals( "wrong number of subscribers", 3, subscribers() );
+        assertEquals( "unexpected source notification", 1, sourceSpy.getEvents().size() );
+
+        flowRunner( "do_put_permanent" ).withPayload( "changed" ).run();
+        await( "notifications" ).atMost( 10, TimeUnit.SECONDS ).until( () -> {
+            return spy1.getEvents().size() == 2 && spy2.getEvents().size() == 2 && sourceSpy.getEvents().size() == 2;
+        } );
+        assertSame(
+            "notification attributes not shared",
+            ( (Message) spy1.getEvents().get( 1 ).getContent() ).getAttributes().getValue(),
+            ( (Message) spy2.getEvents().get( 1 ).getContent() ).getAttributes().getValue()
+        );
+
+        flowRunner( "stop_shared1" ).withPayload( "nothing_important" ).run();
+        assertEquals( "wrong number of subscribers", 2, subscribers() );
+        Exception exception= assertThrows(
+            "removing handler twice does not throw exception",
+            Exception.class,
+            () -> flowRunner( "stop_shared1" ).withPayload( "nothing_important" ).run()
+        );
+        assertEquals( "wrong exception", "CoAP Client { config } failed to remove observer.", exception.getMessage() );
+
+        flowRunner( "do_put_permanent" ).withPayload( "changed again" ).run();
+        await( "notifications" ).atMost( 10, TimeUnit.SECONDS ).until( () -> {
+            return spy2.getEvents().size() == 3 && sourceSpy.getEvents().size() == 3;
+        } );
+        pauze();
+        assertEquals( "unexpected notification on removed handler", 2, spy1.getEvents().size() );
+
+        //the relation is kept for the source
+        flowRunner( "stop_shared2" ).withPayload( "nothing_important" ).run();
+        Message response= flowRunner( "observer_list" ).withPayload( "nothing_important" ).run().getMessage();
+        assertEquals( "wrong number of observers", 0, ( (Set< ? >) response.getPayload().getValue() ).size() );
+        flowRunner( "do_put_permanent" ).withPayload( "changed once more" ).run();
+        await( "source notification" ).atMost( 10, TimeUnit.SECONDS ).until( () -> {
+            return sourceSpy.getEvents().size() == 4;
+        } );
+    }
+
+    /**
+     * Test a handler with settings differing from the relation cannot join it.
+     * @throws Exception should not happen in this test
+     */
+    @Test( timeout= 100000L )
+    public void testConflictingObserver() throws Exception
+    {
+        MuleEventSpy sourceSpy= new MuleEventSpy( "source" );
+
+        await( "source response" ).atMost( 10, TimeUnit.SECONDS ).until( () -> {
+            return sourceSpy.getEvents().size() == 1;
+        } );
+        Exception exception= assertThrows(
+            "joining with different settings does not throw exception",
+            Exception.class,
+            () -> flowRunner( "start_conflicting" ).withPayload( "nothing_important" ).run()
+        );
+        assertEquals( "wrong exception", "CoAP Client { config } failed to add observer.", exception.getMessage() );
+        assertEquals( "wrong exception cause", InvalidObserverException.class, exception.getCause().getClass() );
+        assertTrue(
+            "wrong conflicting settings",
+            exception
+                .getCause()
+                .getCause()
+                .getMessage()
+                .endsWith( "confirmable, notificationQueuePolicy/notificationQueueCapacity" )
+        );
+        Message response= flowRunner( "observer_list" ).withPayload( "nothing_important" ).run().getMessage();
+        assertEquals( "conflicting handler subscribed", 0, ( (Set< ? >) response.getPayload().getValue() ).size() );
+    }
+}
@@ -0,0 +1,202 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.modules;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.californium.core.CoapHandler;
+import org.eclipse.californium.core.CoapResponse;
+import org.eclipse.californium.core.coap.CoAP.Code;
+import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.Request;
+import org.eclipse.californium.core.coap.Response;
+import org.junit.Test;
+
+import nl.teslanet.mule.connectors.coap.internal.client.DeadlineHandler;
+
+
+/**
+ * Test the DeadlineHandler class.
+ */
+public class DeadlineHandlerTest
+{
+    /**
+     * Handler that counts notifications.
+     */
+    private static class CountingHandler implements CoapHandler
+    {
+        final AtomicInteger loaded= new AtomicInteger( 0 );
+
+        final AtomicInteger errors= new AtomicInteger( 0 );
+
+        final AtomicReference< CoapResponse > response= new AtomicReference<>();
+
+        final CountDownLatch done= new CountDownLatch( 1 );
+
+        @Override
+        public void onLoad( CoapResponse response )
+        {
+            this.response.set( response );
+            loaded.incrementAndGet();
+            done.countDown();
+        }
+
+        @Override
+        public void onError()
+        {
+            errors.incrementAndGet();
+            done.countDown();
+        }
+    }
+
+    /**
+     * @return A response to deliver to the handler.
+     */
+    private static CoapResponse response()
+    {
+        return new CoapResponse( new Response( ResponseCode.CONTENT ) )
+            {
+            };
+    }
+
+    @Test
+    public void testTimeLeft()
+    {
+        long now= 1000000L;
+        assertNull( "wrong time left", DeadlineHandler.timeLeft( null, null, now ) );
+        assertEquals( "wrong time left", Long.valueOf( 2000L ), DeadlineHandler.timeLeft( 2000L, null, now ) );
+        assertEquals(
+            "wrong time left",
+            Long.valueOf( TimeUnit.MILLISECONDS.toNanos( 500L ) ),
+            DeadlineHandler.timeLeft( null, now + 500L, now )
+        );
+        assertEquals( "wrong time left", Long.valueOf( 2000L ), DeadlineHandler.timeLeft( 2000L, now + 500L, now ) );
+        assertEquals(
+            "wrong time left",
+            Long.valueOf( TimeUnit.MILLISECONDS.toNanos( 500L ) ),
+            DeadlineHandler.timeLeft( TimeUnit.SECONDS.toNanos( 2L ), now + 500L, now )
+        );
+    }
+
+    @Test
+    public void testTimeLeftPassed()
+    {
+        long now= 1000000L;
+        assertEquals( "wrong time left", Long.valueOf( 0L ), DeadlineHandler.timeLeft( null, now - 500L, now ) );
+        assertEquals( "wrong time left", Long.valueOf( 0L ), DeadlineHandler.timeLeft( 2000L, now - 500L, now ) );
+        assertEquals( "wrong time left", Long.valueOf( 0L ), DeadlineHandler.timeLeft( -1L, null, now ) );
+    }
+
+    @Test
+    public void testExpire()
+    {
+        CountingHandler handler= new CountingHandler();
+        Request request= new Request( Code.GET );
+        DeadlineHandler deadlineHandler= DeadlineHandler.create( handler, request );
+
+        deadlineHandler.expire();
+        deadlineHandler.expire();
+        deadlineHandler.onError();
+        deadlineHandler.onLoad( response() );
+
+        assertTrue( "request not canceled", request.isCanceled() );
+        assertTrue( "handler not completed", deadlineHandler.isCompleted() );
+        assertEquals( "wrong number of errors", 1, handler.errors.get() );
+        assertEquals( "wrong number of responses", 0, handler.loaded.get() );
+    }
+
+    @Test
+    public void testLoadBeforeExpire()
+    {
+        CountingHandler handler= new CountingHandler();
+        Request request= new Request( Code.GET );
+        DeadlineHandler deadlineHandler= DeadlineHandler.create( handler, request );
+        CoapResponse response= response();
+
+        deadlineHandler.onLoad( response );
+        deadlineHandler.expire();
+
+        assertFalse( "request canceled", request.isCanceled() );
+        assertEquals( "wrong number of errors", 0, handler.errors.get() );
+        assertEquals( "wrong number of responses", 1, handler.loaded.get() );
+        assertSame( "wrong response", response, handler.response.get() );
+    }
+
+    @Test
+    public void testScheduledExpiry() throws InterruptedException
+    {
+        ScheduledExecutorService scheduler= Executors.newSingleThreadScheduledExecutor();
+        try
+        {
+            CountingHandler handler= new CountingHandler();
+            Request request= new Request( Code.GET );
+            DeadlineHandler deadlineHandler= DeadlineHandler.create( handler, request );
+
+            deadlineHandler.schedule( scheduler, TimeUnit.MILLISECONDS.toNanos( 50L ) );
+
+            assertTrue( "deadline did not expire", handler.done.await( 5L, TimeUnit.SECONDS ) );
+            assertTrue( "request not canceled", request.isCanceled() );
+            assertEquals( "wrong number of errors", 1, handler.errors.get() );
+        }
+        finally
+        {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testScheduledResponse() throws InterruptedException
+    {
+        ScheduledExecutorService scheduler= Executors.newSingleThreadScheduledExecutor();
+        try
+        {
+            CountingHandler handler= new CountingHandler();
+            Request request= new Request( Code.GET );
+            DeadlineHandler deadlineHandler= DeadlineHandler.create( handler, request );
+
+            deadlineHandler.schedule( scheduler, TimeUnit.MILLISECONDS.toNanos( 100L ) );
+            deadlineHandler.onLoad( response() );
+            Thread.sleep( 300L );
+
+            assertFalse( "request canceled", request.isCanceled() );
+            assertEquals( "wrong number of errors", 0, handler.errors.get() );
+            assertEquals( "wrong number of responses", 1, handler.loaded.get() );
+        }
+        finally
+        {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.modules;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import nl.teslanet.mule.connectors.coap.api.LatencyStats;
+import nl.teslanet.mule.connectors.coap.internal.utils.LatencyHistogram;
+
+
+/**
+ * Test the LatencyHistogram class.
+ */
+public class LatencyHistogramTest
+{
+    @Test
+    public void emptyTest()
+    {
+        LatencyStats stats= new LatencyHistogram().getStats();
+
+        assertEquals( "wrong count", 0L, stats.getCount() );
+        assertEquals( "wrong mean", 0L, stats.getMean() );
+        assertEquals( "wrong p50", 0L, stats.getP50() );
+        assertEquals( "wrong p999", 0L, stats.getP999() );
+        assertEquals( "wrong max", 0L, stats.getMax() );
+    }
+
+    @Test
+    public void smallValuesAreExactTest()
+    {
+        LatencyHistogram histogram= new LatencyHistogram();
+        for ( long micros= 1L; micros <= 10L; micros++ )
+        {
+            histogram.record( micros * 1000L );
+        }
+        LatencyStats stats= histogram.getStats();
+
+        assertEquals( "wrong count", 10L, stats.getCount() );
+        assertEquals( "wrong mean", 5L, stats.getMean() );
+        assertEquals( "wrong p50", 5L, stats.getP50() );
+        assertEquals( "wrong p90", 9L, stats.getP90() );
+        assertEquals( "wrong p99", 10L, stats.getP99() );
+        assertEquals( "wrong max", 10L, stats.getMax() );
+    }
+
+    @Test
+    public void percentilePrecisionTest()
+    {
+        LatencyHistogram histogram= new LatencyHistogram();
+        for ( long micros= 1L; micros <= 100000L; micros++ )
+        {
+            histogram.record( micros * 1000L );
+        }
+        LatencyStats stats= histogram.getStats();
+
+        assertEquals( "wrong count", 100000L, stats.getCount() );
+        assertEquals( "wrong max", 100000L, stats.getMax() );
+        assertWithin( "wrong p50", 50000L, stats.getP50() );
+        assertWithin( "wrong p90", 90000L, stats.getP90() );
+        assertWithin( "wrong p99", 99000L, stats.getP99() );
+        assertWithin( "wrong p999", 99900L, stats.getP999() );
+    }
+
+    @Test
+    public void outOfRangeTest()
+    {
+        LatencyHistogram histogram= new LatencyHistogram();
+        histogram.record( -1000L );
+        histogram.record( Long.MAX_VALUE );
+        LatencyStats stats= histogram.getStats();
+
+        assertEquals( "wrong count", 2L, stats.getCount() );
+        assertEquals( "wrong p50", 0L, stats.getP50() );
+        assertEquals( "wrong max", ( 1L << 32 ) - 1, stats.getMax() );
+    }
+
+    /**
+     * Assert a value is at least the expected value and at most seven percent more.
+     * @param message The assertion message.
+     * @param expected The expected value.
+     * @param actual The actual value.
+     */
+    private static void assertWithin( String message, long expected, long actual )
+    {
+        assertTrue( message + ": " + actual, actual >= expected && actual <= expected * 107 / 100 );
+    }
+}
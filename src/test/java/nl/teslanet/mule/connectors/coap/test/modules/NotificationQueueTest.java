@@ -0,0 +1,377 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.modules;
+
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.californium.core.CoapResponse;
+import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.Response;
+import org.junit.Before;
+import org.junit.Test;
+
+import nl.teslanet.mule.connectors.coap.api.NotificationQueuePolicy;
+import nl.teslanet.mule.connectors.coap.internal.client.NotificationQueue;
+
+
+/**
+ * Test the NotificationQueue class.
+ */
+public class NotificationQueueTest
+{
+    /**
+     * Executor that runs tasks when asked.
+     */
+    private static class ManualExecutor implements Executor
+    {
+        private final ConcurrentLinkedQueue< Runnable > tasks= new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void execute( Runnable command )
+        {
+            tasks.add( command );
+        }
+
+        void runAll()
+        {
+            Runnable task;
+            while ( ( task= tasks.poll() ) != null )
+            {
+                task.run();
+            }
+        }
+    }
+
+    private ManualExecutor executor;
+
+    private CopyOnWriteArrayList< String > processed;
+
+    @Before
+    public void setUp()
+    {
+        executor= new ManualExecutor();
+        processed= new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Create a notification.
+     * @param payload The payload of the notification.
+     * @return The notification.
+     */
+    private static CoapResponse notification( String payload )
+    {
+        Response response= new Response( ResponseCode.CONTENT );
+        response.setPayload( payload );
+        return new CoapResponse( response )
+            {
+                // NOOP
+            };
+    }
+
+    /**
+     * Create a queue that records processed notifications.
+     * @param policy The queue policy.
+     * @param capacity The queue capacity.
+     * @param executor The executor of the queue.
+     * @return The queue.
+     */
+    private NotificationQueue queue( NotificationQueuePolicy policy, int capacity, Executor executor )
+    {
+        NotificationQueue queue= new NotificationQueue( policy, capacity, executor );
+        queue.setConsumer( ( response, slot ) -> processed.add( response.getResponseText() ) );
+        return queue;
+    }
+
+    @Test
+    public void directTest()
+    {
+        NotificationQueue queue= queue( NotificationQueuePolicy.DIRECT, 1, executor );
+        for ( int i= 0; i < 5; i++ )
+        {
+            queue.offer( notification( "n" + i ) );
+            assertEquals( "notification not processed directly", i + 1, processed.size() );
+        }
+        assertEquals( "wrong dropped count", 0L, queue.getDropped() );
+        assertEquals( "wrong conflated count", 0L, queue.getConflated() );
+    }
+
+    @Test
+    public void conflateTest()
+    {
+        NotificationQueue queue= queue( NotificationQueuePolicy.CONFLATE, 16, executor );
+        for ( int i= 0; i < 5; i++ )
+        {
+            queue.offer( notification( "n" + i ) );
+        }
+        executor.runAll();
+
+        assertEquals( "wrong number of processed notifications", 1, processed.size() );
+        assertEquals( "latest notification not processed", "n4", processed.get( 0 ) );
+        assertEquals( "wrong conflated count", 4L, queue.getConflated() );
+        assertEquals( "wrong dropped count", 0L, queue.getDropped() );
+    }
+
+    @Test
+    public void dropOldestTest()
+    {
+        NotificationQueue queue= queue( NotificationQueuePolicy.DROP_OLDEST, 3, executor );
+        for ( int i= 0; i < 5; i++ )
+        {
+            queue.offer( notification( "n" + i ) );
+        }
+        executor.runAll();
+
+        List< String > expected= new ArrayList<>();
+        expected.add( "n2" );
+        expected.add( "n3" );
+        expected.add( "n4" );
+        assertEquals( "wrong processed notifications", expected, processed );
+        assertEquals( "wrong dropped count", 2L, queue.getDropped() );
+        assertEquals( "wrong conflated count", 0L, queue.getConflated() );
+    }
+
+    @Test
+    public void processedInOrderTest()
+    {
+        NotificationQueue queue= queue( NotificationQueuePolicy.DROP_OLDEST, 100, executor );
+        for ( int i= 0; i < 50; i++ )
+        {
+            queue.offer( notification( "n" + i ) );
+            if ( i % 7 == 0 ) executor.runAll();
+        }
+        executor.runAll();
+
+        assertEquals( "wrong number of processed notifications", 50, processed.size() );
+        for ( int i= 0; i < 50; i++ )
+        {
+            assertEquals( "wrong order", "n" + i, processed.get( i ) );
+        }
+    }
+
+    @Test( timeout= 10000L )
+    public void blockTest() throws InterruptedException
+    {
+        ExecutorService service= Executors.newSingleThreadExecutor();
+        CountDownLatch release= new CountDownLatch( 1 );
+        NotificationQueue queue= new NotificationQueue( NotificationQueuePolicy.BLOCK, 2, service );
+        queue.setConsumer( ( response, slot ) -> {
+            try
+            {
+                release.await();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+            processed.add( response.getResponseText() );
+        } );
+        Thread producer= new Thread( () -> {
+            for ( int i= 0; i < 10; i++ )
+            {
+                queue.offer( notification( "n" + i ) );
+            }
+        } );
+        producer.start();
+        producer.join( 200 );
+        assertTrue( "producer not blocked", producer.isAlive() );
+
+        release.countDown();
+        producer.join();
+        // each notification is processed by a task of its own, so wait before shutting down
+        await().atMost( 5, TimeUnit.SECONDS ).until( () -> processed.size() == 10 );
+        service.shutdown();
+        assertTrue( "not terminated", service.awaitTermination( 5, TimeUnit.SECONDS ) );
+        assertEquals( "wrong number of processed notifications", 10, processed.size() );
+        assertEquals( "wrong dropped count", 0L, queue.getDropped() );
+    }
+
+    @Test
+    public void directSlotTest()
+    {
+        NotificationQueue queue= new NotificationQueue( NotificationQueuePolicy.DIRECT, 1, executor );
+        ArrayList< NotificationQueue.Slot > slots= new ArrayList<>();
+        queue.setConsumer( ( response, slot ) -> slots.add( slot ) );
+        queue.offer( notification( "n0" ) );
+
+        assertEquals( "notification not processed", 1, slots.size() );
+        assertNull( "direct notification occupies slot", slots.get( 0 ) );
+    }
+
+    @Test
+    public void conflateWhileProcessingTest()
+    {
+        NotificationQueue queue= new NotificationQueue( NotificationQueuePolicy.CONFLATE, 16, executor );
+        ArrayList< NotificationQueue.Slot > slots= new ArrayList<>();
+        queue.setConsumer( ( response, slot ) -> {
+            // a flow holding the slot until it terminates
+            slot.acquire();
+            slots.add( slot );
+            processed.add( response.getResponseText() );
+        } );
+        queue.offer( notification( "n0" ) );
+        executor.runAll();
+        assertEquals( "first notification not processed", 1, processed.size() );
+
+        for ( int i= 1; i < 5; i++ )
+        {
+            queue.offer( notification( "n" + i ) );
+            executor.runAll();
+        }
+        assertEquals( "notification processed while slot occupied", 1, processed.size() );
+        assertEquals( "wrong conflated count", 3L, queue.getConflated() );
+
+        slots.get( 0 ).release();
+        executor.runAll();
+        assertEquals( "wrong number of processed notifications", 2, processed.size() );
+        assertEquals( "latest notification not processed", "n4", processed.get( 1 ) );
+
+        slots.get( 1 ).release();
+        executor.runAll();
+        assertEquals( "wrong number of processed notifications", 2, processed.size() );
+        queue.offer( notification( "n5" ) );
+        executor.runAll();
+        assertEquals( "notification not processed after slot released", "n5", processed.get( 2 ) );
+    }
+
+    @Test
+    public void dropOldestWhileProcessingTest()
+    {
+        NotificationQueue queue= new NotificationQueue( NotificationQueuePolicy.DROP_OLDEST, 2, executor );
+        ArrayList< NotificationQueue.Slot > slots= new ArrayList<>();
+        queue.setConsumer( ( response, slot ) -> {
+            // two flows holding the slot until they terminate
+            slot.acquire();
+            slot.acquire();
+            slots.add( slot );
+            processed.add( response.getResponseText() );
+        } );
+        for ( int i= 0; i < 5; i++ )
+        {
+            queue.offer( notification( "n" + i ) );
+            executor.runAll();
+        }
+        assertEquals( "notification processed while slot occupied", 1, processed.size() );
+        assertEquals( "wrong dropped count", 2L, queue.getDropped() );
+
+        slots.get( 0 ).release();
+        executor.runAll();
+        assertEquals( "notification processed while slot occupied", 1, processed.size() );
+        slots.get( 0 ).release();
+        executor.runAll();
+        assertEquals( "wrong number of processed notifications", 2, processed.size() );
+        slots.get( 1 ).release();
+        slots.get( 1 ).release();
+        executor.runAll();
+
+        List< String > expected= new ArrayList<>();
+        expected.add( "n0" );
+        expected.add( "n3" );
+        expected.add( "n4" );
+        assertEquals( "wrong processed notifications", expected, processed );
+    }
+
+    @Test( timeout= 10000L )
+    public void blockTimeoutTest()
+    {
+        NotificationQueue queue= new NotificationQueue( NotificationQueuePolicy.BLOCK, 1, executor );
+        queue.setConsumer( ( response, slot ) -> {
+            // a flow that does not terminate
+            slot.acquire();
+            processed.add( response.getResponseText() );
+        } );
+        queue.offer( notification( "n0" ) );
+        executor.runAll();
+        queue.offer( notification( "n1" ) );
+
+        long start= System.nanoTime();
+        queue.offer( notification( "n2" ) );
+        long waited= TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start );
+        assertTrue( "offer did not wait for room", waited >= NotificationQueue.BLOCK_TIMEOUT - 50L );
+        assertEquals( "wrong dropped count", 1L, queue.getDropped() );
+        assertEquals( "wrong number of processed notifications", 1, processed.size() );
+    }
+
+    @Test
+    public void rejectedTest()
+    {
+        ExecutorService service= Executors.newSingleThreadExecutor();
+        service.shutdown();
+        NotificationQueue queue= queue( NotificationQueuePolicy.DROP_OLDEST, 10, service );
+        for ( int i= 0; i < 3; i++ )
+        {
+            queue.offer( notification( "n" + i ) );
+        }
+        assertEquals( "rejected notifications processed", 0, processed.size() );
+        assertEquals( "wrong dropped count", 3L, queue.getDropped() );
+    }
+
+    @Test
+    public void hasSettingsTest()
+    {
+        NotificationQueue direct= new NotificationQueue( NotificationQueuePolicy.DIRECT, 16, executor );
+        assertTrue( "wrong settings", direct.hasSettings( NotificationQueuePolicy.DIRECT, 4 ) );
+        assertTrue( "wrong settings", direct.hasSettings( null, 16 ) );
+        assertFalse( "wrong settings", direct.hasSettings( NotificationQueuePolicy.CONFLATE, 16 ) );
+
+        NotificationQueue noExecutor= new NotificationQueue( NotificationQueuePolicy.BLOCK, 16, null );
+        assertTrue( "wrong settings", noExecutor.hasSettings( NotificationQueuePolicy.BLOCK, 2 ) );
+
+        NotificationQueue conflate= new NotificationQueue( NotificationQueuePolicy.CONFLATE, 16, executor );
+        assertTrue( "wrong settings", conflate.hasSettings( NotificationQueuePolicy.CONFLATE, 4 ) );
+        assertFalse( "wrong settings", conflate.hasSettings( NotificationQueuePolicy.DROP_OLDEST, 16 ) );
+
+        NotificationQueue dropOldest= new NotificationQueue( NotificationQueuePolicy.DROP_OLDEST, 16, executor );
+        assertTrue( "wrong settings", dropOldest.hasSettings( NotificationQueuePolicy.DROP_OLDEST, 16 ) );
+        assertFalse( "wrong settings", dropOldest.hasSettings( NotificationQueuePolicy.DROP_OLDEST, 4 ) );
+        assertFalse( "wrong settings", dropOldest.hasSettings( NotificationQueuePolicy.BLOCK, 16 ) );
+    }
+
+    @Test
+    public void clearTest()
+    {
+        NotificationQueue queue= queue( NotificationQueuePolicy.DROP_OLDEST, 10, executor );
+        for ( int i= 0; i < 5; i++ )
+        {
+            queue.offer( notification( "n" + i ) );
+        }
+        queue.clear();
+        executor.runAll();
+
+        assertEquals( "cleared notifications processed", 0, processed.size() );
+    }
+}
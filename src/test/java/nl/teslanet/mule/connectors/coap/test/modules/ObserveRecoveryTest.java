@@ -0,0 +1,114 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.modules;
+
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import nl.teslanet.mule.connectors.coap.internal.client.ObserveRecovery;
+
+
+/**
+ * Test the backoff of the ObserveRecovery class.
+ */
+public class ObserveRecoveryTest
+{
+    private static final long INITIAL= TimeUnit.MILLISECONDS.toNanos( 100 );
+
+    private static final long MAX= TimeUnit.SECONDS.toNanos( 10 );
+
+    private ScheduledExecutorService scheduler;
+
+    private ObserveRecovery recovery;
+
+    @Before
+    public void setUp()
+    {
+        scheduler= Executors.newSingleThreadScheduledExecutor();
+        recovery= new ObserveRecovery( scheduler, INITIAL, MAX, 2 );
+    }
+
+    @After
+    public void tearDown()
+    {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void firstAttemptTest()
+    {
+        for ( int i= 0; i < 1000; i++ )
+        {
+            long delay= recovery.backoff( 1 );
+            assertTrue( "delay too short: " + delay, delay >= INITIAL / 2 );
+            assertTrue( "delay too long: " + delay, delay <= INITIAL );
+        }
+    }
+
+    @Test
+    public void exponentialTest()
+    {
+        for ( int attempts= 1; attempts <= 7; attempts++ )
+        {
+            long expected= INITIAL << ( attempts - 1 );
+            for ( int i= 0; i < 100; i++ )
+            {
+                long delay= recovery.backoff( attempts );
+                assertTrue( "attempt " + attempts + " delay too short: " + delay, delay >= expected / 2 );
+                assertTrue( "attempt " + attempts + " delay too long: " + delay, delay <= expected );
+            }
+        }
+    }
+
+    @Test
+    public void maximumTest()
+    {
+        for ( int attempts= 8; attempts <= 100; attempts++ )
+        {
+            long delay= recovery.backoff( attempts );
+            assertTrue( "attempt " + attempts + " delay too short: " + delay, delay >= MAX / 2 );
+            assertTrue( "attempt " + attempts + " delay too long: " + delay, delay <= MAX );
+        }
+    }
+
+    @Test
+    public void jitterTest()
+    {
+        Set< Long > delays= new HashSet<>();
+        for ( int i= 0; i < 100; i++ )
+        {
+            delays.add( recovery.backoff( 3 ) );
+        }
+        assertTrue( "delays not jittered", delays.size() > 50 );
+    }
+}
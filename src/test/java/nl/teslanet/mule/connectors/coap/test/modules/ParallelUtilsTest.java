@@ -0,0 +1,156 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.modules;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import nl.teslanet.mule.connectors.coap.internal.utils.ParallelUtils;
+
+
+/**
+ * Test the ParallelUtils class.
+ */
+public class ParallelUtilsTest
+{
+    private ExecutorService executor;
+
+    @Before
+    public void setUp()
+    {
+        executor= Executors.newFixedThreadPool( 16 );
+    }
+
+    @After
+    public void tearDown() throws InterruptedException
+    {
+        executor.shutdownNow();
+        executor.awaitTermination( 5, TimeUnit.SECONDS );
+    }
+
+    /**
+     * Create tasks that record the number of tasks in progress.
+     * @param count The number of tasks.
+     * @param done Counter of completed tasks.
+     * @param active Counter of tasks in progress.
+     * @param maxActive Maximum of tasks in progress.
+     * @return The tasks.
+     */
+    private List< ParallelUtils.Task > tasks( int count, AtomicInteger done, AtomicInteger active, AtomicInteger maxActive )
+    {
+        List< ParallelUtils.Task > tasks= new ArrayList<>();
+        for ( int i= 0; i < count; i++ )
+        {
+            tasks.add( () -> {
+                maxActive.accumulateAndGet( active.incrementAndGet(), Math::max );
+                Thread.sleep( 5 );
+                active.decrementAndGet();
+                done.incrementAndGet();
+            } );
+        }
+        return tasks;
+    }
+
+    @Test
+    public void allTasksRunTest()
+    {
+        AtomicInteger done= new AtomicInteger();
+        AtomicInteger active= new AtomicInteger();
+        AtomicInteger maxActive= new AtomicInteger();
+
+        List< Exception > failures= ParallelUtils.runAll( executor, 4, tasks( 40, done, active, maxActive ) );
+
+        assertTrue( "unexpected failures", failures.isEmpty() );
+        assertEquals( "wrong number of tasks done", 40, done.get() );
+        assertEquals( "tasks still active", 0, active.get() );
+    }
+
+    @Test
+    public void parallelismIsBoundedTest()
+    {
+        AtomicInteger done= new AtomicInteger();
+        AtomicInteger active= new AtomicInteger();
+        AtomicInteger maxActive= new AtomicInteger();
+
+        ParallelUtils.runAll( executor, 3, tasks( 30, done, active, maxActive ) );
+
+        assertEquals( "wrong number of tasks done", 30, done.get() );
+        assertTrue( "parallelism exceeded", maxActive.get() <= 3 );
+    }
+
+    @Test
+    public void inlineWithoutExecutorTest()
+    {
+        AtomicInteger done= new AtomicInteger();
+        AtomicInteger active= new AtomicInteger();
+        AtomicInteger maxActive= new AtomicInteger();
+
+        ParallelUtils.runAll( null, 8, tasks( 10, done, active, maxActive ) );
+
+        assertEquals( "wrong number of tasks done", 10, done.get() );
+        assertEquals( "tasks not run sequentially", 1, maxActive.get() );
+    }
+
+    @Test
+    public void failuresAreCollectedTest()
+    {
+        AtomicInteger done= new AtomicInteger();
+        IllegalStateException failure= new IllegalStateException( "test failure" );
+        List< ParallelUtils.Task > tasks= new ArrayList<>();
+        for ( int i= 0; i < 10; i++ )
+        {
+            final int index= i;
+            tasks.add( () -> {
+                if ( index == 5 ) throw failure;
+                done.incrementAndGet();
+            } );
+        }
+
+        List< Exception > failures= ParallelUtils.runAll( executor, 4, tasks );
+
+        assertEquals( "wrong number of tasks done", 9, done.get() );
+        assertEquals( "wrong number of failures", 1, failures.size() );
+        assertSame( "wrong failure", failure, failures.get( 0 ) );
+    }
+
+    @Test
+    public void noTasksTest()
+    {
+        List< Exception > failures= ParallelUtils.runAll( executor, 4, new ArrayList<>() );
+
+        assertTrue( "unexpected failures", failures.isEmpty() );
+    }
+}
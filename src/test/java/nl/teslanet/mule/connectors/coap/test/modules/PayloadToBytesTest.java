@@ -0,0 +1,112 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.modules;
+
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.OptionalLong;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.mule.runtime.api.metadata.DataType;
+import org.mule.runtime.api.metadata.TypedValue;
+
+import nl.teslanet.mule.connectors.coap.internal.utils.MessageUtils;
+
+
+/**
+ * Tests the implementation of MessageUtils.payloadToBytes on streamed payloads.
+ *
+ */
+@RunWith( Parameterized.class )
+public class PayloadToBytesTest
+{
+    /**
+     * @return the collection of test parameters.
+     */
+    @Parameters( name= "size= {0}, announced= {1}" )
+    public static Collection< Object[] > data()
+    {
+        return Arrays.asList(
+            new Object [] []
+            {
+                { 0, null },
+                { 0, 0L },
+                { 1, null },
+                { 1, 1L },
+                { 8191, null },
+                { 8192, null },
+                { 8193, null },
+                { 8192, 8192L },
+                { 20000, null },
+                { 20000, 20000L },
+                { 20000, 1000L },
+                { 20000, 40000L },
+                { 20000, (long) Integer.MAX_VALUE - 8 },
+                { 3000000, null },
+                { 3000000, 3000000L },
+                { 3000000, 1000L }
+            }
+        );
+    }
+
+    /**
+     * The size of the streamed payload.
+     */
+    @Parameter( 0 )
+    public int size;
+
+    /**
+     * The length announced by the typed value, null when unknown.
+     */
+    @Parameter( 1 )
+    public Long announced;
+
+    /**
+     * Test stream is read completely.
+     * @throws IOException When stream could not be read.
+     */
+    @Test
+    public void testStreamToBytes() throws IOException
+    {
+        byte[] content= new byte [size];
+        for ( int i= 0; i < size; i++ )
+        {
+            content[i]= (byte) ( i % 251 );
+        }
+        TypedValue< Object > payload= new TypedValue<>(
+            new ByteArrayInputStream( content ),
+            DataType.INPUT_STREAM,
+            ( announced == null ? OptionalLong.empty() : OptionalLong.of( announced ) )
+        );
+        assertArrayEquals( "wrong content", content, MessageUtils.payloadToBytes( payload, null ) );
+    }
+}
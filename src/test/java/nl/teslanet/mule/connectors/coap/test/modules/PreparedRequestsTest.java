@@ -0,0 +1,123 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.modules;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import nl.teslanet.mule.connectors.coap.api.query.QueryParam;
+import nl.teslanet.mule.connectors.coap.internal.client.PreparedRequests;
+
+
+/**
+ * Test the PreparedRequests class.
+ */
+public class PreparedRequestsTest
+{
+    @Test
+    public void testEndpointUri() throws URISyntaxException
+    {
+        PreparedRequests prepared= new PreparedRequests( Collections.emptyList(), 10 );
+        URI uri= prepared.endpointUri( "coap", "127.0.0.1", 5683 );
+
+        assertEquals( "wrong uri", new URI( "coap://127.0.0.1:5683" ), uri );
+        assertSame( "uri not prepared", uri, prepared.endpointUri( "coap", "127.0.0.1", 5683 ) );
+        assertNotSame( "wrong uri", uri, prepared.endpointUri( "coap", "127.0.0.1", 5684 ) );
+        assertEquals( "wrong number of prepared uri's", 2, prepared.size() );
+    }
+
+    @Test
+    public void testResourceUri() throws URISyntaxException
+    {
+        PreparedRequests prepared= new PreparedRequests( Collections.emptyList(), 10 );
+        URI uri= prepared.resourceUri( "coap", "127.0.0.1", -1, "/some/path", "a=1&b=2" );
+
+        assertEquals( "wrong uri", new URI( "coap://127.0.0.1/some/path?a=1&b=2" ), uri );
+        assertSame( "uri not prepared", uri, prepared.resourceUri( "coap", "127.0.0.1", -1, "/some/path", "a=1&b=2" ) );
+        assertNotSame( "wrong uri", uri, prepared.resourceUri( "coap", "127.0.0.1", -1, "/some/path", null ) );
+        assertEquals(
+            "wrong uri",
+            new URI( "coap://127.0.0.1/some/path" ),
+            prepared.resourceUri( "coap", "127.0.0.1", -1, "/some/path", null )
+        );
+        assertEquals( "wrong number of prepared uri's", 2, prepared.size() );
+    }
+
+    @Test
+    public void testInvalidUri()
+    {
+        PreparedRequests prepared= new PreparedRequests( Collections.emptyList(), 10 );
+
+        assertThrows(
+            URISyntaxException.class,
+            () -> prepared.resourceUri( "coap", "127.0.0.1", -1, "relative/path", null )
+        );
+        assertEquals( "invalid uri prepared", 0, prepared.size() );
+    }
+
+    @Test
+    public void testCapacity() throws URISyntaxException
+    {
+        PreparedRequests prepared= new PreparedRequests( Collections.emptyList(), 2 );
+        URI uri1= prepared.resourceUri( "coap", "127.0.0.1", -1, "/path1", null );
+        URI uri2= prepared.resourceUri( "coap", "127.0.0.1", -1, "/path2", null );
+        URI uri3= prepared.resourceUri( "coap", "127.0.0.1", -1, "/path3", null );
+
+        assertEquals( "wrong number of prepared uri's", 2, prepared.size() );
+        assertSame( "uri not prepared", uri1, prepared.resourceUri( "coap", "127.0.0.1", -1, "/path1", null ) );
+        assertSame( "uri not prepared", uri2, prepared.resourceUri( "coap", "127.0.0.1", -1, "/path2", null ) );
+        assertNotSame( "uri prepared", uri3, prepared.resourceUri( "coap", "127.0.0.1", -1, "/path3", null ) );
+        assertEquals( "wrong uri", uri3, prepared.resourceUri( "coap", "127.0.0.1", -1, "/path3", null ) );
+
+        prepared.clear();
+        assertEquals( "wrong number of prepared uri's", 0, prepared.size() );
+    }
+
+    @Test
+    public void testQueryString()
+    {
+        List< QueryParam > defaults= new ArrayList<>();
+        defaults.add( new QueryParam( "a", "1" ) );
+        List< QueryParam > params= new ArrayList<>();
+        params.add( new QueryParam( "b", "2" ) );
+
+        assertNull( "wrong query", new PreparedRequests( Collections.emptyList(), 10 ).queryString( null ) );
+        assertEquals( "wrong query", "b=2", new PreparedRequests( Collections.emptyList(), 10 ).queryString( params ) );
+        PreparedRequests prepared= new PreparedRequests( defaults, 10 );
+        assertEquals( "wrong query", "a=1", prepared.queryString( null ) );
+        assertEquals( "wrong query", "a=1", prepared.queryString( Collections.emptyList() ) );
+        assertEquals( "wrong query", "a=1&b=2", prepared.queryString( params ) );
+    }
+}
@@ -0,0 +1,205 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.modules;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.californium.core.CoapResponse;
+import org.eclipse.californium.core.coap.CoAP.Code;
+import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.Request;
+import org.eclipse.californium.core.coap.Response;
+import org.junit.Test;
+import org.mule.runtime.extension.api.runtime.operation.Result;
+import org.mule.runtime.extension.api.runtime.process.CompletionCallback;
+
+import nl.teslanet.mule.connectors.coap.api.attributes.CoapResponseAttributes;
+import nl.teslanet.mule.connectors.coap.internal.client.RequestCompletionHandler;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalEndpointException;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalNoResponseException;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalResponseException;
+
+
+/**
+ * Test the RequestCompletionHandler class.
+ */
+public class RequestCompletionHandlerTest
+{
+    /**
+     * Callback that records how it is completed.
+     */
+    private static class RecordingCallback implements CompletionCallback< InputStream, CoapResponseAttributes >
+    {
+        final AtomicInteger successes= new AtomicInteger( 0 );
+
+        final AtomicInteger errors= new AtomicInteger( 0 );
+
+        final AtomicReference< Result< InputStream, CoapResponseAttributes > > result= new AtomicReference<>();
+
+        final AtomicReference< Throwable > error= new AtomicReference<>();
+
+        @Override
+        public void success( Result< InputStream, CoapResponseAttributes > result )
+        {
+            this.result.set( result );
+            successes.incrementAndGet();
+        }
+
+        @Override
+        public void error( Throwable e )
+        {
+            error.set( e );
+            errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return A response to deliver to the handler.
+     */
+    private static CoapResponse response()
+    {
+        return new CoapResponse( new Response( ResponseCode.CONTENT ) )
+            {
+            };
+    }
+
+    /**
+     * @return A result to complete the callback with.
+     */
+    private static Result< InputStream, CoapResponseAttributes > result()
+    {
+        return new Result< InputStream, CoapResponseAttributes >();
+    }
+
+    @Test
+    public void testResponse()
+    {
+        RecordingCallback callback= new RecordingCallback();
+        Result< InputStream, CoapResponseAttributes > result= result();
+        CoapResponse response= response();
+        AtomicReference< CoapResponse > processed= new AtomicReference<>();
+        RequestCompletionHandler handler= new RequestCompletionHandler( "test", new Request( Code.GET ), received -> {
+            processed.set( received );
+            return result;
+        }, callback );
+
+        handler.onLoad( response );
+
+        assertSame( "wrong response processed", response, processed.get() );
+        assertEquals( "wrong number of successes", 1, callback.successes.get() );
+        assertEquals( "wrong number of errors", 0, callback.errors.get() );
+        assertSame( "wrong result", result, callback.result.get() );
+    }
+
+    @Test
+    public void testNoResponse()
+    {
+        RecordingCallback callback= new RecordingCallback();
+        Result< InputStream, CoapResponseAttributes > result= result();
+        AtomicReference< CoapResponse > processed= new AtomicReference<>( response() );
+        RequestCompletionHandler handler= new RequestCompletionHandler( "test", new Request( Code.GET ), received -> {
+            processed.set( received );
+            return result;
+        }, callback );
+
+        handler.onError();
+
+        assertNull( "wrong response processed", processed.get() );
+        assertEquals( "wrong number of successes", 1, callback.successes.get() );
+        assertEquals( "wrong number of errors", 0, callback.errors.get() );
+        assertSame( "wrong result", result, callback.result.get() );
+    }
+
+    @Test
+    public void testNoResponseException()
+    {
+        RecordingCallback callback= new RecordingCallback();
+        RequestCompletionHandler handler= new RequestCompletionHandler( "test", new Request( Code.GET ), received -> {
+            throw new InternalNoResponseException();
+        }, callback );
+
+        handler.onError();
+
+        assertEquals( "wrong number of successes", 0, callback.successes.get() );
+        assertEquals( "wrong number of errors", 1, callback.errors.get() );
+        assertEquals( "wrong error", InternalNoResponseException.class, callback.error.get().getClass() );
+    }
+
+    @Test
+    public void testSendError()
+    {
+        RecordingCallback callback= new RecordingCallback();
+        Request request= new Request( Code.GET );
+        Exception sendError= new Exception( "send failed" );
+        request.setSendError( sendError );
+        RequestCompletionHandler handler= new RequestCompletionHandler( "test", request, received -> result(), callback );
+
+        handler.onError();
+
+        assertEquals( "wrong number of successes", 0, callback.successes.get() );
+        assertEquals( "wrong number of errors", 1, callback.errors.get() );
+        assertEquals( "wrong error", InternalEndpointException.class, callback.error.get().getClass() );
+        assertSame( "wrong error cause", sendError, callback.error.get().getCause() );
+    }
+
+    @Test
+    public void testProcessingFailure()
+    {
+        RecordingCallback callback= new RecordingCallback();
+        IllegalStateException failure= new IllegalStateException( "processing failed" );
+        RequestCompletionHandler handler= new RequestCompletionHandler( "test", new Request( Code.GET ), received -> {
+            throw failure;
+        }, callback );
+
+        handler.onLoad( response() );
+
+        assertEquals( "wrong number of successes", 0, callback.successes.get() );
+        assertEquals( "wrong number of errors", 1, callback.errors.get() );
+        assertEquals( "wrong error", InternalResponseException.class, callback.error.get().getClass() );
+        assertSame( "wrong error cause", failure, callback.error.get().getCause() );
+        assertTrue( "wrong error message", callback.error.get().getMessage().contains( "cannot be processed" ) );
+    }
+
+    @Test
+    public void testProcessingFailureWithoutResponse()
+    {
+        RecordingCallback callback= new RecordingCallback();
+        RequestCompletionHandler handler= new RequestCompletionHandler( "test", new Request( Code.GET ), received -> {
+            throw new NullPointerException();
+        }, callback );
+
+        handler.onError();
+
+        assertEquals( "wrong number of successes", 0, callback.successes.get() );
+        assertEquals( "wrong number of errors", 1, callback.errors.get() );
+        assertEquals( "wrong error", InternalResponseException.class, callback.error.get().getClass() );
+    }
+}
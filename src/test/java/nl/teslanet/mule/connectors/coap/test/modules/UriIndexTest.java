@@ -0,0 +1,113 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.modules;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import nl.teslanet.mule.connectors.coap.internal.server.UriIndex;
+
+
+/**
+ * Tests the implementation of the uri index.
+ *
+ */
+public class UriIndexTest
+{
+    /**
+     * The index under test.
+     */
+    private UriIndex< String > index;
+
+    /**
+     * Fill the index.
+     */
+    @Before
+    public void setUp()
+    {
+        index= new UriIndex<>();
+        for ( String uri : new String []
+        { "/one", "/one/two", "/one/two/three", "/one/four", "/onetwo", "/five" } )
+        {
+            index.put( uri, uri );
+        }
+    }
+
+    /**
+     * Test exact lookup.
+     */
+    @Test
+    public void testGet()
+    {
+        assertEquals( "/one", index.get( "/one" ) );
+        assertEquals( "/one/two/three", index.get( "/one/two/three" ) );
+        assertNull( index.get( "/one/two/three/four" ) );
+        assertNull( index.get( "/on" ) );
+        assertNull( index.get( "one" ) );
+        assertNull( index.get( "/" ) );
+    }
+
+    /**
+     * Test enumeration of uri's under a path.
+     */
+    @Test
+    public void testFindUnder()
+    {
+        assertEquals(
+            new HashSet<>( Arrays.asList( "/one/two", "/one/two/three", "/one/four" ) ),
+            new HashSet<>( index.findUnder( "/one/" ) )
+        );
+        assertEquals( new HashSet<>( Arrays.asList( "/one/two/three" ) ), new HashSet<>( index.findUnder( "/one/two/" ) ) );
+        assertEquals( 6, index.findUnder( "/" ).size() );
+        assertTrue( index.findUnder( "/six/" ).isEmpty() );
+        assertTrue( index.findUnder( "one/" ).isEmpty() );
+        assertEquals( 6, index.values().size() );
+    }
+
+    /**
+     * Test removal and pruning.
+     */
+    @Test
+    public void testRemove()
+    {
+        assertEquals( "/one", index.remove( "/one" ) );
+        assertNull( index.get( "/one" ) );
+        assertEquals( "/one/two", index.get( "/one/two" ) );
+        assertEquals( "/one/two/three", index.remove( "/one/two/three" ) );
+        assertEquals( "/one/two", index.remove( "/one/two" ) );
+        assertEquals( "/one/four", index.remove( "/one/four" ) );
+        assertNull( index.remove( "/one/four" ) );
+        assertTrue( index.findUnder( "/one/" ).isEmpty() );
+        assertEquals( new HashSet<>( Arrays.asList( "/onetwo", "/five" ) ), new HashSet<>( index.values() ) );
+        index.put( "/one/two", "/one/two" );
+        assertEquals( "/one/two", index.get( "/one/two" ) );
+    }
+}
@@ -0,0 +1,270 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.modules.attributes;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.californium.core.coap.Option;
+import org.eclipse.californium.core.coap.OptionSet;
+import org.eclipse.californium.core.coap.option.IntegerOptionDefinition;
+import org.junit.Test;
+
+import nl.teslanet.mule.connectors.coap.api.binary.BytesValue;
+import nl.teslanet.mule.connectors.coap.api.options.OptionValueException;
+import nl.teslanet.mule.connectors.coap.api.options.OtherOptionAttribute;
+import nl.teslanet.mule.connectors.coap.api.query.QueryParamAttribute;
+import nl.teslanet.mule.connectors.coap.internal.attributes.CoapRequestOptionsAttributesImpl;
+import nl.teslanet.mule.connectors.coap.internal.attributes.CoapResponseOptionsAttributesImpl;
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidOptionValueException;
+import nl.teslanet.mule.connectors.coap.internal.options.DefaultEntityTag;
+
+
+/**
+ * Test the options attributes that decode list valued options on first access.
+ */
+public class OptionsAttributesTest
+{
+    /**
+     * Other option definition.
+     */
+    private IntegerOptionDefinition otherOptionDef= new IntegerOptionDefinition( 65001, "X", false );
+
+    @Test
+    public void requestLazyGettersTest() throws InternalInvalidOptionValueException, OptionValueException
+    {
+        OptionSet optionSet= new OptionSet();
+        optionSet.addETag( DefaultEntityTag.valueOf( 2 ).getValue() );
+        optionSet.addETag( DefaultEntityTag.valueOf( 3 ).getValue() );
+        optionSet.addIfMatch( DefaultEntityTag.valueOf( 4 ).getValue() );
+        optionSet.setUriPath( "/parent/child" );
+        optionSet.setUriQuery( "a=1&b=2" );
+        optionSet.addOtherOption( new Option( otherOptionDef, 401 ) );
+        CoapRequestOptionsAttributesImpl attributes= new CoapRequestOptionsAttributesImpl( optionSet );
+
+        List< BytesValue > etags= attributes.getEtags();
+        assertEquals( "wrong number of etags", 2, etags.size() );
+        assertEquals( "wrong etag", DefaultEntityTag.valueOf( 2 ), etags.get( 0 ) );
+        assertEquals( "wrong etag", DefaultEntityTag.valueOf( 3 ), etags.get( 1 ) );
+        assertSame( "etags not cached", etags, attributes.getEtags() );
+
+        List< BytesValue > ifMatch= attributes.getIfMatch();
+        assertFalse( "wrong ifExists", attributes.isIfExists() );
+        assertEquals( "wrong number of ifMatch", 1, ifMatch.size() );
+        assertEquals( "wrong ifMatch", DefaultEntityTag.valueOf( 4 ), ifMatch.get( 0 ) );
+        assertSame( "ifMatch not cached", ifMatch, attributes.getIfMatch() );
+
+        List< String > uriPath= attributes.getUriPath();
+        assertEquals( "wrong number of uriPath segments", 2, uriPath.size() );
+        assertEquals( "wrong uriPath segment", "parent", uriPath.get( 0 ) );
+        assertEquals( "wrong uriPath segment", "child", uriPath.get( 1 ) );
+        assertSame( "uriPath not cached", uriPath, attributes.getUriPath() );
+
+        List< QueryParamAttribute > uriQuery= attributes.getUriQuery();
+        assertEquals( "wrong number of uriQuery params", 2, uriQuery.size() );
+        assertEquals( "wrong uriQuery key", "a", uriQuery.get( 0 ).getKey() );
+        assertEquals( "wrong uriQuery value", "1", uriQuery.get( 0 ).getValue() );
+        assertEquals( "wrong uriQuery key", "b", uriQuery.get( 1 ).getKey() );
+        assertEquals( "wrong uriQuery value", "2", uriQuery.get( 1 ).getValue() );
+        assertSame( "uriQuery not cached", uriQuery, attributes.getUriQuery() );
+
+        List< OtherOptionAttribute > other= attributes.getOther();
+        assertEquals( "wrong number of other options", 1, other.size() );
+        assertEquals( "wrong other option number", 65001, other.get( 0 ).getNumber() );
+        assertSame( "other not cached", other, attributes.getOther() );
+    }
+
+    @Test
+    public void requestLazyGettersUnmodifiableTest() throws InternalInvalidOptionValueException, OptionValueException
+    {
+        OptionSet optionSet= new OptionSet();
+        optionSet.addETag( DefaultEntityTag.valueOf( 2 ).getValue() );
+        optionSet.setUriPath( "/parent/child" );
+        optionSet.setUriQuery( "a=1" );
+        CoapRequestOptionsAttributesImpl attributes= new CoapRequestOptionsAttributesImpl( optionSet );
+
+        assertThrows( UnsupportedOperationException.class, () -> attributes.getEtags().clear() );
+        assertThrows( UnsupportedOperationException.class, () -> attributes.getUriPath().clear() );
+        assertThrows( UnsupportedOperationException.class, () -> attributes.getUriQuery().clear() );
+    }
+
+    @Test
+    public void requestLazyGettersEmptyTest() throws InternalInvalidOptionValueException
+    {
+        CoapRequestOptionsAttributesImpl attributes= new CoapRequestOptionsAttributesImpl( new OptionSet() );
+
+        assertNull( "wrong etags", attributes.getEtags() );
+        assertNull( "wrong ifMatch", attributes.getIfMatch() );
+        assertFalse( "wrong ifExists", attributes.isIfExists() );
+        assertNull( "wrong uriPath", attributes.getUriPath() );
+        assertNull( "wrong uriQuery", attributes.getUriQuery() );
+        assertTrue( "wrong other", attributes.getOther().isEmpty() );
+    }
+
+    @Test
+    public void requestIfExistsTest() throws InternalInvalidOptionValueException
+    {
+        OptionSet optionSet= new OptionSet();
+        optionSet.addIfMatch( new byte [0] );
+        CoapRequestOptionsAttributesImpl attributes= new CoapRequestOptionsAttributesImpl( optionSet );
+
+        assertTrue( "wrong ifExists", attributes.isIfExists() );
+        assertNull( "wrong ifMatch", attributes.getIfMatch() );
+    }
+
+    @Test
+    public void requestInvalidEtagTest()
+    {
+        OptionSet optionSet= new OptionSet();
+        optionSet.getETags().add( new byte [9] );
+
+        InternalInvalidOptionValueException e= assertThrows(
+            InternalInvalidOptionValueException.class,
+            () -> new CoapRequestOptionsAttributesImpl( optionSet )
+        );
+        assertTrue( "wrong exception message", e.getMessage().contains( "Entity-Tag option is invalid" ) );
+    }
+
+    @Test
+    public void requestEmptyEtagTest()
+    {
+        OptionSet optionSet= new OptionSet();
+        optionSet.getETags().add( new byte [0] );
+
+        InternalInvalidOptionValueException e= assertThrows(
+            InternalInvalidOptionValueException.class,
+            () -> new CoapRequestOptionsAttributesImpl( optionSet )
+        );
+        assertTrue( "wrong exception message", e.getMessage().contains( "Entity-Tag option with empty value is invalid" ) );
+    }
+
+    @Test
+    public void requestInvalidIfMatchTest()
+    {
+        OptionSet optionSet= new OptionSet();
+        optionSet.getIfMatch().add( new byte [9] );
+
+        InternalInvalidOptionValueException e= assertThrows(
+            InternalInvalidOptionValueException.class,
+            () -> new CoapRequestOptionsAttributesImpl( optionSet )
+        );
+        assertTrue( "wrong exception message", e.getMessage().contains( "IfMatch" ) );
+    }
+
+    @Test
+    public void responseLazyGettersTest() throws InternalInvalidOptionValueException
+    {
+        OptionSet optionSet= new OptionSet();
+        optionSet.setLocationPath( "/created/resource" );
+        optionSet.setLocationQuery( "c=3&d=4" );
+        optionSet.addOtherOption( new Option( otherOptionDef, 501 ) );
+        CoapResponseOptionsAttributesImpl attributes= new CoapResponseOptionsAttributesImpl( optionSet );
+
+        List< String > locationPath= attributes.getLocationPath();
+        assertEquals( "wrong number of locationPath segments", 2, locationPath.size() );
+        assertEquals( "wrong locationPath segment", "created", locationPath.get( 0 ) );
+        assertEquals( "wrong locationPath segment", "resource", locationPath.get( 1 ) );
+        assertSame( "locationPath not cached", locationPath, attributes.getLocationPath() );
+        assertThrows( UnsupportedOperationException.class, () -> locationPath.clear() );
+
+        List< QueryParamAttribute > locationQuery= attributes.getLocationQuery();
+        assertEquals( "wrong number of locationQuery params", 2, locationQuery.size() );
+        assertEquals( "wrong locationQuery key", "c", locationQuery.get( 0 ).getKey() );
+        assertEquals( "wrong locationQuery value", "3", locationQuery.get( 0 ).getValue() );
+        assertEquals( "wrong locationQuery key", "d", locationQuery.get( 1 ).getKey() );
+        assertEquals( "wrong locationQuery value", "4", locationQuery.get( 1 ).getValue() );
+        assertSame( "locationQuery not cached", locationQuery, attributes.getLocationQuery() );
+
+        List< OtherOptionAttribute > other= attributes.getOther();
+        assertEquals( "wrong number of other options", 1, other.size() );
+        assertEquals( "wrong other option number", 65001, other.get( 0 ).getNumber() );
+        assertSame( "other not cached", other, attributes.getOther() );
+    }
+
+    @Test
+    public void responseLazyGettersEmptyTest() throws InternalInvalidOptionValueException
+    {
+        CoapResponseOptionsAttributesImpl attributes= new CoapResponseOptionsAttributesImpl( new OptionSet() );
+
+        assertNull( "wrong locationPath", attributes.getLocationPath() );
+        assertNull( "wrong locationQuery", attributes.getLocationQuery() );
+        assertTrue( "wrong other", attributes.getOther().isEmpty() );
+    }
+
+    @Test
+    public void responseInvalidEtagTest()
+    {
+        OptionSet optionSet= new OptionSet();
+        optionSet.getETags().add( new byte [9] );
+
+        assertThrows( InternalInvalidOptionValueException.class, () -> new CoapResponseOptionsAttributesImpl( optionSet ) );
+    }
+
+    @Test
+    public void concurrentFirstAccessTest() throws Exception
+    {
+        OptionSet optionSet= new OptionSet();
+        StringBuilder query= new StringBuilder();
+        for ( int i= 0; i < 100; i++ )
+        {
+            query.append( i == 0 ? "" : "&" ).append( "p" ).append( i ).append( "=" ).append( i );
+        }
+        optionSet.setUriQuery( query.toString() );
+        int readers= 8;
+        ExecutorService executor= Executors.newFixedThreadPool( readers );
+        try
+        {
+            for ( int run= 0; run < 100; run++ )
+            {
+                CoapRequestOptionsAttributesImpl attributes= new CoapRequestOptionsAttributesImpl( optionSet );
+                List< Callable< List< QueryParamAttribute > > > tasks= new ArrayList<>();
+                for ( int i= 0; i < readers; i++ )
+                {
+                    tasks.add( attributes::getUriQuery );
+                }
+                for ( Future< List< QueryParamAttribute > > future : executor.invokeAll( tasks ) )
+                {
+                    List< QueryParamAttribute > uriQuery= future.get();
+                    assertEquals( "incomplete uriQuery", 100, uriQuery.size() );
+                    assertEquals( "wrong uriQuery key", "p99", uriQuery.get( 99 ).getKey() );
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -25,12 +25,17 @@ package nl.teslanet.mule.connectors.coap.test.modules.attributes;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.eclipse.californium.core.coap.CoAP.Code;
 import org.eclipse.californium.core.coap.Option;
 import org.eclipse.californium.core.coap.OptionSet;
+import org.eclipse.californium.core.coap.Request;
 import org.eclipse.californium.core.coap.option.IntegerOptionDefinition;
 import org.junit.Before;
 import org.junit.Test;
@@ -41,6 +46,7 @@ import nl.teslanet.mule.connectors.coap.internal.attributes.CoapRequestAttribute
 import nl.teslanet.mule.connectors.coap.internal.attributes.CoapRequestOptionsAttributesImpl;
 import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidOptionValueException;
 import nl.teslanet.mule.connectors.coap.internal.options.DefaultEntityTag;
+import nl.teslanet.mule.connectors.coap.internal.utils.AttributeUtils;
 
 
 /**
@@ -194,6 +200,33 @@ public class RequestAttributesTest
         assertEquals( "Relation has wrong value", relation, attributes.getRelation() );
     }
 
+    @Test
+    public void setRawGetTest()
+    {
+        InetSocketAddress local= new InetSocketAddress( InetAddress.getLoopbackAddress(), 5683 );
+        InetSocketAddress remote= new InetSocketAddress( InetAddress.getLoopbackAddress(), 45678 );
+        Request request= new Request( Code.PUT );
+        request.setURI( "coap://127.0.0.1:5683/parent/child?a=1&b=2" );
+        CoapRequestAttributesImpl attributes= new CoapRequestAttributesImpl();
+        attributes.setLocalAddress( local );
+        attributes.setRemoteAddress( remote );
+        attributes.setRequest( request );
+
+        assertEquals( "LocalAddress has wrong value", local.toString(), attributes.getLocalAddress() );
+        assertSame(
+            "LocalAddress is not reused",
+            attributes.getLocalAddress(),
+            AttributeUtils.toLocalAddressAttribute( new InetSocketAddress( InetAddress.getLoopbackAddress(), 5683 ) )
+        );
+        assertEquals( "RemoteAddress has wrong value", remote.toString(), attributes.getRemoteAddress() );
+        assertEquals( "RequestUri has wrong value", request.getURI(), attributes.getRequestUri() );
+        assertEquals( "RequestPath has wrong value", requestPath, attributes.getRequestPath() );
+        assertNull( "Relation has wrong value", attributes.getRelation() );
+
+        attributes.setRemoteAddress( remoteAddress );
+        assertEquals( "RemoteAddress has wrong value", remoteAddress, attributes.getRemoteAddress() );
+    }
+
     @Test
     public void optionsToStringTest()
     {
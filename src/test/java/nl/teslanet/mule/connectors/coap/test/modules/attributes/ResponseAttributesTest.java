@@ -26,6 +26,7 @@ package nl.teslanet.mule.connectors.coap.test.modules.attributes;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -263,6 +264,45 @@ public class ResponseAttributesTest
         assertEquals( "Success has wrong value", result == Result.SUCCESS, attributes.isSuccess() );
     }
 
+    @Test
+    public void templateConstructorTest()
+    {
+        CoapResponseAttributesImpl template= new CoapResponseAttributesImpl();
+        template.setRequestType( requestType );
+        template.setRequestCode( requestCode );
+        template.setRequestUri( requestUri );
+        template.setRequestOptions( requestOptions );
+        template.setLocalAddress( localAddress );
+        template.setRemoteAddress( remoteAddress );
+        template.setLocationUri( locationUri );
+        template.setNotification( notification );
+        template.setResponseType( responseType );
+        template.setResponseCode( responseCode );
+        template.setResponseOptions( responseOptions );
+        template.setResult( result );
+
+        CoapResponseAttributesImpl attributes= new CoapResponseAttributesImpl( template );
+
+        assertEquals( "RequestType has wrong value", requestType, attributes.getRequestType() );
+        assertEquals( "RequestCode has wrong value", requestCode, attributes.getRequestCode() );
+        assertEquals( "RequestScheme has wrong value", requestScheme, attributes.getRequestScheme() );
+        assertEquals( "RequestHost has wrong value", requestHost, attributes.getRequestHost() );
+        assertEquals( "RequestPort has wrong value", requestPort, attributes.getRequestPort() );
+        assertEquals( "RequestPath has wrong value", requestPath, attributes.getRequestPath() );
+        assertEquals( "RequestQuery has wrong value", requestQuery, attributes.getRequestQuery() );
+        assertEquals( "RequestUri has wrong value", requestUri, attributes.getRequestUri() );
+        assertSame( "RequestOptions are not shared", requestOptions, attributes.getRequestOptions() );
+        assertEquals( "LocalAddress has wrong value", localAddress, attributes.getLocalAddress() );
+
+        assertNull( "RemoteAddress has wrong value", attributes.getRemoteAddress() );
+        assertNull( "LocationUri has wrong value", attributes.getLocationUri() );
+        assertFalse( "Notification has wrong value", attributes.isNotification() );
+        assertNull( "ResponseType has wrong value", attributes.getResponseType() );
+        assertNull( "ResponseCode has wrong value", attributes.getResponseCode() );
+        assertNull( "ResponseOptions has wrong value", attributes.getResponseOptions() );
+        assertNull( "Result has wrong value", attributes.getResult() );
+    }
+
     @Test
     public void requestOptionsToStringTest()
     {
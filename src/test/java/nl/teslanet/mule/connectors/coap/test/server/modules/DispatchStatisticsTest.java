@@ -0,0 +1,88 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.server.modules;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import nl.teslanet.mule.connectors.coap.api.LatencyStats;
+import nl.teslanet.mule.connectors.coap.api.ListenerStats;
+import nl.teslanet.mule.connectors.coap.internal.server.DispatchStatistics;
+
+
+/**
+ * Test the DispatchStatistics class.
+ */
+public class DispatchStatisticsTest
+{
+    @Test
+    public void initialTest()
+    {
+        DispatchStatistics statistics= new DispatchStatistics( "/some/*" );
+
+        assertEquals( "wrong path pattern", "/some/*", statistics.getPathPattern() );
+        assertEquals( "wrong dispatched count", 0L, statistics.getDispatched() );
+        assertEquals( "wrong failed count", 0L, statistics.getFailed() );
+        assertEquals( "wrong latency count", 0L, statistics.getLatency().getCount() );
+        assertEquals( "wrong max latency", 0L, statistics.getLatency().getMax() );
+    }
+
+    @Test
+    public void recordTest()
+    {
+        DispatchStatistics statistics= new DispatchStatistics( "/some/*" );
+        long now= System.nanoTime();
+
+        statistics.record( now - 2000000L, true );
+        statistics.record( now - 4000000L, false );
+        statistics.record( now - 6000000L, true );
+
+        assertEquals( "wrong dispatched count", 3L, statistics.getDispatched() );
+        assertEquals( "wrong failed count", 1L, statistics.getFailed() );
+        LatencyStats latency= statistics.getLatency();
+        assertEquals( "wrong latency count", 3L, latency.getCount() );
+        assertTrue( "wrong mean latency", latency.getMean() >= 4000L );
+        assertTrue( "wrong median latency", latency.getP50() >= 4000L );
+        assertTrue( "wrong max latency", latency.getMax() >= 6000L );
+        assertTrue( "mean exceeds max", latency.getMean() <= latency.getMax() );
+        assertTrue( "percentile exceeds max", latency.getP999() <= latency.getMax() );
+    }
+
+    @Test
+    public void statsTest()
+    {
+        DispatchStatistics statistics= new DispatchStatistics( "/some/resource" );
+        statistics.record( System.nanoTime() - 1000000L, false );
+
+        ListenerStats stats= statistics.getStats();
+
+        assertEquals( "wrong path pattern", "/some/resource", stats.getPathPattern() );
+        assertEquals( "wrong dispatched count", 1L, stats.getDispatched() );
+        assertEquals( "wrong failed count", 1L, stats.getFailed() );
+        assertEquals( "wrong latency count", 1L, stats.getLatency().getCount() );
+        assertTrue( "wrong max latency", stats.getLatency().getMax() >= 1000L );
+    }
+}
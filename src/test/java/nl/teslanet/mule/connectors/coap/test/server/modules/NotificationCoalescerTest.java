@@ -0,0 +1,235 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.server.modules;
+
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.californium.core.CoapResource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import nl.teslanet.mule.connectors.coap.internal.exceptions.InternalInvalidDurationException;
+import nl.teslanet.mule.connectors.coap.internal.server.NotificationCoalescer;
+
+
+/**
+ * Test the NotificationCoalescer class.
+ */
+public class NotificationCoalescerTest
+{
+    /**
+     * The scheduler for trailing rounds.
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * The resource counting notification rounds.
+     */
+    private CountingResource resource;
+
+    @Before
+    public void setUp()
+    {
+        scheduler= Executors.newSingleThreadScheduledExecutor();
+        resource= new CountingResource();
+    }
+
+    @After
+    public void tearDown()
+    {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void notLimitedTest() throws InternalInvalidDurationException
+    {
+        assertNull( "coalescer should be absent", NotificationCoalescer.create( resource, null, null ) );
+        assertNull( "coalescer should be absent", NotificationCoalescer.create( resource, "0ms", 0 ) );
+        assertNotNull( "coalescer should be present", NotificationCoalescer.create( resource, "10ms", null ) );
+        assertNotNull( "coalescer should be present", NotificationCoalescer.create( resource, null, 10 ) );
+    }
+
+    @Test( expected= InternalInvalidDurationException.class )
+    public void invalidIntervalTest() throws InternalInvalidDurationException
+    {
+        NotificationCoalescer.create( resource, "10 parsecs", null );
+    }
+
+    @Test
+    public void coalesceTest() throws InternalInvalidDurationException, InterruptedException
+    {
+        NotificationCoalescer coalescer= resource.limit( "200ms", null );
+
+        coalescer.changed( scheduler );
+        assertEquals( "leading round not started", 1, resource.rounds.get() );
+        for ( int i= 0; i < 10; i++ )
+        {
+            coalescer.changed( scheduler );
+        }
+        assertEquals( "changes not coalesced", 1, resource.rounds.get() );
+        await().atMost( 2, TimeUnit.SECONDS ).until( () -> resource.rounds.get() == 2 );
+        Thread.sleep( 400L );
+        assertEquals( "wrong number of rounds", 2, resource.rounds.get() );
+    }
+
+    @Test
+    public void maxRateTest() throws InternalInvalidDurationException, InterruptedException
+    {
+        NotificationCoalescer coalescer= resource.limit( "1ms", 5 );
+
+        coalescer.changed( scheduler );
+        coalescer.changed( scheduler );
+        assertEquals( "changes not coalesced", 1, resource.rounds.get() );
+        Thread.sleep( 100L );
+        assertEquals( "rate exceeded", 1, resource.rounds.get() );
+        await().atMost( 2, TimeUnit.SECONDS ).until( () -> resource.rounds.get() == 2 );
+    }
+
+    @Test
+    public void inFlightTest() throws InternalInvalidDurationException, InterruptedException
+    {
+        NotificationCoalescer coalescer= resource.limit( "10ms", null );
+
+        coalescer.changed( scheduler );
+        coalescer.notificationStarted();
+        coalescer.notificationStarted();
+        Thread.sleep( 100L );
+        coalescer.changed( scheduler );
+        coalescer.changed( scheduler );
+        assertEquals( "round started while in flight", 1, resource.rounds.get() );
+        coalescer.notificationCompleted();
+        assertEquals( "round started while in flight", 1, resource.rounds.get() );
+        coalescer.notificationCompleted();
+        assertEquals( "coalesced round not started", 2, resource.rounds.get() );
+        coalescer.notificationCompleted();
+        assertEquals( "wrong number of rounds", 2, resource.rounds.get() );
+    }
+
+    @Test
+    public void roundInProgressTest() throws InternalInvalidDurationException, InterruptedException
+    {
+        NotificationCoalescer coalescer= resource.limit( "1ms", null );
+        resource.dispatch= false;
+
+        coalescer.changed( scheduler );
+        Thread.sleep( 50L );
+        coalescer.changed( scheduler );
+        coalescer.changed( scheduler );
+        Thread.sleep( 50L );
+        assertEquals( "round started before previous round dispatched", 1, resource.rounds.get() );
+        resource.dispatch= true;
+        coalescer.roundDispatched();
+        await().atMost( 2, TimeUnit.SECONDS ).until( () -> resource.rounds.get() == 2 );
+        Thread.sleep( 50L );
+        assertEquals( "wrong number of rounds", 2, resource.rounds.get() );
+    }
+
+    @Test
+    public void rejectedTest() throws InternalInvalidDurationException, InterruptedException
+    {
+        NotificationCoalescer coalescer= resource.limit( "10s", null );
+        scheduler.shutdown();
+
+        coalescer.changed( scheduler );
+        coalescer.changed( scheduler );
+        assertEquals( "rejected round not started", 2, resource.rounds.get() );
+        coalescer.changed( scheduler );
+        assertEquals( "rejected round not started", 3, resource.rounds.get() );
+    }
+
+    @Test
+    public void cancelTest() throws InternalInvalidDurationException, InterruptedException
+    {
+        NotificationCoalescer coalescer= resource.limit( "50ms", null );
+
+        coalescer.changed( scheduler );
+        coalescer.changed( scheduler );
+        coalescer.cancel();
+        Thread.sleep( 200L );
+        coalescer.changed( scheduler );
+        assertEquals( "wrong number of rounds", 1, resource.rounds.get() );
+    }
+
+    /**
+     * Resource that counts notification rounds.
+     */
+    private static class CountingResource extends CoapResource
+    {
+        /**
+         * The number of rounds started.
+         */
+        private final AtomicInteger rounds= new AtomicInteger();
+
+        /**
+         * The coalescer limiting the rounds.
+         */
+        private NotificationCoalescer coalescer= null;
+
+        /**
+         * Flag indicating rounds are dispatched immediately.
+         */
+        private volatile boolean dispatch= true;
+
+        /**
+         * Constructor.
+         */
+        private CountingResource()
+        {
+            super( "counting" );
+        }
+
+        /**
+         * Limit the notification rounds of the resource.
+         * @param minInterval The minimum interval between notification rounds.
+         * @param maxRate The maximum number of notification rounds per second.
+         * @return The coalescer.
+         * @throws InternalInvalidDurationException When the minimum interval is invalid.
+         */
+        private NotificationCoalescer limit( String minInterval, Integer maxRate )
+            throws InternalInvalidDurationException
+        {
+            coalescer= NotificationCoalescer.create( this, minInterval, maxRate );
+            return coalescer;
+        }
+
+        @Override
+        public void changed()
+        {
+            rounds.incrementAndGet();
+            if ( dispatch )
+            {
+                coalescer.roundDispatched();
+            }
+        }
+    }
+}
@@ -24,6 +24,7 @@ package nl.teslanet.mule.connectors.coap.test.server.modules;
 
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 
 import java.io.InputStream;
@@ -134,6 +135,15 @@ public class OperationalListenerTest
         assertOperationalListener( listener, uri, flags, callback );
     }
 
+    @Test
+    public void testId() throws InternalResourceUriException
+    {
+        OperationalListener listener1= new OperationalListener( uri, new RequestCodeFlags( flags ), callback );
+        OperationalListener listener2= new OperationalListener( uri, new RequestCodeFlags( flags ), callback );
+        assertNotEquals( "listeners have same id", listener1.getId(), listener2.getId() );
+        assertEquals( "id of listener changed", listener1.getId(), listener1.getId() );
+    }
+
     @Test
     public void testSetUri() throws InternalResourceUriException
     {
@@ -26,11 +26,14 @@ package nl.teslanet.mule.connectors.coap.test.server.modules;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Predicate;
 
 import org.eclipse.californium.core.CoapResource;
 import org.eclipse.californium.core.server.resources.Resource;
@@ -184,6 +187,85 @@ public class ResourceRegistryTest
         assertEquals( "registry does not contain resource4", uri4, registry.getResource( uri4 ).getURI() );
     }
 
+    @Test
+    public void testAddResourceParamsBatch() throws InternalResourceUriException, InternalResourceRegistryException
+    {
+        CoapResource root= new CoapResource( "" );
+        ResourceRegistry registry= new ResourceRegistry( root );
+        ArrayList< ResourceParams > batch= new ArrayList<>();
+        ResourceParams resourceParams;
+        String uri1= "/resource1";
+        String uri2= "/resource1/resource2";
+        String uri3= "/resource1/resource2/resource3";
+        String uri4= "/resource1/resource4";
+        String uri5= "/resource5";
+
+        resourceParams= new ResourceParams();
+        resourceParams.setResourcePath( uri1 );
+        registry.add( resourceParams );
+
+        //children are given before their parent
+        resourceParams= new ResourceParams();
+        resourceParams.setResourcePath( uri3 );
+        batch.add( resourceParams );
+        resourceParams= new ResourceParams();
+        resourceParams.setResourcePath( uri2 );
+        batch.add( resourceParams );
+        resourceParams= new ResourceParams();
+        resourceParams.setResourcePath( uri4 );
+        batch.add( resourceParams );
+        resourceParams= new ResourceParams();
+        resourceParams.setResourcePath( uri5 );
+        batch.add( resourceParams );
+        registry.add( batch );
+
+        assertEquals( "registry does not contain resource1", uri1, registry.getResource( uri1 ).getURI() );
+        assertEquals( "registry does not contain resource2", uri2, registry.getResource( uri2 ).getURI() );
+        assertEquals( "registry does not contain resource3", uri3, registry.getResource( uri3 ).getURI() );
+        assertEquals( "registry does not contain resource4", uri4, registry.getResource( uri4 ).getURI() );
+        assertEquals( "registry does not contain resource5", uri5, registry.getResource( uri5 ).getURI() );
+        assertEquals(
+            "resource2 not published",
+            registry.getResource( uri2 ),
+            root.getChild( "resource1" ).getChild( "resource2" )
+        );
+        assertEquals(
+            "resource3 not published",
+            registry.getResource( uri3 ),
+            root.getChild( "resource1" ).getChild( "resource2" ).getChild( "resource3" )
+        );
+        assertEquals(
+            "resource4 not published",
+            registry.getResource( uri4 ),
+            root.getChild( "resource1" ).getChild( "resource4" )
+        );
+        assertEquals( "resource5 not published", registry.getResource( uri5 ), root.getChild( "resource5" ) );
+    }
+
+    @Test
+    public void testAddResourceParamsBatchWithoutParent() throws InternalResourceUriException,
+        InternalResourceRegistryException
+    {
+        CoapResource root= new CoapResource( "" );
+        ResourceRegistry registry= new ResourceRegistry( root );
+        ArrayList< ResourceParams > batch= new ArrayList<>();
+        ResourceParams resourceParams;
+
+        resourceParams= new ResourceParams();
+        resourceParams.setResourcePath( "/resource1" );
+        batch.add( resourceParams );
+        resourceParams= new ResourceParams();
+        resourceParams.setResourcePath( "/resource2/resource3" );
+        batch.add( resourceParams );
+
+        InternalResourceUriException e= assertThrows( InternalResourceUriException.class, () -> {
+            registry.add( batch );
+        } );
+        assertTrue( "exception has wrong message", e.getMessage().contains( "/resource2" ) );
+        assertEquals( "resource of failed batch published", 0, root.getChildren().size() );
+        assertTrue( "resource of failed batch registered", registry.findResources( "/*" ).isEmpty() );
+    }
+
     @Test
     public void testRemoveResource1() throws InternalResourceUriException, InternalResourceRegistryException
     {
@@ -1491,4 +1573,273 @@ public class ResourceRegistryTest
         }
         return resourceFlags;
     }
+
+    /**
+     * Create the listeners used to test incremental binding. 
+     * The listeners contain exact and wildcard patterns that overlap, also on equal patterns.
+     * @return The listeners in order of adding.
+     * @throws InternalResourceUriException When a listener uri is invalid.
+     */
+    private static List< OperationalListener > createBindingListeners() throws InternalResourceUriException
+    {
+        ArrayList< OperationalListener > listeners= new ArrayList<>();
+        listeners
+            .add(
+                new OperationalListener(
+                    "/a/*",
+                    new RequestCodeFlags( true, true, true, true, true, true, true ),
+                    new TestSourceCallBack()
+                )
+            );
+        listeners
+            .add(
+                new OperationalListener(
+                    "/a/b",
+                    new RequestCodeFlags( true, false, false, false, false, false, false ),
+                    new TestSourceCallBack()
+                )
+            );
+        listeners
+            .add(
+                new OperationalListener(
+                    "/*",
+                    new RequestCodeFlags( true, true, false, false, false, false, false ),
+                    new TestSourceCallBack()
+                )
+            );
+        listeners
+            .add(
+                new OperationalListener(
+                    "/a/b/*",
+                    new RequestCodeFlags( false, false, true, true, false, false, false ),
+                    new TestSourceCallBack()
+                )
+            );
+        listeners
+            .add(
+                new OperationalListener(
+                    "/a/b/c",
+                    new RequestCodeFlags( true, true, true, true, true, true, true ),
+                    new TestSourceCallBack()
+                )
+            );
+        listeners
+            .add(
+                new OperationalListener(
+                    "/a/*",
+                    new RequestCodeFlags( true, false, false, false, false, false, true ),
+                    new TestSourceCallBack()
+                )
+            );
+        listeners
+            .add(
+                new OperationalListener(
+                    "/a*",
+                    new RequestCodeFlags( false, false, false, false, true, false, false ),
+                    new TestSourceCallBack()
+                )
+            );
+        listeners
+            .add(
+                new OperationalListener(
+                    "/a/b",
+                    new RequestCodeFlags( true, true, false, false, false, true, false ),
+                    new TestSourceCallBack()
+                )
+            );
+        listeners
+            .add(
+                new OperationalListener(
+                    "/ab",
+                    new RequestCodeFlags( true, true, true, true, true, true, true ),
+                    new TestSourceCallBack()
+                )
+            );
+        listeners
+            .add(
+                new OperationalListener(
+                    "a/*",
+                    new RequestCodeFlags( true, true, true, true, true, true, true ),
+                    new TestSourceCallBack()
+                )
+            );
+        return listeners;
+    }
+
+    /**
+     * Add a resource to the registry.
+     * @param registry The registry.
+     * @param parentUri The uri of the parent resource, null for the root.
+     * @param name The name of the resource.
+     * @throws InternalResourceUriException When the resource uri is invalid.
+     */
+    private static void addResource( ResourceRegistry registry, String parentUri, String name )
+        throws InternalResourceUriException
+    {
+        ResourceConfig resourceConfig= new ResourceConfig();
+        resourceConfig.setResourceName( name );
+        registry.add( parentUri, resourceConfig );
+    }
+
+    /**
+     * Get the callback a full recomputation over all listeners selects for a resource.
+     * The listener with the highest match level wins, on equal level the first added.
+     * @param listeners The listeners in order of adding.
+     * @param uri The uri of the resource.
+     * @param listensTo Predicate establishing whether the listener listens to the request code.
+     * @return The expected callback.
+     * @throws InternalUriPatternException When a listener pattern is invalid.
+     */
+    private static Object expectedCallback(
+        List< OperationalListener > listeners,
+        String uri,
+        Predicate< RequestCodeFlags > listensTo
+    ) throws InternalUriPatternException
+    {
+        OperationalListener best= null;
+        int maxMatchLevel= 0;
+        for ( OperationalListener listener : listeners )
+        {
+            int matchLevel= ResourceRegistry.matchUri( listener.getUriPattern(), uri );
+            if ( matchLevel > maxMatchLevel && listensTo.test( listener.getRequestCodeFlags() ) )
+            {
+                maxMatchLevel= matchLevel;
+                best= listener;
+            }
+        }
+        return( best == null ? null : best.getCallback() );
+    }
+
+    /**
+     * Assert the resources are bound to the callbacks a full recomputation selects.
+     * @param registry The registry.
+     * @param listeners The listeners in order of adding.
+     * @param uris The uri's of the resources to check.
+     * @throws InternalUriPatternException When a listener pattern is invalid.
+     * @throws InternalResourceUriException When a resource uri is invalid.
+     */
+    private static void assertBindings( ResourceRegistry registry, List< OperationalListener > listeners, List< String > uris )
+        throws InternalUriPatternException,
+        InternalResourceUriException
+    {
+        for ( String uri : uris )
+        {
+            ServedResource resource= registry.getResource( uri );
+            assertSame(
+                uri + " has wrong get callback",
+                expectedCallback( listeners, uri, RequestCodeFlags::isGet ),
+                resource.getGetCallback()
+            );
+            assertSame(
+                uri + " has wrong post callback",
+                expectedCallback( listeners, uri, RequestCodeFlags::isPost ),
+                resource.getPostCallback()
+            );
+            assertSame(
+                uri + " has wrong put callback",
+                expectedCallback( listeners, uri, RequestCodeFlags::isPut ),
+                resource.getPutCallback()
+            );
+            assertSame(
+                uri + " has wrong delete callback",
+                expectedCallback( listeners, uri, RequestCodeFlags::isDelete ),
+                resource.getDeleteCallback()
+            );
+            assertSame(
+                uri + " has wrong fetch callback",
+                expectedCallback( listeners, uri, RequestCodeFlags::isFetch ),
+                resource.getFetchCallback()
+            );
+            assertSame(
+                uri + " has wrong patch callback",
+                expectedCallback( listeners, uri, RequestCodeFlags::isPatch ),
+                resource.getPatchCallback()
+            );
+            assertSame(
+                uri + " has wrong ipatch callback",
+                expectedCallback( listeners, uri, RequestCodeFlags::isIpatch ),
+                resource.getIpatchCallback()
+            );
+        }
+    }
+
+    @Test
+    public void testIncrementalBindingAddRemoveListeners() throws InternalResourceUriException,
+        InternalResourceRegistryException,
+        InternalUriPatternException
+    {
+        CoapResource root= new CoapResource( "" );
+        ResourceRegistry registry= new ResourceRegistry( root );
+        List< String > uris= Arrays.asList( "/a", "/a/b", "/a/b/c", "/a/b/c/d", "/a/e", "/ab", "/f" );
+        addResource( registry, null, "a" );
+        addResource( registry, "/a", "b" );
+        addResource( registry, "/a/b", "c" );
+        addResource( registry, "/a/b/c", "d" );
+        addResource( registry, "/a", "e" );
+        addResource( registry, null, "ab" );
+        addResource( registry, null, "f" );
+
+        List< OperationalListener > all= createBindingListeners();
+        ArrayList< OperationalListener > added= new ArrayList<>();
+        assertBindings( registry, added, uris );
+        for ( OperationalListener listener : all )
+        {
+            registry.add( listener );
+            added.add( listener );
+            assertBindings( registry, added, uris );
+        }
+        for ( int index : new int []{ 0, 4, 2, 7, 1, 9, 5, 3, 8, 6 } )
+        {
+            OperationalListener listener= all.get( index );
+            registry.remove( listener );
+            added.remove( listener );
+            assertBindings( registry, added, uris );
+        }
+        for ( int index : new int []{ 5, 1, 0, 7 } )
+        {
+            OperationalListener listener= all.get( index );
+            registry.add( listener );
+            added.add( listener );
+            assertBindings( registry, added, uris );
+        }
+    }
+
+    @Test
+    public void testIncrementalBindingAddResources() throws InternalResourceUriException,
+        InternalResourceRegistryException,
+        InternalUriPatternException
+    {
+        CoapResource root= new CoapResource( "" );
+        ResourceRegistry registry= new ResourceRegistry( root );
+        List< OperationalListener > listeners= createBindingListeners();
+        for ( OperationalListener listener : listeners )
+        {
+            registry.add( listener );
+        }
+        ArrayList< String > uris= new ArrayList<>();
+        String[][] resources= {
+            { null, "a" },
+            { "/a", "b" },
+            { "/a/b", "c" },
+            { "/a/b/c", "d" },
+            { "/a", "e" },
+            { "/a/e", "g" },
+            { null, "ab" },
+            { null, "f" },
+            { "/f", "a" } };
+        for ( String[] resource : resources )
+        {
+            addResource( registry, resource[0], resource[1] );
+            uris.add( ( resource[0] == null ? "" : resource[0] ) + "/" + resource[1] );
+            assertBindings( registry, listeners, uris );
+        }
+        registry.remove( "/a/b" );
+        uris.remove( "/a/b/c/d" );
+        uris.remove( "/a/b/c" );
+        uris.remove( "/a/b" );
+        assertBindings( registry, listeners, uris );
+        addResource( registry, "/a", "b" );
+        uris.add( "/a/b" );
+        assertBindings( registry, listeners, uris );
+    }
 }
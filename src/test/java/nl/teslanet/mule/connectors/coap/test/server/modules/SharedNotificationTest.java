@@ -0,0 +1,144 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.server.modules;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.californium.core.coap.CoAP.Code;
+import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.Request;
+import org.eclipse.californium.core.coap.Response;
+import org.eclipse.californium.core.network.Exchange;
+import org.eclipse.californium.core.network.Exchange.Origin;
+import org.eclipse.californium.core.server.resources.CoapExchange;
+import org.junit.Test;
+
+import nl.teslanet.mule.connectors.coap.internal.server.SharedNotification;
+
+
+/**
+ * Test the SharedNotification class.
+ */
+public class SharedNotificationTest
+{
+    @Test
+    public void firstJoinRendersTest()
+    {
+        SharedNotification shared= new SharedNotification();
+
+        assertFalse( "first exchange should render", shared.join( new TestExchange() ) );
+        assertTrue( "second exchange should wait", shared.join( new TestExchange() ) );
+    }
+
+    @Test
+    public void waitingExchangesTest()
+    {
+        SharedNotification shared= new SharedNotification();
+        TestExchange renderer= new TestExchange();
+        TestExchange waiting1= new TestExchange();
+        TestExchange waiting2= new TestExchange();
+        shared.join( renderer );
+        shared.join( waiting1 );
+        shared.join( waiting2 );
+        assertNull( "responded too early", waiting1.response );
+
+        Response response= new Response( ResponseCode.CONTENT );
+        response.getOptions().setContentFormat( 50 );
+        response.getOptions().addETag( new byte [] { 1, 2 } );
+        response.setPayload( "shared content" );
+        shared.complete( response );
+
+        for ( TestExchange exchange : new TestExchange [] { waiting1, waiting2 } )
+        {
+            assertNotSame( "response not copied", response, exchange.response );
+            assertEquals( "wrong code", ResponseCode.CONTENT, exchange.response.getCode() );
+            assertEquals( "wrong content format", 50, exchange.response.getOptions().getContentFormat() );
+            assertArrayEquals( "wrong etag", new byte [] { 1, 2 }, exchange.response.getOptions().getETags().get( 0 ) );
+            assertEquals( "wrong payload", "shared content", exchange.response.getPayloadString() );
+        }
+        assertNotSame( "response not copied per exchange", waiting1.response, waiting2.response );
+        assertNull( "renderer must respond itself", renderer.response );
+    }
+
+    @Test
+    public void lateJoinTest()
+    {
+        SharedNotification shared= new SharedNotification();
+        shared.join( new TestExchange() );
+        Response response= new Response( ResponseCode.CONTENT );
+        response.setPayload( "shared content" );
+        shared.complete( response );
+        response.getOptions().setObserve( 12 );
+
+        TestExchange late= new TestExchange();
+        assertTrue( "late exchange should not render", shared.join( late ) );
+        assertEquals( "wrong payload", "shared content", late.response.getPayloadString() );
+        assertFalse( "copied after modification", late.response.getOptions().hasObserve() );
+    }
+
+    @Test
+    public void failTest()
+    {
+        SharedNotification shared= new SharedNotification();
+        shared.join( new TestExchange() );
+        TestExchange waiting= new TestExchange();
+        shared.join( waiting );
+
+        shared.fail( ResponseCode.INTERNAL_SERVER_ERROR, "failed" );
+        shared.fail( ResponseCode.BAD_GATEWAY, "failed again" );
+
+        assertEquals( "wrong code", ResponseCode.INTERNAL_SERVER_ERROR, waiting.response.getCode() );
+        assertEquals( "wrong payload", "failed", waiting.response.getPayloadString() );
+    }
+
+    /**
+     * Exchange that captures the response.
+     */
+    private static class TestExchange extends CoapExchange
+    {
+        /**
+         * The response issued.
+         */
+        private Response response= null;
+
+        /**
+         * Constructor.
+         */
+        private TestExchange()
+        {
+            super( new Exchange( new Request( Code.GET ), null, Origin.REMOTE, null ) );
+        }
+
+        @Override
+        public void respond( Response response )
+        {
+            this.response= response;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.server.observe;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.californium.core.CoapHandler;
+import org.eclipse.californium.core.CoapObserveRelation;
+import org.eclipse.californium.core.CoapResponse;
+import org.junit.Test;
+
+import nl.teslanet.mule.connectors.coap.test.utils.AbstractServerTestCase;
+import nl.teslanet.mule.connectors.coap.test.utils.Timing;
+
+
+/**
+ * Test coalescing of notifications of a resource with a minimum notification interval.
+ */
+public class ObserveCoalescedTest extends AbstractServerTestCase
+{
+    private AtomicInteger handlerErrors= new AtomicInteger();
+
+    private CopyOnWriteArrayList< CoapResponse > observations= new CopyOnWriteArrayList< CoapResponse >();
+
+    @Override
+    protected String getConfigResources()
+    {
+        return "mule-server-config/observe/testserver2.xml";
+    };
+
+    private CoapHandler getHandler()
+    {
+        return new CoapHandler()
+            {
+                @Override
+                public void onError()
+                {
+                    handlerErrors.incrementAndGet();
+                }
+
+                @Override
+                public void onLoad( CoapResponse response )
+                {
+                    observations.add( response );
+                }
+            };
+    }
+
+    @Test( timeout= 10000L )
+    public void testCoalescedNotifications() throws Exception
+    {
+        setClientUri( "/service/observe_me" );
+        CoapResponse response= client.put( "initial", 0 );
+        assertNotNull( "put gave no response", response );
+        assertTrue( "put response indicates failure", response.isSuccess() );
+
+        CoapObserveRelation relation= client.observe( getHandler() );
+        Timing.pauze( 600 );
+
+        for ( int i= 1; i <= 5; i++ )
+        {
+            response= client.put( "burst-" + i, 0 );
+            assertNotNull( "put nr: " + i + " gave no response", response );
+            assertTrue( "response nr: " + i + " indicates failure", response.isSuccess() );
+        }
+        Timing.pauze( 1000 );
+
+        assertEquals( "handler errors count ", 0, handlerErrors.get() );
+        assertEquals( "wrong count of observations", 3, observations.size() );
+        assertEquals( "wrong initial observation", "initial", observations.get( 0 ).getResponseText() );
+        assertTrue( "wrong leading notification", observations.get( 1 ).getResponseText().startsWith( "burst-" ) );
+        assertEquals( "wrong trailing notification", "burst-5", observations.get( 2 ).getResponseText() );
+
+        relation.reactiveCancel();
+    }
+}
@@ -0,0 +1,123 @@
+/*-
+ * #%L
+ * Mule CoAP Connector
+ * %%
+ * Copyright (C) 2019 - 2025 (teslanet.nl) Rogier Cobben
+ * 
+ * Contributors:
+ *     (teslanet.nl) Rogier Cobben - initial creation
+ * %%
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ * 
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ * 
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ * #L%
+ */
+package nl.teslanet.mule.connectors.coap.test.server.observe;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.californium.core.CoapClient;
+import org.eclipse.californium.core.CoapHandler;
+import org.eclipse.californium.core.CoapObserveRelation;
+import org.eclipse.californium.core.CoapResponse;
+import org.junit.Test;
+
+import nl.teslanet.mule.connectors.coap.test.utils.AbstractServerTestCase;
+import nl.teslanet.mule.connectors.coap.test.utils.Timing;
+
+
+/**
+ * Test notifications of a resource that shares the representation among its observers.
+ */
+public class ObserveSharedTest extends AbstractServerTestCase
+{
+    private static final int OBSERVERS= 3;
+
+    private AtomicInteger handlerErrors= new AtomicInteger();
+
+    @Override
+    protected String getConfigResources()
+    {
+        return "mule-server-config/observe/testserver3.xml";
+    };
+
+    private CoapHandler getHandler( CopyOnWriteArrayList< CoapResponse > observations )
+    {
+        return new CoapHandler()
+            {
+                @Override
+                public void onError()
+                {
+                    handlerErrors.incrementAndGet();
+                }
+
+                @Override
+                public void onLoad( CoapResponse response )
+                {
+                    observations.add( response );
+                }
+            };
+    }
+
+    @Test( timeout= 10000L )
+    public void testSharedNotifications() throws Exception
+    {
+        setClientUri( "/service/observe_me" );
+        CoapResponse response= client.put( "initial", 0 );
+        assertNotNull( "put gave no response", response );
+        assertTrue( "put response indicates failure", response.isSuccess() );
+
+        ArrayList< CoapClient > observers= new ArrayList<>();
+        ArrayList< CoapObserveRelation > relations= new ArrayList<>();
+        ArrayList< CopyOnWriteArrayList< CoapResponse > > observations= new ArrayList<>();
+        for ( int i= 0; i < OBSERVERS; i++ )
+        {
+            CoapClient observer= new CoapClient( client.getURI() );
+            CopyOnWriteArrayList< CoapResponse > received= new CopyOnWriteArrayList<>();
+            observers.add( observer );
+            observations.add( received );
+            relations.add( observer.observe( getHandler( received ) ) );
+        }
+        Timing.pauze( 200 );
+
+        response= client.put( "changed", 0 );
+        assertNotNull( "put gave no response", response );
+        assertTrue( "put response indicates failure", response.isSuccess() );
+        Timing.pauze( 500 );
+
+        assertEquals( "handler errors count ", 0, handlerErrors.get() );
+        for ( int i= 0; i < OBSERVERS; i++ )
+        {
+            CopyOnWriteArrayList< CoapResponse > received= observations.get( i );
+            assertEquals( "wrong count of observations of observer " + i, 2, received.size() );
+            assertEquals( "wrong initial observation of observer " + i, "initial", received.get( 0 ).getResponseText() );
+            assertEquals( "wrong notification of observer " + i, "changed", received.get( 1 ).getResponseText() );
+        }
+        //once per observe request and once for the notification round
+        setClientUri( "/service/renders" );
+        response= client.get();
+        assertNotNull( "get gave no response", response );
+        assertEquals( "wrong number of flow runs", String.valueOf( OBSERVERS + 1 ), response.getResponseText() );
+
+        for ( int i= 0; i < OBSERVERS; i++ )
+        {
+            relations.get( i ).reactiveCancel();
+            observers.get( i ).shutdown();
+        }
+    }
+}